@@ -0,0 +1,48 @@
+package com.flightman.flightmanapi;
+
+import java.net.URI;
+import java.util.OptionalLong;
+import java.util.UUID;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+
+/*
+ * Gives Hibernate an in-process JCache cache manager for the second-level and
+ * query caches of the reference data. Each application context gets its own
+ * cache manager, so two contexts in one JVM never share cached rows, and the
+ * regions are bounded.
+ */
+@Configuration
+public class ReferenceCacheConfig {
+
+    public static final String AIRPORT_REGION = "airport";
+
+    public static final String FLIGHT_MODEL_REGION = "flightModel";
+
+    public static final String QUERY_REGION = "reference";
+
+    @Value("${flightman.reference-cache.maximum-size:10000}")
+    private long maximumSize;
+
+    @Bean
+    public HibernatePropertiesCustomizer referenceCacheCustomizer() {
+        CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+                .getCacheManager(URI.create("flightman:" + UUID.randomUUID()), getClass().getClassLoader());
+        for (String region : new String[] { AIRPORT_REGION, FLIGHT_MODEL_REGION, QUERY_REGION }) {
+            CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+            configuration.setMaximumSize(OptionalLong.of(this.maximumSize));
+            cacheManager.createCache(region, configuration);
+        }
+        // Hibernate closes the cache manager when the session factory is closed
+        return properties -> properties.put("hibernate.javax.cache.cache_manager", cacheManager);
+    }
+}
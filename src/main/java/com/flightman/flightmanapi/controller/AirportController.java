@@ -18,6 +18,7 @@ import org.springframework.web.bind.annotation.RestController;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.flightman.flightmanapi.model.Airport;
+import com.flightman.flightmanapi.model.NearbyAirport;
 import com.flightman.flightmanapi.services.AirportService;
 import com.flightman.flightmanapi.utils.ClassToJsonString;
 
@@ -34,6 +35,18 @@ public class AirportController {
 
         private static final Logger logger = LogManager.getLogger(AirportController.class);
 
+        private static final int DEFAULT_SEARCH_LIMIT = 10;
+
+        private static final int MAX_SEARCH_LIMIT = 50;
+
+        private static final int DEFAULT_RADIUS_KM = 200;
+
+        private static final int DEFAULT_NEARBY_LIMIT = 10;
+
+        private static final int MAX_NEARBY_LIMIT = 100;
+
+        private static final int MAX_BULK_AIRPORTS = 10_000;
+
         /*
          * Method that returns a list of all airports in the database if any are
          * available, else returns HTTP NO_CONTENT
@@ -58,6 +71,50 @@ public class AirportController {
                 return new ResponseEntity<>("Airport does not exist.", HttpStatus.OK);
         }
 
+        /*
+         * Method that returns the airports matching a typeahead query, best match
+         * first. Returns HTTP BAD_REQUEST if the query is blank or the limit is
+         * invalid.
+         */
+        @ApiOperation(value = "Search Airports", notes = "Returns the airports whose abbreviation or name contains the query: exact abbreviation matches first, then prefix matches, then substring matches")
+        @ApiResponses({ @ApiResponse(code = 200, message = "Matching airports are successfully retrieved"),
+                        @ApiResponse(code = 400, message = "The supplied query or limit is invalid"),
+                        @ApiResponse(code = 500, message = "There was an unexpected problem during airport retrieval") })
+        @GetMapping("/airports/search")
+        public ResponseEntity<?> searchAirports(@RequestParam final String q,
+                        @RequestParam(defaultValue = "" + DEFAULT_SEARCH_LIMIT) final int limit) {
+                if (q.isBlank()) {
+                        return new ResponseEntity<>("Query must not be blank", HttpStatus.BAD_REQUEST);
+                }
+                if (limit < 1 || limit > MAX_SEARCH_LIMIT) {
+                        return new ResponseEntity<>("Invalid limit", HttpStatus.BAD_REQUEST);
+                }
+                List<Airport> airports = airportService.search(q, limit);
+                return new ResponseEntity<>(airports, HttpStatus.OK);
+        }
+
+        /*
+         * Method that returns the airports nearest to a location, at most radiusKm
+         * away. Returns HTTP BAD_REQUEST if the location or limits are invalid.
+         */
+        @ApiOperation(value = "Get Nearby Airports", notes = "Returns the airports nearest to the supplied latitude and longitude by great-circle distance, nearest first")
+        @ApiResponses({ @ApiResponse(code = 200, message = "Nearby airports are successfully retrieved"),
+                        @ApiResponse(code = 400, message = "The supplied location, radius or limit is invalid"),
+                        @ApiResponse(code = 500, message = "There was an unexpected problem during airport retrieval") })
+        @GetMapping("/airports/nearby")
+        public ResponseEntity<?> getNearbyAirports(@RequestParam final double lat, @RequestParam final double lon,
+                        @RequestParam(defaultValue = "" + DEFAULT_RADIUS_KM) final double radiusKm,
+                        @RequestParam(defaultValue = "" + DEFAULT_NEARBY_LIMIT) final int limit) {
+                if (Math.abs(lat) > 90 || Math.abs(lon) > 180) {
+                        return new ResponseEntity<>("Invalid latitude/longitude", HttpStatus.BAD_REQUEST);
+                }
+                if (!(radiusKm > 0) || limit < 1 || limit > MAX_NEARBY_LIMIT) {
+                        return new ResponseEntity<>("Invalid radius/limit", HttpStatus.BAD_REQUEST);
+                }
+                List<NearbyAirport> airports = airportService.findNearby(lat, lon, radiusKm, limit);
+                return new ResponseEntity<>(airports, HttpStatus.OK);
+        }
+
         /*
          * Method that creates a new record in the database from the supplied Airport
          * object.
@@ -69,14 +126,9 @@ public class AirportController {
                         @ApiResponse(code = 500, message = "There was an unexpected problem during the creation of airport") })
         @PostMapping("/airports")
         public ResponseEntity<String> createAirport(@RequestBody final Airport airport) {
-                if (Float.valueOf(airport.getLatitude()) < -90 || Float.valueOf(airport.getLatitude()) > 90
-                                || Float.valueOf(airport.getLongitude()) < -180
-                                || Float.valueOf(airport.getLongitude()) > 180) {
-                        return new ResponseEntity<>("Invalid latitude/longitude", HttpStatus.BAD_REQUEST);
-                }
-                if (airport.getAirportAbvName().length() != 3) {
-                        return new ResponseEntity<>("Airport ABV Name must be exactly 3 characters",
-                                        HttpStatus.BAD_REQUEST);
+                String invalid = validate(airport);
+                if (invalid != null) {
+                        return new ResponseEntity<>(invalid, HttpStatus.BAD_REQUEST);
                 }
                 Boolean isAirportReturned = this.airportService.saveAirport(airport);
                 if (Boolean.FALSE.equals(isAirportReturned)) {
@@ -86,4 +138,49 @@ public class AirportController {
                 }
                 return new ResponseEntity<>("Airport successfully created", HttpStatus.CREATED);
         }
+
+        /*
+         * Method that creates many airports in one transaction, so that they are
+         * inserted in JDBC batches. Either all airports are created or none.
+         */
+        @ApiOperation(value = "Create Airports", notes = "Takes in the details of up to 10000 airports and creates all of them in the database, or none if any is invalid")
+        @ApiResponses({ @ApiResponse(code = 201, message = "Airports are successfully created"),
+                        @ApiResponse(code = 400, message = "An airport is invalid or too many airports were supplied"),
+                        @ApiResponse(code = 500, message = "There was an unexpected problem during the creation of airports") })
+        @PostMapping("/airports/bulk")
+        public ResponseEntity<String> createAirports(@RequestBody final List<Airport> airports) {
+                if (airports == null || airports.isEmpty() || airports.size() > MAX_BULK_AIRPORTS) {
+                        return new ResponseEntity<>("Between 1 and " + MAX_BULK_AIRPORTS + " airports must be supplied",
+                                        HttpStatus.BAD_REQUEST);
+                }
+                for (int i = 0; i < airports.size(); i++) {
+                        String invalid = validate(airports.get(i));
+                        if (invalid != null) {
+                                return new ResponseEntity<>("Airport " + i + ": " + invalid, HttpStatus.BAD_REQUEST);
+                        }
+                }
+                try {
+                        List<Airport> created = this.airportService.saveAirports(airports);
+                        return new ResponseEntity<>(created.size() + " airports successfully created", HttpStatus.CREATED);
+                } catch (RuntimeException e) {
+                        logger.error("Could not create airports!");
+                        logger.error(e);
+                        return new ResponseEntity<>("Could not create airports", HttpStatus.INTERNAL_SERVER_ERROR);
+                }
+        }
+
+        /*
+         * Returns why an airport cannot be saved, or null if it is valid.
+         */
+        private static String validate(final Airport airport) {
+                if (Float.valueOf(airport.getLatitude()) < -90 || Float.valueOf(airport.getLatitude()) > 90
+                                || Float.valueOf(airport.getLongitude()) < -180
+                                || Float.valueOf(airport.getLongitude()) > 180) {
+                        return "Invalid latitude/longitude";
+                }
+                if (airport.getAirportAbvName().length() != 3) {
+                        return "Airport ABV Name must be exactly 3 characters";
+                }
+                return null;
+        }
 }
@@ -14,6 +14,7 @@ import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -22,6 +23,11 @@ import org.springframework.web.bind.annotation.RestController;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.flightman.flightmanapi.model.Booking;
+import com.flightman.flightmanapi.model.BulkCheckInRequest;
+import com.flightman.flightmanapi.model.BulkCheckInResult;
+import com.flightman.flightmanapi.model.GroupBookingRequest;
+import com.flightman.flightmanapi.model.SeatHold;
+import com.flightman.flightmanapi.services.BookingContext;
 import com.flightman.flightmanapi.services.BookingService;
 import com.flightman.flightmanapi.utils.ClassToJsonString;
 
@@ -94,12 +100,143 @@ public class BookingController {
                                 booking != null ? HttpStatus.CREATED : HttpStatus.BAD_REQUEST);
         }
 
+        /*
+         * Method that books seats next to each other for a group of passengers on
+         * one flight. Either all passengers are booked or none of them.
+         */
+        @ApiOperation(value = "Create Group Bookings", notes = "Takes in the flight ID, the date of the flight and the user IDs of the passengers. It books adjacent seats for the whole group and returns the booking details.")
+        @ApiResponses({ @ApiResponse(code = 201, message = "The created bookings are successfully returned"),
+                        @ApiResponse(code = 400, message = "The supplied parameters were invalid or there are not enough seats for the group") })
+        @PostMapping("/bookings/group")
+        public ResponseEntity<String> createGroupBooking(@RequestBody final GroupBookingRequest request)
+                        throws JsonProcessingException {
+                if (request.getUserIds() == null
+                                || Boolean.FALSE.equals(this.bookingService.validateUsers(request.getUserIds()))) {
+                        return new ResponseEntity<>("Invalid User ID", HttpStatus.BAD_REQUEST);
+                }
+                if (Boolean.FALSE.equals(this.bookingService.validateFlight(request.getFlightId()))) {
+                        return new ResponseEntity<>("Invalid Flight ID", HttpStatus.BAD_REQUEST);
+                }
+                if (request.getUseRewardPoints() == null) {
+                        return new ResponseEntity<>("Invalid Reward Point Flag", HttpStatus.BAD_REQUEST);
+                }
+                try {
+                        Date d = new SimpleDateFormat("MM-dd-yyyy").parse(request.getDate());
+                        if (d.before(new Date(new Date().getTime() - (1000 * 60 * 60 * 24)))) {
+                                return new ResponseEntity<>(
+                                                "The date of booking is in the past! Please supply a valid date.",
+                                                HttpStatus.BAD_REQUEST);
+                        }
+                } catch (Exception e) {
+                        return new ResponseEntity<>("Invalid date supplied", HttpStatus.BAD_REQUEST);
+                }
+                List<Booking> bookings = this.bookingService.bookGroup(request.getUserIds(), request.getFlightId(),
+                                request.getDate(), request.getUseRewardPoints());
+                if (bookings == null) {
+                        return new ResponseEntity<>("Not enough seats or reward points for the group!",
+                                        HttpStatus.BAD_REQUEST);
+                }
+                final HttpHeaders httpHeaders = new HttpHeaders();
+                httpHeaders.setContentType(MediaType.APPLICATION_JSON);
+                return new ResponseEntity<>(new ClassToJsonString(bookings).getJsonString(), httpHeaders,
+                                HttpStatus.CREATED);
+        }
+
+        /*
+         * Method that holds a seat for the supplied user and flight until the hold
+         * expires, so that the payment can be completed before the booking is
+         * confirmed.
+         */
+        @ApiOperation(value = "Hold a seat", notes = "Takes in the user ID, flight ID, seat number, and the date of the flight. It holds the seat for a limited time and returns the hold details.")
+        @ApiResponses({ @ApiResponse(code = 201, message = "The seat was successfully held"),
+                        @ApiResponse(code = 400, message = "The supplied parameters were invalid or the seat is not available") })
+        @PostMapping("/bookings/hold")
+        public ResponseEntity<String> holdSeat(final String userId, final String flightId,
+                        @RequestParam(required = false) final String seatNumber, final String date,
+                        final Boolean useRewardPoints)
+                        throws JsonProcessingException {
+                if (Boolean.FALSE.equals(this.bookingService.validateUser(userId))) {
+                        return new ResponseEntity<>("Invalid User ID", HttpStatus.BAD_REQUEST);
+                }
+                if (Boolean.FALSE.equals(this.bookingService.validateFlight(flightId))) {
+                        return new ResponseEntity<>("Invalid Flight ID", HttpStatus.BAD_REQUEST);
+                }
+                if (useRewardPoints == null) {
+                        return new ResponseEntity<>("Invalid Reward Point Flag", HttpStatus.BAD_REQUEST);
+                }
+                try {
+                        Date d = new SimpleDateFormat("MM-dd-yyyy").parse(date);
+                        if (d.before(new Date(new Date().getTime() - (1000 * 60 * 60 * 24)))) {
+                                return new ResponseEntity<>(
+                                                "The date of booking is in the past! Please supply a valid date.",
+                                                HttpStatus.BAD_REQUEST);
+                        }
+                } catch (Exception e) {
+                        return new ResponseEntity<>("Invalid date supplied", HttpStatus.BAD_REQUEST);
+                }
+                SeatHold hold = this.bookingService.holdSeat(userId, flightId, seatNumber, date, useRewardPoints);
+                if (hold == null) {
+                        return new ResponseEntity<>("Seat is not available!", HttpStatus.BAD_REQUEST);
+                }
+                final HttpHeaders httpHeaders = new HttpHeaders();
+                httpHeaders.setContentType(MediaType.APPLICATION_JSON);
+                return new ResponseEntity<>(new ClassToJsonString(hold).getJsonString(), httpHeaders,
+                                HttpStatus.CREATED);
+        }
+
+        /*
+         * Method that turns a seat hold into a booking.
+         */
+        @ApiOperation(value = "Confirm a seat hold", notes = "Books the held seat if the hold has not expired yet and returns the booking details.")
+        @ApiResponses({ @ApiResponse(code = 201, message = "The booking was successfully created"),
+                        @ApiResponse(code = 400, message = "The hold expired or does not exist") })
+        @PostMapping("/bookings/hold/{holdId}/confirm")
+        public ResponseEntity<String> confirmHold(@PathVariable("holdId") final UUID holdId)
+                        throws JsonProcessingException {
+                Booking booking = this.bookingService.confirmHold(holdId);
+                if (booking == null) {
+                        return new ResponseEntity<>("Hold expired or does not exist!", HttpStatus.BAD_REQUEST);
+                }
+                final HttpHeaders httpHeaders = new HttpHeaders();
+                httpHeaders.setContentType(MediaType.APPLICATION_JSON);
+                return new ResponseEntity<>(new ClassToJsonString(booking).getJsonString(), httpHeaders,
+                                HttpStatus.CREATED);
+        }
+
+        @ApiOperation(value = "Release a seat hold", notes = "Releases a held seat before the hold expires")
+        @ApiResponses({ @ApiResponse(code = 200, message = "The hold was successfully released"),
+                        @ApiResponse(code = 400, message = "The hold expired or does not exist") })
+        @DeleteMapping("/bookings/hold/{holdId}")
+        public ResponseEntity<String> releaseHold(@PathVariable("holdId") final UUID holdId) {
+                if (Boolean.TRUE.equals(this.bookingService.releaseHold(holdId))) {
+                        return new ResponseEntity<>("Successfully released hold", HttpStatus.OK);
+                }
+                return new ResponseEntity<>("Hold expired or does not exist!", HttpStatus.BAD_REQUEST);
+        }
+
         @PostMapping("/bookings/id/{id}/usercheckin")
         public ResponseEntity<String> userCheckIn(@PathVariable("id") final UUID bookingId) {
                 String checkedIn = this.bookingService.checkInUser(bookingId);
                 return new ResponseEntity<>(checkedIn, HttpStatus.OK);
         }
 
+        /*
+         * Method that checks in many bookings of one departure at once and returns
+         * the outcome for every booking.
+         */
+        @ApiOperation(value = "Bulk User Check-In", notes = "Takes in the flight ID, the date of the flight and optionally a list of booking IDs. It checks in all listed bookings, or every booking of the departure if no IDs are supplied.")
+        @ApiResponses({ @ApiResponse(code = 200, message = "The outcome for every booking is returned"),
+                        @ApiResponse(code = 400, message = "The flight ID or the date is invalid") })
+        @PostMapping("/bookings/usercheckin")
+        public ResponseEntity<?> bulkUserCheckIn(@RequestBody final BulkCheckInRequest request) {
+                BulkCheckInResult result = this.bookingService.bulkCheckIn(request.getFlightId(), request.getDate(),
+                                request.getBookingIds());
+                if (result == null) {
+                        return new ResponseEntity<>("Invalid Flight ID or date", HttpStatus.BAD_REQUEST);
+                }
+                return new ResponseEntity<>(result, HttpStatus.OK);
+        }
+
         /*
          * Method that checks-in a user's luggage for a specific flight booking.
          * Returns 400 if input params are invalid.
@@ -114,15 +251,16 @@ public class BookingController {
         public ResponseEntity<String> luggageCheckIn(@PathVariable("id") final String bookingId,
                         @RequestParam(required = true) final Integer count,
                         @RequestParam(required = true) final float totalWeight) {
-                if (bookingId == null || bookingId.equals("")
-                                || Boolean.TRUE.equals(!this.bookingService.validateBooking(bookingId))) {
+                BookingContext context = bookingId == null || bookingId.equals("") ? null
+                                : this.bookingService.loadBookingContext(bookingId);
+                if (context == null) {
                         return new ResponseEntity<>("Invalid Booking ID", HttpStatus.BAD_REQUEST);
                 }
-                if (Boolean.FALSE.equals(this.bookingService.validateCheckInTime(bookingId))) {
+                if (Boolean.FALSE.equals(this.bookingService.validateCheckInTime(context))) {
                         return new ResponseEntity<>("Check in is only allowed two hours before flight departure",
                                         HttpStatus.BAD_REQUEST);
                 }
-                if (Boolean.TRUE.equals(this.bookingService.getLuggageCheckInStatus(bookingId))) {
+                if (Boolean.TRUE.equals(this.bookingService.getLuggageCheckInStatus(context))) {
                         return new ResponseEntity<>("Luggage has been already checked in!",
                                         HttpStatus.BAD_REQUEST);
                 }
@@ -134,7 +272,7 @@ public class BookingController {
                         return new ResponseEntity<>("Both luggages can weigh only upto 46 kgs",
                                         HttpStatus.BAD_REQUEST);
                 }
-                if (Boolean.TRUE.equals(this.bookingService.checkInLuggage(bookingId, count, totalWeight))) {
+                if (Boolean.TRUE.equals(this.bookingService.checkInLuggage(context, count, totalWeight))) {
                         return new ResponseEntity<>("Luggage checked In Successfully!", HttpStatus.OK);
                 }
                 return new ResponseEntity<>("Unable to check in luggage!", HttpStatus.SERVICE_UNAVAILABLE);
@@ -1,6 +1,14 @@
 package com.flightman.flightmanapi.controller;
 
+import java.nio.charset.StandardCharsets;
+import java.text.ParseException;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 
 import javax.transaction.Transactional;
@@ -19,11 +27,21 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 
+import com.flightman.flightmanapi.model.FlexibleDateFlight;
 import com.flightman.flightmanapi.model.Flight;
+import com.flightman.flightmanapi.model.Itinerary;
+import com.flightman.flightmanapi.model.FlightAvailability;
+import com.flightman.flightmanapi.model.FlightPage;
+import com.flightman.flightmanapi.model.SeatMap;
+import com.flightman.flightmanapi.repositories.FlightSearchRepository;
 import com.flightman.flightmanapi.services.FlightService;
+import com.flightman.flightmanapi.services.ManifestService;
+import com.flightman.flightmanapi.services.RouteGraphService;
 
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
@@ -39,8 +57,21 @@ public class FlightController {
     @Autowired
     private FlightService flightService;
 
+    @Autowired
+    private ManifestService manifestService;
+
     private static final Logger logger = LogManager.getLogger(FlightController.class);
 
+    private static final int MAX_AVAILABILITY_DAYS = 366;
+
+    private static final int MAX_PAGE_SIZE = 200;
+
+    private static final int MAX_FLEXIBLE_WINDOW_DAYS = 14;
+
+    private static final int MAX_BULK_FLIGHTS = 10_000;
+
+    private static final int MINUTES_PER_DAY = 24 * 60;
+
     @ApiOperation(value = "Get flight by Source or/and Destination", notes = "Finds the flights connecting a source and destination airport")
     @ApiResponses({@ApiResponse(code = 200, message = "Successfully found the flights"), 
                    @ApiResponse(code = 204, message = "If source or destination airport is not in database"), 
@@ -56,6 +87,172 @@ public class FlightController {
         return new ResponseEntity<>(HttpStatus.NO_CONTENT);
     }
 
+    @ApiOperation(value = "Search flights", notes = "Returns one page of the flights between two airports sorted by cost, departureTime or duration. Pass the nextCursor of a page as cursor to fetch the following page")
+    @ApiResponses({@ApiResponse(code = 200, message = "Successfully retrieved the page"),
+                   @ApiResponse(code = 400, message = "If the sort key, limit or cursor is invalid"),
+                   @ApiResponse(code = 500, message = "If any other error occurs")})
+    @GetMapping("/flights/search")
+    public ResponseEntity<?> searchFlights(
+        @ApiParam(name = "Source Abbreviation", value = "Abbreviation of the Source Airport") @RequestParam(required = false) String sourceAbv,
+        @ApiParam(name = "Destination Abbreviation", value = "Abbreviation of the Destination Airport") @RequestParam(required = false) String destAbv,
+        @ApiParam(name = "Sort By", value = "cost, departureTime (default) or duration") @RequestParam(required = false) String sortBy,
+        @ApiParam(name = "Limit", value = "Maximum number of flights per page, at most 200") @RequestParam(defaultValue = "50") int limit,
+        @ApiParam(name = "Cursor", value = "nextCursor of the previous page") @RequestParam(required = false) String cursor){
+
+        FlightSearchRepository.SortKey sortKey = FlightSearchRepository.SortKey.of(sortBy);
+        if(sortKey == null)
+            return new ResponseEntity<>("Invalid sort key supplied", HttpStatus.BAD_REQUEST);
+        if(limit < 1 || limit > MAX_PAGE_SIZE)
+            return new ResponseEntity<>("Invalid limit supplied", HttpStatus.BAD_REQUEST);
+        FlightPage page = flightService.getFlightPage(sourceAbv, destAbv, sortKey, cursor, limit);
+        if(page != null)
+            return new ResponseEntity<>(page, HttpStatus.OK);
+        return new ResponseEntity<>("Invalid cursor supplied", HttpStatus.BAD_REQUEST);
+    }
+
+    @ApiOperation(value = "Get connection", notes = "Finds the earliest arriving or cheapest connection of up to maxStops + 1 flights between two airports, departing at or after a local time (HH:mm) at the source airport")
+    @ApiResponses({@ApiResponse(code = 200, message = "Successfully found a connection"),
+                   @ApiResponse(code = 204, message = "If there is no connection between the airports"),
+                   @ApiResponse(code = 400, message = "If the time, sort order or number of stops is invalid"),
+                   @ApiResponse(code = 500, message = "If any other error occurs")})
+    @GetMapping("/flights/connections")
+    public ResponseEntity<?> getConnection(
+        @ApiParam(name = "Source Abbreviation", value = "Abbreviation of the Source Airport") @RequestParam String sourceAbv,
+        @ApiParam(name = "Destination Abbreviation", value = "Abbreviation of the Destination Airport") @RequestParam String destAbv,
+        @ApiParam(name = "Depart After", value = "Earliest local departure time in HH:mm format") @RequestParam(required = false) String departAfter,
+        @ApiParam(name = "Sort By", value = "arrival (default) or cost") @RequestParam(required = false) String sortBy,
+        @ApiParam(name = "Max Stops", value = "Maximum number of stops, 1 by default") @RequestParam(defaultValue = "1") int maxStops){
+
+        LocalTime time;
+        try {
+            time = departAfter != null ? LocalTime.parse(departAfter) : LocalTime.MIDNIGHT;
+        } catch (DateTimeParseException e) {
+            return new ResponseEntity<>("Invalid time supplied", HttpStatus.BAD_REQUEST);
+        }
+        RouteGraphService.Criterion criterion = RouteGraphService.Criterion.of(sortBy);
+        if(criterion == null)
+            return new ResponseEntity<>("Invalid sort order supplied", HttpStatus.BAD_REQUEST);
+        if(maxStops < 0 || maxStops >= RouteGraphService.MAX_LEGS)
+            return new ResponseEntity<>("Invalid number of stops supplied", HttpStatus.BAD_REQUEST);
+        Itinerary itinerary = flightService.findConnection(sourceAbv, destAbv, time, criterion, maxStops + 1);
+        if(itinerary != null)
+            return new ResponseEntity<>(itinerary, HttpStatus.OK);
+        return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+    }
+
+    @ApiOperation(value = "Get flexible dates", notes = "Returns every non-stop flight between two airports with its fare and seats remaining on each day from window days before until window days after a date (MM-dd-yyyy)")
+    @ApiResponses({@ApiResponse(code = 200, message = "Successfully retrieved the flights and their availability"),
+                   @ApiResponse(code = 204, message = "If there is no non-stop flight between the airports"),
+                   @ApiResponse(code = 400, message = "If the date or window is invalid"),
+                   @ApiResponse(code = 500, message = "If any other error occurs")})
+    @GetMapping("/flights/flexible")
+    public ResponseEntity<?> searchFlexibleDates(
+        @ApiParam(name = "Source Abbreviation", value = "Abbreviation of the Source Airport") @RequestParam String sourceAbv,
+        @ApiParam(name = "Destination Abbreviation", value = "Abbreviation of the Destination Airport") @RequestParam String destAbv,
+        @ApiParam(name = "Date", value = "Centre date of the window in MM-dd-yyyy format") @RequestParam String date,
+        @ApiParam(name = "Window", value = "Number of days before and after the date, 3 by default and at most 14") @RequestParam(defaultValue = "3") int window){
+
+        Date d;
+        try {
+            d = new SimpleDateFormat("MM-dd-yyyy").parse(date);
+        } catch (ParseException e) {
+            return new ResponseEntity<>("Invalid date supplied", HttpStatus.BAD_REQUEST);
+        }
+        if(window < 0 || window > MAX_FLEXIBLE_WINDOW_DAYS)
+            return new ResponseEntity<>("Invalid window supplied", HttpStatus.BAD_REQUEST);
+        List<FlexibleDateFlight> flights = flightService.searchFlexibleDates(sourceAbv, destAbv, d, window);
+        if(!flights.isEmpty())
+            return new ResponseEntity<>(flights, HttpStatus.OK);
+        return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+    }
+
+    @ApiOperation(value = "Get seat map", notes = "Returns the seat layout of a flight on a given date (MM-dd-yyyy) along with the availability of each seat")
+    @ApiResponses({@ApiResponse(code = 200, message = "Successfully retrieved the seat map"),
+                   @ApiResponse(code = 400, message = "If the flight does not exist or the date is invalid"),
+                   @ApiResponse(code = 500, message = "If any other error occurs")})
+    @GetMapping("/flight/id/{id}/seatmap")
+    public ResponseEntity<?> getSeatMap(
+        @ApiParam(name = "Id", value = "Id of the flight") @PathVariable("id") UUID id,
+        @ApiParam(name = "Date", value = "Date of the flight in MM-dd-yyyy format") @RequestParam String date){
+
+        Date d;
+        try {
+            d = new SimpleDateFormat("MM-dd-yyyy").parse(date);
+        } catch (ParseException e) {
+            return new ResponseEntity<>("Invalid date supplied", HttpStatus.BAD_REQUEST);
+        }
+        SeatMap seatMap = flightService.getSeatMap(id, d);
+        if(seatMap != null)
+            return new ResponseEntity<>(seatMap, HttpStatus.OK);
+        return new ResponseEntity<>("Invalid Flight ID", HttpStatus.BAD_REQUEST);
+    }
+
+    @ApiOperation(value = "Get availability", notes = "Returns the seats remaining on a flight for every day between two dates (MM-dd-yyyy), at most 366 days")
+    @ApiResponses({@ApiResponse(code = 200, message = "Successfully retrieved the availability"),
+                   @ApiResponse(code = 400, message = "If the flight does not exist or the date range is invalid"),
+                   @ApiResponse(code = 500, message = "If any other error occurs")})
+    @GetMapping("/flight/id/{id}/availability")
+    public ResponseEntity<?> getAvailability(
+        @ApiParam(name = "Id", value = "Id of the flight") @PathVariable("id") UUID id,
+        @ApiParam(name = "From", value = "First date of the range in MM-dd-yyyy format") @RequestParam String from,
+        @ApiParam(name = "To", value = "Last date of the range in MM-dd-yyyy format") @RequestParam String to){
+
+        Date fromDate;
+        Date toDate;
+        try {
+            SimpleDateFormat dateFor = new SimpleDateFormat("MM-dd-yyyy");
+            fromDate = dateFor.parse(from);
+            toDate = dateFor.parse(to);
+        } catch (ParseException e) {
+            return new ResponseEntity<>("Invalid date supplied", HttpStatus.BAD_REQUEST);
+        }
+        if(toDate.before(fromDate) || toDate.getTime() - fromDate.getTime() > MAX_AVAILABILITY_DAYS * 24L * 60 * 60 * 1000)
+            return new ResponseEntity<>("Invalid date range supplied", HttpStatus.BAD_REQUEST);
+        FlightAvailability availability = flightService.getAvailability(id, fromDate, toDate);
+        if(availability != null)
+            return new ResponseEntity<>(availability, HttpStatus.OK);
+        return new ResponseEntity<>("Invalid Flight ID", HttpStatus.BAD_REQUEST);
+    }
+
+    @ApiOperation(value = "Get manifest", notes = "Streams the passengers, seats, check-in status and luggage of a flight on a given date (MM-dd-yyyy) as NDJSON or CSV, followed by the totals")
+    @ApiResponses({@ApiResponse(code = 200, message = "Successfully streamed the manifest"),
+                   @ApiResponse(code = 400, message = "If the flight does not exist or the date or format is invalid"),
+                   @ApiResponse(code = 500, message = "If any other error occurs")})
+    @GetMapping("/flight/id/{id}/manifest")
+    public ResponseEntity<StreamingResponseBody> getManifest(
+        @ApiParam(name = "Id", value = "Id of the flight") @PathVariable("id") UUID id,
+        @ApiParam(name = "Date", value = "Date of the flight in MM-dd-yyyy format") @RequestParam String date,
+        @ApiParam(name = "Format", value = "ndjson (default) or csv") @RequestParam(required = false) String format){
+
+        Date d;
+        try {
+            d = new SimpleDateFormat("MM-dd-yyyy").parse(date);
+        } catch (ParseException e) {
+            return manifestError("Invalid date supplied");
+        }
+        ManifestService.Format manifestFormat = ManifestService.Format.of(format);
+        if(manifestFormat == null)
+            return manifestError("Invalid format supplied");
+        Flight flight = flightService.getFlightById(id);
+        if(flight == null)
+            return manifestError("Invalid Flight ID");
+        StreamingResponseBody body = out -> manifestService.writeManifest(flight, d, manifestFormat, out);
+        return ResponseEntity.ok()
+                .contentType(manifestFormat == ManifestService.Format.CSV ? new MediaType("text", "csv")
+                        : new MediaType("application", "x-ndjson"))
+                .body(body);
+    }
+
+    /*
+     * The streaming return value handler only picks up responses typed as
+     * StreamingResponseBody, so errors of the manifest endpoint are streamed as well.
+     */
+    private static ResponseEntity<StreamingResponseBody> manifestError(String message) {
+        return ResponseEntity.badRequest()
+                .contentType(MediaType.TEXT_PLAIN)
+                .body(out -> out.write(message.getBytes(StandardCharsets.UTF_8)));
+    }
+
     @ApiOperation(value = "Create flight", notes = "Takes in the details of the flights and creates a new flight in the database")
     @ApiResponses({@ApiResponse(code = 200, message = "Flight is successfully created"),
                    @ApiResponse(code = 500, message = "If any other error occurs")})
@@ -93,13 +290,48 @@ public class FlightController {
         }
     }
 
-    @ApiOperation(value = "Update flight", notes = "Can update the departure or arrival time and the flight model")
+    /*
+     * Creates many flights in one transaction, so that they are inserted in JDBC
+     * batches. Either all flights are created or none.
+     */
+    @ApiOperation(value = "Create flights", notes = "Takes in the details of up to 10000 flights and creates all of them in the database, or none if any is invalid")
+    @ApiResponses({@ApiResponse(code = 200, message = "Flights are successfully created, their ids are returned in the order of the request"),
+                   @ApiResponse(code = 400, message = "A flight is invalid or too many flights were supplied")})
+    @PostMapping("/flights/bulk")
+    public ResponseEntity<?> createFlights(@RequestBody List<Flight> flights)
+    {
+        if(flights == null || flights.isEmpty() || flights.size() > MAX_BULK_FLIGHTS)
+            return new ResponseEntity<>("Between 1 and " + MAX_BULK_FLIGHTS + " flights must be supplied", HttpStatus.BAD_REQUEST);
+        try {
+            Set<Integer> modelIds = new HashSet<>();
+            for(int i = 0; i < flights.size(); i++) {
+                Flight flight = flights.get(i);
+                if(flight.getCost() <= 0)
+                    return new ResponseEntity<>("Flight " + i + ": Cost cannot be negative", HttpStatus.BAD_REQUEST);
+                if(Boolean.FALSE.equals(flightService.validateAirport(flight.getSourceAirport().getAirportId())))
+                    return new ResponseEntity<>("Flight " + i + ": Source Airport is invalid", HttpStatus.BAD_REQUEST);
+                if(Boolean.FALSE.equals(flightService.validateAirport(flight.getDestAirport().getAirportId())))
+                    return new ResponseEntity<>("Flight " + i + ": Destination Airport is invalid", HttpStatus.BAD_REQUEST);
+                modelIds.add(flight.getFlightModel().getFlightModelId());
+            }
+            if(Boolean.FALSE.equals(flightService.validateFlightModels(modelIds)))
+                return new ResponseEntity<>("Flight model is invalid", HttpStatus.BAD_REQUEST);
+            List<UUID> flightIds = flightService.saveAll(flights).stream().map(Flight::getFlightId).toList();
+            return new ResponseEntity<>(flightIds, HttpStatus.OK);
+        } catch (Exception e) {
+            logger.error(e.getStackTrace());
+            logger.error(e);
+            return new ResponseEntity<>("Input invalid", HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    @ApiOperation(value = "Update flight", notes = "Can update the departure, arrival or delay time and the flight model")
     @ApiResponses({@ApiResponse(code = 200, message = "Flight is successfully udpateed"),
                    @ApiResponse(code = 500, message = "If any other error occurs")})
     @PutMapping("/flight/id/{flightID}")
-    public ResponseEntity<UUID> updateFlight(@PathVariable UUID flightID, @RequestParam(required = false) Time departureTime, @RequestParam(required = false) Time estArrivalTime, @RequestParam(required = false) Integer flightModelID )   
+    public ResponseEntity<UUID> updateFlight(@PathVariable UUID flightID, @RequestParam(required = false) Time departureTime, @RequestParam(required = false) Time estArrivalTime, @RequestParam(required = false) Time delayTime, @RequestParam(required = false) Integer flightModelID )   
     {  
-            Flight updatedFlight = flightService.update(flightID, departureTime, estArrivalTime, flightModelID);
+            Flight updatedFlight = flightService.update(flightID, departureTime, estArrivalTime, delayTime, flightModelID);
             if(updatedFlight != null){
                 UUID flightId = updatedFlight.getFlightId();
                 return new ResponseEntity<>(flightId, HttpStatus.OK);
@@ -108,6 +340,23 @@ public class FlightController {
                 
     }
 
+    @ApiOperation(value = "Update delay", notes = "Sets the delay of a flight in minutes. Passengers on the flight and booked onward connections that can no longer be made are notified in the background")
+    @ApiResponses({@ApiResponse(code = 200, message = "The delay is successfully updated"),
+                   @ApiResponse(code = 400, message = "If the flight does not exist or the delay is invalid"),
+                   @ApiResponse(code = 500, message = "If any other error occurs")})
+    @PutMapping("/flight/id/{id}/delay")
+    public ResponseEntity<?> updateDelay(
+        @ApiParam(name = "Id", value = "Id of the flight") @PathVariable("id") UUID id,
+        @ApiParam(name = "Minutes", value = "Delay in minutes, less than a day") @RequestParam int minutes){
+
+        if(minutes < 0 || minutes >= MINUTES_PER_DAY)
+            return new ResponseEntity<>("Invalid delay supplied", HttpStatus.BAD_REQUEST);
+        Flight updatedFlight = flightService.updateDelay(id, minutes);
+        if(updatedFlight != null)
+            return new ResponseEntity<>(updatedFlight.getFlightId(), HttpStatus.OK);
+        return new ResponseEntity<>("Invalid Flight ID", HttpStatus.BAD_REQUEST);
+    }
+
     @ApiOperation(value = "Delete flight", notes = "Deletes a flight by the given Flight Id")
     @ApiResponses({@ApiResponse(code = 200, message = "Flight is successfully deleted"),
                    @ApiResponse(code = 500, message = "If any other error occurs")})
@@ -17,6 +17,7 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.flightman.flightmanapi.model.CacheRegionStats;
 import com.flightman.flightmanapi.model.FlightModel;
 import com.flightman.flightmanapi.services.FlightModelService;
 
@@ -52,6 +53,23 @@ public class FlightModelController {
         return new ResponseEntity<>(HttpStatus.NO_CONTENT);
     }
 
+    /*
+     * Method that returns the statistics of the second-level cache of airports,
+     * flight models and the queries that look them up
+     * If statistics are disabled, returns HTTP NOT_FOUND with the property that enables them
+     */
+    @ApiOperation(value = "Get reference data cache statistics", notes = "Returns the hit, miss and put counts of the airport, flight model and reference query caches")
+    @ApiResponses({@ApiResponse(code = 200, message = "The statistics are successfully retrieved"),
+                   @ApiResponse(code = 404, message = "If Hibernate statistics are disabled")})
+    @GetMapping("/models/cache")
+    public ResponseEntity<?> getCacheStats(){
+        List<CacheRegionStats> stats = flightModelService.getCacheStats();
+        if(stats == null){
+            return new ResponseEntity<>("Cache statistics are disabled, set flightman.hibernate.statistics=true to collect them", HttpStatus.NOT_FOUND);
+        }
+        return new ResponseEntity<>(stats, HttpStatus.OK);
+    }
+
     /* 
     * Method that creates a new Flight Model in the Flight Model table by supplying the required flight Model object
     * If failure occurs during creation, returns HTTP NO_CONTENT 
@@ -18,7 +18,10 @@ import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.flightman.flightmanapi.model.RewardsReconciliationReport;
+import com.flightman.flightmanapi.model.RewardsTransaction;
 import com.flightman.flightmanapi.model.User;
+import com.flightman.flightmanapi.model.UserCacheStats;
 import com.flightman.flightmanapi.services.UserService;
 
 import io.swagger.annotations.Api;
@@ -52,6 +55,34 @@ public class UserController {
                 }
         }
 
+        @ApiOperation(value = "Get User Cache Statistics", notes = "Returns the size and the hit, miss and eviction counts of the user cache")
+        @ApiResponses({ @ApiResponse(code = 200, message = "The statistics are successfully retrieved") })
+        @GetMapping("/users/cache")
+        public ResponseEntity<UserCacheStats> getCacheStats() {
+                return new ResponseEntity<>(this.userService.getCacheStats(), HttpStatus.OK);
+        }
+
+        @ApiOperation(value = "Start Reward Points Reconciliation", notes = "Starts checking the reward points of all users against the ledger and expiring old points in the background")
+        @ApiResponses({ @ApiResponse(code = 202, message = "The reconciliation was started"),
+                        @ApiResponse(code = 409, message = "A reconciliation is already running") })
+        @PostMapping("/users/rewards/reconciliation")
+        public ResponseEntity<Void> startRewardsReconciliation() {
+                if (Boolean.TRUE.equals(this.userService.startRewardsReconciliation()))
+                        return new ResponseEntity<>(HttpStatus.ACCEPTED);
+                return new ResponseEntity<>(HttpStatus.CONFLICT);
+        }
+
+        @ApiOperation(value = "Get Reward Points Reconciliation", notes = "Returns the progress of the running reconciliation of reward points, or the result of the last one")
+        @ApiResponses({ @ApiResponse(code = 200, message = "The progress is successfully retrieved"),
+                        @ApiResponse(code = 204, message = "No reconciliation ran since startup") })
+        @GetMapping("/users/rewards/reconciliation")
+        public ResponseEntity<RewardsReconciliationReport> getRewardsReconciliationReport() {
+                RewardsReconciliationReport report = this.userService.getRewardsReconciliationReport();
+                if (report != null)
+                        return new ResponseEntity<>(report, HttpStatus.OK);
+                return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+        }
+
         @ApiOperation(value = "Get User By ID", notes = "Returns the details of the supplied user based on their ID (if it exists)")
         @ApiResponses({ @ApiResponse(code = 200, message = "User details are successfully retrieved"),
                         @ApiResponse(code = 400, message = "The supplied user was not found on the server"),
@@ -71,6 +102,24 @@ public class UserController {
                 }
         }
 
+        @ApiOperation(value = "Get Reward Points History", notes = "Returns the reward point changes of the supplied user, newest first")
+        @ApiResponses({ @ApiResponse(code = 200, message = "The reward point changes are successfully retrieved"),
+                        @ApiResponse(code = 204, message = "The supplied user has no reward point changes"),
+                        @ApiResponse(code = 500, message = "There was an unexpected problem during retrieval") })
+        @GetMapping("/user/id/{id}/rewards")
+        public ResponseEntity<List<RewardsTransaction>> getRewardsTransactions(@PathVariable("id") final UUID id) {
+                try {
+                        List<RewardsTransaction> transactions = this.userService.getRewardsTransactions(id);
+                        if (!transactions.isEmpty())
+                                return new ResponseEntity<>(transactions, HttpStatus.OK);
+                        return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+                } catch (Exception e) {
+                        e.printStackTrace(new java.io.PrintStream(System.err));
+                        System.err.println(e);
+                        return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
+                }
+        }
+
         @ApiOperation(value = "Get User By Email", notes = "Returns the details of the supplied user based on their Email (if it exists)")
         @ApiResponses({ @ApiResponse(code = 200, message = "User details are successfully retrieved"),
                         @ApiResponse(code = 400, message = "The supplied user was not found on the server"),
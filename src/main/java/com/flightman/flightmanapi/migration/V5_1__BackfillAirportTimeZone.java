@@ -0,0 +1,24 @@
+package com.flightman.flightmanapi.migration;
+
+import java.sql.PreparedStatement;
+import java.time.ZoneId;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+/*
+ * Sets the time zone of the airports created before the column existed to the
+ * zone of the server. Flight times were read in that zone so far, and it is
+ * the zone DepartureTimeService falls back to, so no departure moves.
+ */
+public class V5_1__BackfillAirportTimeZone extends BaseJavaMigration {
+
+        @Override
+        public void migrate(final Context context) throws Exception {
+                try (PreparedStatement statement = context.getConnection()
+                                .prepareStatement("UPDATE airport SET time_zone = ? WHERE time_zone IS NULL")) {
+                        statement.setString(1, ZoneId.systemDefault().getId());
+                        statement.executeUpdate();
+                }
+        }
+}
@@ -0,0 +1,76 @@
+package com.flightman.flightmanapi.migration;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.DateTimeException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.UUID;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+/*
+ * Computes the duration of the flights created before the column existed from
+ * the departure and arrival times and the time zones of the airports. A
+ * flight that arrives at an earlier clock time arrives on the next day, and a
+ * missing or unknown time zone counts as the server time zone. The rules are
+ * copied here rather than shared with the application, so the migration keeps
+ * its meaning when the application changes.
+ */
+public class V6_1__BackfillFlightDuration extends BaseJavaMigration {
+
+        private static final int BATCH_SIZE = 500;
+
+        private static final int MINUTES_PER_DAY = 24 * 60;
+
+        @Override
+        public void migrate(final Context context) throws Exception {
+                Connection connection = context.getConnection();
+                try (Statement select = connection.createStatement();
+                                ResultSet rs = select.executeQuery("SELECT f.flight_id, f.departure_time, "
+                                                + "f.est_arrival_time, s.time_zone, d.time_zone FROM flights f "
+                                                + "LEFT JOIN airport s ON s.airport_id = f.source_airport_id "
+                                                + "LEFT JOIN airport d ON d.airport_id = f.dest_airport_id "
+                                                + "WHERE f.duration_minutes IS NULL AND f.departure_time IS NOT NULL "
+                                                + "AND f.est_arrival_time IS NOT NULL");
+                                PreparedStatement update = connection.prepareStatement(
+                                                "UPDATE flights SET duration_minutes = ? WHERE flight_id = ?")) {
+                        int pending = 0;
+                        while (rs.next()) {
+                                LocalDate today = LocalDate.now();
+                                ZonedDateTime departure = ZonedDateTime.of(today, rs.getTime(2).toLocalTime(),
+                                                zoneOf(rs.getString(4)));
+                                ZonedDateTime arrival = ZonedDateTime.of(today, rs.getTime(3).toLocalTime(),
+                                                zoneOf(rs.getString(5)));
+
+                                update.setInt(1, Math.floorMod(Duration.between(departure, arrival).toMinutes(),
+                                                MINUTES_PER_DAY));
+                                update.setObject(2, rs.getObject(1, UUID.class));
+                                update.addBatch();
+                                if (++pending == BATCH_SIZE) {
+                                        update.executeBatch();
+                                        pending = 0;
+                                }
+                        }
+                        if (pending > 0) {
+                                update.executeBatch();
+                        }
+                }
+        }
+
+        private static ZoneId zoneOf(final String timeZone) {
+                if (timeZone == null) {
+                        return ZoneId.systemDefault();
+                }
+                try {
+                        return ZoneId.of(timeZone);
+                } catch (DateTimeException e) {
+                        return ZoneId.systemDefault();
+                }
+        }
+}
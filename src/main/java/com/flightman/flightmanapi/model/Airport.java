@@ -4,6 +4,11 @@ import java.util.UUID;
 
 import javax.persistence.*;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
+import com.flightman.flightmanapi.ReferenceCacheConfig;
+
 import io.swagger.annotations.ApiModelProperty;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -11,12 +16,13 @@ import lombok.Setter;
 
 @Entity
 @Table(name = "airport")
+@Cache(usage = CacheConcurrencyStrategy.NONSTRICT_READ_WRITE, region = ReferenceCacheConfig.AIRPORT_REGION)
 @Getter
 @Setter
 @NoArgsConstructor
 public class Airport {
         @Id
-        @GeneratedValue(strategy = GenerationType.AUTO)
+        @GeneratedValue(generator = "uuid7")
         @ApiModelProperty(notes = "Unique identifier of the airport", example = "3fa85f64-5717-4562-b3fc-2c963f66afa6", required = true)
         private UUID airportId;
 
@@ -36,6 +42,10 @@ public class Airport {
         @ApiModelProperty(notes = "Longitude of the airport", example = "2.2221")
         private String longitude;
 
+        @Column(name = "timeZone")
+        @ApiModelProperty(notes = "IANA time zone of the airport, flight times are local to it", example = "America/New_York")
+        private String timeZone;
+
         public Airport(final String airportName, final String airportAbvName, final String latitude,
                         final String longitude) {
                 this.airportName = airportName;
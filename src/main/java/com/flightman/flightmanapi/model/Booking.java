@@ -14,14 +14,19 @@ import lombok.Setter;
 import javax.persistence.*;
 
 @Entity
-@Table(name = "booking")
+@NamedEntityGraph(name = "Booking.details", attributeNodes = { @NamedAttributeNode("user"),
+                @NamedAttributeNode(value = "flight", subgraph = "flight"), @NamedAttributeNode("luggage") },
+                subgraphs = @NamedSubgraph(name = "flight", attributeNodes = { @NamedAttributeNode("sourceAirport"),
+                                @NamedAttributeNode("destAirport"), @NamedAttributeNode("flightModel") }))
+@Table(name = "booking", uniqueConstraints = @UniqueConstraint(name = "uk_booking_seat", columnNames = { "flight_id",
+                "flight_date", "seatNumber" }))
 @ApiModel(description = "Class representing a booking in the system")
 @Getter
 @Setter
 @NoArgsConstructor
 public class Booking {
         @Id
-        @GeneratedValue(strategy = GenerationType.AUTO)
+        @GeneratedValue(generator = "uuid7")
         @ApiModelProperty(notes = "Unique identifier of the booking", example = "3fa85f64-5717-4562-b3fc-2c963f66afa6", required = true)
         private UUID bookingId;
 
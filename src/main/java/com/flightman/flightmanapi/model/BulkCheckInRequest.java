@@ -0,0 +1,26 @@
+package com.flightman.flightmanapi.model;
+
+import java.util.List;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@ApiModel(description = "Class representing a check-in request for many bookings of one departure")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkCheckInRequest {
+        @ApiModelProperty(notes = "Unique identifier of the flight", example = "3fa85f64-5717-4562-b3fc-2c963f66afa6", required = true)
+        private String flightId;
+
+        @ApiModelProperty(notes = "The departure date of the flight", example = "12-24-2030", required = true)
+        private String date;
+
+        @ApiModelProperty(notes = "Booking IDs to check in, all bookings of the departure are checked in if empty")
+        private List<String> bookingIds;
+}
@@ -0,0 +1,39 @@
+package com.flightman.flightmanapi.model;
+
+import java.util.List;
+import java.util.UUID;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@ApiModel(description = "Class representing the outcome of checking in many bookings of one departure")
+@Getter
+@AllArgsConstructor
+public class BulkCheckInResult {
+        @ApiModelProperty(notes = "Unique identifier of the flight", example = "3fa85f64-5717-4562-b3fc-2c963f66afa6")
+        private UUID flightId;
+
+        @ApiModelProperty(notes = "The departure date of the flight", example = "12-24-2030")
+        private String date;
+
+        @ApiModelProperty(notes = "Is check in open for the departure")
+        private boolean checkInOpen;
+
+        @ApiModelProperty(notes = "The number of bookings checked in by this request")
+        private int checkedIn;
+
+        @ApiModelProperty(notes = "The outcome for every requested booking")
+        private List<Entry> results;
+
+        @Getter
+        @AllArgsConstructor
+        public static class Entry {
+                @ApiModelProperty(notes = "The booking ID as supplied", example = "3fa85f64-5717-4562-b3fc-2c963f66afa6")
+                private String bookingId;
+
+                @ApiModelProperty(notes = "The outcome of the check in", example = "Successfully checked in")
+                private String status;
+        }
+}
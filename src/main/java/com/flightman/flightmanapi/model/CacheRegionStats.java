@@ -0,0 +1,26 @@
+package com.flightman.flightmanapi.model;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@ApiModel(description = "Class representing the statistics of a second-level cache region since startup")
+@Getter
+@AllArgsConstructor
+public class CacheRegionStats {
+        @ApiModelProperty(notes = "Name of the cache region", example = "airport")
+        private String region;
+
+        @ApiModelProperty(notes = "Number of lookups answered from the cache")
+        private long hitCount;
+
+        @ApiModelProperty(notes = "Number of lookups that read the database")
+        private long missCount;
+
+        @ApiModelProperty(notes = "Number of entries put into the cache")
+        private long putCount;
+
+        @ApiModelProperty(notes = "Share of lookups answered from the cache", example = "0.95")
+        private double hitRate;
+}
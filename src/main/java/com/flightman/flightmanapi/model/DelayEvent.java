@@ -0,0 +1,55 @@
+package com.flightman.flightmanapi.model;
+
+import java.time.Instant;
+import java.util.Date;
+import java.util.UUID;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@ApiModel(description = "Class representing a booking affected by the delay of a flight")
+@Getter
+@AllArgsConstructor
+public class DelayEvent {
+        /*
+         * FLIGHT_DELAYED is sent for every booking on the delayed departure,
+         * CONNECTION_AT_RISK for every booked onward flight that can no longer be
+         * reached with the minimum connection time. DELAY_CLEARED is sent for every
+         * booking on the departure when its delay was set back to zero.
+         */
+        public enum Type {
+                FLIGHT_DELAYED, CONNECTION_AT_RISK, DELAY_CLEARED
+        }
+
+        @ApiModelProperty(notes = "The kind of event")
+        private Type type;
+
+        @ApiModelProperty(notes = "Unique identifier of the delayed flight")
+        private UUID flightId;
+
+        @ApiModelProperty(notes = "Departure date of the delayed flight")
+        private Date flightDate;
+
+        @ApiModelProperty(notes = "The booking on the delayed flight")
+        private UUID bookingId;
+
+        @ApiModelProperty(notes = "The user who made the booking")
+        private UUID userId;
+
+        @ApiModelProperty(notes = "The delay of the flight in minutes")
+        private int delayMinutes;
+
+        @ApiModelProperty(notes = "The delayed departure")
+        private Instant departure;
+
+        @ApiModelProperty(notes = "The booking on the onward flight, for CONNECTION_AT_RISK")
+        private UUID onwardBookingId;
+
+        @ApiModelProperty(notes = "The onward flight, for CONNECTION_AT_RISK")
+        private UUID onwardFlightId;
+
+        @ApiModelProperty(notes = "Minutes between the delayed arrival and the onward departure, for CONNECTION_AT_RISK")
+        private Integer connectionMinutes;
+}
@@ -0,0 +1,25 @@
+package com.flightman.flightmanapi.model;
+
+import java.util.List;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@ApiModel(description = "Class representing a flight with its fare and seats remaining on each day around a date")
+@Getter
+@AllArgsConstructor
+public class FlexibleDateFlight {
+        @ApiModelProperty(notes = "The flight")
+        private Flight flight;
+
+        @ApiModelProperty(notes = "The fare of the flight, which is the same on each day", example = "100")
+        private int cost;
+
+        @ApiModelProperty(notes = "The number of seats that can be sold on each day")
+        private int capacity;
+
+        @ApiModelProperty(notes = "The seats remaining on each day of the window")
+        private List<FlightAvailability.Day> days;
+}
@@ -14,7 +14,12 @@ import lombok.Setter;
 import javax.persistence.*;
 
 @Entity
-@Table(name = "flights")
+@NamedEntityGraph(name = "Flight.details", attributeNodes = { @NamedAttributeNode("sourceAirport"),
+                @NamedAttributeNode("destAirport"), @NamedAttributeNode("flightModel") })
+@Table(name = "flights", indexes = {
+                @Index(name = "idx_flights_cost", columnList = "cost, flightId"),
+                @Index(name = "idx_flights_departure", columnList = "departureTime, flightId"),
+                @Index(name = "idx_flights_duration", columnList = "durationMinutes, flightId") })
 @ApiModel(description = "Class representing a flight in the system")
 @Getter
 @Setter
@@ -22,7 +27,7 @@ import javax.persistence.*;
 public class Flight {
 
         @Id
-        @GeneratedValue(strategy = GenerationType.AUTO)
+        @GeneratedValue(generator = "uuid7")
         @ApiModelProperty(notes = "Unique identifier of the flight", example = "3fa85f64-5717-4562-b3fc-2c963f66afa6", required = true)
         private UUID flightId;
 
@@ -61,6 +66,10 @@ public class Flight {
         @Column(name = "cost")
         private int cost;
 
+        @Column(name = "durationMinutes")
+        @ApiModelProperty(notes = "Scheduled minutes from departure to arrival, derived from the times and the airport time zones")
+        private Integer durationMinutes;
+
         public Flight(final Airport sourceAirport, final Airport destAirport, final FlightModel flightModel,
                         final Time departureTime,
                         final Time estArrivalTime, final Time delayTime, final int cost) {
@@ -0,0 +1,33 @@
+package com.flightman.flightmanapi.model;
+
+import java.util.List;
+import java.util.UUID;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@ApiModel(description = "Class representing the seats remaining on a flight for a range of days")
+@Getter
+@AllArgsConstructor
+public class FlightAvailability {
+        @ApiModelProperty(notes = "Unique identifier of the flight", example = "3fa85f64-5717-4562-b3fc-2c963f66afa6")
+        private UUID flightId;
+
+        @ApiModelProperty(notes = "The number of seats that can be sold on each day")
+        private int capacity;
+
+        @ApiModelProperty(notes = "The seats remaining on each day of the range")
+        private List<Day> days;
+
+        @Getter
+        @AllArgsConstructor
+        public static class Day {
+                @ApiModelProperty(notes = "The departure date", example = "12-24-2030")
+                private String date;
+
+                @ApiModelProperty(notes = "The number of seats that can still be booked")
+                private int seatsRemaining;
+        }
+}
@@ -0,0 +1,51 @@
+package com.flightman.flightmanapi.model;
+
+import java.util.Date;
+import java.util.UUID;
+
+import javax.persistence.*;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Entity
+@Table(name = "flight_inventory", uniqueConstraints = @UniqueConstraint(name = "uk_flight_inventory_departure", columnNames = {
+                "flight_id", "flight_date" }))
+@ApiModel(description = "Class representing the seat inventory of a flight on a specific day")
+@Getter
+@Setter
+@NoArgsConstructor
+public class FlightInventory {
+        @Id
+        @GeneratedValue(generator = "uuid7")
+        @ApiModelProperty(notes = "Unique identifier of the inventory record")
+        private UUID inventoryId;
+
+        @ManyToOne(fetch = FetchType.LAZY)
+        @JoinColumn(name = "flight_id")
+        @ApiModelProperty(notes = "Flight this inventory belongs to")
+        private Flight flight;
+
+        @Column(name = "flight_date")
+        @ApiModelProperty(notes = "Departure date of the flight")
+        private Date flightDate;
+
+        @Column(name = "seats_sold")
+        @ApiModelProperty(notes = "Number of seats sold")
+        private int seatsSold;
+
+        @Column(name = "seats_remaining")
+        @ApiModelProperty(notes = "Number of seats that can still be sold")
+        private int seatsRemaining;
+
+        public FlightInventory(final Flight flight, final Date flightDate, final int seatsSold,
+                        final int seatsRemaining) {
+                this.flight = flight;
+                this.flightDate = flightDate;
+                this.seatsSold = seatsSold;
+                this.seatsRemaining = seatsRemaining;
+        }
+}
@@ -3,6 +3,11 @@ package com.flightman.flightmanapi.model;
 import javax.persistence.*;
 import javax.validation.constraints.NotNull;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
+import com.flightman.flightmanapi.ReferenceCacheConfig;
+
 import io.swagger.annotations.ApiModel;
 import io.swagger.annotations.ApiModelProperty;
 import lombok.Getter;
@@ -12,6 +17,7 @@ import lombok.Setter;
 @Entity
 @ApiModel(description = "Class representing a flight model in the system")
 @Table(name = "flightModel")
+@Cache(usage = CacheConcurrencyStrategy.NONSTRICT_READ_WRITE, region = ReferenceCacheConfig.FLIGHT_MODEL_REGION)
 @Getter
 @Setter
 @NoArgsConstructor
@@ -0,0 +1,19 @@
+package com.flightman.flightmanapi.model;
+
+import java.util.List;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@ApiModel(description = "Class representing one page of a flight search")
+@Getter
+@AllArgsConstructor
+public class FlightPage {
+        @ApiModelProperty(notes = "The flights of this page in sort order")
+        private List<Flight> flights;
+
+        @ApiModelProperty(notes = "Token to pass as cursor to fetch the next page, null on the last page")
+        private String nextCursor;
+}
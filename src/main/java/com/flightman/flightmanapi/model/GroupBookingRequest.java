@@ -0,0 +1,29 @@
+package com.flightman.flightmanapi.model;
+
+import java.util.List;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@ApiModel(description = "Class representing a booking request for a group of passengers on one flight")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class GroupBookingRequest {
+        @ApiModelProperty(notes = "Unique identifier of the flight", example = "3fa85f64-5717-4562-b3fc-2c963f66afa6", required = true)
+        private String flightId;
+
+        @ApiModelProperty(notes = "The departure date of the flight", example = "12-24-2030", required = true)
+        private String date;
+
+        @ApiModelProperty(notes = "User IDs of the passengers, one seat is booked per entry", required = true)
+        private List<String> userIds;
+
+        @ApiModelProperty(notes = "Will the passengers use reward points for the booking", required = true)
+        private Boolean useRewardPoints;
+}
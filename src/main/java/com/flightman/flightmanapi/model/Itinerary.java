@@ -0,0 +1,32 @@
+package com.flightman.flightmanapi.model;
+
+import java.util.List;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@ApiModel(description = "Class representing a connection of one or more flights between two airports")
+@Getter
+@AllArgsConstructor
+public class Itinerary {
+        @ApiModelProperty(notes = "The flights of the connection in travel order")
+        private List<Leg> legs;
+
+        @ApiModelProperty(notes = "The summed cost of all flights")
+        private int totalCost;
+
+        @ApiModelProperty(notes = "Minutes between the requested departure time and the final arrival")
+        private int totalMinutes;
+
+        @Getter
+        @AllArgsConstructor
+        public static class Leg {
+                @ApiModelProperty(notes = "The flight of this leg")
+                private Flight flight;
+
+                @ApiModelProperty(notes = "Days after the requested departure day on which the flight departs")
+                private int dayOffset;
+        }
+}
@@ -16,7 +16,7 @@ import lombok.Setter;
 @NoArgsConstructor
 public class Luggage {
         @Id
-        @GeneratedValue(strategy = GenerationType.AUTO)
+        @GeneratedValue(generator = "uuid7")
         @ApiModelProperty(notes = "Unique identifier of the luggage")
         private UUID luggageId;
 
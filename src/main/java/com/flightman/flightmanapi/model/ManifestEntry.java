@@ -0,0 +1,34 @@
+package com.flightman.flightmanapi.model;
+
+import java.util.UUID;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@ApiModel(description = "Class representing one passenger on the manifest of a departure")
+@Getter
+@AllArgsConstructor
+public class ManifestEntry {
+        @ApiModelProperty(notes = "Unique identifier of the booking", example = "3fa85f64-5717-4562-b3fc-2c963f66afa6")
+        private UUID bookingId;
+
+        @ApiModelProperty(notes = "First name of the passenger")
+        private String firstName;
+
+        @ApiModelProperty(notes = "Last name of the passenger")
+        private String lastName;
+
+        @ApiModelProperty(notes = "The seat number", example = "12C")
+        private String seatNumber;
+
+        @ApiModelProperty(notes = "Has the passenger checked in")
+        private Boolean userCheckIn;
+
+        @ApiModelProperty(notes = "The number of checked in bags, null if no luggage was checked in")
+        private Integer luggageCount;
+
+        @ApiModelProperty(notes = "The total weight of the checked in bags in kgs")
+        private Float luggageWeight;
+}
@@ -0,0 +1,17 @@
+package com.flightman.flightmanapi.model;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@ApiModel(description = "Class representing an airport near a location")
+@Getter
+@AllArgsConstructor
+public class NearbyAirport {
+        @ApiModelProperty(notes = "The airport")
+        private Airport airport;
+
+        @ApiModelProperty(notes = "Great-circle distance from the location in kilometres", example = "12.5")
+        private double distanceKm;
+}
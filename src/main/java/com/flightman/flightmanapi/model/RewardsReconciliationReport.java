@@ -0,0 +1,40 @@
+package com.flightman.flightmanapi.model;
+
+import java.util.Date;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@ApiModel(description = "Class representing the progress of a reconciliation of the reward points of all users")
+@Getter
+@AllArgsConstructor
+public class RewardsReconciliationReport {
+        @ApiModelProperty(notes = "When the reconciliation started")
+        private Date startedAt;
+
+        @ApiModelProperty(notes = "Whether the reconciliation is still running")
+        private boolean running;
+
+        @ApiModelProperty(notes = "Milliseconds the reconciliation has been running for")
+        private long durationMillis;
+
+        @ApiModelProperty(notes = "Number of users whose reward points were checked")
+        private long usersScanned;
+
+        @ApiModelProperty(notes = "Number of users whose balance from before the ledger was recorded as opening balance")
+        private long openingBalances;
+
+        @ApiModelProperty(notes = "Number of balances that did not match the ledger and were corrected")
+        private long balancesCorrected;
+
+        @ApiModelProperty(notes = "Number of users whose reward points partly expired")
+        private long usersExpired;
+
+        @ApiModelProperty(notes = "Number of reward points that expired")
+        private long pointsExpired;
+
+        @ApiModelProperty(notes = "Number of users checked per second")
+        private double usersPerSecond;
+}
@@ -0,0 +1,65 @@
+package com.flightman.flightmanapi.model;
+
+import java.util.Date;
+import java.util.UUID;
+
+import javax.persistence.*;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Entity
+@Table(name = "rewards_transaction", indexes = {
+                @Index(name = "idx_rewards_transaction_user", columnList = "user_id, created_at") })
+@ApiModel(description = "Class representing one change of the reward points of a user")
+@Getter
+@Setter
+@NoArgsConstructor
+public class RewardsTransaction {
+        /*
+         * UNRECORDED is a change to the balance that the reconciliation found
+         * without a ledger entry, ADJUSTMENT the correction that reverted it.
+         */
+        public enum Reason {
+                BOOKING_EARNED, BOOKING_REDEEMED, BOOKING_REFUNDED, OPENING_BALANCE, EXPIRED, UNRECORDED, ADJUSTMENT
+        }
+
+        @Id
+        @GeneratedValue(generator = "uuid7")
+        @Column(name = "transaction_id")
+        @ApiModelProperty(notes = "Unique identifier of the transaction")
+        private UUID transactionId;
+
+        @Column(name = "user_id", nullable = false)
+        @ApiModelProperty(notes = "User whose reward points changed")
+        private UUID userId;
+
+        @Column(name = "booking_id")
+        @ApiModelProperty(notes = "Booking that caused the change")
+        private UUID bookingId;
+
+        @Column(name = "delta")
+        @ApiModelProperty(notes = "Number of reward points added, negative if points were redeemed")
+        private int delta;
+
+        @Enumerated(EnumType.STRING)
+        @Column(name = "reason")
+        @ApiModelProperty(notes = "Why the reward points changed")
+        private Reason reason;
+
+        @Column(name = "created_at")
+        @ApiModelProperty(notes = "When the reward points changed")
+        private Date createdAt;
+
+        public RewardsTransaction(final UUID userId, final UUID bookingId, final int delta, final Reason reason,
+                        final Date createdAt) {
+                this.userId = userId;
+                this.bookingId = bookingId;
+                this.delta = delta;
+                this.reason = reason;
+                this.createdAt = createdAt;
+        }
+}
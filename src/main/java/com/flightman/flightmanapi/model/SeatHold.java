@@ -0,0 +1,62 @@
+package com.flightman.flightmanapi.model;
+
+import java.util.Date;
+import java.util.UUID;
+
+import javax.persistence.*;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Entity
+@Table(name = "seat_hold", uniqueConstraints = @UniqueConstraint(name = "uk_seat_hold_seat", columnNames = {
+                "flight_id", "flight_date", "seatNumber" }))
+@ApiModel(description = "Class representing a seat held for a user until the payment completes")
+@Getter
+@Setter
+@NoArgsConstructor
+public class SeatHold {
+        @Id
+        @GeneratedValue(generator = "uuid7")
+        @ApiModelProperty(notes = "Unique identifier of the hold", example = "3fa85f64-5717-4562-b3fc-2c963f66afa6", required = true)
+        private UUID holdId;
+
+        @ManyToOne
+        @JoinColumn(name = "user_id")
+        @ApiModelProperty(notes = "User the seat is held for")
+        private User user;
+
+        @ManyToOne
+        @JoinColumn(name = "flight_id")
+        @ApiModelProperty(notes = "Flight the seat is held on")
+        private Flight flight;
+
+        @Column(name = "flight_date")
+        @ApiModelProperty(notes = "What is the departure date of the held seat")
+        private Date flightDate;
+
+        @Column(name = "seatNumber")
+        @ApiModelProperty(notes = "Which seat number is held")
+        private String seatNumber;
+
+        @Column(name = "useRewardPoints")
+        @ApiModelProperty(notes = "Will reward points be used when the hold is confirmed")
+        private Boolean useRewardPoints;
+
+        @Column(name = "expires_at")
+        @ApiModelProperty(notes = "When the hold expires if it is not confirmed")
+        private Date expiresAt;
+
+        public SeatHold(final User user, final Flight flight, final Date flightDate, final String seatNumber,
+                        final Boolean useRewardPoints, final Date expiresAt) {
+                this.user = user;
+                this.flight = flight;
+                this.flightDate = flightDate;
+                this.seatNumber = seatNumber;
+                this.useRewardPoints = useRewardPoints;
+                this.expiresAt = expiresAt;
+        }
+}
@@ -0,0 +1,85 @@
+package com.flightman.flightmanapi.model;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import lombok.Getter;
+
+/*
+ * Immutable seat layout of a flight model. Seats are numbered row by row,
+ * e.g. "1A", "1B", ..., with one letter per column, and only the first
+ * seatCapacity seats of the rows x cols grid are sellable.
+ */
+@Getter
+public final class SeatLayout {
+
+        private static final int MAX_COLUMNS = 26;
+        private static final int DEFAULT_COLUMNS = 6;
+
+        private final Integer flightModelId;
+
+        private final int rowCount;
+
+        private final int colCount;
+
+        private final int capacity;
+
+        private final String[] seatNumbers;
+
+        private final Map<String, Integer> seatIndexes;
+
+        private SeatLayout(final Integer flightModelId, final int rowCount, final int colCount, final int capacity) {
+                this.flightModelId = flightModelId;
+                this.rowCount = rowCount;
+                this.colCount = colCount;
+                this.capacity = capacity;
+                this.seatNumbers = new String[capacity];
+                this.seatIndexes = new HashMap<>(capacity * 2);
+                for (int i = 0; i < capacity; i++) {
+                        String seatNumber = (i / colCount + 1) + String.valueOf((char) ('A' + i % colCount));
+                        this.seatNumbers[i] = seatNumber;
+                        this.seatIndexes.put(seatNumber, i);
+                }
+        }
+
+        /*
+         * Builds the layout of a flight model from its row and column counts. Models
+         * without a usable geometry fall back to six seats per row.
+         */
+        public static SeatLayout of(final FlightModel model) {
+                int capacity = model.getSeatCapacity() != null ? Math.max(model.getSeatCapacity(), 0) : 0;
+                Integer rows = model.getSeatRowCount();
+                Integer cols = model.getSeatColCount();
+                if (rows == null || cols == null || rows <= 0 || cols <= 0 || cols > MAX_COLUMNS) {
+                        cols = DEFAULT_COLUMNS;
+                        rows = (capacity + DEFAULT_COLUMNS - 1) / DEFAULT_COLUMNS;
+                }
+                return new SeatLayout(model.getFlightModelId(), rows, cols, Math.min(capacity, rows * cols));
+        }
+
+        /*
+         * Returns the seat number at the supplied index.
+         */
+        public String getSeatNumber(final int index) {
+                return this.seatNumbers[index];
+        }
+
+        /*
+         * Returns the index of the supplied seat number, or -1 if the seat does not
+         * exist in this layout.
+         */
+        public int indexOf(final String seatNumber) {
+                if (seatNumber == null) {
+                        return -1;
+                }
+                Integer index = this.seatIndexes.get(seatNumber);
+                return index != null ? index : -1;
+        }
+
+        /*
+         * Returns the zero based row of the seat at the supplied index.
+         */
+        public int rowOf(final int index) {
+                return index / this.colCount;
+        }
+}
@@ -0,0 +1,39 @@
+package com.flightman.flightmanapi.model;
+
+import java.util.List;
+import java.util.UUID;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@ApiModel(description = "Class representing the seat map of a flight on a specific day")
+@Getter
+@AllArgsConstructor
+public class SeatMap {
+        @ApiModelProperty(notes = "Unique identifier of the flight", example = "3fa85f64-5717-4562-b3fc-2c963f66afa6")
+        private UUID flightId;
+
+        @ApiModelProperty(notes = "The number of rows of seats")
+        private int rowCount;
+
+        @ApiModelProperty(notes = "The number of columns of seats")
+        private int colCount;
+
+        @ApiModelProperty(notes = "The number of seats that can still be booked")
+        private int availableSeats;
+
+        @ApiModelProperty(notes = "All seats of the flight in row order")
+        private List<Seat> seats;
+
+        @Getter
+        @AllArgsConstructor
+        public static class Seat {
+                @ApiModelProperty(notes = "The seat number", example = "12C")
+                private String seatNumber;
+
+                @ApiModelProperty(notes = "Is the seat still available")
+                private boolean available;
+        }
+}
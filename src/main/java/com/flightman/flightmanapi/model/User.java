@@ -20,7 +20,7 @@ import lombok.Setter;
 public class User {
 
         @Id
-        @GeneratedValue(strategy = GenerationType.AUTO)
+        @GeneratedValue(generator = "uuid7")
         @Column(name = "user_id")
         @ApiModelProperty(notes = "Unique identifier of the user", example = "3fa85f64-5717-4562-b3fc-2c963f66afa6", required = true)
         private UUID userId;
@@ -60,8 +60,9 @@ public class User {
         @ApiModelProperty(notes = "What is the associated diet identifier for this user")
         private Integer diet;
 
+        // Only changed through the rewards ledger, so saving a user never overwrites it
         @NotNull
-        @Column(name = "rewards_miles")
+        @Column(name = "rewards_miles", updatable = false)
         @ApiModelProperty(notes = "How many reward points/miles does this user have")
         private int rewardsMiles;
 
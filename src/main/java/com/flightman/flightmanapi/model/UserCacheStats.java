@@ -0,0 +1,26 @@
+package com.flightman.flightmanapi.model;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@ApiModel(description = "Class representing the statistics of the user cache since startup")
+@Getter
+@AllArgsConstructor
+public class UserCacheStats {
+        @ApiModelProperty(notes = "Number of users currently cached")
+        private long size;
+
+        @ApiModelProperty(notes = "Number of lookups answered from the cache")
+        private long hitCount;
+
+        @ApiModelProperty(notes = "Number of lookups that read the database")
+        private long missCount;
+
+        @ApiModelProperty(notes = "Share of lookups answered from the cache", example = "0.95")
+        private double hitRate;
+
+        @ApiModelProperty(notes = "Number of users evicted because of size or age")
+        private long evictionCount;
+}
@@ -0,0 +1,7 @@
+/*
+ * Entities with a UUID id use time ordered ids, see UuidV7Generator.
+ */
+@GenericGenerator(name = "uuid7", strategy = "com.flightman.flightmanapi.utils.UuidV7Generator")
+package com.flightman.flightmanapi.model;
+
+import org.hibernate.annotations.GenericGenerator;
@@ -1,22 +1,90 @@
 package com.flightman.flightmanapi.repositories;
 
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
 import java.util.UUID;
+import java.util.stream.Stream;
+
+import javax.persistence.QueryHint;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
+import com.flightman.flightmanapi.model.Airport;
 import com.flightman.flightmanapi.model.Booking;
 import com.flightman.flightmanapi.model.Flight;
+import com.flightman.flightmanapi.model.Luggage;
+import com.flightman.flightmanapi.model.ManifestEntry;
 import com.flightman.flightmanapi.model.User;
 
 @Repository
 public interface BookingRepository extends JpaRepository<Booking, Long> {
+        /*
+         * Projection of the number of seats booked on one day.
+         */
+        interface DailySeatsSold {
+                Date getFlightDate();
+
+                Long getSeatsSold();
+        }
+
+        /*
+         * Projection of the number of seats booked on one flight on one day.
+         */
+        interface FlightSeatsSold extends DailySeatsSold {
+                UUID getFlightId();
+        }
+
+        /*
+         * Projection of a booking on a departure.
+         */
+        interface DepartureBooking {
+                UUID getBookingId();
+
+                UUID getUserId();
+
+                Date getFlightDate();
+        }
+
+        /*
+         * Projection of a booking together with a booking of the same user on a
+         * later flight.
+         */
+        interface OnwardBooking extends DepartureBooking {
+                UUID getOnwardBookingId();
+
+                UUID getOnwardFlightId();
+
+                Date getOnwardFlightDate();
+        }
+
+        /*
+         * Projection of the check in state of a booking.
+         */
+        interface CheckInState {
+                UUID getBookingId();
+
+                Boolean getUserCheckIn();
+        }
+
+        /*
+         * Bookings are listed with their user, luggage, flight, airports and flight
+         * model fetched in the same query.
+         */
+        @Override
+        @EntityGraph("Booking.details")
+        List<Booking> findAll();
+
+        @EntityGraph("Booking.details")
         List<Booking> findByUser(User user);
 
         @Modifying
@@ -25,7 +93,69 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
 
         List<Booking> findByFlightAndFlightDate(Flight f, Date d);
 
+        Long countByFlightAndFlightDate(Flight f, Date d);
+
+        @Query(value = "SELECT b.flightDate AS flightDate, COUNT(b) AS seatsSold FROM Booking b "
+                        + "WHERE b.flight = :flight AND b.flightDate BETWEEN :from AND :to GROUP BY b.flightDate")
+        List<DailySeatsSold> countSeatsSoldBetween(@Param("flight") Flight flight, @Param("from") Date from,
+                        @Param("to") Date to);
+
+        @Query(value = "SELECT b.flight.flightId AS flightId, b.flightDate AS flightDate, COUNT(b) AS seatsSold "
+                        + "FROM Booking b WHERE b.flight IN :flights AND b.flightDate BETWEEN :from AND :to "
+                        + "GROUP BY b.flight.flightId, b.flightDate")
+        List<FlightSeatsSold> countSeatsSoldForFlightsBetween(@Param("flights") Collection<Flight> flights,
+                        @Param("from") Date from, @Param("to") Date to);
+
+        @Query(value = "SELECT b.bookingId AS bookingId, b.user.userId AS userId, b.flightDate AS flightDate "
+                        + "FROM Booking b WHERE b.flight = :flight AND b.flightDate BETWEEN :from AND :to")
+        List<DepartureBooking> findDepartureBookingsBetween(@Param("flight") Flight flight, @Param("from") Date from,
+                        @Param("to") Date to);
+
+        /*
+         * Finds the bookings on a flight between two dates whose user also booked a
+         * flight leaving from the supplied airport between from and onwardTo.
+         */
+        @Query(value = "SELECT b.bookingId AS bookingId, b.user.userId AS userId, b.flightDate AS flightDate, "
+                        + "o.bookingId AS onwardBookingId, o.flight.flightId AS onwardFlightId, "
+                        + "o.flightDate AS onwardFlightDate FROM Booking b, Booking o "
+                        + "WHERE b.flight = :flight AND b.flightDate BETWEEN :from AND :to AND o.user = b.user "
+                        + "AND o.flight <> :flight AND o.flight.sourceAirport = :airport "
+                        + "AND o.flightDate BETWEEN :from AND :onwardTo")
+        List<OnwardBooking> findOnwardBookingsBetween(@Param("flight") Flight flight, @Param("airport") Airport airport,
+                        @Param("from") Date from, @Param("to") Date to, @Param("onwardTo") Date onwardTo);
+
+        @Query(value = "SELECT b.seatNumber FROM Booking b WHERE b.flight = :flight AND b.flightDate = :flightDate")
+        List<String> findSeatNumbersByFlightAndFlightDate(@Param("flight") Flight flight,
+                        @Param("flightDate") Date flightDate);
+
         Booking findByBookingId(UUID id);
 
+        /*
+         * Streams the manifest of a departure from a database cursor, fetching 500
+         * rows at a time. Must be consumed inside a transaction.
+         */
+        @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+        @Query(value = "SELECT new com.flightman.flightmanapi.model.ManifestEntry(b.bookingId, u.firstName, "
+                        + "u.lastName, b.seatNumber, b.userCheckIn, l.count, l.weight) FROM Booking b JOIN b.user u "
+                        + "LEFT JOIN b.luggage l WHERE b.flight = :flight AND b.flightDate = :flightDate "
+                        + "ORDER BY b.seatNumber")
+        Stream<ManifestEntry> streamManifest(@Param("flight") Flight flight, @Param("flightDate") Date flightDate);
+
+        @Query(value = "SELECT b.bookingId AS bookingId, b.userCheckIn AS userCheckIn FROM Booking b "
+                        + "WHERE b.flight = :flight AND b.flightDate = :flightDate")
+        List<CheckInState> findCheckInStatesByFlightAndFlightDate(@Param("flight") Flight flight,
+                        @Param("flightDate") Date flightDate);
+
+        @Modifying
+        @Query(value = "UPDATE Booking b SET b.userCheckIn = true WHERE b.flight = :flight "
+                        + "AND b.flightDate = :flightDate AND b.bookingId IN :ids "
+                        + "AND (b.userCheckIn IS NULL OR b.userCheckIn = false)")
+        Integer checkInBookings(@Param("flight") Flight flight, @Param("flightDate") Date flightDate,
+                        @Param("ids") Collection<UUID> ids);
+
+        @Modifying(flushAutomatically = true)
+        @Query(value = "UPDATE Booking b SET b.luggage = :luggage WHERE b.bookingId = :bookingId AND b.luggage IS NULL")
+        Integer attachLuggage(@Param("bookingId") UUID bookingId, @Param("luggage") Luggage luggage);
+
         Long deleteByFlight(Flight flight);
 }
@@ -0,0 +1,76 @@
+package com.flightman.flightmanapi.repositories;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+import javax.transaction.Transactional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.flightman.flightmanapi.model.Flight;
+import com.flightman.flightmanapi.model.FlightInventory;
+
+@Repository
+public interface FlightInventoryRepository extends JpaRepository<FlightInventory, UUID> {
+        /*
+         * Projection of the seats remaining on one day.
+         */
+        interface DailySeatsRemaining {
+                Date getFlightDate();
+
+                Integer getSeatsRemaining();
+        }
+
+        /*
+         * Projection of the seats remaining on one flight on one day.
+         */
+        interface FlightSeatsRemaining extends DailySeatsRemaining {
+                UUID getFlightId();
+        }
+
+        FlightInventory findByFlightAndFlightDate(Flight flight, Date flightDate);
+
+        @Query(value = "SELECT fi.flightDate AS flightDate, fi.seatsRemaining AS seatsRemaining "
+                        + "FROM FlightInventory fi WHERE fi.flight = :flight AND fi.flightDate BETWEEN :from AND :to")
+        List<DailySeatsRemaining> findSeatsRemainingBetween(@Param("flight") Flight flight, @Param("from") Date from,
+                        @Param("to") Date to);
+
+        @Query(value = "SELECT fi.flight.flightId AS flightId, fi.flightDate AS flightDate, "
+                        + "fi.seatsRemaining AS seatsRemaining FROM FlightInventory fi "
+                        + "WHERE fi.flight IN :flights AND fi.flightDate BETWEEN :from AND :to")
+        List<FlightSeatsRemaining> findSeatsRemainingForFlightsBetween(@Param("flights") Collection<Flight> flights,
+                        @Param("from") Date from, @Param("to") Date to);
+
+        @Transactional
+        @Modifying
+        @Query(value = "UPDATE FlightInventory fi SET fi.seatsSold = fi.seatsSold + :count, "
+                        + "fi.seatsRemaining = fi.seatsRemaining - :count "
+                        + "WHERE fi.flight = :flight AND fi.flightDate = :flightDate AND fi.seatsRemaining >= :count")
+        Integer reserveSeats(@Param("flight") Flight flight, @Param("flightDate") Date flightDate,
+                        @Param("count") int count);
+
+        @Transactional
+        @Modifying
+        @Query(value = "UPDATE FlightInventory fi SET fi.seatsSold = fi.seatsSold - :count, "
+                        + "fi.seatsRemaining = fi.seatsRemaining + :count "
+                        + "WHERE fi.flight = :flight AND fi.flightDate = :flightDate AND fi.seatsSold >= :count")
+        Integer releaseSeats(@Param("flight") Flight flight, @Param("flightDate") Date flightDate,
+                        @Param("count") int count);
+
+        @Transactional
+        @Modifying
+        @Query(value = "UPDATE FlightInventory fi SET fi.seatsRemaining = :capacity - fi.seatsSold "
+                        + "WHERE fi.flight = :flight")
+        Integer updateCapacity(@Param("flight") Flight flight, @Param("capacity") int capacity);
+
+        @Transactional
+        @Modifying
+        @Query(value = "DELETE FROM FlightInventory WHERE flight = :flight")
+        Integer deleteByFlight(@Param("flight") Flight flight);
+}
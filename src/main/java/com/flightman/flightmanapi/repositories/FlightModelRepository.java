@@ -1,24 +1,41 @@
 package com.flightman.flightmanapi.repositories;
 
+import static org.hibernate.jpa.QueryHints.HINT_CACHEABLE;
+import static org.hibernate.jpa.QueryHints.HINT_CACHE_REGION;
+
+import java.util.Collection;
 import java.util.List;
 
+import javax.persistence.QueryHint;
+
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import com.flightman.flightmanapi.ReferenceCacheConfig;
 import com.flightman.flightmanapi.model.FlightModel;
 
 
 @Repository
 public interface FlightModelRepository extends JpaRepository<FlightModel, Long>{
+    // Flight models rarely change, so the lookups are answered from the query cache
+    @QueryHints({ @QueryHint(name = HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HINT_CACHE_REGION, value = ReferenceCacheConfig.QUERY_REGION) })
     List<FlightModel> findAll();
     
     @Modifying
 	@Query(value = "DELETE FROM FlightModel WHERE flightModelId = :id")
 	Integer deleteByFlightModelId(@Param("id") Integer id);
 
+    @QueryHints({ @QueryHint(name = HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HINT_CACHE_REGION, value = ReferenceCacheConfig.QUERY_REGION) })
     FlightModel findByFlightModelId(Integer flightModelId);
 
+    @QueryHints({ @QueryHint(name = HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HINT_CACHE_REGION, value = ReferenceCacheConfig.QUERY_REGION) })
+    List<FlightModel> findByFlightModelIdIn(Collection<Integer> flightModelIds);
+
 }
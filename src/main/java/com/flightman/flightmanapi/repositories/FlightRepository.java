@@ -1,21 +1,33 @@
 package com.flightman.flightmanapi.repositories;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import com.flightman.flightmanapi.model.Airport;
 import com.flightman.flightmanapi.model.Flight;
+import com.flightman.flightmanapi.model.FlightModel;
 
 @Repository
-public interface FlightRepository extends JpaRepository<Flight, Long> {
+public interface FlightRepository extends JpaRepository<Flight, Long>, FlightSearchRepository {
+    // Flight lists fetch the airports and flight model in the same query
+    @EntityGraph("Flight.details")
     List<Flight> findAll();
     Flight findByFlightId(UUID flightId);
-    List<Flight> findBySourceAirportAirportAbvName(String sourceAbvName);
-    List<Flight> findByDestAirportAirportAbvName(String destAbvName);
-    List<Flight> findBySourceAirportAirportAbvNameAndDestAirportAirportAbvName(String sourceAbvName, String destAbvName);
+    @EntityGraph("Flight.details")
+    List<Flight> findByFlightIdIn(Collection<UUID> flightIds);
+    @EntityGraph("Flight.details")
+    List<Flight> findBySourceAirport(Airport sourceAirport);
+    @EntityGraph("Flight.details")
+    List<Flight> findByDestAirport(Airport destAirport);
+    @EntityGraph("Flight.details")
+    List<Flight> findBySourceAirportAndDestAirport(Airport sourceAirport, Airport destAirport);
+    List<Flight> findByFlightModel(FlightModel flightModel);
 
     Integer deleteByFlightId(@Param("id") UUID id);
 }
@@ -0,0 +1,64 @@
+package com.flightman.flightmanapi.repositories;
+
+import java.util.List;
+import java.util.UUID;
+
+import com.flightman.flightmanapi.model.Airport;
+import com.flightman.flightmanapi.model.Flight;
+
+/*
+ * Keyset paginated flight search. Pages are ordered by a sort key and the flight
+ * id as tie breaker, and the next page starts strictly after the last row of the
+ * previous one instead of at an offset.
+ */
+public interface FlightSearchRepository {
+        /*
+         * The columns a flight search can be sorted by.
+         */
+        enum SortKey {
+                COST("cost", "cost"),
+                DEPARTURE_TIME("departureTime", "departureTime"),
+                DURATION("duration", "durationMinutes");
+
+                private final String name;
+
+                private final String attribute;
+
+                SortKey(final String name, final String attribute) {
+                        this.name = name;
+                        this.attribute = attribute;
+                }
+
+                public String getName() {
+                        return this.name;
+                }
+
+                public String getAttribute() {
+                        return this.attribute;
+                }
+
+                /*
+                 * Returns the sort key named by a request parameter, DEPARTURE_TIME if none
+                 * is supplied, or null if the name is unknown.
+                 */
+                public static SortKey of(final String name) {
+                        if (name == null) {
+                                return DEPARTURE_TIME;
+                        }
+                        for (SortKey key : values()) {
+                                if (key.name.equalsIgnoreCase(name)) {
+                                        return key;
+                                }
+                        }
+                        return null;
+                }
+        }
+
+        /*
+         * Returns at most limit flights ordered by the sort key and flight id,
+         * starting after the supplied key value and flight id if afterId is not null.
+         * Source and destination airport are optional filters.
+         */
+        List<Flight> findPage(Airport source, Airport dest, SortKey sortKey, Comparable<?> afterValue, UUID afterId,
+                        int limit);
+}
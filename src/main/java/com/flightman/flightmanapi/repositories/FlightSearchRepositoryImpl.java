@@ -0,0 +1,54 @@
+package com.flightman.flightmanapi.repositories;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+
+import com.flightman.flightmanapi.model.Airport;
+import com.flightman.flightmanapi.model.Flight;
+
+public class FlightSearchRepositoryImpl implements FlightSearchRepository {
+
+        private static final String LOAD_GRAPH = "javax.persistence.loadgraph";
+
+        @PersistenceContext
+        private EntityManager entityManager;
+
+        @Override
+        @SuppressWarnings({ "unchecked", "rawtypes" })
+        public List<Flight> findPage(final Airport source, final Airport dest, final SortKey sortKey,
+                        final Comparable<?> afterValue, final UUID afterId, final int limit) {
+                CriteriaBuilder cb = this.entityManager.getCriteriaBuilder();
+                CriteriaQuery<Flight> query = cb.createQuery(Flight.class);
+                Root<Flight> flight = query.from(Flight.class);
+                Path<Comparable> key = flight.get(sortKey.getAttribute());
+                Path<UUID> id = flight.get("flightId");
+
+                List<Predicate> where = new ArrayList<>();
+                where.add(cb.isNotNull(key));
+                if (source != null) {
+                        where.add(cb.equal(flight.get("sourceAirport"), source));
+                }
+                if (dest != null) {
+                        where.add(cb.equal(flight.get("destAirport"), dest));
+                }
+                if (afterId != null) {
+                        Comparable value = afterValue;
+                        where.add(cb.or(cb.greaterThan(key, value),
+                                        cb.and(cb.equal(key, value), cb.greaterThan(id, afterId))));
+                }
+                query.select(flight).where(where.toArray(new Predicate[0])).orderBy(cb.asc(key), cb.asc(id));
+                return this.entityManager.createQuery(query)
+                                .setHint(LOAD_GRAPH, this.entityManager.getEntityGraph("Flight.details"))
+                                .setMaxResults(limit)
+                                .getResultList();
+        }
+}
@@ -0,0 +1,14 @@
+package com.flightman.flightmanapi.repositories;
+
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.flightman.flightmanapi.model.RewardsTransaction;
+
+@Repository
+public interface RewardsTransactionRepository extends JpaRepository<RewardsTransaction, UUID> {
+        List<RewardsTransaction> findByUserIdOrderByCreatedAtDesc(UUID userId);
+}
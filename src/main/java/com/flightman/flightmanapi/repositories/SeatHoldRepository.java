@@ -0,0 +1,54 @@
+package com.flightman.flightmanapi.repositories;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+import javax.transaction.Transactional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.flightman.flightmanapi.model.Flight;
+import com.flightman.flightmanapi.model.SeatHold;
+
+@Repository
+public interface SeatHoldRepository extends JpaRepository<SeatHold, UUID> {
+        /*
+         * Projection of the fields needed to reschedule the expiry of a hold.
+         */
+        interface HoldExpiry {
+                UUID getHoldId();
+
+                Date getExpiresAt();
+        }
+
+        List<HoldExpiry> findAllBy();
+
+        SeatHold findByHoldId(UUID holdId);
+
+        List<SeatHold> findByHoldIdIn(Collection<UUID> holdIds);
+
+        @Query(value = "SELECT h.seatNumber FROM SeatHold h WHERE h.flight = :flight AND h.flightDate = :flightDate")
+        List<String> findSeatNumbersByFlightAndFlightDate(@Param("flight") Flight flight,
+                        @Param("flightDate") Date flightDate);
+
+        @Transactional
+        @Modifying
+        @Query(value = "DELETE FROM SeatHold WHERE holdId = :id")
+        Integer deleteByHoldId(@Param("id") UUID id);
+
+        @Transactional
+        @Modifying
+        @Query(value = "DELETE FROM SeatHold WHERE holdId IN :ids")
+        Integer deleteByHoldIdIn(@Param("ids") Collection<UUID> ids);
+
+        @Transactional
+        @Modifying
+        @Query(value = "DELETE FROM SeatHold WHERE flight = :flight")
+        Integer deleteByFlight(@Param("flight") Flight flight);
+}
@@ -1,5 +1,7 @@
 package com.flightman.flightmanapi.repositories;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.UUID;
 
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -17,8 +19,19 @@ public interface UserRepository extends JpaRepository<User, Long> {
 
         User findByEmail(String email);
 
+        List<User> findByUserIdIn(Collection<UUID> userIds);
+
         // findAll
 
+        /*
+         * Adds the supplied number of reward points to the balance of a user unless
+         * the balance would become negative. Returns the number of updated rows.
+         */
+        @Modifying
+        @Query(value = "UPDATE User u SET u.rewardsMiles = u.rewardsMiles + :delta "
+                        + "WHERE u.userId = :userId AND u.rewardsMiles + :delta >= 0")
+        Integer addRewardsMiles(@Param("userId") UUID userId, @Param("delta") int delta);
+
         @Modifying
         @Query(value = "DELETE FROM User WHERE user_id = :id")
         Integer deleteById(@Param("id") UUID id);
@@ -0,0 +1,173 @@
+package com.flightman.flightmanapi.services;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import com.flightman.flightmanapi.model.Airport;
+import com.flightman.flightmanapi.model.NearbyAirport;
+import com.flightman.flightmanapi.repositories.AirportRepository;
+import com.flightman.flightmanapi.utils.SphericalKdTree;
+import com.flightman.flightmanapi.utils.TypeaheadIndex;
+
+/*
+ * In-process copy of the airport reference data. Airports change rarely, so all
+ * of them are loaded once into immutable maps by id and abbreviation, a
+ * typeahead index of their names and a k-d tree of their locations, which are
+ * replaced as a whole whenever an airport is saved.
+ */
+@Service
+public class AirportRegistry {
+
+        private static final Logger logger = LogManager.getLogger(AirportRegistry.class);
+
+        @Autowired
+        private AirportRepository airportRepository;
+
+        private volatile Snapshot snapshot;
+
+        /*
+         * Immutable view of all airports at one point in time.
+         */
+        private record Snapshot(List<Airport> airports, Map<UUID, Airport> byId, Map<String, Airport> byAbvName,
+                        TypeaheadIndex<Airport> names, SphericalKdTree<Airport> locations) {
+
+                private static Snapshot of(final List<Airport> airports) {
+                        Map<UUID, Airport> byId = new HashMap<>();
+                        Map<String, Airport> byAbvName = new HashMap<>();
+                        List<Airport> located = new ArrayList<>();
+                        double[] latitudes = new double[airports.size()];
+                        double[] longitudes = new double[airports.size()];
+                        for (Airport a : airports) {
+                                if (a.getAirportId() != null) {
+                                        byId.put(a.getAirportId(), a);
+                                }
+                                if (a.getAirportAbvName() != null) {
+                                        byAbvName.put(a.getAirportAbvName(), a);
+                                }
+                                try {
+                                        double latitude = Double.parseDouble(a.getLatitude());
+                                        double longitude = Double.parseDouble(a.getLongitude());
+                                        if (Math.abs(latitude) <= 90 && Math.abs(longitude) <= 180) {
+                                                latitudes[located.size()] = latitude;
+                                                longitudes[located.size()] = longitude;
+                                                located.add(a);
+                                        }
+                                } catch (NullPointerException | NumberFormatException e) {
+                                        // Airports without usable coordinates are not located
+                                }
+                        }
+                        return new Snapshot(List.copyOf(airports), Map.copyOf(byId), Map.copyOf(byAbvName),
+                                        new TypeaheadIndex<>(airports, Airport::getAirportAbvName, Airport::getAirportName),
+                                        new SphericalKdTree<>(located, latitudes, longitudes));
+                }
+        }
+
+        /*
+         * Loads all airports once the application is up. If the database is not
+         * reachable yet, they are loaded on first use instead.
+         */
+        @EventListener(ApplicationReadyEvent.class)
+        public void loadAirports() {
+                try {
+                        refresh();
+                        logger.info("Loaded {} airports", this.snapshot.airports().size());
+                } catch (RuntimeException e) {
+                        logger.error("Could not load airports!");
+                        logger.error(e);
+                }
+        }
+
+        /*
+         * Method that reloads all airports from the database, e.g. after an airport
+         * was created or changed.
+         */
+        public synchronized void refresh() {
+                List<Airport> airports = new ArrayList<>();
+                this.airportRepository.findAll().forEach(airports::add);
+                this.snapshot = Snapshot.of(airports);
+        }
+
+        /*
+         * Method that returns all airports.
+         */
+        public List<Airport> findAll() {
+                return snapshot().airports();
+        }
+
+        /*
+         * Method that returns the airport with the supplied id, or null if it does not
+         * exist.
+         */
+        public Airport findById(final UUID airportId) {
+                return airportId != null ? snapshot().byId().get(airportId) : null;
+        }
+
+        /*
+         * Method that returns the airport with the supplied abbreviation, or null if
+         * it does not exist.
+         */
+        public Airport findByAbvName(final String airportAbvName) {
+                return airportAbvName != null ? snapshot().byAbvName().get(airportAbvName) : null;
+        }
+
+        /*
+         * Method that returns the airports whose name contains the supplied string.
+         */
+        public List<Airport> findByNameContaining(final String airportName) {
+                List<Airport> airports = new ArrayList<>();
+                for (Airport a : snapshot().airports()) {
+                        if (a.getAirportName() != null && a.getAirportName().contains(airportName)) {
+                                airports.add(a);
+                        }
+                }
+                return airports;
+        }
+
+        /*
+         * Method that returns at most limit airports whose abbreviation or name
+         * contains the query, ignoring case and accents. Exact abbreviation matches
+         * come first, then prefixes of the abbreviation or of a word in the name,
+         * then other matches.
+         */
+        public List<Airport> search(final String query, final int limit) {
+                return snapshot().names().search(query, limit);
+        }
+
+        /*
+         * Method that returns at most limit airports within radiusKm of a location,
+         * nearest first. Coordinates are parsed once per refresh, so a search does
+         * not touch the database or parse any strings.
+         */
+        public List<NearbyAirport> findNearby(final double latitude, final double longitude, final double radiusKm,
+                        final int limit) {
+                List<NearbyAirport> airports = new ArrayList<>();
+                for (SphericalKdTree.Neighbor<Airport> n : snapshot().locations().nearest(latitude, longitude, radiusKm,
+                                limit)) {
+                        airports.add(new NearbyAirport(n.item(), n.distanceKm()));
+                }
+                return airports;
+        }
+
+        private Snapshot snapshot() {
+                Snapshot s = this.snapshot;
+                if (s == null) {
+                        synchronized (this) {
+                                if (this.snapshot == null) {
+                                        refresh();
+                                }
+                                s = this.snapshot;
+                        }
+                }
+                return s;
+        }
+}
@@ -7,7 +7,9 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import com.flightman.flightmanapi.model.Airport;
+import com.flightman.flightmanapi.model.NearbyAirport;
 import com.flightman.flightmanapi.repositories.AirportRepository;
+import com.flightman.flightmanapi.utils.TransactionRunner;
 
 @Service
 public class AirportService {
@@ -15,6 +17,21 @@ public class AirportService {
         @Autowired
         private AirportRepository airportRepository;
 
+        @Autowired
+        private AirportRegistry airportRegistry;
+
+        @Autowired
+        private DepartureTimeService departureTimeService;
+
+        @Autowired
+        private RouteGraphService routeGraphService;
+
+        @Autowired
+        private TransactionRunner transactionRunner;
+
+        @Autowired
+        private ReferenceDataCache referenceDataCache;
+
         /*
          * Method that returns a list of all airports if airport name is not supplied,
          * else returns airports whose name contains the supplied string.
@@ -22,17 +39,61 @@ public class AirportService {
         public List<Airport> find(final String airportName) {
                 List<Airport> airportsList = new ArrayList<Airport>();
                 if (airportName == null)
-                        this.airportRepository.findAll().forEach(airportsList::add);
+                        airportsList.addAll(this.airportRegistry.findAll());
                 else
-                        this.airportRepository.findByAirportNameContaining(airportName).forEach(airportsList::add);
+                        airportsList.addAll(this.airportRegistry.findByNameContaining(airportName));
                 return airportsList;
         }
 
         /*
-         * Method that saves an Airport object to the database.
+         * Method that returns at most limit airports matching a typeahead query,
+         * best match first.
+         */
+        public List<Airport> search(final String query, final int limit) {
+                return this.airportRegistry.search(query, limit);
+        }
+
+        /*
+         * Method that returns at most limit airports within radiusKm of a location,
+         * nearest first.
+         */
+        public List<NearbyAirport> findNearby(final double latitude, final double longitude, final double radiusKm,
+                        final int limit) {
+                return this.airportRegistry.findNearby(latitude, longitude, radiusKm, limit);
+        }
+
+        /*
+         * Method that saves an Airport object to the database and refreshes the
+         * airport registry. Updating an existing airport may change its time zone or
+         * abbreviation, so cached departure times are dropped and the route graph is
+         * reloaded.
          */
         public Boolean saveAirport(final Airport airport) {
+                boolean existing = airport.getAirportId() != null;
                 this.airportRepository.save(airport);
+                this.referenceDataCache.evictAirports();
+                this.airportRegistry.refresh();
+                if (existing) {
+                        this.departureTimeService.evictAll();
+                        this.routeGraphService.reload();
+                }
                 return true;
         }
+
+        /*
+         * Method that saves many airports in one transaction, so the inserts are
+         * sent to the database in JDBC batches, and refreshes the airport registry
+         * once they are committed.
+         */
+        public List<Airport> saveAirports(final List<Airport> airports) {
+                boolean existing = airports.stream().anyMatch(a -> a.getAirportId() != null);
+                List<Airport> saved = this.transactionRunner.run(() -> this.airportRepository.saveAll(airports));
+                this.referenceDataCache.evictAirports();
+                this.airportRegistry.refresh();
+                if (existing) {
+                        this.departureTimeService.evictAll();
+                        this.routeGraphService.reload();
+                }
+                return saved;
+        }
 }
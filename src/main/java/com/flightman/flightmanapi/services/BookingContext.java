@@ -0,0 +1,21 @@
+package com.flightman.flightmanapi.services;
+
+import com.flightman.flightmanapi.model.Booking;
+
+/*
+ * A booking loaded once per request. The validation rules and the update of a
+ * booking operation all run against this instance instead of reloading the
+ * booking by its id.
+ */
+public final class BookingContext {
+
+        private final Booking booking;
+
+        public BookingContext(final Booking booking) {
+                this.booking = booking;
+        }
+
+        public Booking getBooking() {
+                return this.booking;
+        }
+}
@@ -2,28 +2,41 @@ package com.flightman.flightmanapi.services;
 
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
-import java.time.LocalDate;
-import java.time.LocalTime;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 
 import com.flightman.flightmanapi.model.Booking;
+import com.flightman.flightmanapi.model.BulkCheckInResult;
 import com.flightman.flightmanapi.model.Flight;
 import com.flightman.flightmanapi.model.Luggage;
+import com.flightman.flightmanapi.model.RewardsTransaction;
+import com.flightman.flightmanapi.model.SeatHold;
 import com.flightman.flightmanapi.model.User;
 import com.flightman.flightmanapi.repositories.BookingRepository;
 import com.flightman.flightmanapi.repositories.UserRepository;
 import com.flightman.flightmanapi.repositories.FlightRepository;
 import com.flightman.flightmanapi.repositories.LuggageRepository;
+import com.flightman.flightmanapi.utils.TransactionRunner;
 
 @Service
 public class BookingService {
@@ -37,11 +50,36 @@ public class BookingService {
         @Autowired
         private UserRepository userRepository;
 
+        @Autowired
+        private UserCache userCache;
+
+        @Autowired
+        private RewardsLedgerService rewardsLedgerService;
+
         @Autowired
         private LuggageRepository luggageRepository;
 
+        @Autowired
+        private SeatInventoryService seatInventoryService;
+
+        @Autowired
+        private FlightInventoryService flightInventoryService;
+
+        @Autowired
+        private SeatHoldService seatHoldService;
+
+        @Autowired
+        private DepartureTimeService departureTimeService;
+
+        @Autowired
+        private TransactionRunner transactionRunner;
+
         private static final Logger logger = LogManager.getLogger(BookingService.class);
 
+        private static final int MAX_BOOKING_ATTEMPTS = 3;
+
+        private static final int CHECK_IN_WINDOW_HOURS = 2;
+
         /*
          * Method that returns a list of all bookings in the database.
          */
@@ -50,7 +88,7 @@ public class BookingService {
                 if (userId == null) {
                         this.bookingRepository.findAll().forEach(bookingsList::add);
                 } else {
-                        User u = this.userRepository.findByUserId(userId);
+                        User u = this.userCache.findById(userId);
                         this.bookingRepository.findByUser(u).forEach(bookingsList::add);
                 }
                 return bookingsList;
@@ -61,7 +99,7 @@ public class BookingService {
          */
         public Boolean validateUser(final String userId) {
                 try {
-                        User u = this.userRepository.findByUserId(UUID.fromString(userId));
+                        User u = this.userCache.findById(UUID.fromString(userId));
                         return u != null;
                 } catch (Exception e) {
                         e.printStackTrace();
@@ -97,17 +135,35 @@ public class BookingService {
                 return false;
         }
 
+        /*
+         * Method that loads a booking once for a booking operation. Returns null if
+         * the id is invalid or the booking does not exist.
+         */
+        public BookingContext loadBookingContext(final String bookingId) {
+                try {
+                        Booking b = this.bookingRepository.findByBookingId(UUID.fromString(bookingId));
+                        return b != null ? new BookingContext(b) : null;
+                } catch (IllegalArgumentException e) {
+                        return null;
+                }
+        }
+
         /*
          * Method that validates if check in is allowed based on time to flight
          * departure
          */
         public Boolean validateCheckInTime(final String bookingId) {
+                BookingContext context = loadBookingContext(bookingId);
+                return context != null && validateCheckInTime(context);
+        }
+
+        /*
+         * Method that validates if check in is allowed for a loaded booking.
+         */
+        public Boolean validateCheckInTime(final BookingContext context) {
                 try {
-                        Booking b = this.bookingRepository.findByBookingId(UUID.fromString(bookingId));
-                        if (getTimeToFlightDeparture(b) >= -2) {
-                                return true;
-                        }
-                } catch (ParseException e) {
+                        return isCheckInOpen(getTimeToFlightDeparture(context.getBooking()));
+                } catch (RuntimeException e) {
                         e.printStackTrace();
                 }
                 return false;
@@ -117,52 +173,28 @@ public class BookingService {
          * Method that returns an available seat on a flight on a specific day.
          */
         public String generateSeatNumber(final Flight f, final Date d) {
-                String[] possibleSeatList = new String[] { "1A", "1B", "1C", "1D", "1E", "1F", "2A", "2B", "2C", "2D",
-                                "2E", "2F", "3A", "3B", "3C", "3D", "3E", "3F", "4A", "4B", "4C", "4D", "4E", "4F",
-                                "5A", "5B", "5C", "5D", "5E", "5F", "6A", "6B", "6C", "6D", "6E", "6F", "7A", "7B",
-                                "7C", "7D", "7E", "7F", "8A", "8B", "8C", "8D", "8E", "8F", "9A", "9B", "9C", "9D",
-                                "9E", "9F", "10A", "10B", "10C", "10D", "10E", "10F", "11A", "11B", "11C", "11D", "11E",
-                                "11F", "12A", "12B", "12C", "12D", "12E", "12F", "13A", "13B", "13C", "13D", "13E",
-                                "13F", "14A", "14B", "14C", "14D", "14E", "14F", "15A", "15B", "15C", "15D", "15E",
-                                "15F", "16A", "16B", "16C", "16D", "16E", "16F", "17A", "17B", "17C", "17D", "17E",
-                                "17F", "18A", "18B", "18C", "18D", "18E", "18F", "19A", "19B", "19C", "19D", "19E",
-                                "19F", "20A", "20B", "20C", "20D", "20E", "20F", "21A", "21B", "21C", "21D", "21E",
-                                "21F", "22A", "22B", "22C", "22D", "22E", "22F", "23A", "23B", "23C", "23D", "23E",
-                                "23F", "24A", "24B", "24C", "24D", "24E", "24F", "25A", "25B", "25C", "25D", "25E",
-                                "25F", "26A", "26B", "26C", "26D", "26E", "26F", "27A", "27B", "27C", "27D", "27E",
-                                "27F", "28A", "28B", "28C", "28D", "28E", "28F", "29A", "29B", "29C", "29D", "29E",
-                                "29F", "30A", "30B", "30C", "30D", "30E", "30F", "31A", "31B", "31C", "31D", "31E",
-                                "31F", "32A", "32B", "32C", "32D", "32E", "32F", "33A", "33B", "33C", "33D", "33E",
-                                "33F", "34A", "34B", "34C", "34D", "34E", "34F" };
-                List<Booking> bookingsList;
-                bookingsList = this.bookingRepository.findByFlightAndFlightDate(f, d);
-                List<String> takenSeats = new ArrayList<>();
-                for (Booking booking : bookingsList) {
-                        takenSeats.add(0, booking.getSeatNumber());
-                }
-                String finalSeat = "";
-                for (String seat : possibleSeatList) {
-                        if (!takenSeats.contains(seat)) {
-                                finalSeat = seat;
-                        }
-                }
-                return finalSeat;
+                String seatNumber = this.seatInventoryService.findFreeSeat(f, d);
+                return seatNumber != null ? seatNumber : "";
         }
 
         /*
          * Method that returns the number of hours for flight departure
-         * from current time.
+         * from current time. The result is negative before departure.
          */
-        public float getTimeToFlightDeparture(final Booking b) throws ParseException {
-                String date = b.getFlightDate().toString().substring(0, 10);
-                String time = b.getFlight().getDepartureTime().toString();
-                SimpleDateFormat sdf = new SimpleDateFormat("yyyy-mm-dd hh:mm:ss");
-                Date flightDateTime = sdf.parse(date + " " + time);
-                String curDate = LocalDate.now().toString();
-                String curTime = LocalTime.now().toString();
-                Date curDateTime = sdf.parse(curDate + " " + curTime);
+        public float getTimeToFlightDeparture(final Booking b) {
+                return getTimeToFlightDeparture(b.getFlight(), b.getFlightDate());
+        }
+
+        private float getTimeToFlightDeparture(final Flight f, final Date d) {
+                Instant departure = this.departureTimeService.getDepartureInstant(f, d);
+                return Duration.between(departure, Instant.now()).toMillis() / (float) (1000 * 60 * 60);
+        }
 
-                return (curDateTime.getTime() - flightDateTime.getTime()) / (float) (1000 * 60 * 60);
+        /*
+         * Check in opens two hours before departure and closes at departure.
+         */
+        private static boolean isCheckInOpen(final float hoursToDeparture) {
+                return hoursToDeparture >= -CHECK_IN_WINDOW_HOURS && hoursToDeparture < 0;
         }
 
         /*
@@ -173,49 +205,257 @@ public class BookingService {
                 return b.getLuggage() != null;
         }
 
+        /*
+         * Method that returns true if luggage has been checked in already for a
+         * loaded booking.
+         */
+        public Boolean getLuggageCheckInStatus(final BookingContext context) {
+                return context.getBooking().getLuggage() != null;
+        }
+
         /*
          * Method that creates a record in the booking table of the database
-         * after processing changes on the flight table.
+         * after taking a seat from the flight inventory. The inventory update, the
+         * reward points update and the booking insert run in one transaction while
+         * holding the lock of the departure, and are retried if another booking
+         * took the same seat first.
          */
         public Booking book(final String userId, final String flightId, final String seatNumber, final String date,
                         final Boolean useRewardPoints) {
                 try {
                         Date d = new SimpleDateFormat("MM-dd-yyyy").parse(date);
-                        User u = this.userRepository.findByUserId(UUID.fromString(userId));
+                        User u = this.userCache.findById(UUID.fromString(userId));
                         Flight f = this.flightRepository.findByFlightId(UUID.fromString(flightId));
-                        Integer totalSeatCount = f.getNumSeats();
-                        Integer bookedSeatCount = this.bookingRepository.findByFlightAndFlightDate(f, d).size();
-                        Integer availableSeats = totalSeatCount - bookedSeatCount;
-                        int pointsToReturn = f.getCost();
-                        String generatedSeatNumber = seatNumber;
-
-                        if (seatNumber == null || seatNumber.equals("")) {
-                                generatedSeatNumber = this.generateSeatNumber(f, d);
+                        return runWithSeatRetry(f, d, () -> book(u, f, seatNumber, d, useRewardPoints));
+                } catch (Exception e) {
+                        logger.error("Error while booking!");
+                        logger.error(e.getStackTrace());
+                        logger.error(e);
+                        return null;
+                }
+        }
+
+        /*
+         * Runs a seat allocation in one transaction while holding the lock of the
+         * departure. If another node took one of the seats first, the cached
+         * inventory is reloaded and the allocation is retried.
+         */
+        private <T> T runWithSeatRetry(final Flight f, final Date d, final Supplier<T> allocation) {
+                Lock lock = this.seatInventoryService.getDepartureLock(f, d);
+                for (int attempt = 1;; attempt++) {
+                        lock.lock();
+                        try {
+                                return this.transactionRunner.run(allocation);
+                        } catch (DataIntegrityViolationException e) {
+                                this.seatInventoryService.evictDeparture(f, d);
+                                if (attempt >= MAX_BOOKING_ATTEMPTS) {
+                                        throw e;
+                                }
+                                logger.warn("Seat conflict while booking, retrying");
+                        } catch (RuntimeException e) {
+                                this.seatInventoryService.evictDeparture(f, d);
+                                throw e;
+                        } finally {
+                                lock.unlock();
                         }
-                        if (availableSeats > 0 && !generatedSeatNumber.equals("")) {
-                                if (Boolean.TRUE.equals(useRewardPoints)) {
-                                        if (u.getRewardsMiles() < pointsToReturn) {
-                                                return null;
-                                        }
-                                        u.setRewardsMiles(u.getRewardsMiles() - pointsToReturn);
-                                } else {
-                                        u.setRewardsMiles(u.getRewardsMiles() + pointsToReturn / 10);
+                }
+        }
+
+        private Booking book(final User u, final Flight f, final String seatNumber, final Date d,
+                        final Boolean useRewardPoints) {
+                int pointsToReturn = f.getCost();
+
+                if (Boolean.TRUE.equals(useRewardPoints) && u.getRewardsMiles() < pointsToReturn) {
+                        return null;
+                }
+                if (Boolean.FALSE.equals(this.flightInventoryService.reserveSeats(f, d, 1))) {
+                        return null;
+                }
+                String generatedSeatNumber = this.seatInventoryService.claimSeat(f, d, seatNumber);
+                if (generatedSeatNumber == null) {
+                        this.flightInventoryService.releaseSeats(f, d, 1);
+                        return null;
+                }
+                return persistBooking(u, f, generatedSeatNumber, d, useRewardPoints);
+        }
+
+        /*
+         * Saves the booking of a seat that was already taken from the inventory and
+         * updates the reward points of the user. Throws if the user has not enough
+         * reward points anymore, which rolls the booking back.
+         */
+        private Booking persistBooking(final User u, final Flight f, final String seatNumber, final Date d,
+                        final Boolean useRewardPoints) {
+                Booking booking = new Booking(u, f, seatNumber, true, useRewardPoints, d);
+                booking = this.bookingRepository.save(booking);
+                applyRewards(u, booking, f, useRewardPoints);
+                return booking;
+        }
+
+        private void applyRewards(final User u, final Booking booking, final Flight f,
+                        final Boolean useRewardPoints) {
+                boolean applied;
+                if (Boolean.TRUE.equals(useRewardPoints)) {
+                        applied = this.rewardsLedgerService.apply(u.getUserId(), booking.getBookingId(), -f.getCost(),
+                                        RewardsTransaction.Reason.BOOKING_REDEEMED);
+                } else {
+                        applied = this.rewardsLedgerService.apply(u.getUserId(), booking.getBookingId(),
+                                        f.getCost() / 10, RewardsTransaction.Reason.BOOKING_EARNED);
+                }
+                if (!applied) {
+                        throw new IllegalStateException("Could not update the reward points of the user!");
+                }
+        }
+
+        /*
+         * Method that validates if all users of a group exist with a single query.
+         */
+        public Boolean validateUsers(final List<String> userIds) {
+                try {
+                        Set<UUID> ids = userIds.stream().map(UUID::fromString).collect(Collectors.toSet());
+                        return !ids.isEmpty() && this.userRepository.findByUserIdIn(ids).size() == ids.size();
+                } catch (Exception e) {
+                        e.printStackTrace();
+                }
+                return false;
+        }
+
+        /*
+         * Method that books seats next to each other for a group of passengers on a
+         * flight on a specific day. All bookings and reward points updates are saved
+         * in one transaction, so either the whole group is booked or nobody is.
+         * Returns null if there are not enough seats or a passenger has not enough
+         * reward points.
+         */
+        public List<Booking> bookGroup(final List<String> userIds, final String flightId, final String date,
+                        final Boolean useRewardPoints) {
+                try {
+                        Date d = new SimpleDateFormat("MM-dd-yyyy").parse(date);
+                        Flight f = this.flightRepository.findByFlightId(UUID.fromString(flightId));
+                        List<UUID> ids = userIds.stream().map(UUID::fromString).collect(Collectors.toList());
+                        Map<UUID, User> users = this.userRepository.findByUserIdIn(new HashSet<>(ids)).stream()
+                                        .collect(Collectors.toMap(User::getUserId, Function.identity()));
+                        List<User> passengers = new ArrayList<>(ids.size());
+                        for (UUID id : ids) {
+                                User u = users.get(id);
+                                if (u == null) {
+                                        return null;
                                 }
+                                passengers.add(u);
+                        }
+                        return runWithSeatRetry(f, d, () -> bookGroup(passengers, f, d, useRewardPoints));
+                } catch (Exception e) {
+                        logger.error("Error while booking group!");
+                        logger.error(e);
+                        return null;
+                }
+        }
 
-                                this.userRepository.save(u);
-                                Booking booking = new Booking(u, f, generatedSeatNumber, true, useRewardPoints, d);
-                                booking = this.bookingRepository.save(booking);
-                                return booking;
+        private List<Booking> bookGroup(final List<User> passengers, final Flight f, final Date d,
+                        final Boolean useRewardPoints) {
+                if (Boolean.TRUE.equals(useRewardPoints)) {
+                        Map<User, Long> seatsPerUser = passengers.stream()
+                                        .collect(Collectors.groupingBy(Function.identity(), Collectors.counting()));
+                        for (Map.Entry<User, Long> entry : seatsPerUser.entrySet()) {
+                                if (entry.getKey().getRewardsMiles() < entry.getValue() * f.getCost()) {
+                                        return null;
+                                }
                         }
+                }
+                int count = passengers.size();
+                if (Boolean.FALSE.equals(this.flightInventoryService.reserveSeats(f, d, count))) {
                         return null;
+                }
+                List<String> seatNumbers = this.seatInventoryService.claimAdjacentSeats(f, d, count);
+                if (seatNumbers == null) {
+                        this.flightInventoryService.releaseSeats(f, d, count);
+                        return null;
+                }
+                List<Booking> bookings = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) {
+                        bookings.add(new Booking(passengers.get(i), f, seatNumbers.get(i), true, useRewardPoints, d));
+                }
+                bookings = this.bookingRepository.saveAll(bookings);
+                for (Booking booking : bookings) {
+                        applyRewards(booking.getUser(), booking, f, useRewardPoints);
+                }
+                return bookings;
+        }
+
+        /*
+         * Method that holds a seat on a flight for a limited time so that the user
+         * can complete the payment before confirming the booking. Returns null if
+         * the seat is not available or the user has not enough reward points.
+         */
+        public SeatHold holdSeat(final String userId, final String flightId, final String seatNumber,
+                        final String date, final Boolean useRewardPoints) {
+                try {
+                        Date d = new SimpleDateFormat("MM-dd-yyyy").parse(date);
+                        User u = this.userCache.findById(UUID.fromString(userId));
+                        Flight f = this.flightRepository.findByFlightId(UUID.fromString(flightId));
+                        if (Boolean.TRUE.equals(useRewardPoints) && u.getRewardsMiles() < f.getCost()) {
+                                return null;
+                        }
+                        return this.seatHoldService.hold(u, f, seatNumber, d, useRewardPoints);
                 } catch (Exception e) {
-                        logger.error("Error while booking!");
-                        logger.error(e.getStackTrace());
+                        logger.error("Error while holding seat!");
+                        logger.error(e);
+                        return null;
+                }
+        }
+
+        /*
+         * Method that turns an unexpired seat hold into a booking. Returns null if
+         * the hold expired or the user has not enough reward points anymore.
+         */
+        public Booking confirmHold(final UUID holdId) {
+                try {
+                        SeatHold hold = this.seatHoldService.find(holdId);
+                        if (hold == null) {
+                                return null;
+                        }
+                        User u = hold.getUser();
+                        Flight f = hold.getFlight();
+                        Date d = hold.getFlightDate();
+                        if (Boolean.TRUE.equals(hold.getUseRewardPoints()) && u.getRewardsMiles() < f.getCost()) {
+                                return null;
+                        }
+                        Lock lock = this.seatInventoryService.getDepartureLock(f, d);
+                        Booking booking;
+                        lock.lock();
+                        try {
+                                booking = this.transactionRunner.run(() -> {
+                                        SeatHold taken = this.seatHoldService.take(holdId);
+                                        if (taken == null) {
+                                                return null;
+                                        }
+                                        return persistBooking(u, f, taken.getSeatNumber(), d,
+                                                        taken.getUseRewardPoints());
+                                });
+                        } catch (RuntimeException e) {
+                                this.seatInventoryService.evictDeparture(f, d);
+                                throw e;
+                        } finally {
+                                lock.unlock();
+                        }
+                        if (booking != null) {
+                                this.seatHoldService.cancelExpiry(holdId);
+                        }
+                        return booking;
+                } catch (Exception e) {
+                        logger.error("Error while confirming seat hold!");
                         logger.error(e);
                         return null;
                 }
         }
 
+        /*
+         * Method that releases a seat hold before it expires.
+         */
+        public Boolean releaseHold(final UUID holdId) {
+                return this.seatHoldService.release(holdId);
+        }
+
         public String checkInUser(final UUID bookingId) {
                 try {
                         Booking b = this.bookingRepository.findByBookingId(bookingId);
@@ -225,7 +465,7 @@ public class BookingService {
                         if (Boolean.TRUE.equals(b.getUserCheckIn())) {
                                 return "User is checked in already!";
                         } else {
-                                if (Boolean.TRUE.equals(validateCheckInTime(bookingId.toString()))) {
+                                if (Boolean.TRUE.equals(validateCheckInTime(new BookingContext(b)))) {
                                         b.setUserCheckIn(true);
                                         this.bookingRepository.save(b);
                                         return "Successfully checked in";
@@ -242,13 +482,89 @@ public class BookingService {
                 }
         }
 
+        /*
+         * Method that checks in many bookings of one departure at once. The check in
+         * window is evaluated once for the departure and all eligible bookings are
+         * flipped with a single UPDATE. If no booking ids are supplied, every
+         * booking of the departure is checked in. Returns null if the flight or the
+         * date is invalid.
+         */
+        public BulkCheckInResult bulkCheckIn(final String flightId, final String date, final List<String> bookingIds) {
+                Date d;
+                Flight f;
+                try {
+                        d = new SimpleDateFormat("MM-dd-yyyy").parse(date);
+                        f = this.flightRepository.findByFlightId(UUID.fromString(flightId));
+                } catch (ParseException | IllegalArgumentException e) {
+                        return null;
+                }
+                if (f == null) {
+                        return null;
+                }
+                boolean checkInOpen = isCheckInOpen(getTimeToFlightDeparture(f, d));
+
+                Map<UUID, Boolean> states = new HashMap<>();
+                for (BookingRepository.CheckInState state : this.bookingRepository
+                                .findCheckInStatesByFlightAndFlightDate(f, d)) {
+                        states.put(state.getBookingId(), Boolean.TRUE.equals(state.getUserCheckIn()));
+                }
+                List<String> requested = bookingIds == null || bookingIds.isEmpty()
+                                ? states.keySet().stream().map(UUID::toString).collect(Collectors.toList())
+                                : bookingIds;
+
+                List<BulkCheckInResult.Entry> results = new ArrayList<>(requested.size());
+                Set<UUID> eligible = new HashSet<>();
+                for (String bookingId : requested) {
+                        UUID id = parseUUID(bookingId);
+                        Boolean checkedIn = id != null ? states.get(id) : null;
+                        String status;
+                        if (checkedIn == null) {
+                                status = "No bookingID";
+                        } else if (checkedIn) {
+                                status = "User is checked in already!";
+                        } else if (!checkInOpen) {
+                                status = "Cannot check in right now";
+                        } else {
+                                eligible.add(id);
+                                status = "Successfully checked in";
+                        }
+                        results.add(new BulkCheckInResult.Entry(bookingId, status));
+                }
+                int updated = eligible.isEmpty() ? 0
+                                : this.transactionRunner.run(() -> this.bookingRepository.checkInBookings(f, d, eligible));
+                return new BulkCheckInResult(f.getFlightId(), date, checkInOpen, updated, results);
+        }
+
+        private static UUID parseUUID(final String id) {
+                try {
+                        return UUID.fromString(id);
+                } catch (IllegalArgumentException | NullPointerException e) {
+                        return null;
+                }
+        }
+
         public Boolean checkInLuggage(final String bookingId, final Integer count, final float totalWeight) {
+                BookingContext context = loadBookingContext(bookingId);
+                return context != null && checkInLuggage(context, count, totalWeight);
+        }
+
+        /*
+         * Method that saves the luggage of a loaded booking and links it to the
+         * booking in one transaction. The booking is linked with an update of its
+         * luggage column only, which fails if luggage was checked in concurrently.
+         */
+        public Boolean checkInLuggage(final BookingContext context, final Integer count, final float totalWeight) {
                 try {
-                        Booking b = this.bookingRepository.findByBookingId(UUID.fromString(bookingId));
-                        Luggage luggage = new Luggage(count, totalWeight);
-                        this.luggageRepository.save(luggage);
+                        Booking b = context.getBooking();
+                        Luggage luggage = this.transactionRunner.run(() -> {
+                                Luggage saved = this.luggageRepository.save(new Luggage(count, totalWeight));
+                                Integer updated = this.bookingRepository.attachLuggage(b.getBookingId(), saved);
+                                if (updated == null || updated == 0) {
+                                        throw new IllegalStateException("Luggage is checked in already!");
+                                }
+                                return saved;
+                        });
                         b.setLuggage(luggage);
-                        this.bookingRepository.save(b);
                         return true;
                 } catch (Exception e) {
                         logger.error("Error while checking in luggage!");
@@ -258,22 +574,52 @@ public class BookingService {
                 return false;
         }
 
+        /*
+         * Method that cancels a booking. The booking is deleted, its seat released
+         * and its reward points refunded in one transaction while holding the lock
+         * of the departure, so a failed refund keeps the booking and two concurrent
+         * cancellations release and refund the seat once.
+         */
         public Boolean deleteBooking(final String bookingID, final String userID) {
                 Booking booking = this.bookingRepository.findByBookingId(UUID.fromString(bookingID));
                 if (!userID.equals(booking.getUser().getUserId().toString())) {
                         return false;
                 }
 
-                this.bookingRepository.deleteById(UUID.fromString(bookingID));
-                updateRewardPointsForBookingDeletion(booking.getUser().getUserId(),
-                                booking.getFlight().getCost(),
-                                booking.getFlightDate());
-
-                return true;
+                Flight f = booking.getFlight();
+                Date d = booking.getFlightDate();
+                Lock lock = this.seatInventoryService.getDepartureLock(f, d);
+                lock.lock();
+                try {
+                        return this.transactionRunner.run(() -> {
+                                if (this.bookingRepository.deleteById(booking.getBookingId()) == 0) {
+                                        return false;
+                                }
+                                this.flightInventoryService.releaseSeats(f, d, 1);
+                                this.seatInventoryService.releaseSeat(f, d, booking.getSeatNumber());
+                                updateRewardPointsForBookingDeletion(booking.getUser().getUserId(),
+                                                booking.getBookingId(), f.getCost(), d);
+                                return true;
+                        });
+                } catch (RuntimeException e) {
+                        this.seatInventoryService.evictDeparture(f, d);
+                        throw e;
+                } finally {
+                        lock.unlock();
+                }
         }
 
         public Boolean updateRewardPointsForBookingDeletion(final UUID id, final int numPointsUsed,
                         final Date flightDate) {
+                return updateRewardPointsForBookingDeletion(id, null, numPointsUsed, flightDate);
+        }
+
+        /*
+         * Method that returns reward points for a cancelled booking: all of them if
+         * the flight leaves in a week or later, half of them otherwise.
+         */
+        public Boolean updateRewardPointsForBookingDeletion(final UUID id, final UUID bookingId,
+                        final int numPointsUsed, final Date flightDate) {
                 Date currentDate = new Date();
 
                 if ((currentDate.compareTo(flightDate) >= 0) || (numPointsUsed == 0)) {
@@ -289,10 +635,7 @@ public class BookingService {
                         pointsToReturn /= 2;
                 }
 
-                User user = this.userRepository.findByUserId(id);
-
-                user.setRewardsMiles(user.getRewardsMiles() + pointsToReturn);
-
-                return (this.userRepository.save(user) != null);
+                return this.rewardsLedgerService.apply(id, bookingId, pointsToReturn,
+                                RewardsTransaction.Reason.BOOKING_REFUNDED);
         }
 }
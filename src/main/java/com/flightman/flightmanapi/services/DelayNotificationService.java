@@ -0,0 +1,77 @@
+package com.flightman.flightmanapi.services;
+
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import com.flightman.flightmanapi.model.DelayEvent;
+
+/*
+ * Tells passengers about delays that affect their bookings. Subscribes to the
+ * delay events and writes one notification per affected user and batch to the
+ * log; sending them by mail or push is left to a later channel.
+ */
+@Service
+public class DelayNotificationService {
+
+        private static final Logger logger = LogManager.getLogger(DelayNotificationService.class);
+
+        @Autowired
+        private DelayPropagationService delayPropagationService;
+
+        private final Consumer<List<DelayEvent>> subscriber = this::notifyPassengers;
+
+        @PostConstruct
+        public void init() {
+                this.delayPropagationService.subscribe(this.subscriber);
+        }
+
+        @PreDestroy
+        public void stop() {
+                this.delayPropagationService.unsubscribe(this.subscriber);
+        }
+
+        /*
+         * Method that notifies the users affected by a batch of delay events and
+         * returns the messages sent to each of them.
+         */
+        public Map<UUID, List<String>> notifyPassengers(final List<DelayEvent> events) {
+                Map<UUID, List<String>> notifications = new LinkedHashMap<>();
+                for (DelayEvent event : events) {
+                        notifications.computeIfAbsent(event.getUserId(), k -> new ArrayList<>()).add(message(event));
+                }
+                for (Map.Entry<UUID, List<String>> notification : notifications.entrySet()) {
+                        logger.info("Notifying user {}: {}", notification.getKey(),
+                                        String.join(" ", notification.getValue()));
+                }
+                return notifications;
+        }
+
+        private static String message(final DelayEvent event) {
+                String flightDate = new SimpleDateFormat("yyyy-MM-dd").format(event.getFlightDate());
+                if (event.getType() == DelayEvent.Type.CONNECTION_AT_RISK) {
+                        return String.format("Flight %s on %s is delayed by %d minutes, leaving %d minutes to connect "
+                                        + "to flight %s of booking %s.", event.getFlightId(), flightDate,
+                                        event.getDelayMinutes(), event.getConnectionMinutes(), event.getOnwardFlightId(),
+                                        event.getOnwardBookingId());
+                }
+                if (event.getType() == DelayEvent.Type.DELAY_CLEARED) {
+                        return String.format("Flight %s on %s of booking %s is no longer delayed.", event.getFlightId(),
+                                        flightDate, event.getBookingId());
+                }
+                return String.format("Flight %s on %s of booking %s is delayed by %d minutes.", event.getFlightId(),
+                                flightDate, event.getBookingId(), event.getDelayMinutes());
+        }
+}
@@ -0,0 +1,182 @@
+package com.flightman.flightmanapi.services;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+import javax.annotation.PreDestroy;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.flightman.flightmanapi.model.DelayEvent;
+import com.flightman.flightmanapi.model.Flight;
+import com.flightman.flightmanapi.repositories.BookingRepository;
+import com.flightman.flightmanapi.repositories.BookingRepository.DepartureBooking;
+import com.flightman.flightmanapi.repositories.BookingRepository.OnwardBooking;
+import com.flightman.flightmanapi.repositories.FlightRepository;
+import com.flightman.flightmanapi.utils.BatchingEventBus;
+
+/*
+ * Works out who is affected when the delay of a flight changes and publishes
+ * the result as delay events. Propagation runs on a background thread, so the
+ * update request returns immediately, and repeated changes to the same flight
+ * that arrive while it is queued are handled once with the latest delay. The
+ * bookings of all departures within the horizon are loaded with two set-based
+ * queries instead of one lookup per booking.
+ */
+@Service
+public class DelayPropagationService {
+
+        private static final Logger logger = LogManager.getLogger(DelayPropagationService.class);
+
+        private static final int MAX_EVENT_BATCH = 500;
+
+        @Autowired
+        private BookingRepository bookingRepository;
+
+        @Autowired
+        private FlightRepository flightRepository;
+
+        @Autowired
+        private DepartureTimeService departureTimeService;
+
+        @Value("${flightman.route-graph.min-connection-minutes:45}")
+        private int minConnectionMinutes;
+
+        @Value("${flightman.delay.horizon-days:1}")
+        private int horizonDays;
+
+        private final BatchingEventBus<DelayEvent> eventBus = new BatchingEventBus<>("delay-events", 100_000,
+                        MAX_EVENT_BATCH);
+
+        private final ExecutorService propagator = Executors.newSingleThreadExecutor(r -> {
+                Thread thread = new Thread(r, "delay-propagation");
+                thread.setDaemon(true);
+                return thread;
+        });
+
+        private final Map<UUID, Flight> pending = new ConcurrentHashMap<>();
+
+        /*
+         * Method that registers a consumer for delay events. Events are delivered in
+         * batches of up to 500 on the event bus thread.
+         */
+        public void subscribe(final Consumer<List<DelayEvent>> consumer) {
+                this.eventBus.subscribe(consumer);
+        }
+
+        public void unsubscribe(final Consumer<List<DelayEvent>> consumer) {
+                this.eventBus.unsubscribe(consumer);
+        }
+
+        /*
+         * Method that queues the propagation of a changed delay. The cached
+         * departure instants, and with them the check in windows, of the flight
+         * must already have been evicted.
+         */
+        public void delayChanged(final Flight f) {
+                if (this.pending.put(f.getFlightId(), f) == null) {
+                        this.propagator.execute(() -> {
+                                Flight latest = this.pending.remove(f.getFlightId());
+                                try {
+                                        this.eventBus.publish(propagate(latest));
+                                } catch (RuntimeException e) {
+                                        logger.error("Could not propagate the delay of flight {}!", f.getFlightId());
+                                        logger.error(e);
+                                }
+                        });
+                }
+        }
+
+        /*
+         * Method that returns the delay events of a flight for its departures from
+         * today until the horizon: one event per booking on the flight and one per
+         * booked onward flight from its destination that can no longer be reached
+         * with the minimum connection time. When the delay was cleared, only the
+         * bookings on the flight get an event.
+         */
+        public List<DelayEvent> propagate(final Flight f) {
+                ZoneId zone = ZoneId.systemDefault();
+                LocalDate today = LocalDate.now(zone);
+                Date from = Date.from(today.atStartOfDay(zone).toInstant());
+                Date to = Date.from(today.plusDays(this.horizonDays).atStartOfDay(zone).toInstant());
+                Date onwardTo = Date.from(today.plusDays(this.horizonDays + 1L).atStartOfDay(zone).toInstant());
+                int delayMinutes = f.getDelayTime() != null ? f.getDelayTime().toLocalTime().toSecondOfDay() / 60 : 0;
+                int durationMinutes = f.getDurationMinutes() != null ? f.getDurationMinutes()
+                                : this.departureTimeService.getDurationMinutes(f);
+
+                DelayEvent.Type type = delayMinutes > 0 ? DelayEvent.Type.FLIGHT_DELAYED
+                                : DelayEvent.Type.DELAY_CLEARED;
+                List<DelayEvent> events = new ArrayList<>();
+                for (DepartureBooking b : this.bookingRepository.findDepartureBookingsBetween(f, from, to)) {
+                        events.add(new DelayEvent(type, f.getFlightId(), b.getFlightDate(),
+                                        b.getBookingId(), b.getUserId(), delayMinutes,
+                                        this.departureTimeService.getDepartureInstant(f, b.getFlightDate()), null, null,
+                                        null));
+                }
+
+                if (delayMinutes == 0) {
+                        // Without a delay every connection is as scheduled
+                        return events;
+                }
+                List<OnwardBooking> onward = this.bookingRepository.findOnwardBookingsBetween(f, f.getDestAirport(),
+                                from, to, onwardTo);
+                if (onward.isEmpty()) {
+                        return events;
+                }
+                Set<UUID> onwardIds = new HashSet<>();
+                for (OnwardBooking o : onward) {
+                        onwardIds.add(o.getOnwardFlightId());
+                }
+                Map<UUID, Flight> onwardFlights = new HashMap<>();
+                for (Flight o : this.flightRepository.findByFlightIdIn(onwardIds)) {
+                        onwardFlights.put(o.getFlightId(), o);
+                }
+                for (OnwardBooking o : onward) {
+                        Flight next = onwardFlights.get(o.getOnwardFlightId());
+                        if (next == null) {
+                                continue;
+                        }
+                        Instant departure = this.departureTimeService.getDepartureInstant(f, o.getFlightDate());
+                        Instant arrival = departure.plus(Duration.ofMinutes(durationMinutes));
+                        Instant scheduledArrival = arrival.minus(Duration.ofMinutes(delayMinutes));
+                        Instant nextDeparture = this.departureTimeService.getDepartureInstant(next,
+                                        o.getOnwardFlightDate());
+                        // Only flights leaving within a day of the scheduled arrival count as connections
+                        if (nextDeparture.isBefore(scheduledArrival)
+                                        || !nextDeparture.isBefore(scheduledArrival.plus(Duration.ofDays(1)))) {
+                                continue;
+                        }
+                        long connectionMinutes = Duration.between(arrival, nextDeparture).toMinutes();
+                        if (connectionMinutes < this.minConnectionMinutes) {
+                                events.add(new DelayEvent(DelayEvent.Type.CONNECTION_AT_RISK, f.getFlightId(),
+                                                o.getFlightDate(), o.getBookingId(), o.getUserId(), delayMinutes, departure,
+                                                o.getOnwardBookingId(), next.getFlightId(), (int) connectionMinutes));
+                        }
+                }
+                return events;
+        }
+
+        @PreDestroy
+        public void stop() {
+                this.propagator.shutdownNow();
+                this.eventBus.stop();
+        }
+}
@@ -0,0 +1,128 @@
+package com.flightman.flightmanapi.services;
+
+import java.time.DateTimeException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Date;
+import java.util.UUID;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.flightman.flightmanapi.model.Airport;
+import com.flightman.flightmanapi.model.Flight;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+@Service
+public class DepartureTimeService {
+
+        private static final int MINUTES_PER_DAY = 24 * 60;
+
+        @Value("${flightman.departure-cache.maximum-size:100000}")
+        private long maximumSize;
+
+        private Cache<DepartureKey, Instant> departures;
+
+        /*
+         * Key identifying a single departure of a flight.
+         */
+        private record DepartureKey(UUID flightId, LocalDate flightDate) {
+        }
+
+        @PostConstruct
+        public void init() {
+                this.departures = Caffeine.newBuilder()
+                                .maximumSize(this.maximumSize)
+                                .build();
+        }
+
+        /*
+         * Method that returns the instant a flight departs on a specific day. The
+         * departure and delay times are local to the source airport. The instant is
+         * computed once per departure and cached until the flight is changed; the
+         * least used departures are dropped once the cache is full.
+         */
+        public Instant getDepartureInstant(final Flight f, final Date d) {
+                LocalDate flightDate = Instant.ofEpochMilli(d.getTime()).atZone(ZoneId.systemDefault()).toLocalDate();
+                if (f.getFlightId() == null) {
+                        return computeDepartureInstant(f, flightDate);
+                }
+                return this.departures.get(new DepartureKey(f.getFlightId(), flightDate),
+                                key -> computeDepartureInstant(f, flightDate));
+        }
+
+        /*
+         * Method that drops the cached departures of a flight after its departure
+         * or delay time was changed. Inside a transaction they are dropped again
+         * after completion, so a read between the write and the commit cannot
+         * leave the old departure in the cache.
+         */
+        public void evictFlight(final UUID flightId) {
+                Runnable eviction = () -> this.departures.asMap().keySet()
+                                .removeIf(key -> key.flightId().equals(flightId));
+                eviction.run();
+                afterCompletion(eviction);
+        }
+
+        /*
+         * Method that drops all cached departures, e.g. after the time zone of an
+         * airport was changed.
+         */
+        public void evictAll() {
+                this.departures.invalidateAll();
+                afterCompletion(this.departures::invalidateAll);
+        }
+
+        /*
+         * Method that returns the scheduled minutes from departure to arrival of a
+         * flight. The arrival time is local to the destination airport, and a flight
+         * that arrives at an earlier clock time arrives on the next day.
+         */
+        public int getDurationMinutes(final Flight f) {
+                LocalDate today = LocalDate.now();
+                ZonedDateTime departure = ZonedDateTime.of(today, f.getDepartureTime().toLocalTime(),
+                                zoneOf(f.getSourceAirport()));
+                ZonedDateTime arrival = ZonedDateTime.of(today, f.getEstArrivalTime().toLocalTime(),
+                                zoneOf(f.getDestAirport()));
+                return Math.floorMod(Duration.between(departure, arrival).toMinutes(), MINUTES_PER_DAY);
+        }
+
+        private static Instant computeDepartureInstant(final Flight f, final LocalDate flightDate) {
+                ZonedDateTime departure = ZonedDateTime.of(flightDate, f.getDepartureTime().toLocalTime(),
+                                zoneOf(f.getSourceAirport()));
+                if (f.getDelayTime() != null) {
+                        departure = departure.plusSeconds(f.getDelayTime().toLocalTime().toSecondOfDay());
+                }
+                return departure.toInstant();
+        }
+
+        static ZoneId zoneOf(final Airport airport) {
+                if (airport == null || airport.getTimeZone() == null) {
+                        return ZoneId.systemDefault();
+                }
+                try {
+                        return ZoneId.of(airport.getTimeZone());
+                } catch (DateTimeException e) {
+                        return ZoneId.systemDefault();
+                }
+        }
+
+        private static void afterCompletion(final Runnable eviction) {
+                if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                                @Override
+                                public void afterCompletion(final int status) {
+                                        eviction.run();
+                                }
+                        });
+                }
+        }
+}
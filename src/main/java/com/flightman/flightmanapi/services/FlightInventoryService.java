@@ -0,0 +1,188 @@
+package com.flightman.flightmanapi.services;
+
+import java.text.SimpleDateFormat;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import com.flightman.flightmanapi.model.Flight;
+import com.flightman.flightmanapi.model.FlightAvailability;
+import com.flightman.flightmanapi.model.FlightInventory;
+import com.flightman.flightmanapi.repositories.BookingRepository;
+import com.flightman.flightmanapi.repositories.BookingRepository.DailySeatsSold;
+import com.flightman.flightmanapi.repositories.BookingRepository.FlightSeatsSold;
+import com.flightman.flightmanapi.repositories.FlightInventoryRepository;
+import com.flightman.flightmanapi.repositories.FlightInventoryRepository.DailySeatsRemaining;
+import com.flightman.flightmanapi.repositories.FlightInventoryRepository.FlightSeatsRemaining;
+
+@Service
+public class FlightInventoryService {
+
+        @Autowired
+        private FlightInventoryRepository flightInventoryRepository;
+
+        @Autowired
+        private BookingRepository bookingRepository;
+
+        @Autowired
+        private SeatLayoutService seatLayoutService;
+
+        /*
+         * Method that atomically takes the supplied number of seats from the
+         * inventory of a flight on a specific day. Returns false if not enough seats
+         * are left. Must be called in the transaction that persists the bookings.
+         */
+        public Boolean reserveSeats(final Flight f, final Date d, final int count) {
+                if (this.flightInventoryRepository.reserveSeats(f, d, count) == 1) {
+                        return true;
+                }
+                if (this.flightInventoryRepository.findByFlightAndFlightDate(f, d) != null) {
+                        return false;
+                }
+                createInventory(f, d);
+                return this.flightInventoryRepository.reserveSeats(f, d, count) == 1;
+        }
+
+        /*
+         * Method that returns the supplied number of seats to the inventory of a
+         * flight on a specific day.
+         */
+        public void releaseSeats(final Flight f, final Date d, final int count) {
+                this.flightInventoryRepository.releaseSeats(f, d, count);
+        }
+
+        /*
+         * Method that returns the number of seats that can still be sold on a flight
+         * on a specific day.
+         */
+        public Integer getSeatsRemaining(final Flight f, final Date d) {
+                FlightInventory inventory = this.flightInventoryRepository.findByFlightAndFlightDate(f, d);
+                if (inventory != null) {
+                        return inventory.getSeatsRemaining();
+                }
+                return getCapacity(f) - this.bookingRepository.countByFlightAndFlightDate(f, d).intValue();
+        }
+
+        /*
+         * Method that returns the seats remaining on a flight for every day from
+         * the first to the last supplied date. Days with an inventory row are read
+         * from the inventory table; the remaining days are computed from the
+         * booking counts of the whole range, grouped by day in one query.
+         */
+        public FlightAvailability getAvailability(final Flight f, final Date from, final Date to) {
+                int capacity = getCapacity(f);
+                Map<LocalDate, Integer> seatsRemaining = new HashMap<>();
+                for (DailySeatsRemaining day : this.flightInventoryRepository.findSeatsRemainingBetween(f, from, to)) {
+                        seatsRemaining.put(toLocalDate(day.getFlightDate()), day.getSeatsRemaining());
+                }
+                LocalDate first = toLocalDate(from);
+                LocalDate last = toLocalDate(to);
+                if (seatsRemaining.size() <= last.toEpochDay() - first.toEpochDay()) {
+                        for (DailySeatsSold day : this.bookingRepository.countSeatsSoldBetween(f, from, to)) {
+                                seatsRemaining.putIfAbsent(toLocalDate(day.getFlightDate()),
+                                                capacity - day.getSeatsSold().intValue());
+                        }
+                }
+                return toAvailability(f, capacity, seatsRemaining, first, last);
+        }
+
+        /*
+         * Method that returns the seats remaining on each of the supplied flights
+         * for every day from the first to the last supplied date, in the order of
+         * the flights. Runs the same two grouped queries as for a single flight, so
+         * the number of queries does not depend on the number of flights or days.
+         */
+        public List<FlightAvailability> getAvailability(final List<Flight> flights, final Date from, final Date to) {
+                if (flights.isEmpty()) {
+                        return new ArrayList<>();
+                }
+                Map<UUID, Map<LocalDate, Integer>> seatsRemaining = new HashMap<>();
+                int tracked = 0;
+                for (FlightSeatsRemaining day : this.flightInventoryRepository.findSeatsRemainingForFlightsBetween(flights,
+                                from, to)) {
+                        seatsRemaining.computeIfAbsent(day.getFlightId(), id -> new HashMap<>())
+                                        .put(toLocalDate(day.getFlightDate()), day.getSeatsRemaining());
+                        tracked++;
+                }
+                LocalDate first = toLocalDate(from);
+                LocalDate last = toLocalDate(to);
+                Map<UUID, Integer> capacities = new HashMap<>();
+                for (Flight f : flights) {
+                        capacities.put(f.getFlightId(), getCapacity(f));
+                }
+                if (tracked < flights.size() * (last.toEpochDay() - first.toEpochDay() + 1)) {
+                        for (FlightSeatsSold day : this.bookingRepository.countSeatsSoldForFlightsBetween(flights, from,
+                                        to)) {
+                                Integer capacity = capacities.get(day.getFlightId());
+                                if (capacity != null) {
+                                        seatsRemaining.computeIfAbsent(day.getFlightId(), id -> new HashMap<>())
+                                                        .putIfAbsent(toLocalDate(day.getFlightDate()),
+                                                                        capacity - day.getSeatsSold().intValue());
+                                }
+                        }
+                }
+                List<FlightAvailability> availabilities = new ArrayList<>(flights.size());
+                for (Flight f : flights) {
+                        availabilities.add(toAvailability(f, capacities.get(f.getFlightId()),
+                                        seatsRemaining.getOrDefault(f.getFlightId(), Map.of()), first, last));
+                }
+                return availabilities;
+        }
+
+        /*
+         * Method that recomputes the remaining seats of every departure of a flight
+         * after its flight model was changed.
+         */
+        public void updateCapacity(final Flight f) {
+                this.flightInventoryRepository.updateCapacity(f, getCapacity(f));
+        }
+
+        /*
+         * Method that deletes the inventory of every departure of a flight.
+         */
+        public void deleteFlight(final Flight f) {
+                this.flightInventoryRepository.deleteByFlight(f);
+        }
+
+        /*
+         * Seeds the inventory of a departure from the bookings made before it was
+         * tracked.
+         */
+        private void createInventory(final Flight f, final Date d) {
+                int sold = this.bookingRepository.countByFlightAndFlightDate(f, d).intValue();
+                this.flightInventoryRepository.save(new FlightInventory(f, d, sold, getCapacity(f) - sold));
+        }
+
+        /*
+         * Lists the seats remaining on every day of the range, defaulting to the full
+         * capacity on days without bookings.
+         */
+        private static FlightAvailability toAvailability(final Flight f, final int capacity,
+                        final Map<LocalDate, Integer> seatsRemaining, final LocalDate first, final LocalDate last) {
+                SimpleDateFormat format = new SimpleDateFormat("MM-dd-yyyy");
+                List<FlightAvailability.Day> days = new ArrayList<>();
+                for (LocalDate day = first; !day.isAfter(last); day = day.plusDays(1)) {
+                        Date date = Date.from(day.atStartOfDay(ZoneId.systemDefault()).toInstant());
+                        days.add(new FlightAvailability.Day(format.format(date),
+                                        Math.max(seatsRemaining.getOrDefault(day, capacity), 0)));
+                }
+                return new FlightAvailability(f.getFlightId(), capacity, days);
+        }
+
+        private static LocalDate toLocalDate(final Date d) {
+                return Instant.ofEpochMilli(d.getTime()).atZone(ZoneId.systemDefault()).toLocalDate();
+        }
+
+        private int getCapacity(final Flight f) {
+                return this.seatLayoutService.getLayout(f.getFlightModel()).getCapacity();
+        }
+}
@@ -5,23 +5,69 @@ import java.util.List;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import com.flightman.flightmanapi.model.CacheRegionStats;
+import com.flightman.flightmanapi.model.Flight;
 import com.flightman.flightmanapi.model.FlightModel;
 import com.flightman.flightmanapi.repositories.FlightModelRepository;
+import com.flightman.flightmanapi.repositories.FlightRepository;
+import com.flightman.flightmanapi.utils.TransactionRunner;
 
 @Service
 public class FlightModelService {
         @Autowired
         private FlightModelRepository flightModelRepository;
 
+        @Autowired
+        private FlightRepository flightRepository;
+
+        @Autowired
+        private SeatLayoutService seatLayoutService;
+
+        @Autowired
+        private FlightInventoryService flightInventoryService;
+
+        @Autowired
+        private TransactionRunner transactionRunner;
+
+        @Autowired
+        private ReferenceDataCache referenceDataCache;
+
         public List<FlightModel> getAllFlightModels() {
                 return flightModelRepository.findAll();
         }
 
+        /*
+         * Method that returns the hit, miss and put counts of the second-level
+         * cache of the reference data, or null if statistics are disabled.
+         */
+        public List<CacheRegionStats> getCacheStats() {
+                return this.referenceDataCache.getStats();
+        }
+
+        /*
+         * Method that creates or changes a flight model. A change to the seat
+         * geometry recomputes the remaining seats of every flight of the model in
+         * the same transaction. The cached layout is evicted after the write, so a
+         * concurrent read cannot cache the old geometry again.
+         */
         public FlightModel save(final FlightModel flightModel) {
-                return flightModelRepository.save(flightModel);
+                return this.transactionRunner.run(() -> {
+                        FlightModel saved = flightModelRepository.save(flightModel);
+                        this.seatLayoutService.evict(saved.getFlightModelId());
+                        this.referenceDataCache.evictFlightModels();
+                        if (flightModel.getFlightModelId() != null) {
+                                for (Flight f : this.flightRepository.findByFlightModel(saved)) {
+                                        this.flightInventoryService.updateCapacity(f);
+                                }
+                        }
+                        return saved;
+                });
         }
 
         public Integer deleteModelById(final Integer id) {
-                return this.flightModelRepository.deleteByFlightModelId(id);
+                Integer deleted = this.flightModelRepository.deleteByFlightModelId(id);
+                this.seatLayoutService.evict(id);
+                this.referenceDataCache.evictFlightModels();
+                return deleted;
         }
 }
@@ -1,22 +1,42 @@
 package com.flightman.flightmanapi.services;
 
+import java.nio.charset.StandardCharsets;
 import java.sql.Time;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Date;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import com.flightman.flightmanapi.model.Airport;
+import com.flightman.flightmanapi.model.FlexibleDateFlight;
 import com.flightman.flightmanapi.model.Flight;
+import com.flightman.flightmanapi.model.FlightAvailability;
 import com.flightman.flightmanapi.model.FlightModel;
-import com.flightman.flightmanapi.repositories.AirportRepository;
+import com.flightman.flightmanapi.model.FlightPage;
+import com.flightman.flightmanapi.model.Itinerary;
+import com.flightman.flightmanapi.model.SeatMap;
 import com.flightman.flightmanapi.repositories.BookingRepository;
 import com.flightman.flightmanapi.repositories.FlightModelRepository;
 import com.flightman.flightmanapi.repositories.FlightRepository;
+import com.flightman.flightmanapi.repositories.FlightSearchRepository;
+import com.flightman.flightmanapi.repositories.SeatHoldRepository;
+import com.flightman.flightmanapi.utils.TransactionRunner;
 
 @Service
 public class FlightService {
+        private static final String CURSOR_SEPARATOR = "~";
+
         @Autowired
         private FlightRepository flightRepository;
 
@@ -24,17 +44,38 @@ public class FlightService {
         private FlightModelRepository flightModelRepository;
 
         @Autowired
-        private AirportRepository airportRepository;
+        private AirportRegistry airportRegistry;
 
         @Autowired
         private BookingRepository bookingRepository;
 
+        @Autowired
+        private SeatHoldRepository seatHoldRepository;
+
+        @Autowired
+        private SeatInventoryService seatInventoryService;
+
+        @Autowired
+        private FlightInventoryService flightInventoryService;
+
+        @Autowired
+        private DepartureTimeService departureTimeService;
+
+        @Autowired
+        private RouteGraphService routeGraphService;
+
+        @Autowired
+        private DelayPropagationService delayPropagationService;
+
+        @Autowired
+        private TransactionRunner transactionRunner;
+
         public List<Flight> getAllFlights() {
                 return flightRepository.findAll();
         }
 
         public Boolean validateAirport(final UUID airportId) {
-                Airport a = airportRepository.findByAirportId(airportId);
+                Airport a = airportRegistry.findById(airportId);
                 if (a != null) {
                         return true;
                 }
@@ -49,33 +90,197 @@ public class FlightService {
                 return false;
         }
 
+        /*
+         * Method that returns the flights between two airports, either of which may
+         * be omitted. Abbreviations are resolved through the airport registry so the
+         * flights are looked up by foreign key, and unknown airports need no query.
+         */
         public List<Flight> getFlights(final String sourceAbv, final String destAbv) {
-                List<Flight> flightList;
                 if (sourceAbv == null && destAbv == null) {
-                        flightList = flightRepository.findAll();
+                        return flightRepository.findAll();
+                }
+                Airport source = airportRegistry.findByAbvName(sourceAbv);
+                Airport dest = airportRegistry.findByAbvName(destAbv);
+                if ((sourceAbv != null && source == null) || (destAbv != null && dest == null)) {
+                        return new ArrayList<>();
                 }
 
-                else if (destAbv == null) {
-                        flightList = flightRepository.findBySourceAirportAirportAbvName(sourceAbv);
+                if (destAbv == null) {
+                        return flightRepository.findBySourceAirport(source);
                 }
 
                 else if (sourceAbv == null) {
-                        flightList = flightRepository.findByDestAirportAirportAbvName(destAbv);
+                        return flightRepository.findByDestAirport(dest);
                 }
 
-                else {
-                        flightList = flightRepository.findBySourceAirportAirportAbvNameAndDestAirportAirportAbvName(
-                                        sourceAbv, destAbv);
+                return flightRepository.findBySourceAirportAndDestAirport(source, dest);
+        }
+
+        /*
+         * Method that returns one page of the flights between two airports, either of
+         * which may be omitted, sorted by the supplied key. The cursor is the
+         * nextCursor of the previous page, or null for the first page. Returns null
+         * if the cursor is invalid or belongs to another sort key.
+         */
+        public FlightPage getFlightPage(final String sourceAbv, final String destAbv,
+                        final FlightSearchRepository.SortKey sortKey, final String cursor, final int limit) {
+                Airport source = airportRegistry.findByAbvName(sourceAbv);
+                Airport dest = airportRegistry.findByAbvName(destAbv);
+                Comparable<?> afterValue = null;
+                UUID afterId = null;
+                if (cursor != null) {
+                        String[] parts;
+                        try {
+                                parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8)
+                                                .split(CURSOR_SEPARATOR, -1);
+                        } catch (IllegalArgumentException e) {
+                                return null;
+                        }
+                        if (parts.length != 3 || !parts[0].equals(sortKey.getName())) {
+                                return null;
+                        }
+                        try {
+                                afterValue = sortKey == FlightSearchRepository.SortKey.DEPARTURE_TIME
+                                                ? Time.valueOf(parts[1])
+                                                : Integer.valueOf(parts[1]);
+                                afterId = UUID.fromString(parts[2]);
+                        } catch (IllegalArgumentException e) {
+                                return null;
+                        }
+                }
+                if ((sourceAbv != null && source == null) || (destAbv != null && dest == null)) {
+                        return new FlightPage(new ArrayList<>(), null);
+                }
+
+                List<Flight> flights = flightRepository.findPage(source, dest, sortKey, afterValue, afterId, limit + 1);
+                String nextCursor = null;
+                if (flights.size() > limit) {
+                        flights = new ArrayList<>(flights.subList(0, limit));
+                        Flight last = flights.get(limit - 1);
+                        Object lastValue = switch (sortKey) {
+                                case COST -> last.getCost();
+                                case DEPARTURE_TIME -> last.getDepartureTime();
+                                case DURATION -> last.getDurationMinutes();
+                        };
+                        String token = sortKey.getName() + CURSOR_SEPARATOR + lastValue + CURSOR_SEPARATOR
+                                        + last.getFlightId();
+                        nextCursor = Base64.getUrlEncoder().withoutPadding()
+                                        .encodeToString(token.getBytes(StandardCharsets.UTF_8));
+                }
+                return new FlightPage(flights, nextCursor);
+        }
+
+        /*
+         * Method that returns the flight with the supplied id, or null if the flight
+         * does not exist.
+         */
+        public Flight getFlightById(final UUID flightId) {
+                return flightRepository.findByFlightId(flightId);
+        }
+
+        /*
+         * Method that returns the seat map of a flight on a specific day, or null if
+         * the flight does not exist.
+         */
+        public SeatMap getSeatMap(final UUID flightId, final Date date) {
+                Flight f = flightRepository.findByFlightId(flightId);
+                if (f == null) {
+                        return null;
                 }
-                return flightList;
+                return this.seatInventoryService.getSeatMap(f, date);
+        }
+
+        public FlightAvailability getAvailability(final UUID flightId, final Date from, final Date to) {
+                Flight f = flightRepository.findByFlightId(flightId);
+                if (f == null) {
+                        return null;
+                }
+                return this.flightInventoryService.getAvailability(f, from, to);
+        }
+
+        /*
+         * Method that returns every non-stop flight between two airports with its
+         * seats remaining on each day from window days before until window days
+         * after the supplied date. The flights come from the route graph and the
+         * seats of all flights and days from grouped queries, so the number of
+         * queries does not grow with the window or the number of flights.
+         */
+        public List<FlexibleDateFlight> searchFlexibleDates(final String sourceAbv, final String destAbv,
+                        final Date date, final int window) {
+                List<Flight> flights = this.routeGraphService.findDirectFlights(sourceAbv, destAbv);
+                List<FlexibleDateFlight> results = new ArrayList<>(flights.size());
+                if (flights.isEmpty()) {
+                        return results;
+                }
+                LocalDate centre = Instant.ofEpochMilli(date.getTime()).atZone(ZoneId.systemDefault()).toLocalDate();
+                Date from = Date.from(centre.minusDays(window).atStartOfDay(ZoneId.systemDefault()).toInstant());
+                Date to = Date.from(centre.plusDays(window).atStartOfDay(ZoneId.systemDefault()).toInstant());
+                List<FlightAvailability> availabilities = this.flightInventoryService.getAvailability(flights, from, to);
+                for (int i = 0; i < flights.size(); i++) {
+                        Flight f = flights.get(i);
+                        FlightAvailability availability = availabilities.get(i);
+                        results.add(new FlexibleDateFlight(f, f.getCost(), availability.getCapacity(),
+                                        availability.getDays()));
+                }
+                return results;
         }
 
         public Flight save(final Flight flight) {
-                return flightRepository.save(flight);
+                resolveAirports(flight);
+                flight.setDurationMinutes(this.departureTimeService.getDurationMinutes(flight));
+                Flight saved = flightRepository.save(flight);
+                this.routeGraphService.putFlight(saved);
+                return saved;
+        }
+
+        /*
+         * Method that saves many flights in one transaction, so the inserts are sent
+         * to the database in JDBC batches, and adds them to the route graph once they
+         * are committed.
+         */
+        public List<Flight> saveAll(final List<Flight> flights) {
+                for (Flight flight : flights) {
+                        resolveAirports(flight);
+                        flight.setDurationMinutes(this.departureTimeService.getDurationMinutes(flight));
+                }
+                List<Flight> saved = this.transactionRunner.run(() -> this.flightRepository.saveAll(flights));
+                this.routeGraphService.putFlights(saved);
+                return saved;
+        }
+
+        /*
+         * Method that returns true if all flight models exist, with a single query.
+         */
+        public Boolean validateFlightModels(final Set<Integer> modelIds) {
+                return this.flightModelRepository.findByFlightModelIdIn(modelIds).size() == modelIds.size();
+        }
+
+        /*
+         * Method that returns the best connection of up to maxLegs flights between two
+         * airports, or null if there is none.
+         */
+        public Itinerary findConnection(final String sourceAbv, final String destAbv, final LocalTime departAfter,
+                        final RouteGraphService.Criterion criterion, final int maxLegs) {
+                return this.routeGraphService.findConnection(sourceAbv, destAbv, departAfter, criterion, maxLegs);
+        }
+
+        private void resolveAirports(final Flight flight) {
+                Airport source = flight.getSourceAirport() != null
+                                ? airportRegistry.findById(flight.getSourceAirport().getAirportId())
+                                : null;
+                Airport dest = flight.getDestAirport() != null
+                                ? airportRegistry.findById(flight.getDestAirport().getAirportId())
+                                : null;
+                if (source != null) {
+                        flight.setSourceAirport(source);
+                }
+                if (dest != null) {
+                        flight.setDestAirport(dest);
+                }
         }
 
         public Flight update(final UUID flightId, final Time departureTime, final Time estArrivalTime,
-                        final Integer flightModelId) {
+                        final Time delayTime, final Integer flightModelId) {
                 Flight f = flightRepository.findByFlightId(flightId);
                 if (f != null) {
                         if (departureTime != null) {
@@ -84,21 +289,73 @@ public class FlightService {
                         if (estArrivalTime != null) {
                                 f.setEstArrivalTime(estArrivalTime);
                         }
-                        if (flightModelId != null) {
-                                FlightModel m = flightModelRepository.findByFlightModelId(flightModelId);
+                        boolean delayChanged = delayTime != null && !delayTime.equals(f.getDelayTime());
+                        if (delayTime != null) {
+                                f.setDelayTime(delayTime);
+                        }
+                        if (departureTime != null || estArrivalTime != null) {
+                                f.setDurationMinutes(this.departureTimeService.getDurationMinutes(f));
+                        }
+                        FlightModel m = flightModelId != null ? flightModelRepository.findByFlightModelId(flightModelId)
+                                        : null;
+                        // The capacities of a new model are stored together with the flight or not at all
+                        Flight saved = this.transactionRunner.run(() -> {
                                 if (m != null) {
                                         f.setFlightModel(m);
+                                        this.flightInventoryService.updateCapacity(f);
                                 }
+                                return flightRepository.save(f);
+                        });
+                        if (m != null) {
+                                this.seatInventoryService.evictFlight(flightId);
+                        }
+                        if (departureTime != null || delayTime != null) {
+                                // After the save, so a read during it cannot cache the old time again
+                                this.departureTimeService.evictFlight(flightId);
                         }
-                        return flightRepository.save(f);
+                        this.routeGraphService.putFlight(saved);
+                        if (delayChanged) {
+                                this.delayPropagationService.delayChanged(saved);
+                        }
+                        return saved;
                 }
                 return null;
 
         }
 
+        /*
+         * Method that sets the delay of a flight in minutes and propagates it to the
+         * affected bookings in the background. Returns null if the flight does not
+         * exist.
+         */
+        public Flight updateDelay(final UUID flightId, final int delayMinutes) {
+                return update(flightId, null, null, Time.valueOf(LocalTime.ofSecondOfDay(delayMinutes * 60L)), null);
+        }
+
         public Integer deleteFlightById(final UUID id) {
                 Flight f = this.flightRepository.findByFlightId(id);
                 this.bookingRepository.deleteByFlight(f);
+                this.seatHoldRepository.deleteByFlight(f);
+                this.flightInventoryService.deleteFlight(f);
+                this.departureTimeService.evictFlight(id);
+                // A rolled back delete keeps the flight searchable
+                afterCommit(() -> {
+                        this.seatInventoryService.evictFlight(id);
+                        this.routeGraphService.removeFlight(id);
+                });
                 return this.flightRepository.deleteByFlightId(id);
         }
+
+        private static void afterCommit(final Runnable work) {
+                if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                                @Override
+                                public void afterCommit() {
+                                        work.run();
+                                }
+                        });
+                } else {
+                        work.run();
+                }
+        }
 }
@@ -0,0 +1,154 @@
+package com.flightman.flightmanapi.services;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.flightman.flightmanapi.model.Flight;
+import com.flightman.flightmanapi.model.ManifestEntry;
+import com.flightman.flightmanapi.repositories.BookingRepository;
+import com.flightman.flightmanapi.utils.TransactionRunner;
+
+@Service
+public class ManifestService {
+
+        private static final String CSV_HEADER = "bookingId,firstName,lastName,seatNumber,userCheckIn,luggageCount,luggageWeight\n";
+
+        private final ObjectWriter jsonWriter = new ObjectMapper().writer();
+
+        @Autowired
+        private BookingRepository bookingRepository;
+
+        @Autowired
+        private TransactionRunner transactionRunner;
+
+        /*
+         * Supported output formats of a manifest.
+         */
+        public enum Format {
+                NDJSON, CSV;
+
+                public static Format of(final String format) {
+                        if (format == null) {
+                                return NDJSON;
+                        }
+                        for (Format f : values()) {
+                                if (f.name().equalsIgnoreCase(format)) {
+                                        return f;
+                                }
+                        }
+                        return null;
+                }
+        }
+
+        /*
+         * Totals of a manifest, computed while the passengers are written.
+         */
+        private static final class Totals {
+                private int passengers;
+                private int checkedIn;
+                private int bags;
+                private double totalWeight;
+
+                void add(final ManifestEntry entry) {
+                        this.passengers++;
+                        if (Boolean.TRUE.equals(entry.getUserCheckIn())) {
+                                this.checkedIn++;
+                        }
+                        if (entry.getLuggageCount() != null) {
+                                this.bags += entry.getLuggageCount();
+                        }
+                        if (entry.getLuggageWeight() != null) {
+                                this.totalWeight += entry.getLuggageWeight();
+                        }
+                }
+        }
+
+        /*
+         * Method that writes the manifest of a flight on a specific day to the
+         * supplied stream, one passenger per line, followed by the totals. Rows are
+         * read from a database cursor and written as they arrive, so memory use does
+         * not depend on the number of passengers.
+         */
+        public void writeManifest(final Flight f, final Date d, final Format format, final OutputStream out) {
+                this.transactionRunner.run(() -> {
+                        try (Stream<ManifestEntry> entries = this.bookingRepository.streamManifest(f, d)) {
+                                Totals totals = new Totals();
+                                if (format == Format.CSV) {
+                                        write(out, CSV_HEADER);
+                                }
+                                Iterator<ManifestEntry> iterator = entries.iterator();
+                                while (iterator.hasNext()) {
+                                        ManifestEntry entry = iterator.next();
+                                        totals.add(entry);
+                                        write(out, format == Format.CSV ? toCsv(entry) : toJson(entry));
+                                }
+                                write(out, format == Format.CSV ? toCsv(totals) : toJson(totals));
+                                out.flush();
+                        } catch (IOException e) {
+                                throw new UncheckedIOException(e);
+                        }
+                        return null;
+                });
+        }
+
+        private String toJson(final ManifestEntry entry) throws JsonProcessingException {
+                return this.jsonWriter.writeValueAsString(entry) + "\n";
+        }
+
+        private String toJson(final Totals totals) throws JsonProcessingException {
+                Map<String, Object> line = new LinkedHashMap<>();
+                line.put("passengers", totals.passengers);
+                line.put("checkedIn", totals.checkedIn);
+                line.put("bags", totals.bags);
+                line.put("totalWeight", totals.totalWeight);
+                return this.jsonWriter.writeValueAsString(Map.of("totals", line)) + "\n";
+        }
+
+        private static String toCsv(final ManifestEntry entry) {
+                return String.join(",", String.valueOf(entry.getBookingId()), csvField(entry.getFirstName()),
+                                csvField(entry.getLastName()), csvField(entry.getSeatNumber()),
+                                String.valueOf(Boolean.TRUE.equals(entry.getUserCheckIn())),
+                                entry.getLuggageCount() != null ? entry.getLuggageCount().toString() : "",
+                                entry.getLuggageWeight() != null ? entry.getLuggageWeight().toString() : "") + "\n";
+        }
+
+        /*
+         * Writes the totals in the columns they sum up: passengers under seatNumber,
+         * checked in passengers under userCheckIn and the luggage totals under the
+         * luggage columns.
+         */
+        private static String toCsv(final Totals totals) {
+                return "TOTAL,,," + totals.passengers + "," + totals.checkedIn + "," + totals.bags + ","
+                                + totals.totalWeight + "\n";
+        }
+
+        /*
+         * Quotes a CSV field if it contains a separator, a quote or a line break.
+         */
+        private static String csvField(final String value) {
+                if (value == null) {
+                        return "";
+                }
+                if (value.contains(",") || value.contains("\"") || value.contains("\n") || value.contains("\r")) {
+                        return "\"" + value.replace("\"", "\"\"") + "\"";
+                }
+                return value;
+        }
+
+        private static void write(final OutputStream out, final String line) throws IOException {
+                out.write(line.getBytes(StandardCharsets.UTF_8));
+        }
+}
@@ -0,0 +1,98 @@
+package com.flightman.flightmanapi.services;
+
+import java.util.List;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.flightman.flightmanapi.ReferenceCacheConfig;
+import com.flightman.flightmanapi.model.Airport;
+import com.flightman.flightmanapi.model.CacheRegionStats;
+import com.flightman.flightmanapi.model.FlightModel;
+
+/*
+ * Evicts airports and flight models from the Hibernate second-level cache and
+ * the cached reference queries, and reports how well the cache is used.
+ * Hibernate updates the cache on its own writes; the explicit eviction also
+ * covers bulk statements and writes made around Hibernate. Inside a
+ * transaction the regions are evicted again after completion, so a read
+ * between the write and the commit cannot leave the old rows in the cache.
+ */
+@Service
+public class ReferenceDataCache {
+
+        @Autowired
+        private EntityManagerFactory entityManagerFactory;
+
+        /*
+         * Method that drops all airports and reference queries from the cache.
+         */
+        public void evictAirports() {
+                evict(Airport.class);
+        }
+
+        /*
+         * Method that drops all flight models and reference queries from the cache.
+         */
+        public void evictFlightModels() {
+                evict(FlightModel.class);
+        }
+
+        /*
+         * Method that returns the hit, miss and put counts of the airport, flight
+         * model and reference query regions, or null if Hibernate statistics are
+         * disabled.
+         */
+        public List<CacheRegionStats> getStats() {
+                Statistics statistics = sessionFactory().getStatistics();
+                if (!statistics.isStatisticsEnabled()) {
+                        return null;
+                }
+                return List.of(
+                                toStats(ReferenceCacheConfig.AIRPORT_REGION,
+                                                statistics.getDomainDataRegionStatistics(ReferenceCacheConfig.AIRPORT_REGION)),
+                                toStats(ReferenceCacheConfig.FLIGHT_MODEL_REGION,
+                                                statistics.getDomainDataRegionStatistics(ReferenceCacheConfig.FLIGHT_MODEL_REGION)),
+                                toStats(ReferenceCacheConfig.QUERY_REGION,
+                                                statistics.getQueryRegionStatistics(ReferenceCacheConfig.QUERY_REGION)));
+        }
+
+        private void evict(final Class<?> entity) {
+                evictNow(entity);
+                if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                                @Override
+                                public void afterCompletion(final int status) {
+                                        evictNow(entity);
+                                }
+                        });
+                }
+        }
+
+        private void evictNow(final Class<?> entity) {
+                Cache cache = sessionFactory().getCache();
+                cache.evictEntityData(entity);
+                cache.evictQueryRegion(ReferenceCacheConfig.QUERY_REGION);
+        }
+
+        private SessionFactory sessionFactory() {
+                return this.entityManagerFactory.unwrap(SessionFactory.class);
+        }
+
+        private static CacheRegionStats toStats(final String region, final CacheRegionStatistics statistics) {
+                if (statistics == null) {
+                        return new CacheRegionStats(region, 0, 0, 0, 0);
+                }
+                long lookups = statistics.getHitCount() + statistics.getMissCount();
+                return new CacheRegionStats(region, statistics.getHitCount(), statistics.getMissCount(),
+                                statistics.getPutCount(), lookups == 0 ? 0 : (double) statistics.getHitCount() / lookups);
+        }
+}
@@ -0,0 +1,70 @@
+package com.flightman.flightmanapi.services;
+
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+import javax.transaction.Transactional;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import com.flightman.flightmanapi.model.RewardsTransaction;
+import com.flightman.flightmanapi.model.User;
+import com.flightman.flightmanapi.repositories.RewardsTransactionRepository;
+import com.flightman.flightmanapi.repositories.UserRepository;
+
+/*
+ * Keeps the reward points of users. Every change is recorded as a row of the
+ * append-only rewards transaction table, and the balance on the user row is
+ * changed with one conditional update, so concurrent bookings and
+ * cancellations of the same user cannot lose each other's changes or take the
+ * balance below zero. Balances are read through the user cache, which is
+ * evicted after every change.
+ */
+@Service
+public class RewardsLedgerService {
+
+        @Autowired
+        private UserRepository userRepository;
+
+        @Autowired
+        private RewardsTransactionRepository rewardsTransactionRepository;
+
+        @Autowired
+        private UserCache userCache;
+
+        /*
+         * Method that adds the supplied number of reward points to the balance of a
+         * user and records the change. Returns false without changing anything if
+         * the user does not exist or has not enough points for a negative change.
+         */
+        @Transactional
+        public boolean apply(final UUID userId, final UUID bookingId, final int delta,
+                        final RewardsTransaction.Reason reason) {
+                Integer updated = this.userRepository.addRewardsMiles(userId, delta);
+                if (updated == null || updated == 0) {
+                        return false;
+                }
+                this.rewardsTransactionRepository.save(new RewardsTransaction(userId, bookingId, delta, reason,
+                                new Date()));
+                this.userCache.evict(userId);
+                return true;
+        }
+
+        /*
+         * Method that returns the reward points of a user, or null if the user does
+         * not exist.
+         */
+        public Integer getBalance(final UUID userId) {
+                User u = this.userCache.findById(userId);
+                return u != null ? u.getRewardsMiles() : null;
+        }
+
+        /*
+         * Method that returns the reward point changes of a user, newest first.
+         */
+        public List<RewardsTransaction> getTransactions(final UUID userId) {
+                return this.rewardsTransactionRepository.findByUserIdOrderByCreatedAtDesc(userId);
+        }
+}
@@ -0,0 +1,388 @@
+package com.flightman.flightmanapi.services;
+
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.PreDestroy;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import com.flightman.flightmanapi.model.RewardsReconciliationReport;
+import com.flightman.flightmanapi.model.RewardsTransaction;
+import com.flightman.flightmanapi.utils.TransactionRunner;
+import com.flightman.flightmanapi.utils.UuidV7Generator;
+
+/*
+ * Nightly job that checks the reward points of every user against the rewards
+ * ledger and expires old points. The users are split into ranges of ids that
+ * hold about the same number of users and are processed in parallel on a fork
+ * join pool. Each range is read in chunks with keyset pagination, the ledger
+ * of a chunk is summed up by the database, and the changes of a chunk are
+ * written with JDBC batches in one short transaction, so the job never holds a
+ * transaction or a lock for long.
+ *
+ * The balance of a user must match the sum of the ledger. A user whose balance
+ * predates the ledger gets the difference recorded once as opening balance.
+ * A later difference is reverted on the balance and recorded in the ledger as
+ * the unrecorded change and its adjustment, unless reverting it would make the
+ * balance negative. Points earned before the
+ * expiry period that were not spent since expire: spending uses the oldest
+ * points first, so the expired points are the old credits minus all debits.
+ */
+@Service
+public class RewardsReconciliationService {
+
+        private static final Logger logger = LogManager.getLogger(RewardsReconciliationService.class);
+
+        private static final int PARTITIONS_PER_THREAD = 4;
+
+        private static final long PROGRESS_INTERVAL = 100_000;
+
+        private static final String CHUNK_QUERY = "SELECT u.user_id, u.rewards_miles, "
+                        + "COALESCE(SUM(CASE WHEN t.created_at < ? THEN t.delta ELSE 0 END), 0) AS ledger, "
+                        + "COALESCE(SUM(CASE WHEN t.created_at >= ? THEN t.delta ELSE 0 END), 0) AS later, "
+                        + "COALESCE(SUM(CASE WHEN t.created_at < ? AND t.delta > 0 THEN t.delta ELSE 0 END), 0) AS old_credits, "
+                        + "COALESCE(SUM(CASE WHEN t.created_at < ? AND t.delta < 0 THEN -t.delta ELSE 0 END), 0) AS debits, "
+                        + "COUNT(CASE WHEN t.reason = 'OPENING_BALANCE' THEN 1 END) AS openings "
+                        + "FROM (SELECT user_id, rewards_miles FROM public.user WHERE %s ORDER BY user_id LIMIT ?) u "
+                        + "LEFT JOIN rewards_transaction t ON t.user_id = u.user_id "
+                        + "GROUP BY u.user_id, u.rewards_miles ORDER BY u.user_id";
+
+        private static final String COUNT_USERS = "SELECT COUNT(*) FROM public.user";
+
+        private static final String PARTITION_BOUNDARIES = "SELECT user_id FROM (SELECT user_id, "
+                        + "ROW_NUMBER() OVER (ORDER BY user_id) AS position FROM public.user) u "
+                        + "WHERE MOD(position, ?) = 0 ORDER BY user_id";
+
+        private static final String INSERT_TRANSACTION = "INSERT INTO rewards_transaction "
+                        + "(transaction_id, user_id, booking_id, delta, reason, created_at) VALUES (?, ?, NULL, ?, ?, ?)";
+
+        private static final String CORRECT_BALANCE = "UPDATE public.user SET rewards_miles = rewards_miles + ? "
+                        + "WHERE user_id = ? AND rewards_miles + ? >= 0";
+
+        private static final String EXPIRE_POINTS = "UPDATE public.user SET rewards_miles = rewards_miles - ? "
+                        + "WHERE user_id = ? AND rewards_miles >= ?";
+
+        @Autowired
+        private JdbcTemplate jdbcTemplate;
+
+        @Autowired
+        private TransactionRunner transactionRunner;
+
+        @Autowired
+        private UserCache userCache;
+
+        @Value("${flightman.rewards.expiry-months:24}")
+        private int expiryMonths;
+
+        @Value("${flightman.rewards.reconciliation.chunk-size:5000}")
+        private int chunkSize;
+
+        @Value("${flightman.rewards.reconciliation.parallelism:4}")
+        private int parallelism;
+
+        @Value("${flightman.rewards.reconciliation.enabled:true}")
+        private boolean enabled;
+
+        @Value("${flightman.rewards.reconciliation.time:03:00}")
+        private String time;
+
+        private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "rewards-reconciliation");
+                thread.setDaemon(true);
+                return thread;
+        });
+
+        private final AtomicBoolean running = new AtomicBoolean();
+
+        private volatile Progress progress;
+
+        private record Account(UUID userId, int balance, long ledger, long later, long oldCredits, long debits,
+                        long openings) {
+        }
+
+        /*
+         * Counters of a run, updated concurrently by the partitions.
+         */
+        private static final class Progress {
+                private final Instant startedAt = Instant.now();
+                private final AtomicLong usersScanned = new AtomicLong();
+                private final AtomicLong openingBalances = new AtomicLong();
+                private final AtomicLong balancesCorrected = new AtomicLong();
+                private final AtomicLong usersExpired = new AtomicLong();
+                private final AtomicLong pointsExpired = new AtomicLong();
+                private volatile Instant finishedAt;
+
+                private RewardsReconciliationReport report() {
+                        Instant end = this.finishedAt != null ? this.finishedAt : Instant.now();
+                        long millis = Math.max(Duration.between(this.startedAt, end).toMillis(), 1);
+                        long scanned = this.usersScanned.get();
+                        return new RewardsReconciliationReport(Date.from(this.startedAt), this.finishedAt == null,
+                                        millis, scanned, this.openingBalances.get(), this.balancesCorrected.get(),
+                                        this.usersExpired.get(), this.pointsExpired.get(), scanned * 1000.0 / millis);
+                }
+        }
+
+        @EventListener(ApplicationReadyEvent.class)
+        public void scheduleReconciliation() {
+                if (this.enabled) {
+                        scheduleNext();
+                }
+        }
+
+        /*
+         * Method that starts a reconciliation in the background. Returns false if a
+         * reconciliation is already running.
+         */
+        public boolean start() {
+                if (this.running.get()) {
+                        return false;
+                }
+                this.scheduler.execute(this::runLogged);
+                return true;
+        }
+
+        /*
+         * Method that returns the progress of the running reconciliation, or the
+         * result of the last one, or null if none ran since startup.
+         */
+        public RewardsReconciliationReport getReport() {
+                Progress current = this.progress;
+                return current != null ? current.report() : null;
+        }
+
+        /*
+         * Method that reconciles the reward points of all users and returns the
+         * result, or null if a reconciliation is already running.
+         */
+        public RewardsReconciliationReport reconcile() {
+                if (!this.running.compareAndSet(false, true)) {
+                        return null;
+                }
+                Progress current = new Progress();
+                this.progress = current;
+                ForkJoinPool pool = new ForkJoinPool(Math.max(this.parallelism, 1));
+                try {
+                        Instant asOf = current.startedAt;
+                        Timestamp cutoff = Timestamp.from(
+                                        asOf.atZone(ZoneId.systemDefault()).minusMonths(this.expiryMonths).toInstant());
+                        List<UUID[]> ranges = partitions(Math.max(this.parallelism, 1) * PARTITIONS_PER_THREAD);
+                        pool.submit(() -> ranges.parallelStream()
+                                        .forEach(range -> reconcileRange(range[0], range[1], Timestamp.from(asOf), cutoff,
+                                                        current)))
+                                        .get();
+                } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new IllegalStateException("Reconciliation of reward points was interrupted", e);
+                } catch (ExecutionException e) {
+                        throw new IllegalStateException("Could not reconcile reward points", e.getCause());
+                } finally {
+                        pool.shutdownNow();
+                        current.finishedAt = Instant.now();
+                        this.running.set(false);
+                }
+                RewardsReconciliationReport report = current.report();
+                logger.info("Reconciled reward points of {} users in {} ms ({} users/s): {} opening balances, "
+                                + "{} corrections, {} points of {} users expired", report.getUsersScanned(),
+                                report.getDurationMillis(), Math.round(report.getUsersPerSecond()),
+                                report.getOpeningBalances(), report.getBalancesCorrected(), report.getPointsExpired(),
+                                report.getUsersExpired());
+                return report;
+        }
+
+        @PreDestroy
+        public void stop() {
+                this.scheduler.shutdownNow();
+        }
+
+        private void scheduleNext() {
+                LocalDateTime now = LocalDateTime.now();
+                LocalDateTime next = now.toLocalDate().atTime(LocalTime.parse(this.time));
+                if (!next.isAfter(now)) {
+                        next = next.plusDays(1);
+                }
+                this.scheduler.schedule(() -> {
+                        runLogged();
+                        scheduleNext();
+                }, Duration.between(now, next).toMillis(), TimeUnit.MILLISECONDS);
+        }
+
+        private void runLogged() {
+                try {
+                        reconcile();
+                } catch (RuntimeException e) {
+                        logger.error("Could not reconcile reward points!");
+                        logger.error(e);
+                }
+        }
+
+        /*
+         * Splits the users into ranges of ids holding about the same number of users.
+         * The boundaries are taken from the ids themselves, because time ordered ids
+         * share their leading bits and ranges of equal width would leave all recent
+         * users in one range. Each range is (from, to]; the first has no lower and
+         * the last no upper bound, so users created meanwhile are not missed.
+         */
+        private List<UUID[]> partitions(final int count) {
+                long users = this.jdbcTemplate.queryForObject(COUNT_USERS, Long.class);
+                long step = Math.max((users + count - 1) / count, 1);
+                List<UUID> boundaries = users > count
+                                ? this.jdbcTemplate.queryForList(PARTITION_BOUNDARIES, UUID.class, step)
+                                : List.of();
+                List<UUID[]> ranges = new ArrayList<>(boundaries.size() + 1);
+                UUID from = null;
+                for (UUID to : boundaries) {
+                        ranges.add(new UUID[] { from, to });
+                        from = to;
+                }
+                ranges.add(new UUID[] { from, null });
+                return ranges;
+        }
+
+        private void reconcileRange(final UUID from, final UUID to, final Timestamp asOf, final Timestamp cutoff,
+                        final Progress current) {
+                UUID after = from;
+                boolean first = true;
+                while (true) {
+                        List<Account> chunk = readChunk(first ? from : after, to, asOf, cutoff);
+                        first = false;
+                        if (chunk.isEmpty()) {
+                                return;
+                        }
+                        this.transactionRunner.run(() -> {
+                                writeChunk(chunk, asOf, current);
+                                return null;
+                        });
+                        long scanned = current.usersScanned.addAndGet(chunk.size());
+                        if (scanned / PROGRESS_INTERVAL != (scanned - chunk.size()) / PROGRESS_INTERVAL) {
+                                long millis = Math.max(Duration.between(current.startedAt, Instant.now()).toMillis(), 1);
+                                logger.info("Reconciled reward points of {} users ({} users/s)", scanned,
+                                                scanned * 1000 / millis);
+                        }
+                        if (chunk.size() < this.chunkSize) {
+                                return;
+                        }
+                        after = chunk.get(chunk.size() - 1).userId();
+                }
+        }
+
+        private List<Account> readChunk(final UUID after, final UUID to, final Timestamp asOf,
+                        final Timestamp cutoff) {
+                List<String> conditions = new ArrayList<>();
+                List<Object> args = new ArrayList<>(List.of(asOf, asOf, cutoff, asOf));
+                if (after != null) {
+                        conditions.add("user_id > ?");
+                        args.add(after);
+                }
+                if (to != null) {
+                        conditions.add("user_id <= ?");
+                        args.add(to);
+                }
+                args.add(this.chunkSize);
+                String where = conditions.isEmpty() ? "1 = 1" : String.join(" AND ", conditions);
+                return this.jdbcTemplate.query(String.format(CHUNK_QUERY, where),
+                                (rs, i) -> new Account(rs.getObject("user_id", UUID.class), rs.getInt("rewards_miles"),
+                                                rs.getLong("ledger"), rs.getLong("later"), rs.getLong("old_credits"),
+                                                rs.getLong("debits"), rs.getLong("openings")),
+                                args.toArray());
+        }
+
+        private void writeChunk(final List<Account> chunk, final Timestamp asOf, final Progress current) {
+                List<Object[]> openings = new ArrayList<>();
+                List<Account> correcting = new ArrayList<>();
+                List<Object[]> corrections = new ArrayList<>();
+                List<Account> expiring = new ArrayList<>();
+                List<Object[]> expiries = new ArrayList<>();
+                for (Account a : chunk) {
+                        long difference = difference(a);
+                        if (difference != 0 && a.openings() == 0) {
+                                openings.add(new Object[] { UuidV7Generator.next(), a.userId(), difference,
+                                                RewardsTransaction.Reason.OPENING_BALANCE.name(), asOf });
+                        } else if (difference != 0) {
+                                correcting.add(a);
+                                corrections.add(new Object[] { -difference, a.userId(), -difference });
+                        }
+                        long expired = a.oldCredits() - a.debits();
+                        if (expired > 0) {
+                                expiring.add(a);
+                                expiries.add(new Object[] { expired, a.userId(), expired });
+                        }
+                }
+                if (!openings.isEmpty()) {
+                        this.jdbcTemplate.batchUpdate(INSERT_TRANSACTION, openings);
+                        current.openingBalances.addAndGet(openings.size());
+                }
+                List<Object[]> transactions = new ArrayList<>();
+                if (!corrections.isEmpty()) {
+                        int[] updated = this.jdbcTemplate.batchUpdate(CORRECT_BALANCE, corrections);
+                        for (int i = 0; i < updated.length; i++) {
+                                if (applied(updated[i])) {
+                                        Account a = correcting.get(i);
+                                        long difference = difference(a);
+                                        transactions.add(new Object[] { UuidV7Generator.next(), a.userId(), difference,
+                                                        RewardsTransaction.Reason.UNRECORDED.name(), asOf });
+                                        transactions.add(new Object[] { UuidV7Generator.next(), a.userId(), -difference,
+                                                        RewardsTransaction.Reason.ADJUSTMENT.name(), asOf });
+                                        current.balancesCorrected.incrementAndGet();
+                                        this.userCache.evict(a.userId());
+                                }
+                        }
+                }
+                if (!expiries.isEmpty()) {
+                        int[] updated = this.jdbcTemplate.batchUpdate(EXPIRE_POINTS, expiries);
+                        for (int i = 0; i < updated.length; i++) {
+                                if (applied(updated[i])) {
+                                        Account a = expiring.get(i);
+                                        long expired = a.oldCredits() - a.debits();
+                                        transactions.add(new Object[] { UuidV7Generator.next(), a.userId(), -expired,
+                                                        RewardsTransaction.Reason.EXPIRED.name(), asOf });
+                                        current.pointsExpired.addAndGet(expired);
+                                        current.usersExpired.incrementAndGet();
+                                        this.userCache.evict(a.userId());
+                                }
+                        }
+                }
+                if (!transactions.isEmpty()) {
+                        this.jdbcTemplate.batchUpdate(INSERT_TRANSACTION, transactions);
+                }
+        }
+
+        /*
+         * Difference between the balance and the ledger. Changes made since the run
+         * started are in both the balance and the ledger.
+         */
+        private static long difference(final Account a) {
+                return a.balance() - a.later() - a.ledger();
+        }
+
+        /*
+         * Returns true if a guarded update changed its row. Some drivers only
+         * report that a batched statement succeeded, not how many rows it changed.
+         */
+        private static boolean applied(final int updateCount) {
+                return updateCount > 0 || updateCount == Statement.SUCCESS_NO_INFO;
+        }
+}
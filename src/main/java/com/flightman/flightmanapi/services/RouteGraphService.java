@@ -0,0 +1,467 @@
+package com.flightman.flightmanapi.services;
+
+import java.sql.Time;
+import java.time.Instant;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import com.flightman.flightmanapi.model.Airport;
+import com.flightman.flightmanapi.model.Flight;
+import com.flightman.flightmanapi.model.Itinerary;
+import com.flightman.flightmanapi.repositories.FlightRepository;
+
+/*
+ * In-memory graph of all flights used to search connections with one or more
+ * legs. Flights depart daily, so every flight is an edge that departs at a fixed
+ * minute of the day. Times are converted to UTC with the current offset of the
+ * source and destination airport, so connections across time zones line up.
+ * The graph is an immutable snapshot of primitive arrays that is swapped on
+ * every change; searches never touch the database. A single flight change
+ * only moves the edges of the affected airports into the new snapshot, the
+ * whole graph is rebuilt on reload and bulk changes.
+ */
+@Service
+public class RouteGraphService {
+
+        private static final Logger logger = LogManager.getLogger(RouteGraphService.class);
+
+        private static final int MINUTES_PER_DAY = 24 * 60;
+
+        public static final int MAX_LEGS = 4;
+
+        @Autowired
+        private FlightRepository flightRepository;
+
+        @Autowired
+        private AirportRegistry airportRegistry;
+
+        @Value("${flightman.route-graph.min-connection-minutes:45}")
+        private int minConnectionMinutes;
+
+        private final Map<UUID, Flight> flights = new HashMap<>();
+
+        private volatile RouteGraph graph = RouteGraph.of(Collections.emptyList());
+
+        /*
+         * The criterion a connection search optimises for.
+         */
+        public enum Criterion {
+                EARLIEST_ARRIVAL, CHEAPEST;
+
+                /*
+                 * Returns the criterion named by a request parameter, EARLIEST_ARRIVAL if
+                 * none is supplied, or null if the name is unknown.
+                 */
+                public static Criterion of(final String name) {
+                        if (name == null || "arrival".equalsIgnoreCase(name)) {
+                                return EARLIEST_ARRIVAL;
+                        }
+                        if ("cost".equalsIgnoreCase(name)) {
+                                return CHEAPEST;
+                        }
+                        return null;
+                }
+        }
+
+        /*
+         * Compressed adjacency arrays of the flight network. The outgoing flights of
+         * airport i are the edges edgeStart[i] until edgeStart[i + 1].
+         */
+        private static final class RouteGraph {
+                private final Map<String, Integer> airportIndexes;
+                private final Map<UUID, Integer> airportIds;
+                private final int[] airportOffsets;
+                private final int[] edgeStart;
+                private final int[] edgeSource;
+                private final int[] edgeTarget;
+                private final int[] edgeDeparture;
+                private final int[] edgeDuration;
+                private final int[] edgeCost;
+                private final Flight[] edgeFlights;
+
+                private RouteGraph(final Map<String, Integer> airportIndexes, final Map<UUID, Integer> airportIds,
+                                final int[] airportOffsets, final int edgeCount) {
+                        this.airportIndexes = airportIndexes;
+                        this.airportIds = airportIds;
+                        this.airportOffsets = airportOffsets;
+                        this.edgeStart = new int[airportOffsets.length + 1];
+                        this.edgeSource = new int[edgeCount];
+                        this.edgeTarget = new int[edgeCount];
+                        this.edgeDeparture = new int[edgeCount];
+                        this.edgeDuration = new int[edgeCount];
+                        this.edgeCost = new int[edgeCount];
+                        this.edgeFlights = new Flight[edgeCount];
+                }
+
+                private static RouteGraph of(final Collection<Flight> flights) {
+                        Map<UUID, Integer> indexes = new HashMap<>();
+                        Map<String, Integer> abvIndexes = new HashMap<>();
+                        List<Airport> airports = new ArrayList<>();
+                        for (Flight f : flights) {
+                                for (Airport a : List.of(f.getSourceAirport(), f.getDestAirport())) {
+                                        if (!indexes.containsKey(a.getAirportId())) {
+                                                indexes.put(a.getAirportId(), airports.size());
+                                                if (a.getAirportAbvName() != null) {
+                                                        abvIndexes.put(a.getAirportAbvName(), airports.size());
+                                                }
+                                                airports.add(a);
+                                        }
+                                }
+                        }
+                        Instant now = Instant.now();
+                        int[] offsets = new int[airports.size()];
+                        for (int i = 0; i < offsets.length; i++) {
+                                offsets[i] = offsetOf(airports.get(i), now);
+                        }
+
+                        RouteGraph g = new RouteGraph(abvIndexes, indexes, offsets, flights.size());
+                        int[] sources = new int[flights.size()];
+                        int e = 0;
+                        for (Flight f : flights) {
+                                sources[e++] = indexes.get(f.getSourceAirport().getAirportId());
+                        }
+                        for (int source : sources) {
+                                g.edgeStart[source + 1]++;
+                        }
+                        for (int i = 0; i < offsets.length; i++) {
+                                g.edgeStart[i + 1] += g.edgeStart[i];
+                        }
+                        int[] next = Arrays.copyOf(g.edgeStart, offsets.length);
+                        e = 0;
+                        for (Flight f : flights) {
+                                int source = sources[e++];
+                                g.setEdge(next[source]++, f, source, indexes.get(f.getDestAirport().getAirportId()));
+                        }
+                        return g;
+                }
+
+                /*
+                 * Returns a copy of the graph with the edge of a flight added at the end of
+                 * the slice of its source airport. Airports the graph does not know yet are
+                 * appended.
+                 */
+                private RouteGraph with(final Flight f) {
+                        Map<String, Integer> abvIndexes = this.airportIndexes;
+                        Map<UUID, Integer> indexes = this.airportIds;
+                        int[] offsets = this.airportOffsets;
+                        for (Airport a : List.of(f.getSourceAirport(), f.getDestAirport())) {
+                                if (!indexes.containsKey(a.getAirportId())) {
+                                        if (indexes == this.airportIds) {
+                                                abvIndexes = new HashMap<>(abvIndexes);
+                                                indexes = new HashMap<>(indexes);
+                                        }
+                                        indexes.put(a.getAirportId(), offsets.length);
+                                        if (a.getAirportAbvName() != null) {
+                                                abvIndexes.put(a.getAirportAbvName(), offsets.length);
+                                        }
+                                        offsets = Arrays.copyOf(offsets, offsets.length + 1);
+                                        offsets[offsets.length - 1] = offsetOf(a, Instant.now());
+                                }
+                        }
+                        int source = indexes.get(f.getSourceAirport().getAirportId());
+                        int edges = this.edgeFlights.length;
+                        int known = this.airportOffsets.length;
+                        int slot = source < known ? this.edgeStart[source + 1] : edges;
+
+                        RouteGraph g = new RouteGraph(abvIndexes, indexes, offsets, edges + 1);
+                        for (int i = 0; i < g.edgeStart.length; i++) {
+                                int start = i <= known ? this.edgeStart[i] : edges;
+                                g.edgeStart[i] = i > source ? start + 1 : start;
+                        }
+                        copyEdges(g, slot, slot + 1);
+                        g.setEdge(slot, f, source, indexes.get(f.getDestAirport().getAirportId()));
+                        return g;
+                }
+
+                /*
+                 * Returns a copy of the graph without the edge of a flight, or the graph
+                 * itself if the flight is not part of it. The slice of the source airport
+                 * the flight was added with is searched first.
+                 */
+                private RouteGraph without(final Flight f) {
+                        int slot = -1;
+                        Integer source = f.getSourceAirport() != null
+                                        ? this.airportIds.get(f.getSourceAirport().getAirportId())
+                                        : null;
+                        if (source != null) {
+                                slot = find(f.getFlightId(), this.edgeStart[source], this.edgeStart[source + 1]);
+                        }
+                        if (slot == -1) {
+                                // The flight was changed in place and moved to another airport
+                                slot = find(f.getFlightId(), 0, this.edgeFlights.length);
+                        }
+                        if (slot == -1) {
+                                return this;
+                        }
+                        int removed = this.edgeSource[slot];
+                        RouteGraph g = new RouteGraph(this.airportIndexes, this.airportIds, this.airportOffsets,
+                                        this.edgeFlights.length - 1);
+                        for (int i = 0; i < g.edgeStart.length; i++) {
+                                g.edgeStart[i] = i > removed ? this.edgeStart[i] - 1 : this.edgeStart[i];
+                        }
+                        copyEdges(g, slot + 1, slot);
+                        return g;
+                }
+
+                private int find(final UUID flightId, final int from, final int to) {
+                        for (int e = from; e < to; e++) {
+                                if (this.edgeFlights[e].getFlightId().equals(flightId)) {
+                                        return e;
+                                }
+                        }
+                        return -1;
+                }
+
+                /*
+                 * Copies the edges into the supplied graph, which has one edge more or less.
+                 * The edges before the smaller of the two slots keep their place, the edges
+                 * from the from slot on move to the to slot.
+                 */
+                private void copyEdges(final RouteGraph g, final int from, final int to) {
+                        int kept = Math.min(from, to);
+                        int moved = this.edgeFlights.length - from;
+                        for (Object[] arrays : new Object[][] { { this.edgeSource, g.edgeSource },
+                                        { this.edgeTarget, g.edgeTarget }, { this.edgeDeparture, g.edgeDeparture },
+                                        { this.edgeDuration, g.edgeDuration }, { this.edgeCost, g.edgeCost },
+                                        { this.edgeFlights, g.edgeFlights } }) {
+                                System.arraycopy(arrays[0], 0, arrays[1], 0, kept);
+                                System.arraycopy(arrays[0], from, arrays[1], to, moved);
+                        }
+                }
+
+                private void setEdge(final int slot, final Flight f, final int source, final int target) {
+                        int delay = minutesOf(f.getDelayTime());
+                        int departure = Math.floorMod(
+                                        minutesOf(f.getDepartureTime()) + delay - this.airportOffsets[source], MINUTES_PER_DAY);
+                        int arrival = Math.floorMod(
+                                        minutesOf(f.getEstArrivalTime()) + delay - this.airportOffsets[target], MINUTES_PER_DAY);
+                        this.edgeSource[slot] = source;
+                        this.edgeTarget[slot] = target;
+                        this.edgeDeparture[slot] = departure;
+                        this.edgeDuration[slot] = Math.floorMod(arrival - departure, MINUTES_PER_DAY);
+                        this.edgeCost[slot] = f.getCost();
+                        this.edgeFlights[slot] = f;
+                }
+
+                private static int offsetOf(final Airport airport, final Instant now) {
+                        return DepartureTimeService.zoneOf(airport).getRules().getOffset(now).getTotalSeconds() / 60;
+                }
+        }
+
+        /*
+         * Loads all flights into the graph once the application is up.
+         */
+        @EventListener(ApplicationReadyEvent.class)
+        public void loadFlights() {
+                try {
+                        reload();
+                        logger.info("Loaded {} flights into the route graph", this.flights.size());
+                } catch (RuntimeException e) {
+                        logger.error("Could not load the route graph!");
+                        logger.error(e);
+                }
+        }
+
+        /*
+         * Method that replaces the graph with the flights currently stored in the
+         * database, e.g. after an airport was changed.
+         */
+        public synchronized void reload() {
+                this.flights.clear();
+                for (Flight f : this.flightRepository.findAll()) {
+                        this.flights.put(f.getFlightId(), f);
+                }
+                this.graph = RouteGraph.of(this.flights.values());
+        }
+
+        /*
+         * Method that adds a created flight to the graph or replaces an updated one.
+         * Airports that are only referenced by id, as in a create request, are
+         * looked up so the flight can be found by airport abbreviation.
+         */
+        public synchronized void putFlight(final Flight flight) {
+                Flight previous = flight != null && flight.getFlightId() != null ? this.flights.get(flight.getFlightId())
+                                : null;
+                if (add(flight)) {
+                        RouteGraph g = previous != null ? this.graph.without(previous) : this.graph;
+                        this.graph = g.with(flight);
+                }
+        }
+
+        /*
+         * Method that adds or replaces many flights, e.g. after a bulk create, and
+         * rebuilds the graph once rather than once per flight.
+         */
+        public synchronized void putFlights(final Collection<Flight> flights) {
+                boolean changed = false;
+                for (Flight flight : flights) {
+                        changed |= add(flight);
+                }
+                if (changed) {
+                        this.graph = RouteGraph.of(this.flights.values());
+                }
+        }
+
+        private boolean add(final Flight flight) {
+                if (flight == null || flight.getFlightId() == null || flight.getSourceAirport() == null
+                                || flight.getDestAirport() == null) {
+                        return false;
+                }
+                if (flight.getSourceAirport().getAirportAbvName() == null) {
+                        flight.setSourceAirport(resolve(flight.getSourceAirport()));
+                }
+                if (flight.getDestAirport().getAirportAbvName() == null) {
+                        flight.setDestAirport(resolve(flight.getDestAirport()));
+                }
+                this.flights.put(flight.getFlightId(), flight);
+                return true;
+        }
+
+        /*
+         * Method that removes a deleted flight from the graph.
+         */
+        public synchronized void removeFlight(final UUID flightId) {
+                Flight removed = this.flights.remove(flightId);
+                if (removed != null) {
+                        this.graph = this.graph.without(removed);
+                }
+        }
+
+        /*
+         * Method that returns the non-stop flights between two airports from the
+         * graph, ordered by departure time. Returns an empty list if an airport is
+         * unknown.
+         */
+        public List<Flight> findDirectFlights(final String sourceAbv, final String destAbv) {
+                RouteGraph g = this.graph;
+                Integer source = g.airportIndexes.get(sourceAbv);
+                Integer dest = g.airportIndexes.get(destAbv);
+                List<Integer> edges = new ArrayList<>();
+                if (source != null && dest != null) {
+                        for (int e = g.edgeStart[source]; e < g.edgeStart[source + 1]; e++) {
+                                if (g.edgeTarget[e] == dest) {
+                                        edges.add(e);
+                                }
+                        }
+                }
+                edges.sort(Comparator.comparingInt((Integer e) -> g.edgeDeparture[e]));
+                List<Flight> direct = new ArrayList<>(edges.size());
+                for (int e : edges) {
+                        direct.add(g.edgeFlights[e]);
+                }
+                return direct;
+        }
+
+        /*
+         * Method that finds the best connection between two airports departing at or
+         * after a local time at the source airport, using at most maxLegs flights.
+         * Consecutive legs are at least the minimum connection time apart. Returns
+         * null if an airport is unknown or no connection exists.
+         */
+        public Itinerary findConnection(final String sourceAbv, final String destAbv, final LocalTime departAfter,
+                        final Criterion criterion, final int maxLegs) {
+                RouteGraph g = this.graph;
+                Integer source = g.airportIndexes.get(sourceAbv);
+                Integer dest = g.airportIndexes.get(destAbv);
+                if (source == null || dest == null || source.equals(dest) || maxLegs < 1) {
+                        return null;
+                }
+                int n = g.airportOffsets.length;
+                int legs = Math.min(maxLegs, MAX_LEGS);
+                // State k * n + i is the best way to reach airport i with exactly k flights
+                long[] arrival = new long[(legs + 1) * n];
+                long[] departure = new long[(legs + 1) * n];
+                int[] cost = new int[(legs + 1) * n];
+                int[] via = new int[(legs + 1) * n];
+                Arrays.fill(arrival, Long.MAX_VALUE);
+                Arrays.fill(via, -1);
+                long start = departAfter.toSecondOfDay() / 60 - g.airportOffsets[source];
+                arrival[source] = start;
+
+                int best = -1;
+                for (int k = 1; k <= legs; k++) {
+                        for (int u = 0; u < n; u++) {
+                                int from = (k - 1) * n + u;
+                                if (arrival[from] == Long.MAX_VALUE || (u == dest && k > 1)) {
+                                        continue;
+                                }
+                                long ready = k == 1 ? arrival[from] : arrival[from] + this.minConnectionMinutes;
+                                for (int e = g.edgeStart[u]; e < g.edgeStart[u + 1]; e++) {
+                                        long dep = nextDeparture(ready, g.edgeDeparture[e]);
+                                        long arr = dep + g.edgeDuration[e];
+                                        int c = cost[from] + g.edgeCost[e];
+                                        int to = k * n + g.edgeTarget[e];
+                                        if (isBetter(criterion, arr, c, arrival[to], cost[to])) {
+                                                arrival[to] = arr;
+                                                departure[to] = dep;
+                                                cost[to] = c;
+                                                via[to] = e;
+                                        }
+                                }
+                        }
+                        int reached = k * n + dest;
+                        if (arrival[reached] != Long.MAX_VALUE && (best == -1
+                                        || isBetter(criterion, arrival[reached], cost[reached], arrival[best], cost[best]))) {
+                                best = reached;
+                        }
+                }
+                if (best == -1) {
+                        return null;
+                }
+
+                Itinerary.Leg[] path = new Itinerary.Leg[best / n];
+                int state = best;
+                for (int k = path.length; k > 0; k--) {
+                        int e = via[state];
+                        int dayOffset = (int) Math.floorDiv(departure[state] + g.airportOffsets[g.edgeSource[e]],
+                                        MINUTES_PER_DAY);
+                        path[k - 1] = new Itinerary.Leg(g.edgeFlights[e], dayOffset);
+                        state = (k - 1) * n + g.edgeSource[e];
+                }
+                return new Itinerary(List.of(path), cost[best], (int) (arrival[best] - start));
+        }
+
+        private Airport resolve(final Airport airport) {
+                Airport stored = this.airportRegistry.findById(airport.getAirportId());
+                return stored != null ? stored : airport;
+        }
+
+        private static boolean isBetter(final Criterion criterion, final long arrival, final int cost,
+                        final long bestArrival, final int bestCost) {
+                if (bestArrival == Long.MAX_VALUE) {
+                        return true;
+                }
+                if (criterion == Criterion.CHEAPEST) {
+                        return cost < bestCost || (cost == bestCost && arrival < bestArrival);
+                }
+                return arrival < bestArrival || (arrival == bestArrival && cost < bestCost);
+        }
+
+        /*
+         * Returns the first departure of a daily flight at or after the supplied time.
+         */
+        private static long nextDeparture(final long ready, final int minuteOfDay) {
+                long departure = Math.floorDiv(ready, MINUTES_PER_DAY) * MINUTES_PER_DAY + minuteOfDay;
+                return departure < ready ? departure + MINUTES_PER_DAY : departure;
+        }
+
+        private static int minutesOf(final Time time) {
+                return time != null ? time.toLocalTime().toSecondOfDay() / 60 : 0;
+        }
+}
@@ -0,0 +1,221 @@
+package com.flightman.flightmanapi.services;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.stream.Collectors;
+
+import javax.annotation.PreDestroy;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import com.flightman.flightmanapi.model.Flight;
+import com.flightman.flightmanapi.model.SeatHold;
+import com.flightman.flightmanapi.model.User;
+import com.flightman.flightmanapi.repositories.SeatHoldRepository;
+import com.flightman.flightmanapi.utils.HashedTimingWheel;
+import com.flightman.flightmanapi.utils.TransactionRunner;
+
+@Service
+public class SeatHoldService {
+
+        private static final Logger logger = LogManager.getLogger(SeatHoldService.class);
+
+        private static final int WHEEL_TICKS = 512;
+
+        @Autowired
+        private SeatHoldRepository seatHoldRepository;
+
+        @Autowired
+        private SeatInventoryService seatInventoryService;
+
+        @Autowired
+        private FlightInventoryService flightInventoryService;
+
+        @Autowired
+        private TransactionRunner transactionRunner;
+
+        @Value("${flightman.seat-hold.ttl-seconds:600}")
+        private long holdTtlSeconds;
+
+        private final HashedTimingWheel<UUID> expiryWheel = new HashedTimingWheel<>("seat-hold-expiry", 1,
+                        TimeUnit.SECONDS, WHEEL_TICKS, this::expire);
+
+        private final Map<UUID, HashedTimingWheel.Timeout<UUID>> timeouts = new ConcurrentHashMap<>();
+
+        /*
+         * Method that returns the hold with the supplied id, or null if it does not
+         * exist.
+         */
+        public SeatHold find(final UUID holdId) {
+                return this.seatHoldRepository.findByHoldId(holdId);
+        }
+
+        /*
+         * Method that holds a seat on a flight on a specific day for the configured
+         * time. If no seat number is supplied, the first free seat is held. Returns
+         * null if the seat or the flight is not available.
+         */
+        public SeatHold hold(final User u, final Flight f, final String seatNumber, final Date d,
+                        final Boolean useRewardPoints) {
+                Lock lock = this.seatInventoryService.getDepartureLock(f, d);
+                SeatHold hold;
+                lock.lock();
+                try {
+                        hold = this.transactionRunner.run(() -> {
+                                if (Boolean.FALSE.equals(this.flightInventoryService.reserveSeats(f, d, 1))) {
+                                        return null;
+                                }
+                                String heldSeatNumber = this.seatInventoryService.claimSeat(f, d, seatNumber);
+                                if (heldSeatNumber == null) {
+                                        this.flightInventoryService.releaseSeats(f, d, 1);
+                                        return null;
+                                }
+                                Date expiresAt = new Date(System.currentTimeMillis()
+                                                + TimeUnit.SECONDS.toMillis(this.holdTtlSeconds));
+                                return this.seatHoldRepository.save(new SeatHold(u, f, d, heldSeatNumber,
+                                                useRewardPoints, expiresAt));
+                        });
+                } catch (RuntimeException e) {
+                        this.seatInventoryService.evictDeparture(f, d);
+                        throw e;
+                } finally {
+                        lock.unlock();
+                }
+                if (hold != null) {
+                        scheduleExpiry(hold.getHoldId(), hold.getExpiresAt());
+                }
+                return hold;
+        }
+
+        /*
+         * Method that removes an unexpired hold so that its seat can be turned into
+         * a booking. Must be called in the booking transaction while holding the
+         * lock of the departure. Returns null if the hold no longer exists.
+         */
+        public SeatHold take(final UUID holdId) {
+                SeatHold hold = this.seatHoldRepository.findByHoldId(holdId);
+                if (hold == null || hold.getExpiresAt().before(new Date())) {
+                        return null;
+                }
+                if (this.seatHoldRepository.deleteByHoldId(holdId) != 1) {
+                        return null;
+                }
+                return hold;
+        }
+
+        /*
+         * Method that stops tracking the expiry of a hold after it was confirmed.
+         */
+        public void cancelExpiry(final UUID holdId) {
+                HashedTimingWheel.Timeout<UUID> timeout = this.timeouts.remove(holdId);
+                if (timeout != null) {
+                        timeout.cancel();
+                }
+        }
+
+        /*
+         * Method that releases a hold and returns its seat to the inventory.
+         */
+        public Boolean release(final UUID holdId) {
+                SeatHold hold = this.seatHoldRepository.findByHoldId(holdId);
+                if (hold == null) {
+                        return false;
+                }
+                List<UUID> holdIds = new ArrayList<>();
+                holdIds.add(holdId);
+                return releaseHolds(hold.getFlight(), hold.getFlightDate(), holdIds) == 1;
+        }
+
+        /*
+         * Reschedules the expiry of every hold stored in the database, e.g. after a
+         * restart. Holds that expired while the server was down expire on the next
+         * tick.
+         */
+        @EventListener(ApplicationReadyEvent.class)
+        public void restoreHolds() {
+                try {
+                        List<SeatHoldRepository.HoldExpiry> holds = this.seatHoldRepository.findAllBy();
+                        for (SeatHoldRepository.HoldExpiry hold : holds) {
+                                scheduleExpiry(hold.getHoldId(), hold.getExpiresAt());
+                        }
+                        logger.info("Restored {} seat holds", holds.size());
+                } catch (RuntimeException e) {
+                        logger.error("Could not restore seat holds!");
+                        logger.error(e);
+                }
+        }
+
+        @PreDestroy
+        public void stop() {
+                this.expiryWheel.stop();
+        }
+
+        private void scheduleExpiry(final UUID holdId, final Date expiresAt) {
+                long delay = Math.max(expiresAt.getTime() - System.currentTimeMillis(), 0);
+                this.timeouts.put(holdId, this.expiryWheel.schedule(holdId, delay, TimeUnit.MILLISECONDS));
+        }
+
+        /*
+         * Releases every hold that expired during one tick of the wheel, one
+         * transaction per departure.
+         */
+        private void expire(final List<UUID> holdIds) {
+                holdIds.forEach(this.timeouts::remove);
+                Map<List<Object>, List<SeatHold>> byDeparture = this.seatHoldRepository.findByHoldIdIn(holdIds)
+                                .stream()
+                                .collect(Collectors.groupingBy(
+                                                h -> List.of(h.getFlight().getFlightId(), h.getFlightDate()),
+                                                LinkedHashMap::new, Collectors.toList()));
+                for (List<SeatHold> holds : byDeparture.values()) {
+                        SeatHold first = holds.get(0);
+                        try {
+                                releaseHolds(first.getFlight(), first.getFlightDate(),
+                                                holds.stream().map(SeatHold::getHoldId).collect(Collectors.toList()));
+                        } catch (RuntimeException e) {
+                                logger.error("Error while expiring seat holds!");
+                                logger.error(e);
+                        }
+                }
+                logger.info("Expired {} seat holds", holdIds.size());
+        }
+
+        /*
+         * Deletes the supplied holds of one departure and returns their seats to the
+         * inventory. Holds that were confirmed or released concurrently are skipped.
+         */
+        private int releaseHolds(final Flight f, final Date d, final List<UUID> holdIds) {
+                Lock lock = this.seatInventoryService.getDepartureLock(f, d);
+                lock.lock();
+                try {
+                        List<SeatHold> released = this.transactionRunner.run(() -> {
+                                List<SeatHold> holds = this.seatHoldRepository.findByHoldIdIn(holdIds);
+                                if (!holds.isEmpty()) {
+                                        this.seatHoldRepository.deleteByHoldIdIn(holds.stream()
+                                                        .map(SeatHold::getHoldId).collect(Collectors.toList()));
+                                        this.flightInventoryService.releaseSeats(f, d, holds.size());
+                                }
+                                return holds;
+                        });
+                        for (SeatHold hold : released) {
+                                this.seatInventoryService.releaseSeat(f, d, hold.getSeatNumber());
+                                cancelExpiry(hold.getHoldId());
+                        }
+                        return released.size();
+                } finally {
+                        lock.unlock();
+                }
+        }
+}
@@ -0,0 +1,369 @@
+package com.flightman.flightmanapi.services;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.flightman.flightmanapi.model.Flight;
+import com.flightman.flightmanapi.model.SeatLayout;
+import com.flightman.flightmanapi.model.SeatMap;
+import com.flightman.flightmanapi.repositories.BookingRepository;
+import com.flightman.flightmanapi.repositories.SeatHoldRepository;
+import com.flightman.flightmanapi.utils.StripedLock;
+
+@Service
+public class SeatInventoryService {
+
+        @Autowired
+        private BookingRepository bookingRepository;
+
+        @Autowired
+        private SeatHoldRepository seatHoldRepository;
+
+        @Autowired
+        private SeatLayoutService seatLayoutService;
+
+        @Value("${flightman.seat-inventory.expire-after-access-minutes:60}")
+        private long expireAfterAccessMinutes;
+
+        @Value("${flightman.seat-inventory.eviction-interval-seconds:60}")
+        private long evictionIntervalSeconds;
+
+        private static final int DEPARTURE_LOCK_STRIPES = 256;
+
+        private final Map<DepartureKey, SeatInventory> inventories = new ConcurrentHashMap<>();
+
+        private final StripedLock departureLocks = new StripedLock(DEPARTURE_LOCK_STRIPES);
+
+        private final ScheduledExecutorService evictor = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "seat-inventory-eviction");
+                thread.setDaemon(true);
+                return thread;
+        });
+
+        /*
+         * Key identifying a single departure of a flight.
+         */
+        private record DepartureKey(UUID flightId, LocalDate flightDate) {
+        }
+
+        /*
+         * Taken seats of a single departure, one bit per seat index.
+         */
+        private static final class SeatInventory {
+                private final BitSet taken;
+                private final SeatLayout layout;
+                private final int capacity;
+                private volatile long lastAccess = System.nanoTime();
+
+                SeatInventory(final SeatLayout layout) {
+                        this.layout = layout;
+                        this.capacity = layout.getCapacity();
+                        this.taken = new BitSet(this.capacity);
+                }
+        }
+
+        @PostConstruct
+        public void init() {
+                this.evictor.scheduleWithFixedDelay(this::evictUnused, this.evictionIntervalSeconds,
+                                this.evictionIntervalSeconds, TimeUnit.SECONDS);
+        }
+
+        @PreDestroy
+        public void stop() {
+                this.evictor.shutdownNow();
+        }
+
+        /*
+         * Method that claims a seat on a flight on a specific day. If no seat number
+         * is supplied, the first free seat is allocated. Returns the claimed seat
+         * number, or null if the seat is taken, invalid or the flight is full.
+         */
+        public String claimSeat(final Flight f, final Date d, final String seatNumber) {
+                SeatInventory inventory = getInventory(f, d);
+                synchronized (inventory) {
+                        int index;
+                        if (seatNumber == null || seatNumber.equals("")) {
+                                index = inventory.taken.nextClearBit(0);
+                        } else {
+                                index = inventory.layout.indexOf(seatNumber);
+                                if (index < 0 || inventory.taken.get(index)) {
+                                        return null;
+                                }
+                        }
+                        if (index >= inventory.capacity) {
+                                return null;
+                        }
+                        inventory.taken.set(index);
+                        return inventory.layout.getSeatNumber(index);
+                }
+        }
+
+        /*
+         * Method that claims seats for a group on a flight on a specific day. The
+         * group is seated in one row if any row has enough adjacent free seats,
+         * otherwise in the free seats spanning the fewest consecutive rows. Returns
+         * the claimed seat numbers, or null if there are not enough free seats.
+         */
+        public List<String> claimAdjacentSeats(final Flight f, final Date d, final int count) {
+                SeatInventory inventory = getInventory(f, d);
+                synchronized (inventory) {
+                        if (count <= 0 || inventory.capacity - inventory.taken.cardinality() < count) {
+                                return null;
+                        }
+                        int start = findAdjacentRun(inventory, count);
+                        List<String> seatNumbers = new ArrayList<>(count);
+                        if (start >= 0) {
+                                for (int i = start; i < start + count; i++) {
+                                        inventory.taken.set(i);
+                                        seatNumbers.add(inventory.layout.getSeatNumber(i));
+                                }
+                                return seatNumbers;
+                        }
+                        int index = inventory.taken.nextClearBit(findClosestCluster(inventory, count));
+                        while (seatNumbers.size() < count) {
+                                inventory.taken.set(index);
+                                seatNumbers.add(inventory.layout.getSeatNumber(index));
+                                index = inventory.taken.nextClearBit(index + 1);
+                        }
+                        return seatNumbers;
+                }
+        }
+
+        /*
+         * Method that returns the first free seat on a flight on a specific day
+         * without claiming it, or null if the flight is full.
+         */
+        public String findFreeSeat(final Flight f, final Date d) {
+                SeatInventory inventory = getInventory(f, d);
+                synchronized (inventory) {
+                        int index = inventory.taken.nextClearBit(0);
+                        return index < inventory.capacity ? inventory.layout.getSeatNumber(index) : null;
+                }
+        }
+
+        /*
+         * Method that frees a previously claimed seat on a flight on a specific day.
+         */
+        public void releaseSeat(final Flight f, final Date d, final String seatNumber) {
+                SeatInventory inventory = this.inventories.get(keyOf(f, d));
+                if (inventory != null) {
+                        synchronized (inventory) {
+                                int index = inventory.layout.indexOf(seatNumber);
+                                if (index >= 0) {
+                                        inventory.taken.clear(index);
+                                }
+                        }
+                }
+        }
+
+        /*
+         * Method that returns true if the supplied seat is taken on a flight on a
+         * specific day.
+         */
+        public Boolean isSeatTaken(final Flight f, final Date d, final String seatNumber) {
+                SeatInventory inventory = getInventory(f, d);
+                synchronized (inventory) {
+                        int index = inventory.layout.indexOf(seatNumber);
+                        return index < 0 || inventory.taken.get(index);
+                }
+        }
+
+        /*
+         * Method that returns the number of free seats on a flight on a specific day.
+         */
+        public Integer getAvailableSeatCount(final Flight f, final Date d) {
+                SeatInventory inventory = getInventory(f, d);
+                synchronized (inventory) {
+                        return inventory.capacity - inventory.taken.cardinality();
+                }
+        }
+
+        /*
+         * Method that returns the seat map of a flight on a specific day.
+         */
+        public SeatMap getSeatMap(final Flight f, final Date d) {
+                SeatInventory inventory = getInventory(f, d);
+                SeatLayout layout = inventory.layout;
+                List<SeatMap.Seat> seats = new ArrayList<>(inventory.capacity);
+                int availableSeats;
+                synchronized (inventory) {
+                        for (int i = 0; i < inventory.capacity; i++) {
+                                seats.add(new SeatMap.Seat(layout.getSeatNumber(i), !inventory.taken.get(i)));
+                        }
+                        availableSeats = inventory.capacity - inventory.taken.cardinality();
+                }
+                return new SeatMap(f.getFlightId(), layout.getRowCount(), layout.getColCount(), availableSeats,
+                                seats);
+        }
+
+        /*
+         * Method that returns the lock guarding seat allocation for a flight on a
+         * specific day. Departures share a fixed number of locks, so allocations on
+         * different departures rarely contend.
+         */
+        public Lock getDepartureLock(final Flight f, final Date d) {
+                return this.departureLocks.get(keyOf(f, d));
+        }
+
+        /*
+         * Method that drops the cached inventory of a flight on a specific day so it
+         * is reloaded from the booking table on next use.
+         */
+        public void evictDeparture(final Flight f, final Date d) {
+                this.inventories.remove(keyOf(f, d));
+        }
+
+        /*
+         * Method that drops the cached inventories of a flight, e.g. after its
+         * bookings were deleted or its flight model was changed.
+         */
+        public void evictFlight(final UUID flightId) {
+                this.inventories.keySet().removeIf(key -> flightId.equals(key.flightId()));
+        }
+
+        /*
+         * Method that drops the cached inventories of departures whose date has
+         * passed or that were not used for the configured time. A departure whose
+         * lock is held is skipped until a later run, since an allocation in progress
+         * may have claimed seats that are not committed yet. Runs on its own thread,
+         * which never holds a departure lock, so tryLock fails whenever another
+         * thread holds it. Returns the number of inventories dropped.
+         */
+        public int evictUnused() {
+                LocalDate today = LocalDate.now();
+                long idleSince = System.nanoTime() - TimeUnit.MINUTES.toNanos(this.expireAfterAccessMinutes);
+                int evicted = 0;
+                for (Map.Entry<DepartureKey, SeatInventory> entry : this.inventories.entrySet()) {
+                        DepartureKey key = entry.getKey();
+                        SeatInventory inventory = entry.getValue();
+                        if (!key.flightDate().isBefore(today) && inventory.lastAccess - idleSince > 0) {
+                                continue;
+                        }
+                        Lock lock = this.departureLocks.get(key);
+                        if (lock.tryLock()) {
+                                try {
+                                        if (this.inventories.remove(key, inventory)) {
+                                                evicted++;
+                                        }
+                                } finally {
+                                        lock.unlock();
+                                }
+                        }
+                }
+                return evicted;
+        }
+
+        /*
+         * Returns the inventory of a departure, rebuilding it if the layout of the
+         * flight model changed since it was loaded.
+         */
+        private SeatInventory getInventory(final Flight f, final Date d) {
+                SeatLayout layout = this.seatLayoutService.getLayout(f.getFlightModel());
+                DepartureKey key = keyOf(f, d);
+                SeatInventory inventory = this.inventories.computeIfAbsent(key, k -> loadInventory(f, d, layout));
+                if (layout.getFlightModelId() != null && inventory.layout != layout) {
+                        SeatInventory stale = inventory;
+                        inventory = this.inventories.compute(key,
+                                        (k, current) -> current == null || current == stale
+                                                        ? loadInventory(f, d, layout)
+                                                        : current);
+                }
+                inventory.lastAccess = System.nanoTime();
+                return inventory;
+        }
+
+        /*
+         * Returns the index of the first seat of the first run of count free seats
+         * within a single row, or -1 if no row has such a run.
+         */
+        private static int findAdjacentRun(final SeatInventory inventory, final int count) {
+                int cols = inventory.layout.getColCount();
+                int index = inventory.taken.nextClearBit(0);
+                while (index < inventory.capacity) {
+                        int rowEnd = Math.min((inventory.layout.rowOf(index) + 1) * cols, inventory.capacity);
+                        int nextTaken = inventory.taken.nextSetBit(index);
+                        int runEnd = nextTaken < 0 ? rowEnd : Math.min(nextTaken, rowEnd);
+                        if (runEnd - index >= count) {
+                                return index;
+                        }
+                        index = inventory.taken.nextClearBit(runEnd);
+                }
+                return -1;
+        }
+
+        /*
+         * Returns the index of the first seat of the row from which count free
+         * seats can be taken across the fewest consecutive rows.
+         */
+        private static int findClosestCluster(final SeatInventory inventory, final int count) {
+                int cols = inventory.layout.getColCount();
+                int rows = (inventory.capacity + cols - 1) / cols;
+                int[] free = new int[rows];
+                for (int row = 0; row < rows; row++) {
+                        int rowStart = row * cols;
+                        int rowEnd = Math.min(rowStart + cols, inventory.capacity);
+                        free[row] = rowEnd - rowStart - inventory.taken.get(rowStart, rowEnd).cardinality();
+                }
+                int bestRow = 0;
+                int bestSpan = Integer.MAX_VALUE;
+                int seats = 0;
+                for (int first = 0, last = 0; first < rows; first++) {
+                        while (last < rows && seats < count) {
+                                seats += free[last++];
+                        }
+                        if (seats < count) {
+                                break;
+                        }
+                        if (last - first < bestSpan) {
+                                bestSpan = last - first;
+                                bestRow = first;
+                        }
+                        seats -= free[first];
+                }
+                return bestRow * cols;
+        }
+
+        /*
+         * Builds the inventory of a departure from the seat numbers already booked
+         * or held.
+         */
+        private SeatInventory loadInventory(final Flight f, final Date d, final SeatLayout layout) {
+                SeatInventory inventory = new SeatInventory(layout);
+                markTaken(inventory, this.bookingRepository.findSeatNumbersByFlightAndFlightDate(f, d));
+                markTaken(inventory, this.seatHoldRepository.findSeatNumbersByFlightAndFlightDate(f, d));
+                return inventory;
+        }
+
+        private static void markTaken(final SeatInventory inventory, final List<String> seatNumbers) {
+                for (String seatNumber : seatNumbers) {
+                        int index = inventory.layout.indexOf(seatNumber);
+                        if (index >= 0) {
+                                inventory.taken.set(index);
+                        }
+                }
+        }
+
+        private static DepartureKey keyOf(final Flight f, final Date d) {
+                LocalDate flightDate = Instant.ofEpochMilli(d.getTime()).atZone(ZoneId.systemDefault()).toLocalDate();
+                return new DepartureKey(f.getFlightId(), flightDate);
+        }
+}
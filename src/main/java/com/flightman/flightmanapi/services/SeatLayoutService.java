@@ -0,0 +1,49 @@
+package com.flightman.flightmanapi.services;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.flightman.flightmanapi.model.FlightModel;
+import com.flightman.flightmanapi.model.SeatLayout;
+
+@Service
+public class SeatLayoutService {
+
+        private final Map<Integer, SeatLayout> layouts = new ConcurrentHashMap<>();
+
+        /*
+         * Method that returns the seat layout of a flight model, computing and
+         * caching it on first use.
+         */
+        public SeatLayout getLayout(final FlightModel model) {
+                if (model.getFlightModelId() == null) {
+                        return SeatLayout.of(model);
+                }
+                return this.layouts.computeIfAbsent(model.getFlightModelId(), id -> SeatLayout.of(model));
+        }
+
+        /*
+         * Method that drops the cached layout of a flight model after it was
+         * changed or deleted. Inside a transaction the layout is dropped again
+         * after completion, so a layout that a concurrent read built from the model
+         * as it was before the commit is not kept.
+         */
+        public void evict(final Integer flightModelId) {
+                if (flightModelId == null) {
+                        return;
+                }
+                this.layouts.remove(flightModelId);
+                if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                                @Override
+                                public void afterCompletion(final int status) {
+                                        layouts.remove(flightModelId);
+                                }
+                        });
+                }
+        }
+}
@@ -0,0 +1,165 @@
+package com.flightman.flightmanapi.services;
+
+import java.time.Duration;
+import java.util.UUID;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.flightman.flightmanapi.model.User;
+import com.flightman.flightmanapi.model.UserCacheStats;
+import com.flightman.flightmanapi.repositories.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+/*
+ * Bounded cache of users by id, with an index from email to id. Entries expire
+ * after a fixed time and the least valuable entries are evicted once the cache
+ * is full. Every write to a user must evict it; inside a transaction the user is
+ * evicted again after completion, so a read between the write and the commit
+ * cannot leave the old row in the cache. Cached users are shared between
+ * requests and must not be modified.
+ */
+@Service
+public class UserCache {
+
+        @Autowired
+        private UserRepository userRepository;
+
+        @Value("${flightman.user-cache.maximum-size:10000}")
+        private long maximumSize;
+
+        @Value("${flightman.user-cache.ttl-seconds:300}")
+        private long ttlSeconds;
+
+        private Cache<UUID, User> byId;
+
+        private Cache<String, UUID> idsByEmail;
+
+        @PostConstruct
+        public void init() {
+                this.byId = Caffeine.newBuilder()
+                                .maximumSize(this.maximumSize)
+                                .expireAfterWrite(Duration.ofSeconds(this.ttlSeconds))
+                                .recordStats()
+                                .build();
+                this.idsByEmail = Caffeine.newBuilder()
+                                .maximumSize(this.maximumSize)
+                                .expireAfterWrite(Duration.ofSeconds(this.ttlSeconds))
+                                .build();
+        }
+
+        /*
+         * Method that returns the user with the supplied id, or null if it does not
+         * exist. Unknown ids are not cached.
+         */
+        public User findById(final UUID userId) {
+                if (userId == null) {
+                        return this.userRepository.findByUserId(null);
+                }
+                User u = this.byId.get(userId, this.userRepository::findByUserId);
+                if (u != null && u.getEmail() != null) {
+                        this.idsByEmail.put(u.getEmail(), userId);
+                }
+                return u;
+        }
+
+        /*
+         * Method that returns the user with the supplied email, or null if it does
+         * not exist.
+         */
+        public User findByEmail(final String email) {
+                if (email == null) {
+                        return this.userRepository.findByEmail(null);
+                }
+                UUID userId = this.idsByEmail.getIfPresent(email);
+                if (userId != null) {
+                        User u = findById(userId);
+                        if (u != null && email.equals(u.getEmail())) {
+                                return u;
+                        }
+                        this.idsByEmail.invalidate(email);
+                }
+                User u = this.userRepository.findByEmail(email);
+                if (u != null && u.getUserId() != null) {
+                        this.byId.put(u.getUserId(), u);
+                        this.idsByEmail.put(email, u.getUserId());
+                }
+                return u;
+        }
+
+        /*
+         * Method that drops a user from the cache after it was changed or deleted.
+         */
+        public void evict(final UUID userId) {
+                if (userId == null) {
+                        return;
+                }
+                evictNow(userId);
+                afterCompletion(() -> evictNow(userId));
+        }
+
+        /*
+         * Method that drops the user with the supplied email from the cache after it
+         * was changed or deleted.
+         */
+        public void evictByEmail(final String email) {
+                if (email == null) {
+                        return;
+                }
+                evictByEmailNow(email);
+                afterCompletion(() -> evictByEmailNow(email));
+        }
+
+        /*
+         * Method that drops every user from the cache.
+         */
+        public void evictAll() {
+                this.byId.invalidateAll();
+                this.idsByEmail.invalidateAll();
+        }
+
+        /*
+         * Method that returns the hit, miss and eviction counts of the cache.
+         */
+        public UserCacheStats getStats() {
+                CacheStats stats = this.byId.stats();
+                return new UserCacheStats(this.byId.estimatedSize(), stats.hitCount(), stats.missCount(),
+                                stats.hitRate(), stats.evictionCount());
+        }
+
+        private void evictNow(final UUID userId) {
+                User u = this.byId.getIfPresent(userId);
+                if (u != null && u.getEmail() != null) {
+                        this.idsByEmail.invalidate(u.getEmail());
+                }
+                this.byId.invalidate(userId);
+        }
+
+        private void evictByEmailNow(final String email) {
+                UUID userId = this.idsByEmail.getIfPresent(email);
+                if (userId != null) {
+                        this.byId.invalidate(userId);
+                }
+                this.idsByEmail.invalidate(email);
+                // The user may be cached by id without its email being indexed
+                this.byId.asMap().values().removeIf(u -> email.equals(u.getEmail()));
+        }
+
+        private static void afterCompletion(final Runnable eviction) {
+                if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                                @Override
+                                public void afterCompletion(final int status) {
+                                        eviction.run();
+                                }
+                        });
+                }
+        }
+}
@@ -6,7 +6,10 @@ import java.util.UUID;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import com.flightman.flightmanapi.model.RewardsReconciliationReport;
+import com.flightman.flightmanapi.model.RewardsTransaction;
 import com.flightman.flightmanapi.model.User;
+import com.flightman.flightmanapi.model.UserCacheStats;
 import com.flightman.flightmanapi.repositories.UserRepository;
 
 @Service
@@ -15,27 +18,71 @@ public class UserService {
         @Autowired
         private UserRepository userRepository;
 
+        @Autowired
+        private UserCache userCache;
+
+        @Autowired
+        private RewardsLedgerService rewardsLedgerService;
+
+        @Autowired
+        private RewardsReconciliationService rewardsReconciliationService;
+
         public List<User> getAllUsers() {
                 return (List<User>) userRepository.findAll();
         }
 
         public User getUserById(final UUID id) {
-                return this.userRepository.findByUserId(id);
+                return this.userCache.findById(id);
         }
 
         public User getUserByEmail(final String email) {
-                return this.userRepository.findByEmail(email);
+                return this.userCache.findByEmail(email);
         }
 
         public Boolean deleteUserById(final UUID id) {
-                return this.userRepository.deleteById(id) != null ? true : false;
+                Integer deleted = this.userRepository.deleteById(id);
+                this.userCache.evict(id);
+                return deleted != null ? true : false;
         }
 
         public Boolean deleteUserByEmail(final String email) {
-                return this.userRepository.deleteByEmail(email) != null ? true : false;
+                Integer deleted = this.userRepository.deleteByEmail(email);
+                this.userCache.evictByEmail(email);
+                return deleted != null ? true : false;
         }
 
         public Boolean saveUser(final User user) {
-                return this.userRepository.save(user) != null;
+                User saved = this.userRepository.save(user);
+                this.userCache.evict(user.getUserId());
+                if (saved != null) {
+                        this.userCache.evict(saved.getUserId());
+                }
+                return saved != null;
+        }
+
+        /*
+         * Method that returns the reward point changes of a user, newest first.
+         */
+        public List<RewardsTransaction> getRewardsTransactions(final UUID id) {
+                return this.rewardsLedgerService.getTransactions(id);
+        }
+
+        /*
+         * Method that starts a reconciliation of the reward points of all users in
+         * the background. Returns false if one is already running.
+         */
+        public Boolean startRewardsReconciliation() {
+                return this.rewardsReconciliationService.start();
+        }
+
+        public RewardsReconciliationReport getRewardsReconciliationReport() {
+                return this.rewardsReconciliationService.getReport();
+        }
+
+        /*
+         * Method that returns the hit, miss and eviction counts of the user cache.
+         */
+        public UserCacheStats getCacheStats() {
+                return this.userCache.getStats();
         }
 }
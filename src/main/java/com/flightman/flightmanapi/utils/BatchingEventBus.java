@@ -0,0 +1,104 @@
+package com.flightman.flightmanapi.utils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/*
+ * In-process event bus that delivers events to its subscribers in batches.
+ * Publishing only appends to a bounded queue; a single dispatcher thread drains
+ * up to maxBatch queued events at a time and hands each batch to every
+ * subscriber. When the queue is full, new events are dropped rather than
+ * blocking the publisher.
+ */
+public class BatchingEventBus<E> {
+
+        private static final Logger logger = LogManager.getLogger(BatchingEventBus.class);
+
+        private final BlockingQueue<E> queue;
+        private final int maxBatch;
+        private final List<Consumer<List<E>>> subscribers = new CopyOnWriteArrayList<>();
+        private final Thread dispatcher;
+        private volatile boolean running = true;
+
+        public BatchingEventBus(final String name, final int capacity, final int maxBatch) {
+                this.queue = new ArrayBlockingQueue<>(capacity);
+                this.maxBatch = maxBatch;
+                this.dispatcher = new Thread(this::run, name);
+                this.dispatcher.setDaemon(true);
+                this.dispatcher.start();
+        }
+
+        /*
+         * Registers a consumer that receives every batch published after it
+         * subscribed.
+         */
+        public void subscribe(final Consumer<List<E>> subscriber) {
+                this.subscribers.add(subscriber);
+        }
+
+        public void unsubscribe(final Consumer<List<E>> subscriber) {
+                this.subscribers.remove(subscriber);
+        }
+
+        /*
+         * Queues the supplied events for delivery. Returns the number of events
+         * that were dropped because the queue was full.
+         */
+        public int publish(final Collection<E> events) {
+                int dropped = 0;
+                for (E event : events) {
+                        if (!this.queue.offer(event)) {
+                                dropped++;
+                        }
+                }
+                if (dropped > 0) {
+                        logger.warn("Event queue full, dropped {} events", dropped);
+                }
+                return dropped;
+        }
+
+        /*
+         * Stops the dispatcher thread. Events that were not delivered yet are
+         * dropped.
+         */
+        public void stop() {
+                this.running = false;
+                this.dispatcher.interrupt();
+        }
+
+        private void run() {
+                List<E> batch = new ArrayList<>(this.maxBatch);
+                while (this.running) {
+                        try {
+                                E first = this.queue.poll(1, TimeUnit.SECONDS);
+                                if (first == null) {
+                                        continue;
+                                }
+                                batch.add(first);
+                        } catch (InterruptedException e) {
+                                Thread.currentThread().interrupt();
+                                return;
+                        }
+                        this.queue.drainTo(batch, this.maxBatch - 1);
+                        List<E> delivered = List.copyOf(batch);
+                        batch.clear();
+                        for (Consumer<List<E>> subscriber : this.subscribers) {
+                                try {
+                                        subscriber.accept(delivered);
+                                } catch (RuntimeException e) {
+                                        logger.error("Error while delivering events!");
+                                        logger.error(e);
+                                }
+                        }
+                }
+        }
+}
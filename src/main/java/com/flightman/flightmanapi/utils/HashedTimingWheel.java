@@ -0,0 +1,149 @@
+package com.flightman.flightmanapi.utils;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/*
+ * Hashed timing wheel for large numbers of coarse grained timeouts. Scheduling
+ * and cancelling are O(1); a single worker thread advances the wheel once per
+ * tick and hands every item that expired during that tick to the expiry
+ * handler as one batch.
+ */
+public class HashedTimingWheel<T> {
+
+        private static final Logger logger = LogManager.getLogger(HashedTimingWheel.class);
+
+        private final long tickNanos;
+        private final List<LinkedList<Timeout<T>>> wheel;
+        private final int mask;
+        private final Queue<Timeout<T>> pending = new ConcurrentLinkedQueue<>();
+        private final Consumer<List<T>> expiryHandler;
+        private final Thread worker;
+        private final long startTime;
+        private volatile boolean running = true;
+
+        /*
+         * Handle of a scheduled item that can be used to cancel it.
+         */
+        public static final class Timeout<T> {
+                private final T item;
+                private final long deadline;
+                private long remainingRounds;
+                private volatile boolean cancelled;
+
+                private Timeout(final T item, final long deadline) {
+                        this.item = item;
+                        this.deadline = deadline;
+                }
+
+                public T getItem() {
+                        return this.item;
+                }
+
+                public void cancel() {
+                        this.cancelled = true;
+                }
+        }
+
+        public HashedTimingWheel(final String name, final long tickDuration, final TimeUnit unit,
+                        final int ticksPerWheel, final Consumer<List<T>> expiryHandler) {
+                this.tickNanos = unit.toNanos(tickDuration);
+                int size = Integer.highestOneBit(Math.max(ticksPerWheel - 1, 1)) << 1;
+                this.wheel = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) {
+                        this.wheel.add(new LinkedList<>());
+                }
+                this.mask = size - 1;
+                this.expiryHandler = expiryHandler;
+                this.startTime = System.nanoTime();
+                this.worker = new Thread(this::run, name);
+                this.worker.setDaemon(true);
+                this.worker.start();
+        }
+
+        /*
+         * Schedules an item to expire after the supplied delay.
+         */
+        public Timeout<T> schedule(final T item, final long delay, final TimeUnit unit) {
+                Timeout<T> timeout = new Timeout<>(item, System.nanoTime() - this.startTime + unit.toNanos(delay));
+                this.pending.add(timeout);
+                return timeout;
+        }
+
+        /*
+         * Stops the worker thread. Items that have not expired yet are dropped.
+         */
+        public void stop() {
+                this.running = false;
+                this.worker.interrupt();
+        }
+
+        private void run() {
+                long tick = 0;
+                while (this.running) {
+                        long deadline = this.tickNanos * (tick + 1);
+                        long sleepNanos = deadline - (System.nanoTime() - this.startTime);
+                        if (sleepNanos > 0) {
+                                try {
+                                        TimeUnit.NANOSECONDS.sleep(sleepNanos);
+                                } catch (InterruptedException e) {
+                                        Thread.currentThread().interrupt();
+                                        return;
+                                }
+                        }
+                        transferPending(tick);
+                        List<T> expired = expireBucket(this.wheel.get((int) (tick & this.mask)));
+                        if (!expired.isEmpty()) {
+                                try {
+                                        this.expiryHandler.accept(expired);
+                                } catch (RuntimeException e) {
+                                        logger.error("Error while expiring timeouts!");
+                                        logger.error(e);
+                                }
+                        }
+                        tick++;
+                }
+        }
+
+        /*
+         * Moves newly scheduled timeouts into the bucket of the tick they expire in.
+         * Timeouts that are already due go into the current bucket.
+         */
+        private void transferPending(final long currentTick) {
+                Timeout<T> timeout;
+                while ((timeout = this.pending.poll()) != null) {
+                        if (timeout.cancelled) {
+                                continue;
+                        }
+                        long expiryTick = Math.max(timeout.deadline / this.tickNanos, currentTick);
+                        timeout.remainingRounds = (expiryTick - currentTick) / this.wheel.size();
+                        this.wheel.get((int) (expiryTick & this.mask)).add(timeout);
+                }
+        }
+
+        private List<T> expireBucket(final LinkedList<Timeout<T>> bucket) {
+                List<T> expired = new ArrayList<>();
+                Iterator<Timeout<T>> iterator = bucket.iterator();
+                while (iterator.hasNext()) {
+                        Timeout<T> timeout = iterator.next();
+                        if (timeout.cancelled) {
+                                iterator.remove();
+                        } else if (timeout.remainingRounds <= 0) {
+                                iterator.remove();
+                                expired.add(timeout.item);
+                        } else {
+                                timeout.remainingRounds--;
+                        }
+                }
+                return expired;
+        }
+}
@@ -0,0 +1,138 @@
+package com.flightman.flightmanapi.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/*
+ * Immutable k-d tree of points on the earth's surface. Points are stored as unit
+ * vectors, so the straight line (chord) distance between two points grows with
+ * their great-circle distance and the tree can be searched with plain
+ * Euclidean bounds. The tree is balanced and laid out implicitly: the node of
+ * the index range [lo, hi) is at (lo + hi) / 2.
+ */
+public final class SphericalKdTree<T> {
+
+        public static final double EARTH_RADIUS_KM = 6371.0088;
+
+        private final List<T> items;
+
+        private final double[][] points;
+
+        /*
+         * An item found by a search together with its great-circle distance.
+         */
+        public record Neighbor<T>(T item, double distanceKm) {
+        }
+
+        /*
+         * Builds the tree from items and their coordinates in degrees, where
+         * latitudes[i] and longitudes[i] belong to items.get(i).
+         */
+        public SphericalKdTree(final List<T> items, final double[] latitudes, final double[] longitudes) {
+                int n = items.size();
+                double[][] vectors = new double[n][];
+                Integer[] order = new Integer[n];
+                for (int i = 0; i < n; i++) {
+                        vectors[i] = toVector(latitudes[i], longitudes[i]);
+                        order[i] = i;
+                }
+                build(order, vectors, 0, n, 0);
+                List<T> sortedItems = new ArrayList<>(n);
+                this.points = new double[n][];
+                for (int i = 0; i < n; i++) {
+                        sortedItems.add(items.get(order[i]));
+                        this.points[i] = vectors[order[i]];
+                }
+                this.items = Collections.unmodifiableList(sortedItems);
+        }
+
+        public int size() {
+                return this.items.size();
+        }
+
+        /*
+         * Returns at most limit items within maxDistanceKm of the supplied point,
+         * nearest first.
+         */
+        public List<Neighbor<T>> nearest(final double latitude, final double longitude, final double maxDistanceKm,
+                        final int limit) {
+                if (limit <= 0 || this.items.isEmpty()) {
+                        return new ArrayList<>();
+                }
+                double[] query = toVector(latitude, longitude);
+                double angle = Math.min(maxDistanceKm / EARTH_RADIUS_KM, Math.PI);
+                double maxChord = 2 * Math.sin(angle / 2);
+                // Max heap on squared chord distance holding the best candidates so far
+                PriorityQueue<double[]> best = new PriorityQueue<>(limit + 1,
+                                Comparator.comparingDouble((double[] c) -> c[0]).reversed());
+                search(query, 0, this.items.size(), 0, maxChord * maxChord + 1e-12, limit, best);
+
+                List<Neighbor<T>> neighbors = new ArrayList<>(best.size());
+                while (!best.isEmpty()) {
+                        double[] candidate = best.poll();
+                        double chord = Math.sqrt(candidate[0]);
+                        double distance = 2 * EARTH_RADIUS_KM * Math.asin(Math.min(chord / 2, 1));
+                        neighbors.add(new Neighbor<>(this.items.get((int) candidate[1]), distance));
+                }
+                Collections.reverse(neighbors);
+                return neighbors;
+        }
+
+        private void search(final double[] query, final int lo, final int hi, final int depth, final double maxDist2,
+                        final int limit, final PriorityQueue<double[]> best) {
+                if (lo >= hi) {
+                        return;
+                }
+                int mid = (lo + hi) >>> 1;
+                double[] point = this.points[mid];
+                double dx = query[0] - point[0];
+                double dy = query[1] - point[1];
+                double dz = query[2] - point[2];
+                double dist2 = dx * dx + dy * dy + dz * dz;
+                if (dist2 <= maxDist2 && (best.size() < limit || dist2 < best.peek()[0])) {
+                        best.offer(new double[] { dist2, mid });
+                        if (best.size() > limit) {
+                                best.poll();
+                        }
+                }
+
+                int axis = depth % 3;
+                double diff = query[axis] - point[axis];
+                if (diff < 0) {
+                        search(query, lo, mid, depth + 1, maxDist2, limit, best);
+                } else {
+                        search(query, mid + 1, hi, depth + 1, maxDist2, limit, best);
+                }
+                double bound = best.size() < limit ? maxDist2 : Math.min(maxDist2, best.peek()[0]);
+                if (diff * diff <= bound) {
+                        if (diff < 0) {
+                                search(query, mid + 1, hi, depth + 1, maxDist2, limit, best);
+                        } else {
+                                search(query, lo, mid, depth + 1, maxDist2, limit, best);
+                        }
+                }
+        }
+
+        private static void build(final Integer[] order, final double[][] vectors, final int lo, final int hi,
+                        final int depth) {
+                if (hi - lo <= 1) {
+                        return;
+                }
+                int axis = depth % 3;
+                Arrays.sort(order, lo, hi, Comparator.comparingDouble(i -> vectors[i][axis]));
+                int mid = (lo + hi) >>> 1;
+                build(order, vectors, lo, mid, depth + 1);
+                build(order, vectors, mid + 1, hi, depth + 1);
+        }
+
+        private static double[] toVector(final double latitude, final double longitude) {
+                double lat = Math.toRadians(latitude);
+                double lon = Math.toRadians(longitude);
+                double cosLat = Math.cos(lat);
+                return new double[] { cosLat * Math.cos(lon), cosLat * Math.sin(lon), Math.sin(lat) };
+        }
+}
@@ -0,0 +1,27 @@
+package com.flightman.flightmanapi.utils;
+
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/*
+ * Fixed set of locks shared by an unbounded set of keys. Equal keys always map
+ * to the same lock, so work on one key is serialized while work on most other
+ * keys proceeds in parallel.
+ */
+public class StripedLock {
+        private final Lock[] stripes;
+
+        public StripedLock(final int stripeCount) {
+                int size = Integer.highestOneBit(Math.max(stripeCount - 1, 1)) << 1;
+                this.stripes = new Lock[size];
+                for (int i = 0; i < size; i++) {
+                        this.stripes[i] = new ReentrantLock();
+                }
+        }
+
+        public Lock get(final Object key) {
+                int h = key.hashCode();
+                h ^= h >>> 16;
+                return this.stripes[h & (this.stripes.length - 1)];
+        }
+}
@@ -0,0 +1,20 @@
+package com.flightman.flightmanapi.utils;
+
+import java.util.function.Supplier;
+
+import javax.transaction.Transactional;
+
+import org.springframework.stereotype.Component;
+
+/*
+ * Runs a unit of work in its own transaction. Any exception thrown by the work
+ * rolls the transaction back and is rethrown to the caller.
+ */
+@Component
+public class TransactionRunner {
+
+        @Transactional
+        public <T> T run(final Supplier<T> work) {
+                return work.get();
+        }
+}
@@ -0,0 +1,191 @@
+package com.flightman.flightmanapi.utils;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+/*
+ * Immutable typeahead index over a short code and a name per item. All codes and
+ * names are normalized (lower case, without accents) and every suffix of them is
+ * kept in a sorted suffix array, so all texts containing a query are found by a
+ * binary search followed by a scan of the matching range. Results are ranked as
+ * exact code matches, then prefixes of the code or of a word in the name, then
+ * any other substring, and alphabetically by name within each rank.
+ */
+public final class TypeaheadIndex<T> {
+
+        private static final int EXACT = 0;
+
+        private static final int PREFIX = 1;
+
+        private static final int SUBSTRING = 2;
+
+        private static final int NO_MATCH = 3;
+
+        private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+
+        private final List<T> items;
+
+        /* Normalized texts, the code of item i at 2i and its name at 2i + 1 */
+        private final String[] texts;
+
+        /* Suffixes of all texts in sorted order, packed as text index and offset */
+        private final long[] suffixes;
+
+        /* Position of each item when sorted by name */
+        private final int[] nameOrder;
+
+        private final Map<String, int[]> byCode;
+
+        public TypeaheadIndex(final List<T> items, final Function<T, String> code, final Function<T, String> name) {
+                int n = items.size();
+                this.items = Collections.unmodifiableList(new ArrayList<>(items));
+                this.texts = new String[2 * n];
+                Map<String, List<Integer>> codes = new HashMap<>();
+                int total = 0;
+                for (int i = 0; i < n; i++) {
+                        T item = items.get(i);
+                        this.texts[2 * i] = normalize(code.apply(item));
+                        this.texts[2 * i + 1] = normalize(name.apply(item));
+                        total += this.texts[2 * i].length() + this.texts[2 * i + 1].length();
+                        if (!this.texts[2 * i].isEmpty()) {
+                                codes.computeIfAbsent(this.texts[2 * i], c -> new ArrayList<>()).add(i);
+                        }
+                }
+                this.byCode = new HashMap<>();
+                codes.forEach((c, ids) -> this.byCode.put(c, ids.stream().mapToInt(Integer::intValue).toArray()));
+
+                Long[] sorted = new Long[total];
+                int k = 0;
+                for (int t = 0; t < this.texts.length; t++) {
+                        for (int offset = 0; offset < this.texts[t].length(); offset++) {
+                                sorted[k++] = ((long) t << 32) | offset;
+                        }
+                }
+                Arrays.sort(sorted, (a, b) -> compareSuffixes(a, b));
+                this.suffixes = new long[total];
+                for (int i = 0; i < total; i++) {
+                        this.suffixes[i] = sorted[i];
+                }
+
+                Integer[] byName = new Integer[n];
+                for (int i = 0; i < n; i++) {
+                        byName[i] = i;
+                }
+                Arrays.sort(byName, Comparator.comparing((Integer i) -> this.texts[2 * i + 1])
+                                .thenComparing(i -> this.texts[2 * i]));
+                this.nameOrder = new int[n];
+                for (int i = 0; i < n; i++) {
+                        this.nameOrder[byName[i]] = i;
+                }
+        }
+
+        public int size() {
+                return this.items.size();
+        }
+
+        /*
+         * Returns at most limit items whose code or name contains the query, best
+         * ranked first. Case and accents are ignored.
+         */
+        public List<T> search(final String query, final int limit) {
+                String q = normalize(query);
+                if (q.isEmpty() || limit <= 0) {
+                        return new ArrayList<>();
+                }
+                int[] ranks = new int[this.items.size()];
+                Arrays.fill(ranks, NO_MATCH);
+                List<Integer> matches = new ArrayList<>();
+                for (int i : this.byCode.getOrDefault(q, new int[0])) {
+                        ranks[i] = EXACT;
+                        matches.add(i);
+                }
+                for (int s = lowerBound(q); s < this.suffixes.length && startsWith(this.suffixes[s], q); s++) {
+                        int text = (int) (this.suffixes[s] >>> 32);
+                        int offset = (int) this.suffixes[s];
+                        int item = text / 2;
+                        int rank = isWordStart(this.texts[text], offset) ? PREFIX : SUBSTRING;
+                        if (ranks[item] == NO_MATCH) {
+                                matches.add(item);
+                        }
+                        ranks[item] = Math.min(ranks[item], rank);
+                }
+                matches.sort(Comparator.comparingInt((Integer i) -> ranks[i]).thenComparingInt(i -> this.nameOrder[i]));
+
+                List<T> result = new ArrayList<>(Math.min(limit, matches.size()));
+                for (int i = 0; i < matches.size() && i < limit; i++) {
+                        result.add(this.items.get(matches.get(i)));
+                }
+                return result;
+        }
+
+        /*
+         * Lower cases the text and strips accents, so that e.g. "São" matches "sao".
+         */
+        public static String normalize(final String text) {
+                if (text == null) {
+                        return "";
+                }
+                String decomposed = Normalizer.normalize(text.trim(), Normalizer.Form.NFD);
+                return MARKS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+        }
+
+        private static boolean isWordStart(final String text, final int offset) {
+                return offset == 0 || !Character.isLetterOrDigit(text.charAt(offset - 1));
+        }
+
+        /* First suffix that is not smaller than the query */
+        private int lowerBound(final String q) {
+                int lo = 0;
+                int hi = this.suffixes.length;
+                while (lo < hi) {
+                        int mid = (lo + hi) >>> 1;
+                        if (compareToQuery(this.suffixes[mid], q) < 0) {
+                                lo = mid + 1;
+                        } else {
+                                hi = mid;
+                        }
+                }
+                return lo;
+        }
+
+        private boolean startsWith(final long suffix, final String q) {
+                return this.texts[(int) (suffix >>> 32)].startsWith(q, (int) suffix);
+        }
+
+        private int compareToQuery(final long suffix, final String q) {
+                String text = this.texts[(int) (suffix >>> 32)];
+                int offset = (int) suffix;
+                int length = Math.min(text.length() - offset, q.length());
+                for (int i = 0; i < length; i++) {
+                        int diff = text.charAt(offset + i) - q.charAt(i);
+                        if (diff != 0) {
+                                return diff;
+                        }
+                }
+                return (text.length() - offset) - q.length() < 0 ? -1 : 0;
+        }
+
+        private int compareSuffixes(final long a, final long b) {
+                String textA = this.texts[(int) (a >>> 32)];
+                String textB = this.texts[(int) (b >>> 32)];
+                int offsetA = (int) a;
+                int offsetB = (int) b;
+                int length = Math.min(textA.length() - offsetA, textB.length() - offsetB);
+                for (int i = 0; i < length; i++) {
+                        int diff = textA.charAt(offsetA + i) - textB.charAt(offsetB + i);
+                        if (diff != 0) {
+                                return diff;
+                        }
+                }
+                return Integer.compare(textA.length() - offsetA, textB.length() - offsetB);
+        }
+}
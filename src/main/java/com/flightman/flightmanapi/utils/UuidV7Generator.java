@@ -0,0 +1,43 @@
+package com.flightman.flightmanapi.utils;
+
+import java.io.Serializable;
+import java.security.SecureRandom;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+
+/*
+ * Generates time ordered version 7 UUIDs: 48 bits of Unix milliseconds, a 12
+ * bit counter that orders the ids of the same millisecond, and 62 random bits.
+ * Ids generated by one process always increase, so new rows go to the right
+ * end of the primary key index instead of splitting pages all over it. When
+ * more than 4096 ids are needed in one millisecond, or the clock goes back,
+ * the counter carries into the timestamp and the ids run slightly ahead of
+ * the clock until it catches up. Some ids, such as those of seat holds, are
+ * the only check on an endpoint, so the random bits come from SecureRandom
+ * like those of UUID.randomUUID and cannot be predicted from earlier ids.
+ */
+public class UuidV7Generator implements IdentifierGenerator {
+
+        private static final int COUNTER_BITS = 12;
+
+        /* Unix milliseconds and counter of the last id, as in the first 60 bits of the id */
+        private static final AtomicLong last = new AtomicLong();
+
+        private static final SecureRandom random = new SecureRandom();
+
+        public static UUID next() {
+                long now = System.currentTimeMillis() << COUNTER_BITS;
+                long current = last.updateAndGet(previous -> Math.max(now, previous + 1));
+                long msb = (current >>> COUNTER_BITS) << 16 | 0x7000L | (current & 0xFFFL);
+                long lsb = random.nextLong() & 0x3FFFFFFFFFFFFFFFL | 0x8000000000000000L;
+                return new UUID(msb, lsb);
+        }
+
+        @Override
+        public Serializable generate(final SharedSessionContractImplementor session, final Object object) {
+                return next();
+        }
+}
@@ -0,0 +1,77 @@
+-- Schema of the application before versioned migrations were introduced, as
+-- Hibernate created it. Databases that already have these tables are
+-- baselined at version 1 and skip this script.
+
+create sequence hibernate_sequence start with 1 increment by 1;
+
+create table public.user (
+    user_id uuid not null,
+    address varchar(255),
+    diet_id integer,
+    email varchar(255),
+    first_name varchar(255),
+    last_name varchar(255),
+    passport_number varchar(255),
+    phone_number varchar(255),
+    rewards_miles integer,
+    primary key (user_id),
+    constraint uk_ob8kqyqqgmefl0aco34akdtpe unique (email)
+);
+
+create table airport (
+    airport_id uuid not null,
+    airport_abv_name varchar(255),
+    airport_name varchar(255),
+    latitude varchar(255),
+    longitude varchar(255),
+    primary key (airport_id),
+    constraint uk_srl8jryt4ray6urt940x1b56i unique (airport_abv_name)
+);
+
+create table flight_model (
+    flight_model_id integer not null,
+    flight_manufacturer_name varchar(255),
+    flight_model_number varchar(255),
+    seat_capacity integer,
+    seat_col_count integer,
+    seat_row_count integer,
+    primary key (flight_model_id)
+);
+
+create table flights (
+    flight_id uuid not null,
+    cost integer,
+    delay_time time,
+    departure_time time,
+    est_arrival_time time,
+    dest_airport_id uuid,
+    flight_model_id integer,
+    source_airport_id uuid,
+    primary key (flight_id),
+    constraint fk849srgsvmpnhexyfroljci1u6 foreign key (dest_airport_id) references airport,
+    constraint fk25attmj2c8dqfpdnvadckkpwv foreign key (flight_model_id) references flight_model,
+    constraint fk8vl4jbg9auryfebsflk3j4r6a foreign key (source_airport_id) references airport
+);
+
+create table luggage (
+    luggage_id uuid not null,
+    count integer,
+    total_weight real,
+    primary key (luggage_id)
+);
+
+create table booking (
+    booking_id uuid not null,
+    flight_date timestamp,
+    payment_status boolean,
+    seat_number varchar(255),
+    use_reward_points boolean,
+    user_check_in boolean,
+    flight_id uuid,
+    luggage_id uuid,
+    user_id uuid,
+    primary key (booking_id),
+    constraint fkdgruopua1epsrvwevfucgfno6 foreign key (flight_id) references flights,
+    constraint fk6qcf9urslyld3xeqllcnxf7dj foreign key (luggage_id) references luggage,
+    constraint fkkgseyy7t56x7lkjgu3wah5s3t foreign key (user_id) references public.user
+);
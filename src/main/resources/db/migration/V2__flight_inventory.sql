@@ -0,0 +1,14 @@
+-- Seats sold and remaining per departure. Rows are created on the first
+-- booking of a departure from the bookings made before, so existing
+-- departures need no backfill.
+
+create table flight_inventory (
+    inventory_id uuid not null,
+    flight_date timestamp,
+    seats_remaining integer,
+    seats_sold integer,
+    flight_id uuid,
+    primary key (inventory_id),
+    constraint uk_flight_inventory_departure unique (flight_id, flight_date),
+    constraint fk_flight_inventory_flight foreign key (flight_id) references flights
+);
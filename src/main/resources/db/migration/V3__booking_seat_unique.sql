@@ -0,0 +1,12 @@
+-- A seat of a departure can be booked once. The index behind the constraint
+-- also serves the manifest and seat map queries, which look bookings up by
+-- flight and date.
+--
+-- Fails if the table already holds two bookings of the same seat. Those have
+-- to be resolved by hand before the migration can run, for example with
+--
+--   select flight_id, flight_date, seat_number, count(*) from booking
+--   group by flight_id, flight_date, seat_number having count(*) > 1;
+
+alter table booking
+    add constraint uk_booking_seat unique (flight_id, flight_date, seat_number);
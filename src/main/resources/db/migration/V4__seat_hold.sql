@@ -0,0 +1,16 @@
+-- Seats held for a user until the payment completes. A seat of a departure
+-- can be held once; holds are deleted by the timing wheel when they expire.
+
+create table seat_hold (
+    hold_id uuid not null,
+    expires_at timestamp,
+    flight_date timestamp,
+    seat_number varchar(255),
+    use_reward_points boolean,
+    flight_id uuid,
+    user_id uuid,
+    primary key (hold_id),
+    constraint uk_seat_hold_seat unique (flight_id, flight_date, seat_number),
+    constraint fk_seat_hold_flight foreign key (flight_id) references flights,
+    constraint fk_seat_hold_user foreign key (user_id) references public.user
+);
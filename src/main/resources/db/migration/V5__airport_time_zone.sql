@@ -0,0 +1,4 @@
+-- IANA time zone of an airport. Departure and arrival times of flights are
+-- local to it. V5_1 fills it in for the existing airports.
+
+alter table airport add column time_zone varchar(255);
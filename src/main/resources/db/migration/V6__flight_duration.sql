@@ -0,0 +1,12 @@
+-- Scheduled minutes from departure to arrival of a flight, stored so that
+-- flights can be sorted and paged by duration. V6_1 fills it in for the
+-- existing flights.
+--
+-- The indexes serve the keyset pagination of the flight list, which orders
+-- by cost, departure time or duration and breaks ties on the id.
+
+alter table flights add column duration_minutes integer;
+
+create index idx_flights_cost on flights (cost, flight_id);
+create index idx_flights_departure on flights (departure_time, flight_id);
+create index idx_flights_duration on flights (duration_minutes, flight_id);
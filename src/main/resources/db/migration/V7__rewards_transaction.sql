@@ -0,0 +1,16 @@
+-- Append-only ledger of reward point changes. The balance on the user row is
+-- reconciled against it every night; users whose points predate the ledger
+-- get an opening balance entry from the first reconciliation, so nothing is
+-- backfilled here.
+
+create table rewards_transaction (
+    transaction_id uuid not null,
+    booking_id uuid,
+    created_at timestamp,
+    delta integer,
+    reason varchar(255),
+    user_id uuid not null,
+    primary key (transaction_id)
+);
+
+create index idx_rewards_transaction_user on rewards_transaction (user_id, created_at);
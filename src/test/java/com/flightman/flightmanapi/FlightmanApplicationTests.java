@@ -3,7 +3,16 @@ package com.flightman.flightmanapi;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 
-@SpringBootTest
+/*
+ * Starts the application against an empty in-memory database, which the
+ * versioned migrations bring up to date. Hibernate then checks that the
+ * migrated schema matches the entities.
+ */
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:context;MODE=PostgreSQL;NON_KEYWORDS=USER;DB_CLOSE_DELAY=-1",
+		"spring.datasource.username=sa",
+		"spring.datasource.password=",
+		"spring.jpa.hibernate.ddl-auto=validate" })
 class FlightmanApplicationTests {
 
 	@Test
@@ -0,0 +1,134 @@
+package com.flightman.flightmanapi.benchmark;
+
+import java.sql.Time;
+import java.time.Duration;
+import java.util.Date;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.Session;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.flightman.flightmanapi.model.Airport;
+import com.flightman.flightmanapi.model.Booking;
+import com.flightman.flightmanapi.model.Flight;
+import com.flightman.flightmanapi.model.FlightModel;
+import com.flightman.flightmanapi.model.User;
+
+/*
+ * Compares inserting bookings one statement at a time with inserting them in
+ * JDBC batches of hibernate.jdbc.batch_size. Not part of the normal build, run
+ * it with
+ *
+ *   mvn test -Dtest=BookingInsertBenchmark -Dflightman.benchmark=true \
+ *       -Dflightman.benchmark.url=jdbc:postgresql://localhost:5432/flightman \
+ *       -Dflightman.benchmark.user=... -Dflightman.benchmark.password=... \
+ *       -Dflightman.benchmark.dialect=org.hibernate.dialect.PostgreSQLDialect
+ *
+ * The number of bookings defaults to 100 thousand and is set with
+ * -Dflightman.benchmark.rows. Without a url it runs against an in-memory H2
+ * database, where there is no network round trip to save, so the difference
+ * is much smaller than on PostgreSQL with reWriteBatchedInserts.
+ */
+@SpringBootTest(properties = {
+                "spring.datasource.url=${flightman.benchmark.url:jdbc:h2:mem:benchmark;MODE=PostgreSQL;NON_KEYWORDS=USER;DB_CLOSE_DELAY=-1}",
+                "spring.datasource.username=${flightman.benchmark.user:sa}",
+                "spring.datasource.password=${flightman.benchmark.password:}",
+                "spring.jpa.hibernate.ddl-auto=create-drop",
+                "spring.flyway.enabled=false",
+                "spring.jpa.properties.hibernate.dialect=${flightman.benchmark.dialect:com.flightman.flightmanapi.integration.controller.ListQueryCountTest$H2Dialect}",
+                "flightman.rewards.reconciliation.enabled=false" })
+@EnabledIfSystemProperty(named = "flightman.benchmark", matches = "true")
+public class BookingInsertBenchmark {
+
+        private static final int FLUSH_INTERVAL = 1000;
+
+        private static final int COMMIT_INTERVAL = 10_000;
+
+        @Autowired
+        private EntityManagerFactory entityManagerFactory;
+
+        private User user;
+
+        private Flight flight;
+
+        @Test
+        public void compareSingleAndBatchedInserts() {
+                int rows = Integer.getInteger("flightman.benchmark.rows", 100_000);
+                createOwners();
+
+                run("single", rows, 1, 0);
+                run("batched", rows, null, rows);
+        }
+
+        private void createOwners() {
+                EntityManager entityManager = entityManagerFactory.createEntityManager();
+                try {
+                        entityManager.getTransaction().begin();
+                        Airport source = new Airport("Benchmark Source", "BSA", "1", "2");
+                        Airport dest = new Airport("Benchmark Dest", "BDA", "3", "4");
+                        FlightModel model = new FlightModel("MName", "BM1", 1000, 100, 10);
+                        this.flight = new Flight(source, dest, model, Time.valueOf("09:00:00"),
+                                        Time.valueOf("11:00:00"), null, 100);
+                        this.user = new User("First", "Last", "123", "benchmark@mail.com", "B1", "Address", 0, 0);
+                        entityManager.persist(source);
+                        entityManager.persist(dest);
+                        entityManager.persist(model);
+                        entityManager.persist(this.flight);
+                        entityManager.persist(this.user);
+                        entityManager.getTransaction().commit();
+                } finally {
+                        entityManager.close();
+                }
+        }
+
+        /*
+         * Inserts the bookings with the supplied JDBC batch size, or the configured
+         * one if null. Bookings of a run are spread over days starting at the
+         * supplied offset so that no two share a seat.
+         */
+        private void run(final String name, final int rows, final Integer batchSize, final int offset) {
+                EntityManager entityManager = entityManagerFactory.createEntityManager();
+                try {
+                        Session session = entityManager.unwrap(Session.class);
+                        session.setJdbcBatchSize(batchSize);
+                        User u = entityManager.getReference(User.class, user.getUserId());
+                        Flight f = entityManager.getReference(Flight.class, flight.getFlightId());
+                        long base = System.currentTimeMillis();
+
+                        long start = System.nanoTime();
+                        entityManager.getTransaction().begin();
+                        for (int i = 1; i <= rows; i++) {
+                                int row = offset + i;
+                                Date flightDate = new Date(base + Duration.ofDays(row / FLUSH_INTERVAL).toMillis());
+                                entityManager.persist(new Booking(u, f, String.valueOf(row % FLUSH_INTERVAL), false,
+                                                false, flightDate));
+                                if (i % FLUSH_INTERVAL == 0) {
+                                        entityManager.flush();
+                                        entityManager.clear();
+                                        u = entityManager.getReference(User.class, user.getUserId());
+                                        f = entityManager.getReference(Flight.class, flight.getFlightId());
+                                }
+                                if (i % COMMIT_INTERVAL == 0) {
+                                        entityManager.getTransaction().commit();
+                                        entityManager.getTransaction().begin();
+                                }
+                        }
+                        entityManager.getTransaction().commit();
+                        double seconds = (System.nanoTime() - start) / 1e9;
+
+                        int size = session.getJdbcBatchSize() != null ? session.getJdbcBatchSize()
+                                        : ((SessionFactoryImplementor) session.getSessionFactory()).getSessionFactoryOptions()
+                                                        .getJdbcBatchSize();
+                        System.out.printf("%s: %d bookings in %.1f s, %.0f rows/s, %d rows per batch%n", name, rows,
+                                        seconds, rows / seconds, size);
+                } finally {
+                        entityManager.close();
+                }
+        }
+}
@@ -0,0 +1,95 @@
+package com.flightman.flightmanapi.benchmark;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import com.flightman.flightmanapi.utils.UuidV7Generator;
+
+/*
+ * Compares inserting rows keyed by random version 4 UUIDs with rows keyed by
+ * time ordered version 7 UUIDs. Not part of the normal build, run it with
+ *
+ *   mvn test -Dtest=UuidKeyBenchmark -Dflightman.benchmark=true \
+ *       -Dflightman.benchmark.url=jdbc:postgresql://localhost:5432/flightman \
+ *       -Dflightman.benchmark.user=... -Dflightman.benchmark.password=...
+ *
+ * The number of rows defaults to 3 million and is set with
+ * -Dflightman.benchmark.rows. Without a url it runs against an in-memory H2
+ * database, which shows the throughput but not the index size; on PostgreSQL
+ * the size of the primary key index is reported as well.
+ */
+@EnabledIfSystemProperty(named = "flightman.benchmark", matches = "true")
+public class UuidKeyBenchmark {
+
+        private static final int BATCH_SIZE = 1000;
+
+        private static final int COMMIT_INTERVAL = 50_000;
+
+        @Test
+        public void compareInsertThroughputAndIndexSize() throws SQLException {
+                String url = System.getProperty("flightman.benchmark.url", "jdbc:h2:mem:benchmark;MODE=PostgreSQL");
+                String user = System.getProperty("flightman.benchmark.user", "sa");
+                String password = System.getProperty("flightman.benchmark.password", "");
+                int rows = Integer.getInteger("flightman.benchmark.rows", 3_000_000);
+
+                try (Connection connection = DriverManager.getConnection(url, user, password)) {
+                        connection.setAutoCommit(false);
+                        boolean postgres = connection.getMetaData().getDatabaseProductName().equals("PostgreSQL");
+                        run(connection, postgres, "benchmark_uuid_v4", UUID::randomUUID, rows);
+                        run(connection, postgres, "benchmark_uuid_v7", UuidV7Generator::next, rows);
+                }
+        }
+
+        private static void run(final Connection connection, final boolean postgres, final String table,
+                        final Supplier<UUID> ids, final int rows) throws SQLException {
+                try (Statement statement = connection.createStatement()) {
+                        statement.execute("DROP TABLE IF EXISTS " + table);
+                        statement.execute("CREATE TABLE " + table + " (id UUID PRIMARY KEY, flight_date DATE, "
+                                        + "seat_number VARCHAR(4), checked_in BOOLEAN)");
+                }
+                connection.commit();
+
+                long start = System.nanoTime();
+                try (PreparedStatement insert = connection.prepareStatement(
+                                "INSERT INTO " + table + " VALUES (?, CURRENT_DATE, '12C', FALSE)")) {
+                        for (int i = 1; i <= rows; i++) {
+                                insert.setObject(1, ids.get());
+                                insert.addBatch();
+                                if (i % BATCH_SIZE == 0 || i == rows) {
+                                        insert.executeBatch();
+                                }
+                                if (i % COMMIT_INTERVAL == 0) {
+                                        connection.commit();
+                                }
+                        }
+                }
+                connection.commit();
+                double seconds = (System.nanoTime() - start) / 1e9;
+
+                String indexSize = "n/a";
+                if (postgres) {
+                        try (Statement statement = connection.createStatement();
+                                        ResultSet rs = statement.executeQuery(
+                                                        "SELECT pg_size_pretty(pg_relation_size('" + table + "_pkey'))")) {
+                                rs.next();
+                                indexSize = rs.getString(1);
+                        }
+                }
+                System.out.printf("%s: %d rows in %.1f s, %.0f rows/s, primary key index %s%n", table, rows, seconds,
+                                rows / seconds, indexSize);
+
+                try (Statement statement = connection.createStatement()) {
+                        statement.execute("DROP TABLE " + table);
+                }
+                connection.commit();
+        }
+}
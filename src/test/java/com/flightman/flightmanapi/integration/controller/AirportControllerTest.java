@@ -17,6 +17,7 @@ import org.springframework.util.Base64Utils;
 
 import com.flightman.flightmanapi.controller.AirportController;
 import com.flightman.flightmanapi.model.Airport;
+import com.flightman.flightmanapi.model.NearbyAirport;
 import com.flightman.flightmanapi.services.AirportService;
 
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -104,6 +105,48 @@ public class AirportControllerTest {
                 .andExpect(status().isInternalServerError());
     }
 
+    @Test
+    public void createAirports() throws Exception {
+        /* Test happy path */
+        when(airportService.saveAirports(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        mockMvc.perform(
+                post("/api/airports/bulk")
+                .header(HttpHeaders.AUTHORIZATION, "Basic " + Base64Utils.encodeToString((this.user + ":" + this.password).getBytes()))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[{\"airportName\": \"SourceName\",\"airportAbvName\": \"JFK\",\"latitude\": \"1\",\"longitude\": \"2\"},"
+                        + "{\"airportName\": \"DestName\",\"airportAbvName\": \"LAX\",\"latitude\": \"3\",\"longitude\": \"4\"}]"))
+                .andExpect(status().isCreated())
+                .andExpect(content().string("2 airports successfully created"));
+
+        /* Test sad path, one invalid airport rejects all of them */
+        mockMvc.perform(
+                post("/api/airports/bulk")
+                .header(HttpHeaders.AUTHORIZATION, "Basic " + Base64Utils.encodeToString((this.user + ":" + this.password).getBytes()))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[{\"airportName\": \"SourceName\",\"airportAbvName\": \"JFK\",\"latitude\": \"1\",\"longitude\": \"2\"},"
+                        + "{\"airportName\": \"DestName\",\"airportAbvName\": \"LAX\",\"latitude\": \"91\",\"longitude\": \"4\"}]"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("Airport 1: Invalid latitude/longitude"));
+
+        /* Test sad path, no airports */
+        mockMvc.perform(
+                post("/api/airports/bulk")
+                .header(HttpHeaders.AUTHORIZATION, "Basic " + Base64Utils.encodeToString((this.user + ":" + this.password).getBytes()))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[]"))
+                .andExpect(status().isBadRequest());
+        verify(airportService, times(1)).saveAirports(any());
+
+        /* Test happy path, but internal server error because DB is not saving data */
+        when(airportService.saveAirports(any())).thenThrow(new IllegalStateException());
+        mockMvc.perform(
+                post("/api/airports/bulk")
+                .header(HttpHeaders.AUTHORIZATION, "Basic " + Base64Utils.encodeToString((this.user + ":" + this.password).getBytes()))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[{\"airportName\": \"SourceName\",\"airportAbvName\": \"JFK\",\"latitude\": \"1\",\"longitude\": \"2\"}]"))
+                .andExpect(status().isInternalServerError());
+    }
+
         @Test
         public void getAirport() throws Exception {
                 /* Test happy path */
@@ -131,6 +174,53 @@ public class AirportControllerTest {
                                                 .accept(MediaType.ALL))
                                 .andExpect(status().isOk());
         }
+
+    @Test
+    public void searchAirports() throws Exception {
+        /* Test happy path */
+        when(airportService.search("sou", 10)).thenReturn(List.of(source));
+        mockMvc.perform(
+                get("/api/airports/search?q=sou")
+                .header(HttpHeaders.AUTHORIZATION, "Basic " + Base64Utils.encodeToString((this.user + ":" + this.password).getBytes())))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].airportAbvName").value("SN"));
+
+        /* Test sad path, blank query */
+        mockMvc.perform(
+                get("/api/airports/search?q= ")
+                .header(HttpHeaders.AUTHORIZATION, "Basic " + Base64Utils.encodeToString((this.user + ":" + this.password).getBytes())))
+                .andExpect(status().isBadRequest());
+
+        /* Test sad path, limit too large */
+        mockMvc.perform(
+                get("/api/airports/search?q=sou&limit=51")
+                .header(HttpHeaders.AUTHORIZATION, "Basic " + Base64Utils.encodeToString((this.user + ":" + this.password).getBytes())))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void getNearbyAirports() throws Exception {
+        /* Test happy path */
+        when(airportService.findNearby(51.5, -0.1, 200, 10)).thenReturn(List.of(new NearbyAirport(source, 23.5)));
+        mockMvc.perform(
+                get("/api/airports/nearby?lat=51.5&lon=-0.1")
+                .header(HttpHeaders.AUTHORIZATION, "Basic " + Base64Utils.encodeToString((this.user + ":" + this.password).getBytes())))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].airport.airportAbvName").value("SN"))
+                .andExpect(jsonPath("$[0].distanceKm").value(23.5));
+
+        /* Test sad path, incorrect latitude */
+        mockMvc.perform(
+                get("/api/airports/nearby?lat=91&lon=0")
+                .header(HttpHeaders.AUTHORIZATION, "Basic " + Base64Utils.encodeToString((this.user + ":" + this.password).getBytes())))
+                .andExpect(status().isBadRequest());
+
+        /* Test sad path, limit too large */
+        mockMvc.perform(
+                get("/api/airports/nearby?lat=0&lon=0&limit=500")
+                .header(HttpHeaders.AUTHORIZATION, "Basic " + Base64Utils.encodeToString((this.user + ":" + this.password).getBytes())))
+                .andExpect(status().isBadRequest());
+    }
 }
 
 // @Test
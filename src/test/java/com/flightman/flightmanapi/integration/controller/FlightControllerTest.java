@@ -1,8 +1,11 @@
 package com.flightman.flightmanapi.integration.controller;
 
+import java.io.OutputStream;
 import java.sql.Time;
+import java.time.LocalTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 
 import org.junit.jupiter.api.Test;
@@ -14,12 +17,21 @@ import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import com.flightman.flightmanapi.controller.FlightController;
 import com.flightman.flightmanapi.model.Airport;
+import com.flightman.flightmanapi.model.FlexibleDateFlight;
 import com.flightman.flightmanapi.model.Flight;
+import com.flightman.flightmanapi.model.FlightAvailability;
 import com.flightman.flightmanapi.model.FlightModel;
+import com.flightman.flightmanapi.model.FlightPage;
+import com.flightman.flightmanapi.model.Itinerary;
+import com.flightman.flightmanapi.model.SeatMap;
+import com.flightman.flightmanapi.repositories.FlightSearchRepository;
 import com.flightman.flightmanapi.services.FlightService;
+import com.flightman.flightmanapi.services.ManifestService;
+import com.flightman.flightmanapi.services.RouteGraphService;
 import org.springframework.http.HttpHeaders;
 import org.springframework.util.Base64Utils;
 
@@ -37,6 +49,9 @@ public class FlightControllerTest {
         @MockBean
         private FlightService flightService;
 
+        @MockBean
+        private ManifestService manifestService;
+
         private String user = "abhilash";
         private String password = "securedpasswordofsrishti";
 
@@ -91,6 +106,42 @@ public class FlightControllerTest {
                                 .andExpect(status().isNoContent());
         }
 
+        @Test
+        public void getSeatMap() throws Exception {
+                flight.setFlightId(UUID.randomUUID());
+                List<SeatMap.Seat> seats = new ArrayList<SeatMap.Seat>();
+                seats.add(new SeatMap.Seat("1A", true));
+                SeatMap seatMap = new SeatMap(flight.getFlightId(), 1, 1, 1, seats);
+                when(flightService.getSeatMap(eq(flight.getFlightId()), any())).thenReturn(seatMap);
+                mockMvc.perform(
+                                get("/api/flight/id/{id}/seatmap?date=01-01-2030", flight.getFlightId())
+                                                .header(HttpHeaders.AUTHORIZATION,
+                                                                "Basic " + Base64Utils.encodeToString(
+                                                                                (this.user + ":" + this.password)
+                                                                                                .getBytes()))
+                                                .accept(MediaType.ALL))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$.seats[0].seatNumber").value("1A"));
+
+                mockMvc.perform(
+                                get("/api/flight/id/{id}/seatmap?date=notADate", flight.getFlightId())
+                                                .header(HttpHeaders.AUTHORIZATION,
+                                                                "Basic " + Base64Utils.encodeToString(
+                                                                                (this.user + ":" + this.password)
+                                                                                                .getBytes()))
+                                                .accept(MediaType.ALL))
+                                .andExpect(status().isBadRequest());
+
+                mockMvc.perform(
+                                get("/api/flight/id/{id}/seatmap?date=01-01-2030", UUID.randomUUID())
+                                                .header(HttpHeaders.AUTHORIZATION,
+                                                                "Basic " + Base64Utils.encodeToString(
+                                                                                (this.user + ":" + this.password)
+                                                                                                .getBytes()))
+                                                .accept(MediaType.ALL))
+                                .andExpect(status().isBadRequest());
+        }
+
         @Test
         public void deleteFlightById() throws Exception{
                 flight.setFlightId(UUID.randomUUID());
@@ -120,7 +171,7 @@ public class FlightControllerTest {
         @Test
         public void updateFlightById() throws Exception{
                 flight.setFlightId(UUID.randomUUID());
-                when(flightService.update(flight.getFlightId(), null, null, null)).thenReturn(flight);
+                when(flightService.update(flight.getFlightId(), null, null, null, null)).thenReturn(flight);
                 mockMvc.perform(
                                 put("/api/flight/id/{id}", flight.getFlightId())
                                                 .header(HttpHeaders.AUTHORIZATION,
@@ -130,7 +181,7 @@ public class FlightControllerTest {
                                                 .accept(MediaType.ALL))
                                 .andExpect(status().isOk());
                 UUID noInDB = UUID.randomUUID();
-                when(flightService.update(noInDB, null, null, null)).thenReturn(null);
+                when(flightService.update(noInDB, null, null, null, null)).thenReturn(null);
                 mockMvc.perform(
                                 put("/api/flight/id/{id}",  noInDB)
                                                 .header(HttpHeaders.AUTHORIZATION,
@@ -234,9 +285,298 @@ public class FlightControllerTest {
                                                 .accept(MediaType.ALL))
                                 .andExpect(status().isBadRequest());
                         }
-        
+
+        @Test
+        public void createFlights() throws Exception{
+                UUID created = UUID.randomUUID();
+                flight.setFlightId(created);
+                when(flightService.validateAirport(UUID.fromString("7199de04-60d7-45c4-9d01-d0a1ea807f73"))).thenReturn(true);
+                when(flightService.validateAirport(UUID.fromString("d4005cf1-7842-44a7-9c34-77314d432e64"))).thenReturn(true);
+                when(flightService.validateAirport(UUID.fromString("7199de04-60d7-45c4-9d01-d0a1ea807f74"))).thenReturn(false);
+                when(flightService.validateFlightModels(Set.of(2))).thenReturn(true);
+                when(flightService.validateFlightModels(Set.of(2, 10))).thenReturn(false);
+                when(flightService.saveAll(any())).thenReturn(List.of(flight, flight));
+                mockMvc.perform(
+                        post("/api/flights/bulk")
+                                        .header(HttpHeaders.AUTHORIZATION,
+                                                        "Basic " + Base64Utils.encodeToString(
+                                                                        (this.user + ":" + this.password)
+                                                                                        .getBytes()))
+                                        .content("[" + "{\"sourceAirport\": {\"airportId\": \"7199de04-60d7-45c4-9d01-d0a1ea807f73\"},\"destAirport\": {\"airportId\": \"d4005cf1-7842-44a7-9c34-77314d432e64\"},\"flightModel\": {\"flightModelId\": \"2\"},\"departureTime\": \"09:00:00\",\"estArrivalTime\": \"10:00:00\",\"numSeats\": \"600\",\"cost\":\"100\" }" + "," + "{\"sourceAirport\": {\"airportId\": \"7199de04-60d7-45c4-9d01-d0a1ea807f73\"},\"destAirport\": {\"airportId\": \"d4005cf1-7842-44a7-9c34-77314d432e64\"},\"flightModel\": {\"flightModelId\": \"2\"},\"departureTime\": \"09:00:00\",\"estArrivalTime\": \"10:00:00\",\"numSeats\": \"600\",\"cost\":\"100\" }" + "]")
+                                        .contentType(MediaType.APPLICATION_JSON)
+                                        .accept(MediaType.ALL))
+                        .andExpect(status().isOk())
+                        .andExpect(jsonPath("$[0]").value(created.toString()));
+                mockMvc.perform(
+                        post("/api/flights/bulk")
+                                        .header(HttpHeaders.AUTHORIZATION,
+                                                        "Basic " + Base64Utils.encodeToString(
+                                                                        (this.user + ":" + this.password)
+                                                                                        .getBytes()))
+                                        .content("[" + "{\"sourceAirport\": {\"airportId\": \"7199de04-60d7-45c4-9d01-d0a1ea807f73\"},\"destAirport\": {\"airportId\": \"d4005cf1-7842-44a7-9c34-77314d432e64\"},\"flightModel\": {\"flightModelId\": \"2\"},\"departureTime\": \"09:00:00\",\"estArrivalTime\": \"10:00:00\",\"numSeats\": \"600\",\"cost\":\"100\" }" + "," + "{\"sourceAirport\": {\"airportId\": \"7199de04-60d7-45c4-9d01-d0a1ea807f74\"},\"destAirport\": {\"airportId\": \"d4005cf1-7842-44a7-9c34-77314d432e64\"},\"flightModel\": {\"flightModelId\": \"2\"},\"departureTime\": \"09:00:00\",\"estArrivalTime\": \"10:00:00\",\"numSeats\": \"600\",\"cost\":\"100\" }" + "]")
+                                        .contentType(MediaType.APPLICATION_JSON)
+                                        .accept(MediaType.ALL))
+                        .andExpect(status().isBadRequest())
+                        .andExpect(content().string("Flight 1: Source Airport is invalid"));
+                mockMvc.perform(
+                        post("/api/flights/bulk")
+                                        .header(HttpHeaders.AUTHORIZATION,
+                                                        "Basic " + Base64Utils.encodeToString(
+                                                                        (this.user + ":" + this.password)
+                                                                                        .getBytes()))
+                                        .content("[" + "{\"sourceAirport\": {\"airportId\": \"7199de04-60d7-45c4-9d01-d0a1ea807f73\"},\"destAirport\": {\"airportId\": \"d4005cf1-7842-44a7-9c34-77314d432e64\"},\"flightModel\": {\"flightModelId\": \"2\"},\"departureTime\": \"09:00:00\",\"estArrivalTime\": \"10:00:00\",\"numSeats\": \"600\",\"cost\":\"100\" }" + "," + "{\"sourceAirport\": {\"airportId\": \"7199de04-60d7-45c4-9d01-d0a1ea807f73\"},\"destAirport\": {\"airportId\": \"d4005cf1-7842-44a7-9c34-77314d432e64\"},\"flightModel\": {\"flightModelId\": \"10\"},\"departureTime\": \"09:00:00\",\"estArrivalTime\": \"10:00:00\",\"numSeats\": \"600\",\"cost\":\"100\" }" + "]")
+                                        .contentType(MediaType.APPLICATION_JSON)
+                                        .accept(MediaType.ALL))
+                        .andExpect(status().isBadRequest())
+                        .andExpect(content().string("Flight model is invalid"));
+                mockMvc.perform(
+                        post("/api/flights/bulk")
+                                        .header(HttpHeaders.AUTHORIZATION,
+                                                        "Basic " + Base64Utils.encodeToString(
+                                                                        (this.user + ":" + this.password)
+                                                                                        .getBytes()))
+                                        .content("[" + "{\"sourceAirport\": {\"airportId\": \"7199de04-60d7-45c4-9d01-d0a1ea807f73\"},\"destAirport\": {\"airportId\": \"d4005cf1-7842-44a7-9c34-77314d432e64\"},\"flightModel\": {\"flightModelId\": \"2\"},\"departureTime\": \"09:00:00\",\"estArrivalTime\": \"10:00:00\",\"numSeats\": \"600\",\"cost\":\"-100\" }" + "]")
+                                        .contentType(MediaType.APPLICATION_JSON)
+                                        .accept(MediaType.ALL))
+                        .andExpect(status().isBadRequest());
+                mockMvc.perform(
+                        post("/api/flights/bulk")
+                                        .header(HttpHeaders.AUTHORIZATION,
+                                                        "Basic " + Base64Utils.encodeToString(
+                                                                        (this.user + ":" + this.password)
+                                                                                        .getBytes()))
+                                        .content("[]")
+                                        .contentType(MediaType.APPLICATION_JSON)
+                                        .accept(MediaType.ALL))
+                        .andExpect(status().isBadRequest());
+                verify(flightService, times(1)).saveAll(any());
+        }
+
                 
 
-}
 
+        @Test
+        public void getAvailability() throws Exception {
+                flight.setFlightId(UUID.randomUUID());
+                List<FlightAvailability.Day> days = new ArrayList<FlightAvailability.Day>();
+                days.add(new FlightAvailability.Day("01-01-2030", 20));
+                days.add(new FlightAvailability.Day("01-02-2030", 0));
+                when(flightService.getAvailability(eq(flight.getFlightId()), any(), any()))
+                                .thenReturn(new FlightAvailability(flight.getFlightId(), 20, days));
+                mockMvc.perform(
+                                get("/api/flight/id/{id}/availability?from=01-01-2030&to=01-02-2030",
+                                                flight.getFlightId())
+                                                .header(HttpHeaders.AUTHORIZATION,
+                                                                "Basic " + Base64Utils.encodeToString(
+                                                                                (this.user + ":" + this.password)
+                                                                                                .getBytes()))
+                                                .accept(MediaType.ALL))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$.days[1].seatsRemaining").value(0));
+
+                mockMvc.perform(
+                                get("/api/flight/id/{id}/availability?from=01-02-2030&to=01-01-2030",
+                                                flight.getFlightId())
+                                                .header(HttpHeaders.AUTHORIZATION,
+                                                                "Basic " + Base64Utils.encodeToString(
+                                                                                (this.user + ":" + this.password)
+                                                                                                .getBytes()))
+                                                .accept(MediaType.ALL))
+                                .andExpect(status().isBadRequest());
+
+                mockMvc.perform(
+                                get("/api/flight/id/{id}/availability?from=01-01-2030&to=01-01-2032",
+                                                flight.getFlightId())
+                                                .header(HttpHeaders.AUTHORIZATION,
+                                                                "Basic " + Base64Utils.encodeToString(
+                                                                                (this.user + ":" + this.password)
+                                                                                                .getBytes()))
+                                                .accept(MediaType.ALL))
+                                .andExpect(status().isBadRequest());
+        }
+
+        @Test
+        public void getManifest() throws Exception {
+                flight.setFlightId(UUID.randomUUID());
+                when(flightService.getFlightById(flight.getFlightId())).thenReturn(flight);
+                doAnswer(invocation -> {
+                        OutputStream out = invocation.getArgument(3);
+                        out.write("TOTAL,,,0,0,0,0.0\n".getBytes());
+                        return null;
+                }).when(manifestService).writeManifest(eq(flight), any(), eq(ManifestService.Format.CSV), any());
+                MvcResult result = mockMvc.perform(
+                                get("/api/flight/id/{id}/manifest?date=01-01-2030&format=csv", flight.getFlightId())
+                                                .header(HttpHeaders.AUTHORIZATION,
+                                                                "Basic " + Base64Utils.encodeToString(
+                                                                                (this.user + ":" + this.password)
+                                                                                                .getBytes()))
+                                                .accept(MediaType.ALL))
+                                .andExpect(request().asyncStarted())
+                                .andReturn();
+                mockMvc.perform(asyncDispatch(result))
+                                .andExpect(status().isOk())
+                                .andExpect(content().contentType("text/csv"))
+                                .andExpect(content().string("TOTAL,,,0,0,0,0.0\n"));
+
+                mockMvc.perform(
+                                get("/api/flight/id/{id}/manifest?date=01-01-2030&format=xml", flight.getFlightId())
+                                                .header(HttpHeaders.AUTHORIZATION,
+                                                                "Basic " + Base64Utils.encodeToString(
+                                                                                (this.user + ":" + this.password)
+                                                                                                .getBytes()))
+                                                .accept(MediaType.ALL))
+                                .andExpect(status().isBadRequest());
+
+                mockMvc.perform(
+                                get("/api/flight/id/{id}/manifest?date=01-01-2030", UUID.randomUUID())
+                                                .header(HttpHeaders.AUTHORIZATION,
+                                                                "Basic " + Base64Utils.encodeToString(
+                                                                                (this.user + ":" + this.password)
+                                                                                                .getBytes()))
+                                                .accept(MediaType.ALL))
+                                .andExpect(status().isBadRequest());
+        }
+
+        @Test
+        public void getConnection() throws Exception {
+                Itinerary itinerary = new Itinerary(List.of(new Itinerary.Leg(flight, 0)), 100, 120);
+                when(flightService.findConnection("SN", "DN", LocalTime.of(7, 30), RouteGraphService.Criterion.CHEAPEST, 3))
+                                .thenReturn(itinerary);
+                mockMvc.perform(
+                                get("/api/flights/connections?sourceAbv=SN&destAbv=DN&departAfter=07:30&sortBy=cost&maxStops=2")
+                                                .header(HttpHeaders.AUTHORIZATION,
+                                                                "Basic " + Base64Utils.encodeToString(
+                                                                                (this.user + ":" + this.password)
+                                                                                                .getBytes()))
+                                                .accept(MediaType.APPLICATION_JSON))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$.totalCost").value(100))
+                                .andExpect(jsonPath("$.legs[0].dayOffset").value(0));
+
+                mockMvc.perform(
+                                get("/api/flights/connections?sourceAbv=SN&destAbv=XX")
+                                                .header(HttpHeaders.AUTHORIZATION,
+                                                                "Basic " + Base64Utils.encodeToString(
+                                                                                (this.user + ":" + this.password)
+                                                                                                .getBytes()))
+                                                .accept(MediaType.APPLICATION_JSON))
+                                .andExpect(status().isNoContent());
+
+                mockMvc.perform(
+                                get("/api/flights/connections?sourceAbv=SN&destAbv=DN&maxStops=4")
+                                                .header(HttpHeaders.AUTHORIZATION,
+                                                                "Basic " + Base64Utils.encodeToString(
+                                                                                (this.user + ":" + this.password)
+                                                                                                .getBytes()))
+                                                .accept(MediaType.APPLICATION_JSON))
+                                .andExpect(status().isBadRequest());
+        }
+
+        @Test
+        public void searchFlexibleDates() throws Exception {
+                List<FlightAvailability.Day> days = List.of(new FlightAvailability.Day("03-01-2030", 5),
+                                new FlightAvailability.Day("03-02-2030", 0), new FlightAvailability.Day("03-03-2030", 9));
+                when(flightService.searchFlexibleDates(eq("SN"), eq("DN"), any(), eq(1)))
+                                .thenReturn(List.of(new FlexibleDateFlight(flight, 100, 120, days)));
+                mockMvc.perform(
+                                get("/api/flights/flexible?sourceAbv=SN&destAbv=DN&date=03-02-2030&window=1")
+                                                .header(HttpHeaders.AUTHORIZATION,
+                                                                "Basic " + Base64Utils.encodeToString(
+                                                                                (this.user + ":" + this.password)
+                                                                                                .getBytes()))
+                                                .accept(MediaType.APPLICATION_JSON))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$[0].cost").value(100))
+                                .andExpect(jsonPath("$[0].days[1].seatsRemaining").value(0));
+
+                mockMvc.perform(
+                                get("/api/flights/flexible?sourceAbv=SN&destAbv=XX&date=03-02-2030")
+                                                .header(HttpHeaders.AUTHORIZATION,
+                                                                "Basic " + Base64Utils.encodeToString(
+                                                                                (this.user + ":" + this.password)
+                                                                                                .getBytes()))
+                                                .accept(MediaType.APPLICATION_JSON))
+                                .andExpect(status().isNoContent());
+
+                mockMvc.perform(
+                                get("/api/flights/flexible?sourceAbv=SN&destAbv=DN&date=03-02-2030&window=15")
+                                                .header(HttpHeaders.AUTHORIZATION,
+                                                                "Basic " + Base64Utils.encodeToString(
+                                                                                (this.user + ":" + this.password)
+                                                                                                .getBytes()))
+                                                .accept(MediaType.APPLICATION_JSON))
+                                .andExpect(status().isBadRequest());
+
+                mockMvc.perform(
+                                get("/api/flights/flexible?sourceAbv=SN&destAbv=DN&date=tomorrow")
+                                                .header(HttpHeaders.AUTHORIZATION,
+                                                                "Basic " + Base64Utils.encodeToString(
+                                                                                (this.user + ":" + this.password)
+                                                                                                .getBytes()))
+                                                .accept(MediaType.APPLICATION_JSON))
+                                .andExpect(status().isBadRequest());
+        }
+
+        @Test
+        public void updateDelay() throws Exception {
+                flight.setFlightId(UUID.randomUUID());
+                when(flightService.updateDelay(flight.getFlightId(), 45)).thenReturn(flight);
+                mockMvc.perform(
+                                put("/api/flight/id/" + flight.getFlightId() + "/delay?minutes=45")
+                                                .header(HttpHeaders.AUTHORIZATION,
+                                                                "Basic " + Base64Utils.encodeToString(
+                                                                                (this.user + ":" + this.password)
+                                                                                                .getBytes())))
+                                .andExpect(status().isOk());
+
+                mockMvc.perform(
+                                put("/api/flight/id/" + UUID.randomUUID() + "/delay?minutes=45")
+                                                .header(HttpHeaders.AUTHORIZATION,
+                                                                "Basic " + Base64Utils.encodeToString(
+                                                                                (this.user + ":" + this.password)
+                                                                                                .getBytes())))
+                                .andExpect(status().isBadRequest());
+
+                mockMvc.perform(
+                                put("/api/flight/id/" + flight.getFlightId() + "/delay?minutes=1440")
+                                                .header(HttpHeaders.AUTHORIZATION,
+                                                                "Basic " + Base64Utils.encodeToString(
+                                                                                (this.user + ":" + this.password)
+                                                                                                .getBytes())))
+                                .andExpect(status().isBadRequest());
+        }
+
+        @Test
+        public void searchFlights() throws Exception {
+                FlightPage page = new FlightPage(List.of(flight), "Y29zdH4xMDB-");
+                when(flightService.getFlightPage("SN", null, FlightSearchRepository.SortKey.COST, null, 10)).thenReturn(page);
+                mockMvc.perform(
+                                get("/api/flights/search?sourceAbv=SN&sortBy=cost&limit=10")
+                                                .header(HttpHeaders.AUTHORIZATION,
+                                                                "Basic " + Base64Utils.encodeToString(
+                                                                                (this.user + ":" + this.password)
+                                                                                                .getBytes()))
+                                                .accept(MediaType.APPLICATION_JSON))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$.flights[0].cost").value(100))
+                                .andExpect(jsonPath("$.nextCursor").value("Y29zdH4xMDB-"));
+
+                mockMvc.perform(
+                                get("/api/flights/search?sortBy=price")
+                                                .header(HttpHeaders.AUTHORIZATION,
+                                                                "Basic " + Base64Utils.encodeToString(
+                                                                                (this.user + ":" + this.password)
+                                                                                                .getBytes()))
+                                                .accept(MediaType.APPLICATION_JSON))
+                                .andExpect(status().isBadRequest());
 
+                mockMvc.perform(
+                                get("/api/flights/search?limit=500")
+                                                .header(HttpHeaders.AUTHORIZATION,
+                                                                "Basic " + Base64Utils.encodeToString(
+                                                                                (this.user + ":" + this.password)
+                                                                                                .getBytes()))
+                                                .accept(MediaType.APPLICATION_JSON))
+                                .andExpect(status().isBadRequest());
+        }
+}
@@ -13,11 +13,13 @@ import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.web.servlet.MockMvc;
 
 import com.flightman.flightmanapi.controller.FlightModelController;
+import com.flightman.flightmanapi.model.CacheRegionStats;
 import com.flightman.flightmanapi.model.FlightModel;
 import com.flightman.flightmanapi.services.FlightModelService;
 
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 import static org.mockito.BDDMockito.*;
+import static org.hamcrest.Matchers.containsString;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import org.springframework.http.HttpHeaders;
 import org.springframework.util.Base64Utils;
@@ -55,6 +57,31 @@ public class FlightModelControllerTest {
                         .accept(MediaType.ALL)).andExpect(status().isNoContent());
     }
 
+    @Test
+    public void getCacheStats() throws Exception {
+        given(flightModelService.getCacheStats()).willReturn(List.of(new CacheRegionStats("airport", 9, 1, 1, 0.9),
+                        new CacheRegionStats("flightModel", 0, 0, 0, 0)));
+        mockMvc.perform(
+                        get("/api/models/cache")
+                        .header(HttpHeaders.AUTHORIZATION, "Basic " + Base64Utils.encodeToString((this.user + ":" + this.password).getBytes()))
+                        .accept(MediaType.ALL))
+                        .andExpect(status().isOk())
+                        .andExpect(jsonPath("$[0].region").value("airport"))
+                        .andExpect(jsonPath("$[0].hitCount").value(9))
+                        .andExpect(jsonPath("$[0].hitRate").value(0.9));
+    }
+
+    @Test
+    public void getCacheStatsWhenDisabled() throws Exception {
+        given(flightModelService.getCacheStats()).willReturn(null);
+        mockMvc.perform(
+                        get("/api/models/cache")
+                        .header(HttpHeaders.AUTHORIZATION, "Basic " + Base64Utils.encodeToString((this.user + ":" + this.password).getBytes()))
+                        .accept(MediaType.ALL))
+                        .andExpect(status().isNotFound())
+                        .andExpect(content().string(containsString("flightman.hibernate.statistics=true")));
+    }
+
     @Test
         public void deleteFlightModelById() throws Exception{
                 model.setFlightModelId(1);
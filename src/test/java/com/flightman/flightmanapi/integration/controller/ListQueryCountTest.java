@@ -0,0 +1,363 @@
+package com.flightman.flightmanapi.integration.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.sql.Time;
+import java.sql.Types;
+import java.text.SimpleDateFormat;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.util.Base64Utils;
+
+import com.flightman.flightmanapi.model.Airport;
+import com.flightman.flightmanapi.model.Booking;
+import com.flightman.flightmanapi.model.Flight;
+import com.flightman.flightmanapi.model.FlightModel;
+import com.flightman.flightmanapi.model.Luggage;
+import com.flightman.flightmanapi.model.RewardsReconciliationReport;
+import com.flightman.flightmanapi.model.RewardsTransaction;
+import com.flightman.flightmanapi.model.User;
+import com.flightman.flightmanapi.repositories.AirportRepository;
+import com.flightman.flightmanapi.repositories.BookingRepository;
+import com.flightman.flightmanapi.repositories.FlightModelRepository;
+import com.flightman.flightmanapi.repositories.FlightRepository;
+import com.flightman.flightmanapi.repositories.LuggageRepository;
+import com.flightman.flightmanapi.repositories.RewardsTransactionRepository;
+import com.flightman.flightmanapi.repositories.UserRepository;
+import com.flightman.flightmanapi.services.AirportService;
+import com.flightman.flightmanapi.services.BookingContext;
+import com.flightman.flightmanapi.services.BookingService;
+import com.flightman.flightmanapi.services.FlightService;
+import com.flightman.flightmanapi.services.RewardsLedgerService;
+import com.flightman.flightmanapi.services.RewardsReconciliationService;
+import com.flightman.flightmanapi.services.RouteGraphService;
+
+/*
+ * Runs the list endpoints against an in-memory database and checks that the
+ * number of SQL statements does not grow with the number of rows, and that
+ * reward point changes are single statements that cannot lose updates and
+ * are reconciled against the ledger, that generated ids are time ordered and
+ * that bulk writes are sent in JDBC batches and reference data is read from
+ * the second-level cache.
+ */
+@SpringBootTest(properties = {
+                "spring.datasource.url=jdbc:h2:mem:flightman;MODE=PostgreSQL;NON_KEYWORDS=USER;DB_CLOSE_DELAY=-1",
+                "spring.datasource.username=sa",
+                "spring.datasource.password=",
+                "spring.jpa.hibernate.ddl-auto=create-drop",
+                "spring.flyway.enabled=false",
+                "spring.jpa.properties.hibernate.dialect=com.flightman.flightmanapi.integration.controller.ListQueryCountTest$H2Dialect",
+                "spring.jpa.properties.hibernate.generate_statistics=true" })
+@AutoConfigureMockMvc
+public class ListQueryCountTest {
+        @Autowired
+        private MockMvc mockMvc;
+
+        @Autowired
+        private EntityManagerFactory entityManagerFactory;
+
+        @Autowired
+        private AirportRepository airportRepository;
+
+        @Autowired
+        private FlightModelRepository flightModelRepository;
+
+        @Autowired
+        private FlightRepository flightRepository;
+
+        @Autowired
+        private UserRepository userRepository;
+
+        @Autowired
+        private LuggageRepository luggageRepository;
+
+        @Autowired
+        private BookingRepository bookingRepository;
+
+        @Autowired
+        private RouteGraphService routeGraphService;
+
+        @Autowired
+        private RewardsLedgerService rewardsLedgerService;
+
+        @Autowired
+        private RewardsReconciliationService rewardsReconciliationService;
+
+        @Autowired
+        private RewardsTransactionRepository rewardsTransactionRepository;
+
+        @Autowired
+        private AirportService airportService;
+
+        @Autowired
+        private FlightService flightService;
+
+        @Autowired
+        private BookingService bookingService;
+
+        private String user = "abhilash";
+        private String password = "securedpasswordofsrishti";
+
+        private Statistics statistics;
+
+        private int rows;
+
+        /*
+         * H2 pads fixed length binary columns, so UUID ids are stored as varbinary to
+         * keep lookups by id working.
+         */
+        public static class H2Dialect extends org.hibernate.dialect.H2Dialect {
+                public H2Dialect() {
+                        registerColumnType(Types.BINARY, "varbinary($l)");
+                }
+        }
+
+        @BeforeEach
+        public void setUp() {
+                this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        }
+
+        /*
+         * Adds bookings that each have their own user, luggage, flight, airports and
+         * flight model, so nothing can be served from an already loaded entity.
+         */
+        private void addBookings(final int count) {
+                for (int i = 0; i < count; i++, rows++) {
+                        Airport source = airportRepository.save(new Airport("Source " + rows, "S" + rows, "1", "2"));
+                        Airport dest = airportRepository.save(new Airport("Dest " + rows, "D" + rows, "1", "2"));
+                        FlightModel model = flightModelRepository.save(new FlightModel("MName", "M" + rows, 120, 20, 6));
+                        Flight flight = flightRepository.save(new Flight(source, dest, model, Time.valueOf("09:00:00"),
+                                        Time.valueOf("11:00:00"), null, 100));
+                        User u = userRepository.save(new User("First", "Last", "123", rows + "@mail.com", "P" + rows,
+                                        "Address", 0, 0));
+                        Booking booking = new Booking(u, flight, "1A", true, false, new Date());
+                        booking.setLuggage(luggageRepository.save(new Luggage(1, 20)));
+                        bookingRepository.save(booking);
+                }
+        }
+
+        private long statementsFor(final String url) throws Exception {
+                statistics.clear();
+                mockMvc.perform(get(url)
+                                .header(HttpHeaders.AUTHORIZATION,
+                                                "Basic " + Base64Utils.encodeToString((this.user + ":" + this.password).getBytes()))
+                                .accept(MediaType.APPLICATION_JSON))
+                                .andExpect(status().isOk());
+                return statistics.getPrepareStatementCount();
+        }
+
+        @Test
+        public void listEndpointsRunOneQueryRegardlessOfRowCount() throws Exception {
+                addBookings(2);
+                long bookings = statementsFor("/api/bookings");
+                long flights = statementsFor("/api/flights");
+                long users = statementsFor("/api/users");
+                assertEquals(1, bookings);
+                assertEquals(1, flights);
+                assertEquals(1, users);
+
+                addBookings(8);
+                assertEquals(bookings, statementsFor("/api/bookings"));
+                assertEquals(flights, statementsFor("/api/flights"));
+                assertEquals(users, statementsFor("/api/users"));
+        }
+
+        @Test
+        public void flexibleDateSearchRunsConstantQueriesRegardlessOfWindow() throws Exception {
+                Airport source = airportRepository.save(new Airport("Flexible Source", "FSA", "1", "2"));
+                Airport dest = airportRepository.save(new Airport("Flexible Dest", "FDA", "1", "2"));
+                FlightModel model = flightModelRepository.save(new FlightModel("MName", "FM1", 120, 20, 6));
+                for (int i = 0; i < 3; i++) {
+                        Flight flight = flightRepository.save(new Flight(source, dest, model, Time.valueOf("0" + (7 + i) + ":00:00"),
+                                        Time.valueOf("11:00:00"), null, 100 + i));
+                        User u = userRepository.save(new User("First", "Last", "123", "flex" + i + "@mail.com", "F" + i,
+                                        "Address", 0, 0));
+                        bookingRepository.save(new Booking(u, flight, "1A", true, false,
+                                        new SimpleDateFormat("MM-dd-yyyy").parse("03-02-2030")));
+                }
+                routeGraphService.reload();
+
+                long narrow = statementsFor("/api/flights/flexible?sourceAbv=FSA&destAbv=FDA&date=03-02-2030&window=1");
+                long wide = statementsFor("/api/flights/flexible?sourceAbv=FSA&destAbv=FDA&date=03-02-2030&window=14");
+                assertEquals(2, narrow);
+                assertEquals(narrow, wide);
+        }
+
+        @Test
+        public void rewardsChangesAreSingleConditionalUpdates() throws Exception {
+                User u = userRepository.save(new User("First", "Last", "123", "rewards@mail.com", "R1", "Address", 0,
+                                50));
+
+                statistics.clear();
+                assertTrue(rewardsLedgerService.apply(u.getUserId(), null, 5, RewardsTransaction.Reason.BOOKING_EARNED));
+                assertEquals(2, statistics.getPrepareStatementCount());
+
+                ExecutorService executor = Executors.newFixedThreadPool(8);
+                try {
+                        List<Future<Boolean>> redemptions = new ArrayList<>();
+                        for (int i = 0; i < 100; i++) {
+                                redemptions.add(executor.submit(() -> rewardsLedgerService.apply(u.getUserId(), null, -1,
+                                                RewardsTransaction.Reason.BOOKING_REDEEMED)));
+                        }
+                        int applied = 0;
+                        for (Future<Boolean> redemption : redemptions) {
+                                applied += redemption.get() ? 1 : 0;
+                        }
+                        assertEquals(55, applied);
+                } finally {
+                        executor.shutdown();
+                }
+                assertEquals(0, userRepository.findByUserId(u.getUserId()).getRewardsMiles());
+                assertEquals(56, rewardsLedgerService.getTransactions(u.getUserId()).size());
+        }
+
+        @Test
+        public void reconciliationRecordsOpeningBalancesAndExpiresOldPoints() {
+                Date old = Date.from(Instant.now().minus(Duration.ofDays(3 * 365)));
+                Date recent = Date.from(Instant.now().minus(Duration.ofDays(30)));
+                User legacy = userRepository.save(new User("First", "Last", "123", "legacy@mail.com", "L1", "Address",
+                                0, 70));
+                User expiring = userRepository.save(new User("First", "Last", "123", "expiring@mail.com", "E1",
+                                "Address", 0, 90));
+                User drifted = userRepository.save(new User("First", "Last", "123", "drifted@mail.com", "D1", "Address",
+                                0, 40));
+                rewardsTransactionRepository.saveAll(List.of(
+                                new RewardsTransaction(expiring.getUserId(), null, 100,
+                                                RewardsTransaction.Reason.BOOKING_EARNED, old),
+                                new RewardsTransaction(expiring.getUserId(), null, -30,
+                                                RewardsTransaction.Reason.BOOKING_REDEEMED, recent),
+                                new RewardsTransaction(expiring.getUserId(), null, 20,
+                                                RewardsTransaction.Reason.BOOKING_EARNED, recent),
+                                new RewardsTransaction(drifted.getUserId(), null, 50,
+                                                RewardsTransaction.Reason.OPENING_BALANCE, recent)));
+
+                RewardsReconciliationReport report = rewardsReconciliationService.reconcile();
+                assertFalse(report.isRunning());
+                assertTrue(report.getUsersScanned() >= 3);
+                assertTrue(report.getPointsExpired() >= 70);
+
+                assertEquals(70, userRepository.findByUserId(legacy.getUserId()).getRewardsMiles());
+                List<RewardsTransaction> opening = rewardsTransactionRepository
+                                .findByUserIdOrderByCreatedAtDesc(legacy.getUserId());
+                assertEquals(1, opening.size());
+                assertEquals(RewardsTransaction.Reason.OPENING_BALANCE, opening.get(0).getReason());
+                assertEquals(70, opening.get(0).getDelta());
+                assertEquals(20, userRepository.findByUserId(expiring.getUserId()).getRewardsMiles());
+                assertEquals(-70, rewardsTransactionRepository.findByUserIdOrderByCreatedAtDesc(expiring.getUserId())
+                                .get(0).getDelta());
+                assertEquals(50, userRepository.findByUserId(drifted.getUserId()).getRewardsMiles());
+
+                rewardsReconciliationService.reconcile();
+                assertEquals(70, userRepository.findByUserId(legacy.getUserId()).getRewardsMiles());
+                assertEquals(20, userRepository.findByUserId(expiring.getUserId()).getRewardsMiles());
+                assertEquals(4, rewardsTransactionRepository.findByUserIdOrderByCreatedAtDesc(expiring.getUserId())
+                                .size());
+                assertEquals(50, userRepository.findByUserId(drifted.getUserId()).getRewardsMiles());
+        }
+
+        @Test
+        public void generatedIdsAreTimeOrdered() {
+                List<UUID> ids = new ArrayList<>();
+                for (int i = 0; i < 5000; i++) {
+                        ids.add(luggageRepository.save(new Luggage(1, 20)).getLuggageId());
+                }
+                for (int i = 1; i < ids.size(); i++) {
+                        assertEquals(7, ids.get(i).version());
+                        assertEquals(2, ids.get(i).variant());
+                        assertTrue(Long.compareUnsigned(ids.get(i - 1).getMostSignificantBits(),
+                                        ids.get(i).getMostSignificantBits()) < 0);
+                }
+                long millis = ids.get(0).getMostSignificantBits() >>> 16;
+                assertTrue(Math.abs(System.currentTimeMillis() - millis) < 60_000);
+        }
+
+        @Test
+        public void bulkCreationAndLuggageCheckInAreBatched() {
+                List<Airport> airports = airportService.saveAirports(List.of(
+                                new Airport("Bulk Source", "BSA", "1", "2"), new Airport("Bulk Dest", "BDA", "3", "4")));
+                FlightModel model = flightModelRepository.save(new FlightModel("MName", "BM1", 120, 20, 6));
+                List<Flight> flights = new ArrayList<>();
+                for (int i = 0; i < 120; i++) {
+                        flights.add(new Flight(airports.get(0), airports.get(1), model, Time.valueOf("09:00:00"),
+                                        Time.valueOf("11:00:00"), null, 100 + i));
+                }
+
+                statistics.clear();
+                flightService.saveAll(flights);
+                assertEquals(120, statistics.getEntityInsertCount());
+                assertEquals(1, statistics.getPrepareStatementCount());
+
+                User u = userRepository.save(new User("First", "Last", "123", "bulk@mail.com", "B1", "Address", 0, 0));
+                Booking booking = bookingRepository.save(new Booking(u, flights.get(0), "1A", true, false, new Date()));
+                BookingContext context = bookingService.loadBookingContext(booking.getBookingId().toString());
+                statistics.clear();
+                assertTrue(bookingService.checkInLuggage(context, 1, 20));
+                assertEquals(2, statistics.getPrepareStatementCount());
+
+                long luggage = luggageRepository.count();
+                assertFalse(bookingService.checkInLuggage(context, 1, 20));
+                assertEquals(luggage, luggageRepository.count());
+        }
+
+        @Test
+        public void referenceDataIsReadFromSecondLevelCache() throws Exception {
+                Airport source = airportRepository.save(new Airport("Cached Source", "CSA", "1", "2"));
+                Airport dest = airportRepository.save(new Airport("Cached Dest", "CDA", "3", "4"));
+                FlightModel model = flightModelRepository.save(new FlightModel("MName", "CM1", 120, 20, 6));
+                Flight flight = flightRepository.save(new Flight(source, dest, model, Time.valueOf("09:00:00"),
+                                Time.valueOf("11:00:00"), null, 100));
+                flightRepository.findByFlightId(flight.getFlightId());
+                flightModelRepository.findByFlightModelId(model.getFlightModelId());
+
+                statistics.clear();
+                Flight loaded = flightRepository.findByFlightId(flight.getFlightId());
+                assertEquals("Cached Source", loaded.getSourceAirport().getAirportName());
+                assertEquals("CM1", loaded.getFlightModel().getFlightModelNumber());
+                assertTrue(flightService.validateFlightModel(model.getFlightModelId()));
+                assertEquals(1, statistics.getPrepareStatementCount());
+                mockMvc.perform(get("/api/models/cache")
+                                .header(HttpHeaders.AUTHORIZATION,
+                                                "Basic " + Base64Utils.encodeToString((this.user + ":" + this.password).getBytes()))
+                                .accept(MediaType.APPLICATION_JSON))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$[0].region").value("airport"))
+                                .andExpect(jsonPath("$[0].hitCount").value(2))
+                                .andExpect(jsonPath("$[2].hitCount").value(1));
+
+                mockMvc.perform(post("/api/model")
+                                .header(HttpHeaders.AUTHORIZATION,
+                                                "Basic " + Base64Utils.encodeToString((this.user + ":" + this.password).getBytes()))
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content("{\"flightManufacturerName\": \"aml\",\"flightModelNumber\": \"CM2\",\"seatCapacity\": \"120\",\"seatRowCount\": \"20\",\"seatColCount\": \"6\"}"))
+                                .andExpect(status().isOk());
+                statistics.clear();
+                assertTrue(flightService.validateFlightModel(model.getFlightModelId()));
+                assertEquals(1, statistics.getPrepareStatementCount());
+        }
+}
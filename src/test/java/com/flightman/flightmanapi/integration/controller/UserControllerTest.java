@@ -1,5 +1,6 @@
 package com.flightman.flightmanapi.integration.controller;
 import java.util.ArrayList;
+import java.util.Date;
 import java.util.List;
 import java.util.UUID;
 
@@ -15,7 +16,10 @@ import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.util.ReflectionTestUtils;
 
 import com.flightman.flightmanapi.controller.UserController;
+import com.flightman.flightmanapi.model.RewardsReconciliationReport;
+import com.flightman.flightmanapi.model.RewardsTransaction;
 import com.flightman.flightmanapi.model.User;
+import com.flightman.flightmanapi.model.UserCacheStats;
 import com.flightman.flightmanapi.services.UserService;
 import com.flightman.flightmanapi.repositories.UserRepository;
 
@@ -185,4 +189,62 @@ public class UserControllerTest {
                         .contentType(MediaType.APPLICATION_JSON)
                         .content("{\"userId\": \"7a9223a4-820e-42d8-922b-162cea9e5f6e\",\"firstName\": \"Demo2\",\"lastName\": \"Test\",\"phoneNumber\": \"+12345670\",\"email\": \"dxt@gmail.com\",\"passportNumber\": \"A1211512278\",\"address\": \"test\",\"diet\": 1,\"rewardsMiles\": 0}"));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void getCacheStats() throws Exception {
+        given(userService.getCacheStats()).willReturn(new UserCacheStats(1, 3, 1, 0.75, 0));
+
+        mockMvc.perform(
+                        get("/api/users/cache")
+                        .header(HttpHeaders.AUTHORIZATION, "Basic " + Base64Utils.encodeToString((this.auth_user + ":" + this.password).getBytes()))
+                        .accept(MediaType.ALL))
+                        .andExpect(status().isOk())
+                        .andExpect(jsonPath("$.hitCount").value(3))
+                        .andExpect(jsonPath("$.hitRate").value(0.75));
+    }
+
+    @Test
+    public void getRewardsTransactions() throws Exception {
+        UUID userId = UUID.fromString("7a9223a4-820e-42d8-922b-162cea9e5f6e");
+        List<RewardsTransaction> transactions = new ArrayList<RewardsTransaction>();
+        transactions.add(new RewardsTransaction(userId, null, 10, RewardsTransaction.Reason.BOOKING_EARNED, new Date()));
+        given(userService.getRewardsTransactions(userId)).willReturn(transactions);
+
+        mockMvc.perform(
+                        get("/api/user/id/{id}/rewards", userId)
+                        .header(HttpHeaders.AUTHORIZATION, "Basic " + Base64Utils.encodeToString((this.auth_user + ":" + this.password).getBytes()))
+                        .accept(MediaType.ALL))
+                        .andExpect(status().isOk())
+                        .andExpect(jsonPath("$[0].delta").value(10))
+                        .andExpect(jsonPath("$[0].reason").value("BOOKING_EARNED"));
+
+        mockMvc.perform(
+                        get("/api/user/id/{id}/rewards", UUID.randomUUID())
+                        .header(HttpHeaders.AUTHORIZATION, "Basic " + Base64Utils.encodeToString((this.auth_user + ":" + this.password).getBytes()))
+                        .accept(MediaType.ALL))
+                        .andExpect(status().isNoContent());
+    }
+
+    @Test
+    public void rewardsReconciliation() throws Exception {
+        given(userService.startRewardsReconciliation()).willReturn(true, false);
+        given(userService.getRewardsReconciliationReport())
+                .willReturn(new RewardsReconciliationReport(new Date(), true, 1000, 5000, 0, 1, 2, 300, 5000.0));
+
+        mockMvc.perform(
+                        post("/api/users/rewards/reconciliation")
+                        .header(HttpHeaders.AUTHORIZATION, "Basic " + Base64Utils.encodeToString((this.auth_user + ":" + this.password).getBytes())))
+                        .andExpect(status().isAccepted());
+        mockMvc.perform(
+                        post("/api/users/rewards/reconciliation")
+                        .header(HttpHeaders.AUTHORIZATION, "Basic " + Base64Utils.encodeToString((this.auth_user + ":" + this.password).getBytes())))
+                        .andExpect(status().isConflict());
+        mockMvc.perform(
+                        get("/api/users/rewards/reconciliation")
+                        .header(HttpHeaders.AUTHORIZATION, "Basic " + Base64Utils.encodeToString((this.auth_user + ":" + this.password).getBytes()))
+                        .accept(MediaType.ALL))
+                        .andExpect(status().isOk())
+                        .andExpect(jsonPath("$.usersScanned").value(5000))
+                        .andExpect(jsonPath("$.pointsExpired").value(300));
+    }
+}
@@ -0,0 +1,154 @@
+package com.flightman.flightmanapi.integration.migration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.ZoneId;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.configuration.FluentConfiguration;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/*
+ * Runs the versioned migrations against an empty in-memory database and checks
+ * the tables, columns and constraints they create.
+ */
+public class SchemaMigrationTest {
+        private String url;
+
+        private static final String[] LOCATIONS = { "classpath:db/migration",
+                        "classpath:com/flightman/flightmanapi/migration" };
+
+        @BeforeEach
+        public void setUp() {
+                this.url = "jdbc:h2:mem:" + UUID.randomUUID() + ";MODE=PostgreSQL;NON_KEYWORDS=USER;DB_CLOSE_DELAY=-1";
+                migrate(null);
+        }
+
+        /*
+         * Migrates the database up to the supplied version, or to the latest one if
+         * null.
+         */
+        private void migrate(final String target) {
+                FluentConfiguration configuration = Flyway.configure()
+                                .dataSource(url, "sa", "")
+                                .locations(LOCATIONS);
+                if (target != null) {
+                        configuration.target(target);
+                }
+                configuration.load().migrate();
+        }
+
+        private String queryString(final String sql) throws SQLException {
+                try (Connection connection = DriverManager.getConnection(url, "sa", "");
+                                Statement statement = connection.createStatement();
+                                ResultSet rs = statement.executeQuery(sql)) {
+                        return rs.next() ? rs.getString(1) : null;
+                }
+        }
+
+        private Set<String> columns(final String table) throws SQLException {
+                Set<String> columns = new HashSet<>();
+                try (Connection connection = DriverManager.getConnection(url, "sa", "");
+                                ResultSet rs = connection.getMetaData().getColumns(null, null, table.toUpperCase(), null)) {
+                        while (rs.next()) {
+                                columns.add(rs.getString("COLUMN_NAME").toLowerCase());
+                        }
+                }
+                return columns;
+        }
+
+        private void execute(final String sql) throws SQLException {
+                try (Connection connection = DriverManager.getConnection(url, "sa", "");
+                                Statement statement = connection.createStatement()) {
+                        statement.execute(sql);
+                }
+        }
+
+        @Test
+        public void flightInventoryHasOneRowPerDeparture() throws SQLException {
+                assertEquals(Set.of("inventory_id", "flight_id", "flight_date", "seats_sold", "seats_remaining"),
+                                columns("flight_inventory"));
+
+                try (Connection connection = DriverManager.getConnection(url, "sa", "")) {
+                        DatabaseMetaData metaData = connection.getMetaData();
+                        Set<String> unique = new HashSet<>();
+                        try (ResultSet rs = metaData.getIndexInfo(null, null, "FLIGHT_INVENTORY", true, false)) {
+                                while (rs.next()) {
+                                        unique.add(rs.getString("COLUMN_NAME").toLowerCase());
+                                }
+                        }
+                        assertTrue(unique.containsAll(Set.of("flight_id", "flight_date")));
+                }
+
+                UUID flightId = UUID.randomUUID();
+                execute("insert into flights (flight_id, cost) values ('" + flightId + "', 100)");
+                String insert = "insert into flight_inventory (inventory_id, flight_id, flight_date, seats_sold, seats_remaining) "
+                                + "values ('%s', '" + flightId + "', timestamp '2022-10-10 00:00:00', 1, 9)";
+                execute(String.format(insert, UUID.randomUUID()));
+                assertThrows(SQLException.class, () -> execute(String.format(insert, UUID.randomUUID())));
+        }
+
+        @Test
+        public void aSeatOfADepartureIsBookedOnce() throws SQLException {
+                UUID flightId = UUID.randomUUID();
+                execute("insert into flights (flight_id, cost) values ('" + flightId + "', 100)");
+                String insert = "insert into booking (booking_id, flight_id, flight_date, seat_number) "
+                                + "values ('%s', '" + flightId + "', timestamp '2022-10-10 00:00:00', '%s')";
+                execute(String.format(insert, UUID.randomUUID(), "1"));
+                execute(String.format(insert, UUID.randomUUID(), "2"));
+                assertThrows(SQLException.class, () -> execute(String.format(insert, UUID.randomUUID(), "1")));
+        }
+
+        @Test
+        public void aSeatOfADepartureIsHeldOnce() throws SQLException {
+                assertEquals(Set.of("hold_id", "user_id", "flight_id", "flight_date", "seat_number", "use_reward_points",
+                                "expires_at"), columns("seat_hold"));
+
+                UUID flightId = UUID.randomUUID();
+                execute("insert into flights (flight_id, cost) values ('" + flightId + "', 100)");
+                String insert = "insert into seat_hold (hold_id, flight_id, flight_date, seat_number, expires_at) "
+                                + "values ('%s', '" + flightId + "', timestamp '2022-10-10 00:00:00', '1', current_timestamp)";
+                execute(String.format(insert, UUID.randomUUID()));
+                assertThrows(SQLException.class, () -> execute(String.format(insert, UUID.randomUUID())));
+        }
+
+        @Test
+        public void existingAirportsGetTheServerTimeZone() throws SQLException {
+                this.url = "jdbc:h2:mem:" + UUID.randomUUID() + ";MODE=PostgreSQL;NON_KEYWORDS=USER;DB_CLOSE_DELAY=-1";
+                migrate("4");
+                execute("insert into airport (airport_id, airport_abv_name) values ('" + UUID.randomUUID() + "', 'OLD')");
+                migrate(null);
+
+                assertEquals(ZoneId.systemDefault().getId(),
+                                queryString("select time_zone from airport where airport_abv_name = 'OLD'"));
+        }
+
+        @Test
+        public void existingFlightsGetTheirDuration() throws SQLException {
+                this.url = "jdbc:h2:mem:" + UUID.randomUUID() + ";MODE=PostgreSQL;NON_KEYWORDS=USER;DB_CLOSE_DELAY=-1";
+                migrate("5.1");
+                UUID source = UUID.randomUUID();
+                UUID dest = UUID.randomUUID();
+                execute("insert into airport (airport_id, airport_abv_name, time_zone) values ('" + source
+                                + "', 'HND', 'Asia/Tokyo'), ('" + dest + "', 'DEL', 'Asia/Kolkata')");
+                execute("insert into flights (flight_id, cost, source_airport_id, dest_airport_id, departure_time, "
+                                + "est_arrival_time) values ('" + UUID.randomUUID() + "', 100, '" + source + "', '" + dest
+                                + "', time '10:00:00', time '13:30:00')");
+                migrate(null);
+
+                // 10:00 in Tokyo is 06:30 in Delhi
+                assertEquals("420", queryString("select duration_minutes from flights"));
+        }
+}
@@ -5,6 +5,7 @@ import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
+import java.util.UUID;
 
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -18,6 +19,9 @@ import org.springframework.test.web.servlet.MockMvc;
 
 import com.flightman.flightmanapi.controller.BookingController;
 import com.flightman.flightmanapi.model.Booking;
+import com.flightman.flightmanapi.model.BulkCheckInResult;
+import com.flightman.flightmanapi.model.SeatHold;
+import com.flightman.flightmanapi.services.BookingContext;
 import com.flightman.flightmanapi.services.BookingService;
 
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -55,6 +59,8 @@ public class BookingControllerUnitTest {
 
         Booking booking = new Booking();
 
+        BookingContext context = new BookingContext(booking);
+
         @Test
         public void getBooking() throws Exception {
                 List<Booking> created = new ArrayList<Booking>();
@@ -245,10 +251,10 @@ public class BookingControllerUnitTest {
 
         @Test
         public void luggageCheckInSuccess() throws Exception {
-                when(bookingService.validateBooking(validBooking)).thenReturn(true);
-                when(bookingService.validateCheckInTime(validBooking)).thenReturn(true);
-                when(bookingService.getLuggageCheckInStatus(validBooking)).thenReturn(false);
-                when(bookingService.checkInLuggage(validBooking, validLuggageCount, validLuggageWeight)).thenReturn(true);
+                when(bookingService.loadBookingContext(validBooking)).thenReturn(context);
+                when(bookingService.validateCheckInTime(context)).thenReturn(true);
+                when(bookingService.getLuggageCheckInStatus(context)).thenReturn(false);
+                when(bookingService.checkInLuggage(context, validLuggageCount, validLuggageWeight)).thenReturn(true);
                 mockMvc.perform(
                                 post("/api/bookings/id/" + validBooking + "/luggagecheckin?bookingId=" + validBooking
                                                 + "&count=" + validLuggageCount + "&totalWeight=" + validLuggageWeight)
@@ -261,10 +267,10 @@ public class BookingControllerUnitTest {
 
         @Test
         public void luggageCheckInAlreadyComplete() throws Exception {
-                when(bookingService.validateBooking(validBooking)).thenReturn(true);
-                when(bookingService.validateCheckInTime(validBooking)).thenReturn(true);
-                when(bookingService.getLuggageCheckInStatus(validBooking)).thenReturn(true);
-                when(bookingService.checkInLuggage(validBooking, validLuggageCount, validLuggageWeight)).thenReturn(true);
+                when(bookingService.loadBookingContext(validBooking)).thenReturn(context);
+                when(bookingService.validateCheckInTime(context)).thenReturn(true);
+                when(bookingService.getLuggageCheckInStatus(context)).thenReturn(true);
+                when(bookingService.checkInLuggage(context, validLuggageCount, validLuggageWeight)).thenReturn(true);
                 
                 mockMvc.perform(
                                 post("/api/bookings/id/" + validBooking + "/luggagecheckin?bookingId=" + validBooking
@@ -278,8 +284,8 @@ public class BookingControllerUnitTest {
 
         @Test
         public void luggageCheckInInvalidCheckInTime() throws Exception {
-                when(bookingService.validateBooking(validBooking)).thenReturn(true);
-                when(bookingService.validateCheckInTime(validBooking)).thenReturn(false);
+                when(bookingService.loadBookingContext(validBooking)).thenReturn(context);
+                when(bookingService.validateCheckInTime(context)).thenReturn(false);
                 mockMvc.perform(
                                 post("/api/bookings/id/" + validBooking + "/luggagecheckin?bookingId=" + validBooking
                                                 + "&count=" + validLuggageCount + "&totalWeight=" + validLuggageWeight)
@@ -292,7 +298,7 @@ public class BookingControllerUnitTest {
 
         @Test
         public void luggageCheckInInvalidBooking() throws Exception {
-                when(bookingService.validateBooking(validBooking)).thenReturn(false);
+                when(bookingService.loadBookingContext(validBooking)).thenReturn(null);
                 mockMvc.perform(
                                 post("/api/bookings/id/" + validBooking + "/luggagecheckin?bookingId=" + validBooking
                                                 + "&count=" + validLuggageCount + "&totalWeight=" + validLuggageWeight)
@@ -314,10 +320,10 @@ public class BookingControllerUnitTest {
 
         @Test
         public void luggageCheckInInvalidLuggageCount() throws Exception {
-                when(bookingService.validateBooking(validBooking)).thenReturn(true);
-                when(bookingService.validateCheckInTime(validBooking)).thenReturn(true);
-                when(bookingService.getLuggageCheckInStatus(validBooking)).thenReturn(false);
-                when(bookingService.checkInLuggage(validBooking, validLuggageCount, validLuggageWeight)).thenReturn(true);
+                when(bookingService.loadBookingContext(validBooking)).thenReturn(context);
+                when(bookingService.validateCheckInTime(context)).thenReturn(true);
+                when(bookingService.getLuggageCheckInStatus(context)).thenReturn(false);
+                when(bookingService.checkInLuggage(context, validLuggageCount, validLuggageWeight)).thenReturn(true);
 
                 mockMvc.perform(
                                 post("/api/bookings/id/" + validBooking + "/luggagecheckin?bookingId=" + validBooking
@@ -340,10 +346,10 @@ public class BookingControllerUnitTest {
 
         @Test
         public void luggageCheckInInvalidLuggageWeight() throws Exception {
-                when(bookingService.validateBooking(validBooking)).thenReturn(true);
-                when(bookingService.validateCheckInTime(validBooking)).thenReturn(true);
-                when(bookingService.getLuggageCheckInStatus(validBooking)).thenReturn(false);
-                when(bookingService.checkInLuggage(validBooking, validLuggageCount, validLuggageWeight)).thenReturn(true);
+                when(bookingService.loadBookingContext(validBooking)).thenReturn(context);
+                when(bookingService.validateCheckInTime(context)).thenReturn(true);
+                when(bookingService.getLuggageCheckInStatus(context)).thenReturn(false);
+                when(bookingService.checkInLuggage(context, validLuggageCount, validLuggageWeight)).thenReturn(true);
 
                 mockMvc.perform(
                                 post("/api/bookings/id/" + validBooking + "/luggagecheckin?bookingId=" + validBooking
@@ -366,10 +372,10 @@ public class BookingControllerUnitTest {
 
         @Test
         public void luggageCheckInServiceFailure() throws Exception {
-                when(bookingService.validateBooking(validBooking)).thenReturn(true);
-                when(bookingService.validateCheckInTime(validBooking)).thenReturn(true);
-                when(bookingService.getLuggageCheckInStatus(validBooking)).thenReturn(false);
-                when(bookingService.checkInLuggage(validBooking, validLuggageCount, validLuggageWeight)).thenReturn(false);
+                when(bookingService.loadBookingContext(validBooking)).thenReturn(context);
+                when(bookingService.validateCheckInTime(context)).thenReturn(true);
+                when(bookingService.getLuggageCheckInStatus(context)).thenReturn(false);
+                when(bookingService.checkInLuggage(context, validLuggageCount, validLuggageWeight)).thenReturn(false);
                 mockMvc.perform(
                                 post("/api/bookings/id/" + validBooking + "/luggagecheckin?bookingId=" + validBooking
                                                 + "&count=" + validLuggageCount + "&totalWeight=" + validLuggageWeight)
@@ -379,4 +385,137 @@ public class BookingControllerUnitTest {
                                                                                                 .getBytes())))
                                 .andExpect(status().isServiceUnavailable());
         }
-}
\ No newline at end of file
+
+        @Test
+        public void holdSeat() throws Exception {
+                String tomorrowDateString = f.format(new Date(new Date().getTime() + (1000 * 60 * 60 * 24)));
+                when(bookingService.validateUser(validUser)).thenReturn(true);
+                when(bookingService.validateFlight(validFlight)).thenReturn(true);
+                when(bookingService.holdSeat(validUser, validFlight, "2C", tomorrowDateString, false))
+                                .thenReturn(new SeatHold());
+                mockMvc.perform(
+                                post("/api/bookings/hold?userId=" + validUser + "&flightId=" + validFlight
+                                                + "&seatNumber=2C&date=" + tomorrowDateString + "&useRewardPoints=false")
+                                                .header(HttpHeaders.AUTHORIZATION,
+                                                                "Basic " + Base64Utils.encodeToString(
+                                                                                (this.user + ":" + this.password)
+                                                                                                .getBytes())))
+                                .andExpect(status().isCreated());
+
+                mockMvc.perform(
+                                post("/api/bookings/hold?userId=" + validUser + "&flightId=" + validFlight
+                                                + "&seatNumber=2D&date=" + tomorrowDateString + "&useRewardPoints=false")
+                                                .header(HttpHeaders.AUTHORIZATION,
+                                                                "Basic " + Base64Utils.encodeToString(
+                                                                                (this.user + ":" + this.password)
+                                                                                                .getBytes())))
+                                .andExpect(status().isBadRequest())
+                                .andExpect(content().string("Seat is not available!"));
+        }
+
+        @Test
+        public void confirmAndReleaseHold() throws Exception {
+                UUID validHold = UUID.randomUUID();
+                UUID expiredHold = UUID.randomUUID();
+                when(bookingService.confirmHold(validHold)).thenReturn(booking);
+                when(bookingService.confirmHold(expiredHold)).thenReturn(null);
+                when(bookingService.releaseHold(validHold)).thenReturn(true);
+                when(bookingService.releaseHold(expiredHold)).thenReturn(false);
+
+                mockMvc.perform(
+                                post("/api/bookings/hold/" + validHold + "/confirm")
+                                                .header(HttpHeaders.AUTHORIZATION,
+                                                                "Basic " + Base64Utils.encodeToString(
+                                                                                (this.user + ":" + this.password)
+                                                                                                .getBytes())))
+                                .andExpect(status().isCreated());
+                mockMvc.perform(
+                                post("/api/bookings/hold/" + expiredHold + "/confirm")
+                                                .header(HttpHeaders.AUTHORIZATION,
+                                                                "Basic " + Base64Utils.encodeToString(
+                                                                                (this.user + ":" + this.password)
+                                                                                                .getBytes())))
+                                .andExpect(status().isBadRequest());
+                mockMvc.perform(
+                                delete("/api/bookings/hold/" + validHold)
+                                                .header(HttpHeaders.AUTHORIZATION,
+                                                                "Basic " + Base64Utils.encodeToString(
+                                                                                (this.user + ":" + this.password)
+                                                                                                .getBytes())))
+                                .andExpect(status().isOk());
+                mockMvc.perform(
+                                delete("/api/bookings/hold/" + expiredHold)
+                                                .header(HttpHeaders.AUTHORIZATION,
+                                                                "Basic " + Base64Utils.encodeToString(
+                                                                                (this.user + ":" + this.password)
+                                                                                                .getBytes())))
+                                .andExpect(status().isBadRequest());
+        }
+
+        @Test
+        public void createGroupBooking() throws Exception {
+                String tomorrowDateString = f.format(new Date(new Date().getTime() + (1000 * 60 * 60 * 24)));
+                List<String> userIds = new ArrayList<String>();
+                userIds.add(validUser);
+                userIds.add(validUser);
+                List<Booking> bookings = new ArrayList<Booking>();
+                bookings.add(new Booking());
+                bookings.add(new Booking());
+                when(bookingService.validateUsers(userIds)).thenReturn(true);
+                when(bookingService.validateFlight(validFlight)).thenReturn(true);
+                when(bookingService.bookGroup(userIds, validFlight, tomorrowDateString, false)).thenReturn(bookings);
+                String body = "{\"flightId\": \"" + validFlight + "\", \"date\": \"" + tomorrowDateString
+                                + "\", \"userIds\": [\"" + validUser + "\", \"" + validUser
+                                + "\"], \"useRewardPoints\": false}";
+                mockMvc.perform(
+                                post("/api/bookings/group")
+                                                .contentType(MediaType.APPLICATION_JSON)
+                                                .content(body)
+                                                .header(HttpHeaders.AUTHORIZATION,
+                                                                "Basic " + Base64Utils.encodeToString(
+                                                                                (this.user + ":" + this.password)
+                                                                                                .getBytes())))
+                                .andExpect(status().isCreated());
+
+                mockMvc.perform(
+                                post("/api/bookings/group")
+                                                .contentType(MediaType.APPLICATION_JSON)
+                                                .content(body.replace(validFlight, invalidFlight))
+                                                .header(HttpHeaders.AUTHORIZATION,
+                                                                "Basic " + Base64Utils.encodeToString(
+                                                                                (this.user + ":" + this.password)
+                                                                                                .getBytes())))
+                                .andExpect(status().isBadRequest())
+                                .andExpect(content().string("Invalid Flight ID"));
+        }
+
+        @Test
+        public void bulkUserCheckIn() throws Exception {
+                List<BulkCheckInResult.Entry> results = new ArrayList<BulkCheckInResult.Entry>();
+                results.add(new BulkCheckInResult.Entry(validBooking, "Successfully checked in"));
+                when(bookingService.bulkCheckIn(validFlight, "01-01-2030", null))
+                                .thenReturn(new BulkCheckInResult(UUID.fromString(validFlight), "01-01-2030", true, 1,
+                                                results));
+                mockMvc.perform(
+                                post("/api/bookings/usercheckin")
+                                                .contentType(MediaType.APPLICATION_JSON)
+                                                .content("{\"flightId\": \"" + validFlight + "\", \"date\": \"01-01-2030\"}")
+                                                .header(HttpHeaders.AUTHORIZATION,
+                                                                "Basic " + Base64Utils.encodeToString(
+                                                                                (this.user + ":" + this.password)
+                                                                                                .getBytes())))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$.checkedIn").value(1))
+                                .andExpect(jsonPath("$.results[0].status").value("Successfully checked in"));
+
+                mockMvc.perform(
+                                post("/api/bookings/usercheckin")
+                                                .contentType(MediaType.APPLICATION_JSON)
+                                                .content("{\"flightId\": \"" + invalidFlight + "\", \"date\": \"01-01-2030\"}")
+                                                .header(HttpHeaders.AUTHORIZATION,
+                                                                "Basic " + Base64Utils.encodeToString(
+                                                                                (this.user + ":" + this.password)
+                                                                                                .getBytes())))
+                                .andExpect(status().isBadRequest());
+        }
+}
@@ -0,0 +1,142 @@
+package com.flightman.flightmanapi.unit.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import com.flightman.flightmanapi.model.Airport;
+import com.flightman.flightmanapi.model.NearbyAirport;
+import com.flightman.flightmanapi.repositories.AirportRepository;
+import com.flightman.flightmanapi.services.AirportRegistry;
+import com.flightman.flightmanapi.utils.SphericalKdTree;
+
+@ExtendWith(SpringExtension.class)
+@ContextConfiguration(classes = { AirportRegistry.class })
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+public class AirportRegistryTest {
+        @MockBean
+        private AirportRepository airportRepository;
+
+        @Autowired
+        private AirportRegistry airportRegistry;
+
+        private Airport chennai = airport("Chennai International Airport", "MAA");
+        private Airport kennedy = airport("John F. Kennedy International Airport", "JFK");
+
+        private static Airport airport(final String name, final String abv) {
+                Airport airport = new Airport(name, abv, "1", "2");
+                airport.setAirportId(UUID.randomUUID());
+                return airport;
+        }
+
+        @Test
+        public void loadsAirportsOnceOnFirstUse() {
+                when(airportRepository.findAll()).thenReturn(List.of(chennai, kennedy));
+
+                assertEquals(chennai, airportRegistry.findById(chennai.getAirportId()));
+                assertEquals(kennedy, airportRegistry.findByAbvName("JFK"));
+                assertNull(airportRegistry.findByAbvName("LHR"));
+                assertNull(airportRegistry.findById(UUID.randomUUID()));
+                assertNull(airportRegistry.findById(null));
+                assertEquals(List.of(chennai, kennedy), airportRegistry.findAll());
+                assertEquals(List.of(kennedy), airportRegistry.findByNameContaining("Kennedy"));
+                verify(airportRepository, times(1)).findAll();
+                assertThrows(UnsupportedOperationException.class, () -> airportRegistry.findAll().clear());
+        }
+
+        @Test
+        public void refreshPicksUpNewAirports() {
+                when(airportRepository.findAll()).thenReturn(List.of(chennai));
+                assertNull(airportRegistry.findByAbvName("JFK"));
+
+                when(airportRepository.findAll()).thenReturn(List.of(chennai, kennedy));
+                airportRegistry.refresh();
+                assertEquals(kennedy, airportRegistry.findByAbvName("JFK"));
+                verify(airportRepository, times(2)).findAll();
+        }
+
+        @Test
+        public void findsNearestAirportsByGreatCircleDistance() {
+                Airport heathrow = new Airport("Heathrow", "LHR", "51.4700", "-0.4543");
+                Airport gatwick = new Airport("Gatwick", "LGW", "51.1537", "-0.1821");
+                Airport paris = new Airport("Charles de Gaulle", "CDG", "49.0097", "2.5479");
+                Airport unlocated = new Airport("Nowhere", "NWH", "Lat", "Long");
+                when(airportRepository.findAll()).thenReturn(List.of(paris, unlocated, gatwick, heathrow, kennedy));
+
+                List<NearbyAirport> nearby = airportRegistry.findNearby(51.5074, -0.1278, 400, 10);
+                assertEquals(List.of(heathrow, gatwick, paris),
+                                nearby.stream().map(NearbyAirport::getAirport).toList());
+                assertEquals(23.5, nearby.get(0).getDistanceKm(), 1);
+                assertEquals(List.of(heathrow), airportRegistry.findNearby(51.5074, -0.1278, 400, 1).stream()
+                                .map(NearbyAirport::getAirport).toList());
+                assertEquals(0, airportRegistry.findNearby(-45, 170, 400, 10).size());
+        }
+
+        @Test
+        public void nearbySearchMatchesFullScan() {
+                Random random = new Random(42);
+                List<Airport> airports = new ArrayList<>();
+                for (int i = 0; i < 2000; i++) {
+                        airports.add(new Airport("Airport " + i, "A" + i, String.valueOf(random.nextDouble() * 180 - 90),
+                                        String.valueOf(random.nextDouble() * 360 - 180)));
+                }
+                when(airportRepository.findAll()).thenReturn(airports);
+
+                for (int q = 0; q < 50; q++) {
+                        double lat = random.nextDouble() * 180 - 90;
+                        double lon = random.nextDouble() * 360 - 180;
+                        List<Airport> expected = airports.stream()
+                                        .filter(a -> distanceKm(lat, lon, a) <= 2000)
+                                        .sorted(Comparator.comparingDouble(a -> distanceKm(lat, lon, a)))
+                                        .limit(5)
+                                        .toList();
+                        List<Airport> actual = airportRegistry.findNearby(lat, lon, 2000, 5).stream()
+                                        .map(NearbyAirport::getAirport).toList();
+                        assertEquals(expected, actual);
+                }
+        }
+
+        @Test
+        public void searchesAirportsByRank() {
+                Airport saoPaulo = new Airport("São Paulo Guarulhos", "GRU", "1", "2");
+                Airport guam = new Airport("Antonio B. Won Pat Guam", "GUM", "1", "2");
+                Airport augusta = new Airport("Augusta Regional", "AGS", "1", "2");
+                Airport guernsey = new Airport("Guernsey", "GCI", "1", "2");
+                when(airportRepository.findAll()).thenReturn(List.of(augusta, guernsey, saoPaulo, guam, chennai));
+
+                assertEquals(List.of(guam, guernsey, saoPaulo, augusta), airportRegistry.search("gu", 10));
+                assertEquals(List.of(guam, guernsey), airportRegistry.search("gu", 2));
+                assertEquals(List.of(guam), airportRegistry.search("GUM", 10));
+                assertEquals(List.of(saoPaulo), airportRegistry.search("sao p", 10));
+                assertEquals(List.of(chennai), airportRegistry.search("maa", 10));
+                assertEquals(0, airportRegistry.search("xyz", 10).size());
+                assertEquals(0, airportRegistry.search("  ", 10).size());
+        }
+
+        private static double distanceKm(final double lat, final double lon, final Airport a) {
+                double lat1 = Math.toRadians(lat);
+                double lat2 = Math.toRadians(Double.parseDouble(a.getLatitude()));
+                double dLat = lat2 - lat1;
+                double dLon = Math.toRadians(Double.parseDouble(a.getLongitude()) - lon);
+                double h = Math.pow(Math.sin(dLat / 2), 2)
+                                + Math.cos(lat1) * Math.cos(lat2) * Math.pow(Math.sin(dLon / 2), 2);
+                return 2 * SphericalKdTree.EARTH_RADIUS_KM * Math.asin(Math.sqrt(h));
+        }
+}
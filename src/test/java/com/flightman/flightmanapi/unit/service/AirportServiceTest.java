@@ -2,6 +2,7 @@ package com.flightman.flightmanapi.unit.service;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import java.util.List;
@@ -19,14 +20,31 @@ import org.springframework.test.context.junit.jupiter.SpringExtension;
 
 import com.flightman.flightmanapi.model.Airport;
 import com.flightman.flightmanapi.repositories.AirportRepository;
+import com.flightman.flightmanapi.services.AirportRegistry;
 import com.flightman.flightmanapi.services.AirportService;
+import com.flightman.flightmanapi.services.DepartureTimeService;
+import com.flightman.flightmanapi.services.ReferenceDataCache;
+import com.flightman.flightmanapi.services.RouteGraphService;
+import com.flightman.flightmanapi.utils.TransactionRunner;
 
 @ExtendWith(SpringExtension.class)
-@ContextConfiguration(classes = { AirportService.class, AirportRepository.class })
+@ContextConfiguration(classes = { AirportService.class, AirportRepository.class, TransactionRunner.class })
 public class AirportServiceTest {
         @MockBean
         private AirportRepository airportRepository;
 
+        @MockBean
+        private AirportRegistry airportRegistry;
+
+        @MockBean
+        private DepartureTimeService departureTimeService;
+
+        @MockBean
+        private RouteGraphService routeGraphService;
+
+        @MockBean
+        private ReferenceDataCache referenceDataCache;
+
         @Autowired
         @InjectMocks
         private AirportService airportService;
@@ -39,21 +57,37 @@ public class AirportServiceTest {
                 Boolean created = airportService.saveAirport(airport);
                 assert (created == true);
                 verify(airportRepository).save(airport);
+                verify(referenceDataCache).evictAirports();
+                verify(airportRegistry).refresh();
+        }
+
+        @Test
+        public void whenSaveAirports_shouldRefreshRegistryOnce() {
+                List<Airport> airports = List.of(new Airport("First", "FST", "1", "2"),
+                                new Airport("Second", "SND", "3", "4"));
+                when(airportRepository.saveAll(airports)).thenReturn(airports);
+                assertEquals(airports, airportService.saveAirports(airports));
+                verify(airportRepository).saveAll(airports);
+                verify(airportRepository, never()).save(any());
+                verify(referenceDataCache).evictAirports();
+                verify(airportRegistry).refresh();
+                verify(routeGraphService, never()).reload();
         }
 
         @Test
         public void shouldReturnAllAirports() {
                 List<Airport> airports = new ArrayList<Airport>();
                 airports.add(new Airport());
-                when(airportRepository.findAll()).thenReturn(airports);
+                when(airportRegistry.findAll()).thenReturn(airports);
                 List<Airport> expected = airportService.find(null);
                 assertEquals(expected, airports);
-                verify(airportRepository).findAll();
+                verify(airportRegistry).findAll();
 
-                when(airportRepository.findByAirportNameContaining(any())).thenReturn(airports);
+                when(airportRegistry.findByNameContaining(any())).thenReturn(airports);
                 List<Airport> expectedNew = airportService.find("Test Non-Null Value");
                 assertEquals(expectedNew, airports);
-                verify(airportRepository).findAll();
+                verify(airportRegistry).findAll();
+                verify(airportRepository, never()).findAll();
 
         }
 
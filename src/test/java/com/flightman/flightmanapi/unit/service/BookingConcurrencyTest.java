@@ -0,0 +1,163 @@
+package com.flightman.flightmanapi.unit.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.when;
+
+import java.sql.Time;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import com.flightman.flightmanapi.model.Airport;
+import com.flightman.flightmanapi.model.Booking;
+import com.flightman.flightmanapi.model.Flight;
+import com.flightman.flightmanapi.model.FlightModel;
+import com.flightman.flightmanapi.model.User;
+import com.flightman.flightmanapi.repositories.BookingRepository;
+import com.flightman.flightmanapi.repositories.SeatHoldRepository;
+import com.flightman.flightmanapi.repositories.FlightRepository;
+import com.flightman.flightmanapi.repositories.LuggageRepository;
+import com.flightman.flightmanapi.repositories.UserRepository;
+import com.flightman.flightmanapi.services.BookingService;
+import com.flightman.flightmanapi.services.DepartureTimeService;
+import com.flightman.flightmanapi.services.RewardsLedgerService;
+import com.flightman.flightmanapi.services.SeatHoldService;
+import com.flightman.flightmanapi.services.FlightInventoryService;
+import com.flightman.flightmanapi.services.SeatInventoryService;
+import com.flightman.flightmanapi.services.SeatLayoutService;
+import com.flightman.flightmanapi.services.UserCache;
+import com.flightman.flightmanapi.utils.TransactionRunner;
+
+/*
+ * Fires concurrent bookings at a single departure. The booking table is
+ * simulated by a set enforcing the (flight, date, seat) unique constraint and
+ * the flight inventory by a conditional counter, so both double booking and
+ * overselling would be detected.
+ */
+@ExtendWith(SpringExtension.class)
+@ContextConfiguration(classes = { BookingService.class, SeatInventoryService.class, SeatLayoutService.class,
+                DepartureTimeService.class, TransactionRunner.class, UserCache.class })
+public class BookingConcurrencyTest {
+        private static final int THREADS = 32;
+        private static final int BOOKINGS = 4000;
+
+        @MockBean
+        private BookingRepository bookingRepository;
+
+        @MockBean
+        private FlightRepository flightRepository;
+
+        @MockBean
+        private UserRepository userRepository;
+
+        @MockBean
+        private RewardsLedgerService rewardsLedgerService;
+
+        @MockBean
+        private LuggageRepository luggageRepository;
+
+        @MockBean
+        private FlightInventoryService flightInventoryService;
+
+        @MockBean
+        private SeatHoldRepository seatHoldRepository;
+
+        @MockBean
+        private SeatHoldService seatHoldService;
+
+        @Autowired
+        private BookingService bookingService;
+
+        private Airport source = new Airport("SourceName", "SN", "Lat", "Long");
+        private Airport dest = new Airport("DestName", "DN", "Lat", "Long");
+        private FlightModel model = new FlightModel("MName", "123a", 120, 20, 6);
+
+        @Test
+        public void concurrentBookingsNeverDoubleBookOrOversell() throws Exception {
+                Flight flight = new Flight(source, dest, model, new Time(100), new Time(500), null, 100);
+                flight.setFlightId(UUID.randomUUID());
+                model.setFlightModelId(1);
+                User user = new User("First", "Last", "123456789", "email@email.com", "ABC456789", "Address", 0, 0);
+                String date = new SimpleDateFormat("MM-dd-yyyy").format(new Date());
+
+                /* A seat booked by another node that this node has not seen yet */
+                Set<String> bookedSeats = ConcurrentHashMap.newKeySet();
+                bookedSeats.add("1A");
+                AtomicInteger seatsRemaining = new AtomicInteger(model.getSeatCapacity() - 1);
+                AtomicInteger conflicts = new AtomicInteger();
+
+                when(flightRepository.findByFlightId(any())).thenReturn(flight);
+                when(userRepository.findByUserId(any())).thenReturn(user);
+                when(rewardsLedgerService.apply(any(), any(), anyInt(), any())).thenReturn(true);
+                when(bookingRepository.findSeatNumbersByFlightAndFlightDate(any(), any()))
+                                .thenReturn(new ArrayList<String>())
+                                .thenAnswer(invocation -> new ArrayList<String>(bookedSeats));
+                when(bookingRepository.save(any())).thenAnswer(invocation -> {
+                        Booking booking = invocation.getArgument(0);
+                        if (!bookedSeats.add(booking.getSeatNumber())) {
+                                conflicts.incrementAndGet();
+                                /* The failed transaction rolls back its inventory update */
+                                seatsRemaining.incrementAndGet();
+                                throw new DataIntegrityViolationException("duplicate seat");
+                        }
+                        return booking;
+                });
+                when(flightInventoryService.reserveSeats(any(), any(), anyInt())).thenAnswer(invocation -> {
+                        int count = invocation.getArgument(2);
+                        return seatsRemaining.getAndUpdate(n -> n >= count ? n - count : n) >= count;
+                });
+                doAnswer(invocation -> seatsRemaining.addAndGet(invocation.getArgument(2)))
+                                .when(flightInventoryService).releaseSeats(any(), any(), anyInt());
+
+                ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+                CountDownLatch start = new CountDownLatch(1);
+                List<Future<Booking>> results = new ArrayList<>();
+                for (int i = 0; i < BOOKINGS; i++) {
+                        results.add(pool.submit(() -> {
+                                start.await();
+                                return bookingService.book(UUID.randomUUID().toString(),
+                                                flight.getFlightId().toString(), null, date, false);
+                        }));
+                }
+                start.countDown();
+
+                Set<String> confirmedSeats = ConcurrentHashMap.newKeySet();
+                int confirmed = 0;
+                for (Future<Booking> result : results) {
+                        Booking booking = result.get(60, TimeUnit.SECONDS);
+                        if (booking != null) {
+                                confirmed++;
+                                assertTrue(confirmedSeats.add(booking.getSeatNumber()),
+                                                "Seat " + booking.getSeatNumber() + " was booked twice");
+                        }
+                }
+                pool.shutdown();
+
+                assertEquals(model.getSeatCapacity() - 1, confirmed);
+                assertEquals(model.getSeatCapacity(), bookedSeats.size());
+                assertEquals(0, seatsRemaining.get());
+                assertEquals(1, conflicts.get());
+        }
+}
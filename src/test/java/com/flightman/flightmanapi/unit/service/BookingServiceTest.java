@@ -3,20 +3,32 @@ package com.flightman.flightmanapi.unit.service;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import java.util.List;
 import java.util.UUID;
 import java.sql.Time;
+import java.time.Duration;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
 import java.text.Format;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.Calendar;
+import java.util.concurrent.locks.ReentrantLock;
 
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
@@ -28,23 +40,36 @@ import org.springframework.test.context.junit.jupiter.SpringExtension;
 import com.flightman.flightmanapi.model.User;
 import com.flightman.flightmanapi.model.Airport;
 import com.flightman.flightmanapi.model.Booking;
+import com.flightman.flightmanapi.model.BulkCheckInResult;
 import com.flightman.flightmanapi.model.Flight;
 import com.flightman.flightmanapi.model.FlightModel;
 import com.flightman.flightmanapi.model.Luggage;
-import com.flightman.flightmanapi.repositories.AirportRepository;
+import com.flightman.flightmanapi.model.RewardsTransaction;
 import com.flightman.flightmanapi.repositories.BookingRepository;
+import com.flightman.flightmanapi.repositories.SeatHoldRepository;
 
 import com.flightman.flightmanapi.repositories.FlightModelRepository;
 import com.flightman.flightmanapi.repositories.FlightRepository;
 import com.flightman.flightmanapi.repositories.LuggageRepository;
 
 import com.flightman.flightmanapi.repositories.UserRepository;
+import com.flightman.flightmanapi.services.AirportRegistry;
+import com.flightman.flightmanapi.services.BookingContext;
 import com.flightman.flightmanapi.services.BookingService;
+import com.flightman.flightmanapi.services.DelayPropagationService;
+import com.flightman.flightmanapi.services.DepartureTimeService;
+import com.flightman.flightmanapi.services.SeatHoldService;
+import com.flightman.flightmanapi.services.FlightInventoryService;
 import com.flightman.flightmanapi.services.FlightService;
+import com.flightman.flightmanapi.services.RewardsLedgerService;
+import com.flightman.flightmanapi.services.RouteGraphService;
+import com.flightman.flightmanapi.services.SeatInventoryService;
+import com.flightman.flightmanapi.services.UserCache;
+import com.flightman.flightmanapi.utils.TransactionRunner;
 
 @ExtendWith(SpringExtension.class)
 @ContextConfiguration(classes = { BookingService.class, BookingRepository.class, FlightRepository.class,
-                FlightService.class })
+                FlightService.class, DepartureTimeService.class, TransactionRunner.class, UserCache.class })
 public class BookingServiceTest {
         @MockBean
         private BookingRepository bookingRepository;
@@ -58,16 +83,40 @@ public class BookingServiceTest {
         @MockBean
         private LuggageRepository luggageRepository;
 
+        @MockBean
+        private RouteGraphService routeGraphService;
+
+        @MockBean
+        private DelayPropagationService delayPropagationService;
+
         @MockBean
         private FlightModelRepository flightModelRepository;
 
         @MockBean
-        private AirportRepository airportRepository;
+        private AirportRegistry airportRegistry;
+
+        @MockBean
+        private SeatInventoryService seatInventoryService;
+
+        @MockBean
+        private FlightInventoryService flightInventoryService;
+
+        @MockBean
+        private SeatHoldRepository seatHoldRepository;
+
+        @MockBean
+        private SeatHoldService seatHoldService;
+
+        @MockBean
+        private RewardsLedgerService rewardsLedgerService;
 
         @Autowired
         @InjectMocks
         private BookingService bookingService;
 
+        @Autowired
+        private UserCache userCache;
+
         private String validUser = "6ec95abc-2d4d-46ec-9174-bd595d380ed8";
         private String validFlight = "4a01bbd4-9d7c-4380-a266-b42ee4c27162";
         private String validBooking = "7a9223a4-820e-42d8-922b-162cea9e5f6e";
@@ -89,6 +138,13 @@ public class BookingServiceTest {
         private Time arrival_time = new Time(500);
         private Flight flight = new Flight(source, dest, model, departure_time, arrival_time, null, 100);
 
+        @BeforeEach
+        public void setUp() {
+                when(seatInventoryService.getDepartureLock(any(), any())).thenReturn(new ReentrantLock());
+                when(rewardsLedgerService.apply(any(), any(), anyInt(), any())).thenReturn(true);
+                userCache.evictAll();
+        }
+
         @Test
         public void shouldReturnAllBookings() {
                 List<Booking> bookings = new ArrayList<Booking>();
@@ -107,6 +163,8 @@ public class BookingServiceTest {
 
                 when(userRepository.findByUserId(any())).thenReturn(user);
                 when(flightRepository.findByFlightId(any())).thenReturn(flight);
+                when(flightInventoryService.reserveSeats(any(), any(), anyInt())).thenReturn(true);
+                when(seatInventoryService.claimSeat(any(), any(), any())).thenReturn("1A");
 
                 when(userRepository.save(any())).thenReturn(true);
                 when(bookingRepository.save(any())).thenReturn(new Booking());
@@ -119,7 +177,8 @@ public class BookingServiceTest {
                                 "01-01-2022",
                                 false);
 
-                assertTrue(user.getRewardsMiles() > initial);
+                verify(rewardsLedgerService).apply(any(), any(), eq(10), eq(RewardsTransaction.Reason.BOOKING_EARNED));
+                verify(userRepository, never()).save(any());
         }
 
         @Test
@@ -130,19 +189,23 @@ public class BookingServiceTest {
 
                 when(userRepository.findByUserId(any())).thenReturn(user);
                 when(flightRepository.findByFlightId(any())).thenReturn(flight);
+                when(flightInventoryService.reserveSeats(any(), any(), anyInt())).thenReturn(true);
+                when(seatInventoryService.claimSeat(any(), any(), any())).thenReturn("1A");
 
                 when(userRepository.save(any())).thenReturn(true);
-                when(bookingRepository.save(any())).thenReturn(true);
+                when(bookingRepository.save(any())).thenReturn(new Booking());
                 when(flightRepository.save(any())).thenReturn(true);
 
-                bookingService.book(
+                Booking expected = bookingService.book(
                                 "7a9223a4-820e-42d8-922b-162cea9e5f6e",
                                 "7a9223a4-820e-42d8-922b-162cea9e5f6e",
                                 "1A",
                                 "01-01-2022",
                                 true);
 
-                assertEquals(user.getRewardsMiles(), 0);
+                assertNotNull(expected);
+                verify(rewardsLedgerService).apply(any(), any(), eq(-100),
+                                eq(RewardsTransaction.Reason.BOOKING_REDEEMED));
         }
 
         @Test
@@ -167,6 +230,24 @@ public class BookingServiceTest {
 
                 assertEquals(user.getRewardsMiles(), 50);
                 assertEquals(null, expected);
+                verify(rewardsLedgerService, never()).apply(any(), any(), anyInt(), any());
+        }
+
+        @Test
+        public void bookFailsWhenPointsAreSpentConcurrently() throws Exception {
+                User user = new User("First", "Last", "123456789", "email@email.com", "ABC456789", "Address", 0, 100);
+
+                when(userRepository.findByUserId(any())).thenReturn(user);
+                when(flightRepository.findByFlightId(any())).thenReturn(flight);
+                when(flightInventoryService.reserveSeats(any(), any(), anyInt())).thenReturn(true);
+                when(seatInventoryService.claimSeat(any(), any(), any())).thenReturn("1A");
+                when(bookingRepository.save(any())).thenReturn(new Booking());
+                when(rewardsLedgerService.apply(any(), any(), anyInt(), any())).thenReturn(false);
+
+                Booking expected = bookingService.book(validUser, validFlight, "1A", "01-01-2022", true);
+
+                assertNull(expected);
+                verify(seatInventoryService).evictDeparture(any(), any());
         }
 
         @Test
@@ -189,7 +270,9 @@ public class BookingServiceTest {
                                 later);
 
                 assertTrue(expected);
-                assertTrue(user.getRewardsMiles() > initial);
+                verify(rewardsLedgerService).apply(any(), any(), eq(100),
+                                eq(RewardsTransaction.Reason.BOOKING_REFUNDED));
+                verify(userRepository, never()).save(any());
         }
 
         @Test
@@ -202,11 +285,40 @@ public class BookingServiceTest {
                 when(bookingRepository.findByFlightAndFlightDate(any(), any())).thenReturn(bookings);
                 when(flightRepository.findByFlightId(any())).thenReturn(flight);
                 when(userRepository.findByUserId(any())).thenReturn(user);
+                when(flightInventoryService.reserveSeats(any(), any(), anyInt())).thenReturn(true);
+                when(seatInventoryService.claimSeat(any(), any(), any())).thenReturn("1A");
                 when(bookingRepository.save(any())).thenReturn(booking);
                 Booking expected = bookingService.book(validUser, validFlight, null, tomorrowDateString, false);
                 assertNotNull(expected);
         }
 
+        @Test
+        public void bookFailureNoSeat() throws ParseException {
+                Date tomorrowDate = new Date(new Date().getTime() + (1000 * 60 * 60 * 24));
+                String tomorrowDateString = f.format(tomorrowDate);
+
+                when(flightRepository.findByFlightId(any())).thenReturn(flight);
+                when(userRepository.findByUserId(any())).thenReturn(user);
+                when(flightInventoryService.reserveSeats(any(), any(), anyInt())).thenReturn(true);
+                when(seatInventoryService.claimSeat(any(), any(), any())).thenReturn(null);
+                Booking expected = bookingService.book(validUser, validFlight, "1A", tomorrowDateString, false);
+                assertEquals(null, expected);
+                verify(flightInventoryService).releaseSeats(any(), any(), eq(1));
+        }
+
+        @Test
+        public void bookFailureSoldOut() throws ParseException {
+                Date tomorrowDate = new Date(new Date().getTime() + (1000 * 60 * 60 * 24));
+                String tomorrowDateString = f.format(tomorrowDate);
+
+                when(flightRepository.findByFlightId(any())).thenReturn(flight);
+                when(userRepository.findByUserId(any())).thenReturn(user);
+                when(flightInventoryService.reserveSeats(any(), any(), anyInt())).thenReturn(false);
+                Booking expected = bookingService.book(validUser, validFlight, null, tomorrowDateString, false);
+                assertEquals(null, expected);
+                verify(seatInventoryService, never()).claimSeat(any(), any(), any());
+        }
+
         @Test
         public void getLuggageCheckInStatusTrue() throws ParseException {
                 Luggage luggage = new Luggage();
@@ -237,11 +349,52 @@ public class BookingServiceTest {
                 booking.setFlight(flight);
                 booking.setFlightDate(tomorrowDate);
                 when(bookingRepository.findByBookingId(any())).thenReturn(booking);
-                when(bookingRepository.deleteById(booking.getBookingId())).thenReturn(0);
+                when(bookingRepository.deleteById(booking.getBookingId())).thenReturn(1);
                 when(userRepository.findByUserId(userId)).thenReturn(user);
                 Boolean isDeleteBookingSuccess = bookingService.deleteBooking(booking.getBookingId().toString(),
                                 userId.toString());
                 assertTrue(isDeleteBookingSuccess);
+                verify(flightInventoryService).releaseSeats(flight, tomorrowDate, 1);
+                verify(seatInventoryService).releaseSeat(flight, tomorrowDate, booking.getSeatNumber());
+        }
+
+        @Test
+        public void deleteBookingAlreadyCancelledReleasesNothing() {
+                Date tomorrowDate = new Date(new Date().getTime() + (1000 * 60 * 60 * 24));
+                UUID userId = UUID.randomUUID();
+                user.setUserId(userId);
+                flight.setFlightId(UUID.randomUUID());
+                booking.setBookingId(UUID.randomUUID());
+                booking.setUser(user);
+                booking.setFlight(flight);
+                booking.setFlightDate(tomorrowDate);
+                when(bookingRepository.findByBookingId(any())).thenReturn(booking);
+                when(bookingRepository.deleteById(booking.getBookingId())).thenReturn(0);
+
+                assertFalse(bookingService.deleteBooking(booking.getBookingId().toString(), userId.toString()));
+                verify(flightInventoryService, never()).releaseSeats(any(), any(), anyInt());
+                verify(seatInventoryService, never()).releaseSeat(any(), any(), any());
+                verify(rewardsLedgerService, never()).apply(any(), any(), anyInt(), any());
+        }
+
+        @Test
+        public void deleteBookingFailedRefundReloadsTheSeatMap() {
+                Date flightDate = new Date(new Date().getTime() + (1000L * 60 * 60 * 24 * 10));
+                UUID userId = UUID.randomUUID();
+                user.setUserId(userId);
+                flight.setFlightId(UUID.randomUUID());
+                booking.setBookingId(UUID.randomUUID());
+                booking.setUser(user);
+                booking.setFlight(flight);
+                booking.setFlightDate(flightDate);
+                when(bookingRepository.findByBookingId(any())).thenReturn(booking);
+                when(bookingRepository.deleteById(booking.getBookingId())).thenReturn(1);
+                when(rewardsLedgerService.apply(any(), any(), anyInt(), any()))
+                                .thenThrow(new IllegalStateException("ledger unavailable"));
+
+                assertThrows(IllegalStateException.class,
+                                () -> bookingService.deleteBooking(booking.getBookingId().toString(), userId.toString()));
+                verify(seatInventoryService).evictDeparture(flight, flightDate);
         }
 
         @Test
@@ -307,4 +460,206 @@ public class BookingServiceTest {
                 s = bookingService.checkInUser(expected.getBookingId());
                 assert (s == "User is checked in already!");
         }
+
+        @Test
+        public void bookGroupSavesAllBookingsTogether() {
+                User first = new User("First", "Last", "123456789", "a@email.com", "ABC1", "Address", 0, 100);
+                first.setUserId(UUID.randomUUID());
+                User second = new User("Second", "Last", "123456789", "b@email.com", "ABC2", "Address", 0, 100);
+                second.setUserId(UUID.randomUUID());
+                List<User> users = new ArrayList<User>();
+                users.add(first);
+                users.add(second);
+                List<String> seats = new ArrayList<String>();
+                seats.add("3B");
+                seats.add("3C");
+                seats.add("3D");
+                List<String> userIds = new ArrayList<String>();
+                userIds.add(first.getUserId().toString());
+                userIds.add(second.getUserId().toString());
+                userIds.add(first.getUserId().toString());
+
+                when(userRepository.findByUserIdIn(any())).thenReturn(users);
+                when(flightRepository.findByFlightId(any())).thenReturn(flight);
+                when(flightInventoryService.reserveSeats(any(), any(), eq(3))).thenReturn(true);
+                when(seatInventoryService.claimAdjacentSeats(any(), any(), eq(3))).thenReturn(seats);
+                when(bookingRepository.saveAll(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+                List<Booking> bookings = bookingService.bookGroup(userIds, validFlight, "01-01-2030", false);
+                assertEquals(3, bookings.size());
+                assertEquals("3C", bookings.get(1).getSeatNumber());
+                assertEquals(second, bookings.get(1).getUser());
+                verify(rewardsLedgerService, times(2)).apply(eq(first.getUserId()), any(), eq(10),
+                                eq(RewardsTransaction.Reason.BOOKING_EARNED));
+                verify(rewardsLedgerService).apply(eq(second.getUserId()), any(), eq(10),
+                                eq(RewardsTransaction.Reason.BOOKING_EARNED));
+                verify(userRepository, never()).findByUserId(any());
+                verify(userRepository, never()).saveAll(any());
+                verify(bookingRepository, never()).save(any());
+        }
+
+        @Test
+        public void bookGroupFailsWithoutEnoughPoints() {
+                User first = new User("First", "Last", "123456789", "a@email.com", "ABC1", "Address", 0, 150);
+                first.setUserId(UUID.randomUUID());
+                List<User> users = new ArrayList<User>();
+                users.add(first);
+                List<String> userIds = new ArrayList<String>();
+                userIds.add(first.getUserId().toString());
+                userIds.add(first.getUserId().toString());
+
+                when(userRepository.findByUserIdIn(any())).thenReturn(users);
+                when(flightRepository.findByFlightId(any())).thenReturn(flight);
+
+                assertNull(bookingService.bookGroup(userIds, validFlight, "01-01-2030", true));
+                assertEquals(150, first.getRewardsMiles());
+                verify(flightInventoryService, never()).reserveSeats(any(), any(), anyInt());
+                verify(bookingRepository, never()).saveAll(any());
+        }
+
+        @Test
+        public void bookGroupReleasesInventoryWhenNoSeats() {
+                User first = new User("First", "Last", "123456789", "a@email.com", "ABC1", "Address", 0, 150);
+                first.setUserId(UUID.randomUUID());
+                List<User> users = new ArrayList<User>();
+                users.add(first);
+                List<String> userIds = new ArrayList<String>();
+                userIds.add(first.getUserId().toString());
+                userIds.add(UUID.randomUUID().toString());
+
+                when(userRepository.findByUserIdIn(any())).thenReturn(users);
+                when(flightRepository.findByFlightId(any())).thenReturn(flight);
+                assertNull(bookingService.bookGroup(userIds, validFlight, "01-01-2030", false));
+
+                users.add(new User("Second", "Last", "123456789", "b@email.com", "ABC2", "Address", 0, 100));
+                users.get(1).setUserId(UUID.fromString(userIds.get(1)));
+                when(flightInventoryService.reserveSeats(any(), any(), eq(2))).thenReturn(true);
+                when(seatInventoryService.claimAdjacentSeats(any(), any(), eq(2))).thenReturn(null);
+                assertNull(bookingService.bookGroup(userIds, validFlight, "01-01-2030", false));
+                verify(flightInventoryService).releaseSeats(any(), any(), eq(2));
+                verify(bookingRepository, never()).saveAll(any());
+        }
+
+        @Test
+        public void luggageCheckInFailsIfLuggageWasCheckedInConcurrently() {
+                Booking soon = bookingDepartingIn(Duration.ofMinutes(30), null);
+                when(luggageRepository.save(any())).thenReturn(randomLuggage);
+                when(bookingRepository.attachLuggage(any(), any())).thenReturn(0);
+
+                BookingContext context = bookingService.loadBookingContext(soon.getBookingId().toString());
+                assertFalse(bookingService.checkInLuggage(context, 1, 25));
+                assertNull(soon.getLuggage());
+        }
+
+        private Booking bookingDepartingIn(final Duration untilDeparture, final Time delayTime) {
+                Airport tokyo = new Airport("Haneda", "HND", "Lat", "Long");
+                tokyo.setTimeZone("Asia/Tokyo");
+                ZonedDateTime departure = ZonedDateTime.now(ZoneId.of("Asia/Tokyo")).plus(untilDeparture);
+                Flight departing = new Flight(tokyo, dest, model, Time.valueOf(departure.toLocalTime()), arrival_time,
+                                delayTime, 100);
+                departing.setFlightId(UUID.randomUUID());
+                Date d = Date.from(departure.toLocalDate().atStartOfDay(ZoneId.systemDefault()).toInstant());
+                Booking b = new Booking(user, departing, "1A", true, false, d);
+                b.setBookingId(UUID.randomUUID());
+                when(bookingRepository.findByBookingId(b.getBookingId())).thenReturn(b);
+                return b;
+        }
+
+        @Test
+        public void checkInWindowUsesDepartureAirportTimeZone() {
+                Booking soon = bookingDepartingIn(Duration.ofMinutes(90), null);
+                assertTrue(bookingService.validateCheckInTime(soon.getBookingId().toString()));
+                assertEquals(-1.5f, bookingService.getTimeToFlightDeparture(soon), 0.01f);
+
+                Booking later = bookingDepartingIn(Duration.ofHours(3), null);
+                assertFalse(bookingService.validateCheckInTime(later.getBookingId().toString()));
+
+                Booking departed = bookingDepartingIn(Duration.ofMinutes(-30), null);
+                assertFalse(bookingService.validateCheckInTime(departed.getBookingId().toString()));
+        }
+
+        @Test
+        public void checkInWindowMovesWithDelay() {
+                Booking delayed = bookingDepartingIn(Duration.ofMinutes(-30), Time.valueOf("01:00:00"));
+                assertTrue(bookingService.validateCheckInTime(delayed.getBookingId().toString()));
+                assertEquals("Successfully checked in", bookingService.checkInUser(delayed.getBookingId()));
+        }
+
+        @Test
+        public void luggageCheckInLoadsBookingOnce() {
+                Booking soon = bookingDepartingIn(Duration.ofMinutes(30), null);
+                when(luggageRepository.save(any())).thenReturn(randomLuggage);
+                when(bookingRepository.attachLuggage(soon.getBookingId(), randomLuggage)).thenReturn(1);
+
+                BookingContext context = bookingService.loadBookingContext(soon.getBookingId().toString());
+                assertTrue(bookingService.validateCheckInTime(context));
+                assertFalse(bookingService.getLuggageCheckInStatus(context));
+                assertTrue(bookingService.checkInLuggage(context, 1, 25));
+                assertEquals(randomLuggage, soon.getLuggage());
+                assertTrue(bookingService.getLuggageCheckInStatus(context));
+                verify(bookingRepository, times(1)).findByBookingId(soon.getBookingId());
+                verify(bookingRepository).attachLuggage(soon.getBookingId(), randomLuggage);
+                verify(bookingRepository, never()).save(any());
+
+                assertNull(bookingService.loadBookingContext("notAUUID"));
+                assertNull(bookingService.loadBookingContext(UUID.randomUUID().toString()));
+        }
+
+        private BookingRepository.CheckInState checkInState(final UUID bookingId, final Boolean userCheckIn) {
+                BookingRepository.CheckInState state = mock(BookingRepository.CheckInState.class);
+                when(state.getBookingId()).thenReturn(bookingId);
+                when(state.getUserCheckIn()).thenReturn(userCheckIn);
+                return state;
+        }
+
+        @Test
+        public void bulkCheckInUpdatesEligibleBookingsAtOnce() {
+                Booking soon = bookingDepartingIn(Duration.ofMinutes(45), null);
+                Flight departing = soon.getFlight();
+                String date = f.format(soon.getFlightDate());
+                UUID open = UUID.randomUUID();
+                UUID done = UUID.randomUUID();
+                UUID fresh = UUID.randomUUID();
+                List<BookingRepository.CheckInState> states = new ArrayList<BookingRepository.CheckInState>();
+                states.add(checkInState(open, false));
+                states.add(checkInState(done, true));
+                states.add(checkInState(fresh, null));
+                when(flightRepository.findByFlightId(departing.getFlightId())).thenReturn(departing);
+                when(bookingRepository.findCheckInStatesByFlightAndFlightDate(eq(departing), any())).thenReturn(states);
+                when(bookingRepository.checkInBookings(eq(departing), any(), any())).thenReturn(2);
+
+                List<String> ids = new ArrayList<String>();
+                ids.add(open.toString());
+                ids.add(done.toString());
+                ids.add("notAUUID");
+                BulkCheckInResult result = bookingService.bulkCheckIn(departing.getFlightId().toString(), date, ids);
+                assertTrue(result.isCheckInOpen());
+                assertEquals("Successfully checked in", result.getResults().get(0).getStatus());
+                assertEquals("User is checked in already!", result.getResults().get(1).getStatus());
+                assertEquals("No bookingID", result.getResults().get(2).getStatus());
+
+                result = bookingService.bulkCheckIn(departing.getFlightId().toString(), date, null);
+                assertEquals(3, result.getResults().size());
+                assertEquals(2, result.getCheckedIn());
+                verify(bookingRepository, times(2)).checkInBookings(eq(departing), any(), any());
+                verify(bookingRepository, never()).findByBookingId(any());
+        }
+
+        @Test
+        public void bulkCheckInOutsideWindowUpdatesNothing() {
+                Booking later = bookingDepartingIn(Duration.ofHours(5), null);
+                Flight departing = later.getFlight();
+                List<BookingRepository.CheckInState> states = new ArrayList<BookingRepository.CheckInState>();
+                states.add(checkInState(later.getBookingId(), false));
+                when(flightRepository.findByFlightId(departing.getFlightId())).thenReturn(departing);
+                when(bookingRepository.findCheckInStatesByFlightAndFlightDate(eq(departing), any())).thenReturn(states);
+
+                BulkCheckInResult result = bookingService.bulkCheckIn(departing.getFlightId().toString(),
+                                f.format(later.getFlightDate()), null);
+                assertFalse(result.isCheckInOpen());
+                assertEquals("Cannot check in right now", result.getResults().get(0).getStatus());
+                verify(bookingRepository, never()).checkInBookings(any(), any(), any());
+                assertNull(bookingService.bulkCheckIn(UUID.randomUUID().toString(), "01-01-2030", null));
+                assertNull(bookingService.bulkCheckIn(departing.getFlightId().toString(), "notADate", null));
+        }
 }
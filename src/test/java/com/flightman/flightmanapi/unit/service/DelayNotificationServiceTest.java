@@ -0,0 +1,86 @@
+package com.flightman.flightmanapi.unit.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.verify;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import com.flightman.flightmanapi.model.DelayEvent;
+import com.flightman.flightmanapi.services.DelayNotificationService;
+import com.flightman.flightmanapi.services.DelayPropagationService;
+
+@ExtendWith(SpringExtension.class)
+@ContextConfiguration(classes = { DelayNotificationService.class })
+public class DelayNotificationServiceTest {
+        @MockBean
+        private DelayPropagationService delayPropagationService;
+
+        @Autowired
+        private DelayNotificationService delayNotificationService;
+
+        private final UUID flightId = UUID.randomUUID();
+
+        private final Date flightDate = Date.from(LocalDate.of(2030, 1, 1).atStartOfDay(ZoneId.systemDefault())
+                        .toInstant());
+
+        @Test
+        public void subscribesToDelayEvents() {
+                // The mock forgets the subscription made at startup after the first test
+                delayNotificationService.init();
+                verify(delayPropagationService, atLeastOnce()).subscribe(any());
+        }
+
+        @Test
+        public void everyAffectedUserIsNotifiedOnce() {
+                UUID traveller = UUID.randomUUID();
+                UUID connecting = UUID.randomUUID();
+                UUID booking = UUID.randomUUID();
+                UUID onwardFlight = UUID.randomUUID();
+                UUID onwardBooking = UUID.randomUUID();
+                List<DelayEvent> events = List.of(
+                                new DelayEvent(DelayEvent.Type.FLIGHT_DELAYED, flightId, flightDate, booking, traveller, 90,
+                                                Instant.now(), null, null, null),
+                                new DelayEvent(DelayEvent.Type.FLIGHT_DELAYED, flightId, flightDate, booking, connecting,
+                                                90, Instant.now(), null, null, null),
+                                new DelayEvent(DelayEvent.Type.CONNECTION_AT_RISK, flightId, flightDate, booking,
+                                                connecting, 90, Instant.now(), onwardBooking, onwardFlight, 15));
+
+                Map<UUID, List<String>> notifications = delayNotificationService.notifyPassengers(events);
+
+                assertEquals(List.of(traveller, connecting), List.copyOf(notifications.keySet()));
+                assertEquals(List.of("Flight " + flightId + " on 2030-01-01 of booking " + booking
+                                + " is delayed by 90 minutes."), notifications.get(traveller));
+                assertEquals(2, notifications.get(connecting).size());
+                assertEquals("Flight " + flightId + " on 2030-01-01 is delayed by 90 minutes, leaving 15 minutes to "
+                                + "connect to flight " + onwardFlight + " of booking " + onwardBooking + ".",
+                                notifications.get(connecting).get(1));
+        }
+
+        @Test
+        public void clearedDelayIsNotReportedAsDelay() {
+                UUID traveller = UUID.randomUUID();
+                UUID booking = UUID.randomUUID();
+                List<DelayEvent> events = List.of(new DelayEvent(DelayEvent.Type.DELAY_CLEARED, flightId, flightDate,
+                                booking, traveller, 0, Instant.now(), null, null, null));
+
+                Map<UUID, List<String>> notifications = delayNotificationService.notifyPassengers(events);
+
+                assertEquals(List.of("Flight " + flightId + " on 2030-01-01 of booking " + booking
+                                + " is no longer delayed."), notifications.get(traveller));
+        }
+}
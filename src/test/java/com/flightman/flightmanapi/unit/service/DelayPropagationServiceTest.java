@@ -0,0 +1,161 @@
+package com.flightman.flightmanapi.unit.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.sql.Time;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import com.flightman.flightmanapi.model.Airport;
+import com.flightman.flightmanapi.model.DelayEvent;
+import com.flightman.flightmanapi.model.Flight;
+import com.flightman.flightmanapi.model.FlightModel;
+import com.flightman.flightmanapi.repositories.BookingRepository;
+import com.flightman.flightmanapi.repositories.FlightRepository;
+import com.flightman.flightmanapi.services.DelayPropagationService;
+import com.flightman.flightmanapi.services.DepartureTimeService;
+
+@ExtendWith(SpringExtension.class)
+@ContextConfiguration(classes = { DelayPropagationService.class, DepartureTimeService.class })
+public class DelayPropagationServiceTest {
+        @MockBean
+        private BookingRepository bookingRepository;
+
+        @MockBean
+        private FlightRepository flightRepository;
+
+        @Autowired
+        private DelayPropagationService delayPropagationService;
+
+        private FlightModel model = new FlightModel("MName", "123a", 120, 20, 6);
+
+        private Airport a = airport("AAA");
+        private Airport b = airport("BBB");
+        private Airport c = airport("CCC");
+
+        private Flight delayed = flight(a, b, "08:00", "10:00");
+        private Flight tight = flight(b, c, "11:00", "12:00");
+        private Flight relaxed = flight(b, c, "13:00", "14:00");
+        private Flight earlier = flight(b, c, "09:00", "10:00");
+
+        private Date today = Date.from(LocalDate.now().atStartOfDay(ZoneId.systemDefault()).toInstant());
+
+        private static Airport airport(final String abv) {
+                Airport airport = new Airport(abv + " Airport", abv, "Lat", "Long");
+                airport.setAirportId(UUID.randomUUID());
+                airport.setTimeZone("UTC");
+                return airport;
+        }
+
+        private Flight flight(final Airport source, final Airport dest, final String departure, final String arrival) {
+                Flight flight = new Flight(source, dest, model, Time.valueOf(departure + ":00"),
+                                Time.valueOf(arrival + ":00"), null, 100);
+                flight.setFlightId(UUID.randomUUID());
+                flight.setDurationMinutes(120);
+                return flight;
+        }
+
+        private BookingRepository.DepartureBooking booking(final UUID bookingId, final UUID userId) {
+                BookingRepository.DepartureBooking booking = mock(BookingRepository.DepartureBooking.class);
+                when(booking.getBookingId()).thenReturn(bookingId);
+                when(booking.getUserId()).thenReturn(userId);
+                when(booking.getFlightDate()).thenReturn(today);
+                return booking;
+        }
+
+        private BookingRepository.OnwardBooking onward(final UUID bookingId, final UUID userId, final Flight next) {
+                BookingRepository.OnwardBooking booking = mock(BookingRepository.OnwardBooking.class);
+                when(booking.getBookingId()).thenReturn(bookingId);
+                when(booking.getUserId()).thenReturn(userId);
+                when(booking.getFlightDate()).thenReturn(today);
+                when(booking.getOnwardBookingId()).thenReturn(UUID.randomUUID());
+                when(booking.getOnwardFlightId()).thenReturn(next.getFlightId());
+                when(booking.getOnwardFlightDate()).thenReturn(today);
+                return booking;
+        }
+
+        @BeforeEach
+        public void setUp() {
+                delayed.setDelayTime(Time.valueOf("01:00:00"));
+                UUID first = UUID.randomUUID();
+                UUID second = UUID.randomUUID();
+                UUID user = UUID.randomUUID();
+                List<BookingRepository.DepartureBooking> bookings = List.of(booking(first, user),
+                                booking(second, UUID.randomUUID()));
+                List<BookingRepository.OnwardBooking> onwards = List.of(onward(first, user, tight),
+                                onward(first, user, relaxed), onward(first, user, earlier));
+                when(bookingRepository.findDepartureBookingsBetween(eq(delayed), any(), any())).thenReturn(bookings);
+                when(bookingRepository.findOnwardBookingsBetween(eq(delayed), eq(b), any(), any(), any()))
+                                .thenReturn(onwards);
+                when(flightRepository.findByFlightIdIn(Set.of(tight.getFlightId(), relaxed.getFlightId(),
+                                earlier.getFlightId()))).thenReturn(List.of(tight, relaxed, earlier));
+        }
+
+        @Test
+        public void propagatesDelayToPassengersAndMissedConnections() {
+                List<DelayEvent> events = delayPropagationService.propagate(delayed);
+                assertEquals(3, events.size());
+                assertEquals(2, events.stream().filter(e -> e.getType() == DelayEvent.Type.FLIGHT_DELAYED).count());
+                assertTrue(events.stream().allMatch(e -> e.getDelayMinutes() == 60));
+
+                List<DelayEvent> atRisk = events.stream()
+                                .filter(e -> e.getType() == DelayEvent.Type.CONNECTION_AT_RISK).toList();
+                assertEquals(1, atRisk.size());
+                assertEquals(tight.getFlightId(), atRisk.get(0).getOnwardFlightId());
+                assertEquals(0, atRisk.get(0).getConnectionMinutes());
+        }
+
+        @Test
+        public void clearedDelayIsReportedToPassengersOnly() {
+                delayed.setDelayTime(Time.valueOf("00:00:00"));
+
+                List<DelayEvent> events = delayPropagationService.propagate(delayed);
+
+                assertEquals(2, events.size());
+                assertTrue(events.stream().allMatch(e -> e.getType() == DelayEvent.Type.DELAY_CLEARED));
+                assertTrue(events.stream().allMatch(e -> e.getDelayMinutes() == 0));
+        }
+
+        @Test
+        public void publishesEventsInBackground() throws InterruptedException {
+                List<DelayEvent> received = new ArrayList<>();
+                CountDownLatch latch = new CountDownLatch(3);
+                Consumer<List<DelayEvent>> consumer = batch -> {
+                        synchronized (received) {
+                                received.addAll(batch);
+                        }
+                        batch.forEach(e -> latch.countDown());
+                };
+                delayPropagationService.subscribe(consumer);
+                try {
+                        delayPropagationService.delayChanged(delayed);
+                        assertTrue(latch.await(10, TimeUnit.SECONDS));
+                        synchronized (received) {
+                                assertEquals(3, received.size());
+                        }
+                } finally {
+                        delayPropagationService.unsubscribe(consumer);
+                }
+        }
+}
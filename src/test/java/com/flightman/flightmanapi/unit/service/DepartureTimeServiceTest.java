@@ -0,0 +1,84 @@
+package com.flightman.flightmanapi.unit.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.sql.Time;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.flightman.flightmanapi.model.Airport;
+import com.flightman.flightmanapi.model.Flight;
+import com.flightman.flightmanapi.model.FlightModel;
+import com.flightman.flightmanapi.services.DepartureTimeService;
+
+@ExtendWith(SpringExtension.class)
+@ContextConfiguration(classes = { DepartureTimeService.class })
+public class DepartureTimeServiceTest {
+        @Autowired
+        private DepartureTimeService departureTimeService;
+
+        private Airport source = new Airport("Source", "SRC", "1", "2");
+
+        private Airport dest = new Airport("Dest", "DST", "3", "4");
+
+        private Flight flight = new Flight(source, dest, new FlightModel("MName", "123a", 120, 20, 6),
+                        Time.valueOf("09:00:00"), Time.valueOf("11:00:00"), null, 100);
+
+        private LocalDate day = LocalDate.of(2030, 1, 15);
+
+        private Date flightDate = Date.from(day.atStartOfDay(ZoneId.systemDefault()).toInstant());
+
+        @BeforeEach
+        public void setUp() {
+                source.setTimeZone("UTC");
+                flight.setFlightId(UUID.randomUUID());
+                departureTimeService.evictAll();
+        }
+
+        private Instant at(final String time) {
+                return day.atTime(Time.valueOf(time).toLocalTime()).atZone(ZoneId.of("UTC")).toInstant();
+        }
+
+        @Test
+        public void departureIsCachedUntilTheFlightIsEvicted() {
+                assertEquals(at("09:00:00"), departureTimeService.getDepartureInstant(flight, flightDate));
+
+                flight.setDelayTime(Time.valueOf("00:30:00"));
+                assertEquals(at("09:00:00"), departureTimeService.getDepartureInstant(flight, flightDate));
+
+                departureTimeService.evictFlight(flight.getFlightId());
+                assertEquals(at("09:30:00"), departureTimeService.getDepartureInstant(flight, flightDate));
+        }
+
+        @Test
+        public void departureReadBeforeTheCommitIsEvictedAgain() {
+                TransactionSynchronizationManager.initSynchronization();
+                try {
+                        departureTimeService.evictFlight(flight.getFlightId());
+                        // A concurrent reader still sees the uncommitted old time
+                        assertEquals(at("09:00:00"), departureTimeService.getDepartureInstant(flight, flightDate));
+                        flight.setDepartureTime(Time.valueOf("10:00:00"));
+
+                        for (TransactionSynchronization synchronization : TransactionSynchronizationManager
+                                        .getSynchronizations()) {
+                                synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+                        }
+                } finally {
+                        TransactionSynchronizationManager.clearSynchronization();
+                }
+
+                assertEquals(at("10:00:00"), departureTimeService.getDepartureInstant(flight, flightDate));
+        }
+}
@@ -0,0 +1,157 @@
+package com.flightman.flightmanapi.unit.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Time;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import com.flightman.flightmanapi.model.Airport;
+import com.flightman.flightmanapi.model.Flight;
+import com.flightman.flightmanapi.model.FlightAvailability;
+import com.flightman.flightmanapi.model.FlightInventory;
+import com.flightman.flightmanapi.model.FlightModel;
+import com.flightman.flightmanapi.repositories.BookingRepository;
+import com.flightman.flightmanapi.repositories.FlightInventoryRepository;
+import com.flightman.flightmanapi.services.FlightInventoryService;
+import com.flightman.flightmanapi.services.SeatLayoutService;
+
+@ExtendWith(SpringExtension.class)
+@ContextConfiguration(classes = { FlightInventoryService.class, SeatLayoutService.class })
+public class FlightInventoryServiceTest {
+        @MockBean
+        private FlightInventoryRepository flightInventoryRepository;
+
+        @MockBean
+        private BookingRepository bookingRepository;
+
+        @Autowired
+        private FlightInventoryService flightInventoryService;
+
+        private Airport source = new Airport("SourceName", "SN", "Lat", "Long");
+        private Airport dest = new Airport("DestName", "DN", "Lat", "Long");
+        private FlightModel model = new FlightModel("MName", "123a", 120, 20, 6);
+        private Flight flight = new Flight(source, dest, model, new Time(100), new Time(500), null, 100);
+        private Date date = new Date();
+
+        @Test
+        public void reserveSeatsUsesConditionalUpdate() {
+                when(flightInventoryRepository.reserveSeats(flight, date, 1)).thenReturn(1);
+                assertTrue(flightInventoryService.reserveSeats(flight, date, 1));
+                verify(flightInventoryRepository, never()).findByFlightAndFlightDate(any(), any());
+                verify(bookingRepository, never()).countByFlightAndFlightDate(any(), any());
+        }
+
+        @Test
+        public void reserveSeatsFailsWhenSoldOut() {
+                when(flightInventoryRepository.reserveSeats(flight, date, 1)).thenReturn(0);
+                when(flightInventoryRepository.findByFlightAndFlightDate(flight, date))
+                                .thenReturn(new FlightInventory(flight, date, 120, 0));
+                assertFalse(flightInventoryService.reserveSeats(flight, date, 1));
+                verify(flightInventoryRepository, never()).save(any());
+        }
+
+        @Test
+        public void reserveSeatsSeedsInventoryFromBookings() {
+                when(flightInventoryRepository.reserveSeats(flight, date, 1)).thenReturn(0, 1);
+                when(flightInventoryRepository.findByFlightAndFlightDate(flight, date)).thenReturn(null);
+                when(bookingRepository.countByFlightAndFlightDate(flight, date)).thenReturn(20L);
+                assertTrue(flightInventoryService.reserveSeats(flight, date, 1));
+
+                ArgumentCaptor<FlightInventory> captor = ArgumentCaptor.forClass(FlightInventory.class);
+                verify(flightInventoryRepository).save(captor.capture());
+                assertEquals(20, captor.getValue().getSeatsSold());
+                assertEquals(100, captor.getValue().getSeatsRemaining());
+        }
+
+        @Test
+        public void getSeatsRemaining() {
+                when(flightInventoryRepository.findByFlightAndFlightDate(flight, date))
+                                .thenReturn(new FlightInventory(flight, date, 30, 90));
+                assertEquals(90, flightInventoryService.getSeatsRemaining(flight, date));
+
+                Date otherDate = new Date(date.getTime() + 1000 * 60 * 60 * 24);
+                when(flightInventoryRepository.findByFlightAndFlightDate(flight, otherDate)).thenReturn(null);
+                when(bookingRepository.countByFlightAndFlightDate(flight, otherDate)).thenReturn(5L);
+                assertEquals(115, flightInventoryService.getSeatsRemaining(flight, otherDate));
+                verify(flightInventoryRepository, never()).reserveSeats(any(), any(), anyInt());
+        }
+
+        @Test
+        public void availabilityMergesInventoryAndBookingCounts() throws ParseException {
+                SimpleDateFormat format = new SimpleDateFormat("MM-dd-yyyy");
+                Date from = format.parse("03-01-2030");
+                Date to = format.parse("03-04-2030");
+                FlightInventoryRepository.DailySeatsRemaining tracked = mock(
+                                FlightInventoryRepository.DailySeatsRemaining.class);
+                when(tracked.getFlightDate()).thenReturn(format.parse("03-01-2030"));
+                when(tracked.getSeatsRemaining()).thenReturn(7);
+                BookingRepository.DailySeatsSold untracked = mock(BookingRepository.DailySeatsSold.class);
+                when(untracked.getFlightDate()).thenReturn(format.parse("03-03-2030"));
+                when(untracked.getSeatsSold()).thenReturn(20L);
+                when(flightInventoryRepository.findSeatsRemainingBetween(flight, from, to)).thenReturn(List.of(tracked));
+                when(bookingRepository.countSeatsSoldBetween(flight, from, to)).thenReturn(List.of(untracked));
+
+                FlightAvailability availability = flightInventoryService.getAvailability(flight, from, to);
+                assertEquals(120, availability.getCapacity());
+                assertEquals(4, availability.getDays().size());
+                assertEquals("03-01-2030", availability.getDays().get(0).getDate());
+                assertEquals(7, availability.getDays().get(0).getSeatsRemaining());
+                assertEquals(120, availability.getDays().get(1).getSeatsRemaining());
+                assertEquals(100, availability.getDays().get(2).getSeatsRemaining());
+                assertEquals("03-04-2030", availability.getDays().get(3).getDate());
+                verify(bookingRepository, never()).countByFlightAndFlightDate(any(), any());
+        }
+
+        @Test
+        public void availabilityOfSeveralFlightsUsesGroupedQueries() throws ParseException {
+                SimpleDateFormat format = new SimpleDateFormat("MM-dd-yyyy");
+                Date from = format.parse("03-01-2030");
+                Date to = format.parse("03-03-2030");
+                Flight other = new Flight(source, dest, model, new Time(200), new Time(600), null, 150);
+                flight.setFlightId(UUID.randomUUID());
+                other.setFlightId(UUID.randomUUID());
+                FlightInventoryRepository.FlightSeatsRemaining tracked = mock(
+                                FlightInventoryRepository.FlightSeatsRemaining.class);
+                when(tracked.getFlightId()).thenReturn(other.getFlightId());
+                when(tracked.getFlightDate()).thenReturn(format.parse("03-02-2030"));
+                when(tracked.getSeatsRemaining()).thenReturn(3);
+                BookingRepository.FlightSeatsSold untracked = mock(BookingRepository.FlightSeatsSold.class);
+                when(untracked.getFlightId()).thenReturn(flight.getFlightId());
+                when(untracked.getFlightDate()).thenReturn(format.parse("03-01-2030"));
+                when(untracked.getSeatsSold()).thenReturn(20L);
+                List<Flight> flights = List.of(flight, other);
+                when(flightInventoryRepository.findSeatsRemainingForFlightsBetween(flights, from, to))
+                                .thenReturn(List.of(tracked));
+                when(bookingRepository.countSeatsSoldForFlightsBetween(flights, from, to)).thenReturn(List.of(untracked));
+
+                List<FlightAvailability> availabilities = flightInventoryService.getAvailability(flights, from, to);
+                assertEquals(2, availabilities.size());
+                assertEquals(flight.getFlightId(), availabilities.get(0).getFlightId());
+                assertEquals(List.of(100, 120, 120), availabilities.get(0).getDays().stream()
+                                .map(FlightAvailability.Day::getSeatsRemaining).toList());
+                assertEquals(List.of(120, 3, 120), availabilities.get(1).getDays().stream()
+                                .map(FlightAvailability.Day::getSeatsRemaining).toList());
+                verify(flightInventoryRepository, never()).findSeatsRemainingBetween(any(), any(), any());
+                verify(bookingRepository, never()).countSeatsSoldBetween(any(), any(), any());
+        }
+}
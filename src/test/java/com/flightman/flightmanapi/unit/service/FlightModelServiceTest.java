@@ -9,6 +9,7 @@ import java.util.ArrayList;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentMatchers;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -16,17 +17,35 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
+import com.flightman.flightmanapi.model.Flight;
 import com.flightman.flightmanapi.model.FlightModel;
 import com.flightman.flightmanapi.repositories.FlightModelRepository;
+import com.flightman.flightmanapi.repositories.FlightRepository;
+import com.flightman.flightmanapi.services.FlightInventoryService;
 import com.flightman.flightmanapi.services.FlightModelService;
+import com.flightman.flightmanapi.services.ReferenceDataCache;
+import com.flightman.flightmanapi.services.SeatLayoutService;
+import com.flightman.flightmanapi.utils.TransactionRunner;
 
 
 @ExtendWith(SpringExtension.class)
-@ContextConfiguration(classes = {FlightModelService.class, FlightModelRepository.class})
+@ContextConfiguration(classes = {FlightModelService.class, FlightModelRepository.class, TransactionRunner.class})
 public class FlightModelServiceTest {
     @MockBean
     private FlightModelRepository flightModelRepository;
 
+    @MockBean
+    private FlightRepository flightRepository;
+
+    @MockBean
+    private FlightInventoryService flightInventoryService;
+
+    @MockBean
+    private SeatLayoutService seatLayoutService;
+
+    @MockBean
+    private ReferenceDataCache referenceDataCache;
+
     @Autowired
     @InjectMocks
     private FlightModelService flightModelService;
@@ -41,8 +60,27 @@ public class FlightModelServiceTest {
         FlightModel created = flightModelService.save(model);
         assert(created != null);
         verify(flightModelRepository).save(model);
+        verify(referenceDataCache).evictFlightModels();
         }
 
+    @Test
+    public void whenChangingFlightModel_shouldUpdateCapacityOfItsFlights() {
+        FlightModel changed = new FlightModel("MName", "123a", 150, 25, 6);
+        changed.setFlightModelId(7);
+        Flight first = new Flight();
+        Flight second = new Flight();
+        when(flightModelRepository.save(changed)).thenReturn(changed);
+        when(flightRepository.findByFlightModel(changed)).thenReturn(List.of(first, second));
+
+        flightModelService.save(changed);
+
+        InOrder inOrder = Mockito.inOrder(flightModelRepository, seatLayoutService, flightInventoryService);
+        inOrder.verify(flightModelRepository).save(changed);
+        inOrder.verify(seatLayoutService).evict(7);
+        inOrder.verify(flightInventoryService).updateCapacity(first);
+        inOrder.verify(flightInventoryService).updateCapacity(second);
+    }
+
     @Test
     public void shouldReturnAllFlightModels(){
         List<FlightModel> models = new ArrayList<FlightModel>();
@@ -58,7 +96,10 @@ public class FlightModelServiceTest {
     public void whenGivenId_shouldDeleteFlightModel_ifFound(){
         when(flightModelRepository.findByFlightModelId(model.getFlightModelId())).thenReturn(model);
         flightModelService.deleteModelById(model.getFlightModelId());
-        verify(flightModelRepository).deleteByFlightModelId(model.getFlightModelId());
+        InOrder inOrder = Mockito.inOrder(flightModelRepository, seatLayoutService, referenceDataCache);
+        inOrder.verify(flightModelRepository).deleteByFlightModelId(model.getFlightModelId());
+        inOrder.verify(seatLayoutService).evict(model.getFlightModelId());
+        inOrder.verify(referenceDataCache).evictFlightModels();
     }
 
 }
\ No newline at end of file
@@ -1,39 +1,71 @@
 package com.flightman.flightmanapi.unit.service;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import java.sql.Time;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 import java.util.ArrayList;
 
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentMatchers;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import com.flightman.flightmanapi.model.Airport;
+import com.flightman.flightmanapi.model.FlexibleDateFlight;
 import com.flightman.flightmanapi.model.Flight;
+import com.flightman.flightmanapi.model.FlightAvailability;
 import com.flightman.flightmanapi.model.FlightModel;
-import com.flightman.flightmanapi.repositories.AirportRepository;
+import com.flightman.flightmanapi.model.FlightPage;
 import com.flightman.flightmanapi.repositories.BookingRepository;
+import com.flightman.flightmanapi.repositories.SeatHoldRepository;
 import com.flightman.flightmanapi.repositories.FlightModelRepository;
 import com.flightman.flightmanapi.repositories.FlightRepository;
+import com.flightman.flightmanapi.repositories.FlightSearchRepository;
+import com.flightman.flightmanapi.services.AirportRegistry;
+import com.flightman.flightmanapi.services.DelayPropagationService;
+import com.flightman.flightmanapi.services.DepartureTimeService;
+import com.flightman.flightmanapi.services.RouteGraphService;
+import com.flightman.flightmanapi.services.FlightInventoryService;
 import com.flightman.flightmanapi.services.FlightService;
+import com.flightman.flightmanapi.services.SeatInventoryService;
+import com.flightman.flightmanapi.utils.TransactionRunner;
 
 @ExtendWith(SpringExtension.class)
-@ContextConfiguration(classes = { FlightService.class, FlightRepository.class })
+@ContextConfiguration(classes = { FlightService.class, FlightRepository.class, TransactionRunner.class })
 public class FlightServiceTest {
     @MockBean
     private BookingRepository bookingRepository;
 
+    @MockBean
+    private SeatHoldRepository seatHoldRepository;
+
+    @MockBean
+    private DepartureTimeService departureTimeService;
+
+    @MockBean
+    private RouteGraphService routeGraphService;
+
+    @MockBean
+    private DelayPropagationService delayPropagationService;
+
     @MockBean
     private FlightRepository flightRepository;
 
@@ -41,7 +73,13 @@ public class FlightServiceTest {
     private FlightModelRepository flightModelRepository;
 
     @MockBean
-    private AirportRepository airportRepository;
+    private AirportRegistry airportRegistry;
+
+    @MockBean
+    private SeatInventoryService seatInventoryService;
+
+    @MockBean
+    private FlightInventoryService flightInventoryService;
 
     @Autowired
     @InjectMocks
@@ -72,8 +110,8 @@ public class FlightServiceTest {
         UUID inDb = UUID.randomUUID();
         UUID notInDb = UUID.randomUUID();
         source.setAirportId(inDb);
-        Mockito.when(airportRepository.findByAirportId(inDb)).thenReturn(source);
-        Mockito.when(airportRepository.findByAirportId(notInDb)).thenReturn(null);
+        Mockito.when(airportRegistry.findById(inDb)).thenReturn(source);
+        Mockito.when(airportRegistry.findById(notInDb)).thenReturn(null);
         Boolean trueB = flightService.validateAirport(inDb);
         Boolean falseB = flightService.validateAirport(notInDb);
         assert(trueB == true);
@@ -94,6 +132,26 @@ public class FlightServiceTest {
             verify(flightRepository).save(flight);
     }
 
+    @Test
+    public void whenSaveAllFlights_shouldSaveInOneCall() {
+            List<Flight> flights = List.of(flight, new Flight(dest, source, model, departure_time, arrival_time, null, 100));
+            Mockito.when(flightRepository.saveAll(flights)).thenReturn(flights);
+            assertEquals(flights, flightService.saveAll(flights));
+            verify(flightRepository).saveAll(flights);
+            verify(flightRepository, never()).save(ArgumentMatchers.any());
+            verify(routeGraphService).putFlights(flights);
+            verify(routeGraphService, never()).putFlight(ArgumentMatchers.any());
+    }
+
+    @Test
+    public void validateModels() {
+            model.setFlightModelId(1);
+            Mockito.when(flightModelRepository.findByFlightModelIdIn(Set.of(1))).thenReturn(List.of(model));
+            Mockito.when(flightModelRepository.findByFlightModelIdIn(Set.of(1, 2))).thenReturn(List.of(model));
+            assert (flightService.validateFlightModels(Set.of(1)) == true);
+            assert (flightService.validateFlightModels(Set.of(1, 2)) == false);
+    }
+
     @Test
     public void whenUpdateFlight_shouldReturnFlight() {
             new_model.setFlightModelId(10);
@@ -104,7 +162,7 @@ public class FlightServiceTest {
             Mockito.when(flightModelRepository.findByFlightModelId(10)).thenReturn(new_model);
             Mockito.when(flightModelRepository.findByFlightModelId(11)).thenReturn(null);
 
-            Flight updated = flightService.update(flight.getFlightId(), new_departure_time, new_arrival_time, new_model.getFlightModelId());
+            Flight updated = flightService.update(flight.getFlightId(), new_departure_time, new_arrival_time, null, new_model.getFlightModelId());
             flight.setDepartureTime(new_departure_time);
             flight.setEstArrivalTime(new_arrival_time);
             flight.setFlightModel(new_model);
@@ -113,29 +171,63 @@ public class FlightServiceTest {
             assert (flight.getFlightModel().getFlightModelId()) == (updated.getFlightModel().getFlightModelId());
             assert (flight.getDepartureTime() == updated.getDepartureTime());
             assert (flight.getEstArrivalTime() == updated.getEstArrivalTime());
-            verify(flightRepository).save(updated);
+            InOrder inOrder = Mockito.inOrder(flightInventoryService, flightRepository, seatInventoryService,
+                    departureTimeService);
+            inOrder.verify(flightInventoryService).updateCapacity(flight);
+            inOrder.verify(flightRepository).save(updated);
+            inOrder.verify(seatInventoryService).evictFlight(flight.getFlightId());
+            inOrder.verify(departureTimeService).evictFlight(flight.getFlightId());
 
-            Flight updated2 = flightService.update(flight.getFlightId(), new_departure_time, new_arrival_time, 11);
+            Flight updated2 = flightService.update(flight.getFlightId(), new_departure_time, new_arrival_time, null, 11);
             assert (updated2.getFlightModel().getFlightModelId()) == 10;
 
             UUID notInDb = UUID.randomUUID();
             Mockito.when(flightRepository.findByFlightId(notInDb)).thenReturn(null);
-            Flight noFlight = flightService.update(notInDb, new_departure_time, new_arrival_time, new_model.getFlightModelId());
+            Flight noFlight = flightService.update(notInDb, new_departure_time, new_arrival_time, null, new_model.getFlightModelId());
             assert(noFlight == null);
             
     }
 
+    @Test
+    public void whenSaveFails_shouldKeepSeatInventory() {
+        new_model.setFlightModelId(10);
+        Mockito.when(flightRepository.findByFlightId(flight.getFlightId())).thenReturn(flight);
+        Mockito.when(flightModelRepository.findByFlightModelId(10)).thenReturn(new_model);
+        Mockito.when(flightRepository.save(any())).thenThrow(new IllegalStateException("save failed"));
+
+        assertThrows(IllegalStateException.class,
+                () -> flightService.update(flight.getFlightId(), null, null, null, 10));
+        verify(seatInventoryService, never()).evictFlight(any());
+        verify(routeGraphService, never()).putFlight(any());
+    }
+
+    @Test
+    public void whenDelayChanges_shouldPropagateDelay() {
+        Mockito.when(flightRepository.findByFlightId(flight.getFlightId())).thenReturn(flight);
+        Mockito.when(flightRepository.save(any())).thenReturn(flight);
+
+        Flight delayed = flightService.updateDelay(flight.getFlightId(), 90);
+        assertEquals(Time.valueOf("01:30:00"), delayed.getDelayTime());
+        verify(departureTimeService).evictFlight(flight.getFlightId());
+        verify(delayPropagationService).delayChanged(flight);
+
+        flightService.updateDelay(flight.getFlightId(), 90);
+        verify(delayPropagationService).delayChanged(flight);
+    }
+
     @Test
     public void whenNoUpdateFlight_shouldReturnFlight(){
         Mockito.when(flightRepository.findByFlightId(flight.getFlightId())).thenReturn(flight);
         Mockito.when(flightRepository.save(any())).thenReturn(flight);
 
-        Flight updated1 = flightService.update(flight.getFlightId(), null, null, null);
+        Flight updated1 = flightService.update(flight.getFlightId(), null, null, null, null);
         
         assert (flight.getFlightModel().getFlightModelId()) == (updated1.getFlightModel().getFlightModelId());
         assert (flight.getDepartureTime() == updated1.getDepartureTime());
         assert (flight.getEstArrivalTime() == updated1.getEstArrivalTime());
         verify(flightRepository).save(updated1);
+        verify(departureTimeService, never()).evictFlight(any());
+        verify(delayPropagationService, never()).delayChanged(any());
     }
 
     @Test
@@ -153,10 +245,12 @@ public class FlightServiceTest {
     public void shouldReturnFlightBySourceDestination() {
             List<Flight> flights = new ArrayList<Flight>();
             flights.add(flight);
-            when(flightRepository.findBySourceAirportAirportAbvName("SN")).thenReturn(flights);
-            when(flightRepository.findByDestAirportAirportAbvName("DN")).thenReturn(flights);
+            when(airportRegistry.findByAbvName("SN")).thenReturn(source);
+            when(airportRegistry.findByAbvName("DN")).thenReturn(dest);
+            when(flightRepository.findBySourceAirport(source)).thenReturn(flights);
+            when(flightRepository.findByDestAirport(dest)).thenReturn(flights);
             when(flightRepository.findAll()).thenReturn(flights);
-            when(flightRepository.findBySourceAirportAirportAbvNameAndDestAirportAirportAbvName("SN", "DN")).thenReturn(flights);
+            when(flightRepository.findBySourceAirportAndDestAirport(source, dest)).thenReturn(flights);
 
             List<Flight> expected1 = flightService.getFlights(null, null);
             List<Flight> expected2 = flightService.getFlights("SN", null);
@@ -167,19 +261,107 @@ public class FlightServiceTest {
             assertEquals(expected3, flights);
             assertEquals(expected4, flights);
             
-            verify(flightRepository).findBySourceAirportAirportAbvName("SN");
-            verify(flightRepository).findByDestAirportAirportAbvName("DN");
+            verify(flightRepository).findBySourceAirport(source);
+            verify(flightRepository).findByDestAirport(dest);
             verify(flightRepository).findAll();
-            verify(flightRepository).findBySourceAirportAirportAbvNameAndDestAirportAirportAbvName("SN", "DN");
+            verify(flightRepository).findBySourceAirportAndDestAirport(source, dest);
+
+            assertEquals(0, flightService.getFlights("XX", "DN").size());
+            verify(flightRepository, never()).findBySourceAirportAndDestAirport(null, dest);
 
     }
 
+    @Test
+    public void shouldPageFlightsWithKeysetCursor() {
+            Flight second = new Flight(source, dest, model, departure_time, arrival_time, null, 200);
+            Flight third = new Flight(source, dest, model, departure_time, arrival_time, null, 300);
+            flight.setFlightId(UUID.randomUUID());
+            second.setFlightId(UUID.randomUUID());
+            third.setFlightId(UUID.randomUUID());
+            when(airportRegistry.findByAbvName("SN")).thenReturn(source);
+            when(flightRepository.findPage(source, null, FlightSearchRepository.SortKey.COST, null, null, 3))
+                            .thenReturn(List.of(flight, second, third));
+            when(flightRepository.findPage(source, null, FlightSearchRepository.SortKey.COST, 200, second.getFlightId(), 3))
+                            .thenReturn(List.of(third));
+
+            FlightPage first = flightService.getFlightPage("SN", null, FlightSearchRepository.SortKey.COST, null, 2);
+            assertEquals(List.of(flight, second), first.getFlights());
+            FlightPage last = flightService.getFlightPage("SN", null, FlightSearchRepository.SortKey.COST,
+                            first.getNextCursor(), 2);
+            assertEquals(List.of(third), last.getFlights());
+            assertNull(last.getNextCursor());
+
+            assertNull(flightService.getFlightPage("SN", null, FlightSearchRepository.SortKey.DURATION,
+                            first.getNextCursor(), 2));
+            assertNull(flightService.getFlightPage("SN", null, FlightSearchRepository.SortKey.COST, "not a cursor", 2));
+            assertEquals(0, flightService.getFlightPage("XX", null, FlightSearchRepository.SortKey.COST, null, 2)
+                            .getFlights().size());
+    }
+
+    @Test
+    public void shouldSearchFlexibleDatesAroundCentreDate() throws ParseException {
+            SimpleDateFormat format = new SimpleDateFormat("MM-dd-yyyy");
+            List<FlightAvailability.Day> days = List.of(new FlightAvailability.Day("03-01-2030", 5),
+                            new FlightAvailability.Day("03-02-2030", 0), new FlightAvailability.Day("03-03-2030", 9));
+            when(routeGraphService.findDirectFlights("SN", "DN")).thenReturn(List.of(flight));
+            when(flightInventoryService.getAvailability(List.of(flight), format.parse("03-01-2030"),
+                            format.parse("03-03-2030")))
+                            .thenReturn(List.of(new FlightAvailability(flight.getFlightId(), 120, days)));
+
+            List<FlexibleDateFlight> results = flightService.searchFlexibleDates("SN", "DN", format.parse("03-02-2030"), 1);
+            assertEquals(1, results.size());
+            assertEquals(flight, results.get(0).getFlight());
+            assertEquals(100, results.get(0).getCost());
+            assertEquals(days, results.get(0).getDays());
+            verify(flightRepository, never()).findBySourceAirportAndDestAirport(any(), any());
+
+            assertEquals(0, flightService.searchFlexibleDates("SN", "XX", format.parse("03-02-2030"), 1).size());
+    }
+
     @Test
     public void whenGivenId_shouldDeleteFlight_ifFound(){
         when(bookingRepository.deleteByFlight(flight)).thenReturn((long) 0);
         when(flightRepository.deleteByFlightId(flight.getFlightId())).thenReturn(1);
         flightService.deleteFlightById(flight.getFlightId());
         verify(flightRepository).deleteByFlightId(flight.getFlightId());
+        verify(routeGraphService).removeFlight(flight.getFlightId());
+    }
+
+    @Test
+    public void whenDeleteRollsBack_shouldKeepFlightInRouteGraph() {
+        when(flightRepository.findByFlightId(flight.getFlightId())).thenReturn(flight);
+        when(flightRepository.deleteByFlightId(flight.getFlightId())).thenReturn(1);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            flightService.deleteFlightById(flight.getFlightId());
+            verify(routeGraphService, never()).removeFlight(any());
+            verify(seatInventoryService, never()).evictFlight(any());
+
+            for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+                synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+            }
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        verify(routeGraphService, never()).removeFlight(any());
+        verify(seatInventoryService, never()).evictFlight(any());
+    }
+
+    @Test
+    public void whenDeleteCommits_shouldRemoveFlightFromRouteGraph() {
+        when(flightRepository.findByFlightId(flight.getFlightId())).thenReturn(flight);
+        when(flightRepository.deleteByFlightId(flight.getFlightId())).thenReturn(1);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            flightService.deleteFlightById(flight.getFlightId());
+            for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+                synchronization.afterCommit();
+            }
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        verify(routeGraphService).removeFlight(flight.getFlightId());
+        verify(seatInventoryService).evictFlight(flight.getFlightId());
     }
 
     @Test
@@ -0,0 +1,93 @@
+package com.flightman.flightmanapi.unit.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Time;
+import java.util.Date;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import com.flightman.flightmanapi.model.Airport;
+import com.flightman.flightmanapi.model.Flight;
+import com.flightman.flightmanapi.model.FlightModel;
+import com.flightman.flightmanapi.model.ManifestEntry;
+import com.flightman.flightmanapi.repositories.BookingRepository;
+import com.flightman.flightmanapi.services.ManifestService;
+import com.flightman.flightmanapi.utils.TransactionRunner;
+
+@ExtendWith(SpringExtension.class)
+@ContextConfiguration(classes = { ManifestService.class, TransactionRunner.class })
+public class ManifestServiceTest {
+        @MockBean
+        private BookingRepository bookingRepository;
+
+        @Autowired
+        private ManifestService manifestService;
+
+        private Airport source = new Airport("SourceName", "SN", "Lat", "Long");
+        private Airport dest = new Airport("DestName", "DN", "Lat", "Long");
+        private FlightModel model = new FlightModel("MName", "123a", 120, 20, 6);
+        private Flight flight = new Flight(source, dest, model, new Time(100), new Time(500), null, 100);
+        private Date date = new Date();
+
+        private UUID first = UUID.fromString("6ec95abc-2d4d-46ec-9174-bd595d380ed8");
+        private UUID second = UUID.fromString("7a9223a4-820e-42d8-922b-162cea9e5f6e");
+
+        private Stream<ManifestEntry> entries(final AtomicBoolean closed) {
+                return Stream.of(new ManifestEntry(first, "Ada", "Lovelace", "1A", true, 2, 40.5f),
+                                new ManifestEntry(second, "Grace", "Hopper, Jr", "1B", false, null, null))
+                                .onClose(() -> closed.set(true));
+        }
+
+        @Test
+        public void writesNdjsonWithTotals() {
+                AtomicBoolean closed = new AtomicBoolean();
+                when(bookingRepository.streamManifest(flight, date)).thenReturn(entries(closed));
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+                manifestService.writeManifest(flight, date, ManifestService.Format.NDJSON, out);
+                String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+                assertEquals(3, lines.length);
+                assertTrue(lines[0].contains("\"seatNumber\":\"1A\""));
+                assertTrue(lines[1].contains("\"luggageCount\":null"));
+                assertEquals("{\"totals\":{\"passengers\":2,\"checkedIn\":1,\"bags\":2,\"totalWeight\":40.5}}",
+                                lines[2]);
+                assertTrue(closed.get());
+        }
+
+        @Test
+        public void writesCsvWithTotals() {
+                AtomicBoolean closed = new AtomicBoolean();
+                when(bookingRepository.streamManifest(flight, date)).thenReturn(entries(closed));
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+                manifestService.writeManifest(flight, date, ManifestService.Format.CSV, out);
+                String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+                assertEquals(4, lines.length);
+                assertEquals("bookingId,firstName,lastName,seatNumber,userCheckIn,luggageCount,luggageWeight",
+                                lines[0]);
+                assertEquals(first + ",Ada,Lovelace,1A,true,2,40.5", lines[1]);
+                assertEquals(second + ",Grace,\"Hopper, Jr\",1B,false,,", lines[2]);
+                assertEquals("TOTAL,,,2,1,2,40.5", lines[3]);
+                assertTrue(closed.get());
+        }
+
+        @Test
+        public void parsesFormat() {
+                assertEquals(ManifestService.Format.NDJSON, ManifestService.Format.of(null));
+                assertEquals(ManifestService.Format.CSV, ManifestService.Format.of("csv"));
+                assertEquals(null, ManifestService.Format.of("xml"));
+        }
+}
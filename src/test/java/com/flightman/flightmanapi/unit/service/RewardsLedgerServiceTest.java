@@ -0,0 +1,93 @@
+package com.flightman.flightmanapi.unit.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import com.flightman.flightmanapi.model.RewardsTransaction;
+import com.flightman.flightmanapi.model.User;
+import com.flightman.flightmanapi.repositories.RewardsTransactionRepository;
+import com.flightman.flightmanapi.repositories.UserRepository;
+import com.flightman.flightmanapi.services.RewardsLedgerService;
+import com.flightman.flightmanapi.services.UserCache;
+
+@ExtendWith(SpringExtension.class)
+@ContextConfiguration(classes = { RewardsLedgerService.class, UserCache.class })
+public class RewardsLedgerServiceTest {
+        @MockBean
+        private UserRepository userRepository;
+
+        @MockBean
+        private RewardsTransactionRepository rewardsTransactionRepository;
+
+        @Autowired
+        private RewardsLedgerService rewardsLedgerService;
+
+        @Autowired
+        private UserCache userCache;
+
+        private UUID userId = UUID.randomUUID();
+
+        private UUID bookingId = UUID.randomUUID();
+
+        @BeforeEach
+        public void setUp() {
+                userCache.evictAll();
+        }
+
+        @Test
+        public void recordsEveryAppliedChange() {
+                when(userRepository.addRewardsMiles(userId, -100)).thenReturn(1);
+
+                assertTrue(rewardsLedgerService.apply(userId, bookingId, -100,
+                                RewardsTransaction.Reason.BOOKING_REDEEMED));
+
+                ArgumentCaptor<RewardsTransaction> transaction = ArgumentCaptor.forClass(RewardsTransaction.class);
+                verify(rewardsTransactionRepository).save(transaction.capture());
+                assertEquals(userId, transaction.getValue().getUserId());
+                assertEquals(bookingId, transaction.getValue().getBookingId());
+                assertEquals(-100, transaction.getValue().getDelta());
+                assertEquals(RewardsTransaction.Reason.BOOKING_REDEEMED, transaction.getValue().getReason());
+        }
+
+        @Test
+        public void rejectedChangesAreNotRecorded() {
+                when(userRepository.addRewardsMiles(userId, -100)).thenReturn(0);
+
+                assertFalse(rewardsLedgerService.apply(userId, bookingId, -100,
+                                RewardsTransaction.Reason.BOOKING_REDEEMED));
+                verify(rewardsTransactionRepository, never()).save(any());
+        }
+
+        @Test
+        public void balanceIsCachedUntilItChanges() {
+                User user = new User("FN", "LN", "123456789", "r@domain.com", "passportNumber", "Address", 1, 100);
+                user.setUserId(userId);
+                when(userRepository.findByUserId(userId)).thenReturn(user);
+                when(userRepository.addRewardsMiles(userId, 10)).thenReturn(1);
+
+                assertEquals(100, rewardsLedgerService.getBalance(userId));
+                assertEquals(100, rewardsLedgerService.getBalance(userId));
+                verify(userRepository).findByUserId(userId);
+
+                rewardsLedgerService.apply(userId, bookingId, 10, RewardsTransaction.Reason.BOOKING_EARNED);
+                rewardsLedgerService.getBalance(userId);
+                verify(userRepository, times(2)).findByUserId(userId);
+        }
+}
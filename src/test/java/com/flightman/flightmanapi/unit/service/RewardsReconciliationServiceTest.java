@@ -0,0 +1,239 @@
+package com.flightman.flightmanapi.unit.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.reset;
+
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import javax.sql.DataSource;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import com.flightman.flightmanapi.model.RewardsReconciliationReport;
+import com.flightman.flightmanapi.services.RewardsReconciliationService;
+import com.flightman.flightmanapi.services.UserCache;
+import com.flightman.flightmanapi.utils.TransactionRunner;
+import com.flightman.flightmanapi.utils.UuidV7Generator;
+
+/*
+ * Runs the reconciliation against an in-memory database created by the
+ * migrations. Chunks of two users make every run read several chunks.
+ */
+@ExtendWith(SpringExtension.class)
+@ContextConfiguration(classes = { RewardsReconciliationService.class, TransactionRunner.class,
+                RewardsReconciliationServiceTest.Database.class })
+@TestPropertySource(properties = { "flightman.rewards.reconciliation.enabled=false",
+                "flightman.rewards.reconciliation.chunk-size=2", "flightman.rewards.reconciliation.parallelism=2",
+                "flightman.rewards.expiry-months=24" })
+public class RewardsReconciliationServiceTest {
+        @Configuration
+        static class Database {
+                @Bean
+                public DataSource dataSource() {
+                        DataSource dataSource = new DriverManagerDataSource(
+                                        "jdbc:h2:mem:reconciliation;MODE=PostgreSQL;NON_KEYWORDS=USER;DB_CLOSE_DELAY=-1", "sa", "");
+                        Flyway.configure().dataSource(dataSource).load().migrate();
+                        return dataSource;
+                }
+
+                @Bean
+                public JdbcTemplate jdbcTemplate(final DataSource dataSource) {
+                        return new JdbcTemplate(dataSource);
+                }
+        }
+
+        @MockBean
+        private UserCache userCache;
+
+        @SpyBean
+        private JdbcTemplate jdbcTemplate;
+
+        @Autowired
+        private RewardsReconciliationService rewardsReconciliationService;
+
+        private final Timestamp old = Timestamp.from(Instant.now().minus(Duration.ofDays(3 * 365)));
+
+        private final Timestamp recent = Timestamp.from(Instant.now().minus(Duration.ofDays(30)));
+
+        @BeforeEach
+        public void setUp() {
+                reset(jdbcTemplate);
+                jdbcTemplate.update("DELETE FROM rewards_transaction");
+                jdbcTemplate.update("DELETE FROM public.user");
+        }
+
+        private UUID user(final int rewardsMiles) {
+                UUID id = UUID.randomUUID();
+                jdbcTemplate.update("INSERT INTO public.user (user_id, rewards_miles) VALUES (?, ?)", id, rewardsMiles);
+                return id;
+        }
+
+        private void transaction(final UUID userId, final int delta, final String reason, final Timestamp createdAt) {
+                jdbcTemplate.update("INSERT INTO rewards_transaction (transaction_id, user_id, delta, reason, created_at) "
+                                + "VALUES (?, ?, ?, ?, ?)", UUID.randomUUID(), userId, delta, reason, createdAt);
+        }
+
+        private int balance(final UUID userId) {
+                return jdbcTemplate.queryForObject("SELECT rewards_miles FROM public.user WHERE user_id = ?", Integer.class,
+                                userId);
+        }
+
+        private List<Integer> deltas(final UUID userId, final String reason) {
+                return jdbcTemplate.queryForList("SELECT delta FROM rewards_transaction WHERE user_id = ? AND reason = ?",
+                                Integer.class, userId, reason);
+        }
+
+        private int transactions() {
+                return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM rewards_transaction", Integer.class);
+        }
+
+        @Test
+        public void differencesAreOpeningBalancesOnceThenCorrections() {
+                UUID legacy = user(70);
+                UUID drifted = user(40);
+                transaction(drifted, 50, "OPENING_BALANCE", recent);
+                UUID matching = user(25);
+                transaction(matching, 25, "BOOKING_EARNED", recent);
+
+                RewardsReconciliationReport report = rewardsReconciliationService.reconcile();
+
+                assertFalse(report.isRunning());
+                assertEquals(3, report.getUsersScanned());
+                assertEquals(1, report.getOpeningBalances());
+                assertEquals(1, report.getBalancesCorrected());
+                assertEquals(70, balance(legacy));
+                assertEquals(List.of(70), deltas(legacy, "OPENING_BALANCE"));
+                assertEquals(50, balance(drifted));
+                assertEquals(List.of(50), deltas(drifted, "OPENING_BALANCE"));
+                assertEquals(List.of(-10), deltas(drifted, "UNRECORDED"));
+                assertEquals(List.of(10), deltas(drifted, "ADJUSTMENT"));
+                assertEquals(25, balance(matching));
+        }
+
+        @Test
+        public void correctionsNeverMakeABalanceNegative() {
+                UUID overdrawn = user(10);
+                transaction(overdrawn, 5, "OPENING_BALANCE", recent);
+                transaction(overdrawn, -20, "BOOKING_REDEEMED", recent);
+
+                RewardsReconciliationReport report = rewardsReconciliationService.reconcile();
+
+                assertEquals(0, report.getBalancesCorrected());
+                assertEquals(10, balance(overdrawn));
+                assertEquals(List.of(), deltas(overdrawn, "UNRECORDED"));
+                assertEquals(List.of(), deltas(overdrawn, "ADJUSTMENT"));
+        }
+
+        @Test
+        public void oldCreditsThatWereNotSpentExpire() {
+                UUID u = user(90);
+                transaction(u, 100, "BOOKING_EARNED", old);
+                transaction(u, -30, "BOOKING_REDEEMED", recent);
+                transaction(u, 20, "BOOKING_EARNED", recent);
+                UUID spent = user(0);
+                transaction(spent, 40, "BOOKING_EARNED", old);
+                transaction(spent, -40, "BOOKING_REDEEMED", recent);
+
+                RewardsReconciliationReport report = rewardsReconciliationService.reconcile();
+
+                assertEquals(1, report.getUsersExpired());
+                assertEquals(70, report.getPointsExpired());
+                assertEquals(20, balance(u));
+                assertEquals(List.of(-70), deltas(u, "EXPIRED"));
+                assertEquals(0, balance(spent));
+                assertEquals(List.of(), deltas(spent, "EXPIRED"));
+        }
+
+        @Test
+        public void secondRunChangesNothing() {
+                UUID legacy = user(70);
+                UUID expiring = user(90);
+                transaction(expiring, 100, "BOOKING_EARNED", old);
+                transaction(expiring, -30, "BOOKING_REDEEMED", recent);
+                transaction(expiring, 20, "BOOKING_EARNED", recent);
+                rewardsReconciliationService.reconcile();
+                int recorded = transactions();
+
+                RewardsReconciliationReport report = rewardsReconciliationService.reconcile();
+
+                assertEquals(0, report.getOpeningBalances());
+                assertEquals(0, report.getBalancesCorrected());
+                assertEquals(0, report.getPointsExpired());
+                assertEquals(recorded, transactions());
+                assertEquals(70, balance(legacy));
+                assertEquals(List.of(70), deltas(legacy, "OPENING_BALANCE"));
+                assertEquals(20, balance(expiring));
+                assertEquals(List.of(-70), deltas(expiring, "EXPIRED"));
+        }
+
+        @Test
+        public void expiryIsRecordedWhenTheDriverReportsNoRowCounts() {
+                doAnswer(invocation -> {
+                        int[] updated = (int[]) invocation.callRealMethod();
+                        Arrays.fill(updated, Statement.SUCCESS_NO_INFO);
+                        return updated;
+                }).when(jdbcTemplate).batchUpdate(startsWith("UPDATE public.user SET rewards_miles = rewards_miles -"),
+                                anyList());
+                UUID u = user(60);
+                transaction(u, 60, "BOOKING_EARNED", old);
+
+                RewardsReconciliationReport report = rewardsReconciliationService.reconcile();
+
+                assertEquals(1, report.getUsersExpired());
+                assertEquals(60, report.getPointsExpired());
+                assertEquals(0, balance(u));
+                assertEquals(List.of(-60), deltas(u, "EXPIRED"));
+        }
+
+        @Test
+        public void rangesHoldTheSameNumberOfTimeOrderedIds() {
+                List<List<UUID>> boundaries = new ArrayList<>();
+                doAnswer(invocation -> {
+                        @SuppressWarnings("unchecked")
+                        List<UUID> sampled = (List<UUID>) invocation.callRealMethod();
+                        boundaries.add(sampled);
+                        return sampled;
+                }).when(jdbcTemplate).queryForList(contains("ROW_NUMBER()"), eq(UUID.class), any());
+                List<UUID> ids = new ArrayList<>();
+                for (int i = 0; i < 20; i++) {
+                        UUID id = UuidV7Generator.next();
+                        jdbcTemplate.update("INSERT INTO public.user (user_id, rewards_miles) VALUES (?, 10)", id);
+                        ids.add(id);
+                }
+
+                RewardsReconciliationReport report = rewardsReconciliationService.reconcile();
+
+                // Two threads with four ranges each, so every range holds at most three of the 20 users
+                assertEquals(List.of(ids.get(2), ids.get(5), ids.get(8), ids.get(11), ids.get(14), ids.get(17)),
+                                boundaries.get(0));
+                assertEquals(20, report.getUsersScanned());
+                assertEquals(20, report.getOpeningBalances());
+        }
+}
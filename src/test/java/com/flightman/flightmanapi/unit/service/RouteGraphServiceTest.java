@@ -0,0 +1,210 @@
+package com.flightman.flightmanapi.unit.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.when;
+
+import java.sql.Time;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import com.flightman.flightmanapi.model.Airport;
+import com.flightman.flightmanapi.model.Flight;
+import com.flightman.flightmanapi.model.FlightModel;
+import com.flightman.flightmanapi.model.Itinerary;
+import com.flightman.flightmanapi.repositories.FlightRepository;
+import com.flightman.flightmanapi.services.AirportRegistry;
+import com.flightman.flightmanapi.services.RouteGraphService;
+import com.flightman.flightmanapi.services.RouteGraphService.Criterion;
+
+@ExtendWith(SpringExtension.class)
+@ContextConfiguration(classes = { RouteGraphService.class })
+public class RouteGraphServiceTest {
+        @MockBean
+        private FlightRepository flightRepository;
+
+        @MockBean
+        private AirportRegistry airportRegistry;
+
+        @Autowired
+        private RouteGraphService routeGraphService;
+
+        private FlightModel model = new FlightModel("MName", "123a", 120, 20, 6);
+
+        private Airport a = airport("AAA", "UTC");
+        private Airport b = airport("BBB", "UTC");
+        private Airport c = airport("CCC", "UTC");
+
+        private Flight ab = flight(a, b, "08:00", "10:00", 300);
+        private Flight bcTight = flight(b, c, "10:30", "12:00", 100);
+        private Flight bc = flight(b, c, "11:00", "13:00", 200);
+        private Flight ac = flight(a, c, "09:00", "15:00", 900);
+
+        private static Airport airport(final String abv, final String timeZone) {
+                Airport airport = new Airport(abv + " Airport", abv, "Lat", "Long");
+                airport.setAirportId(UUID.randomUUID());
+                airport.setTimeZone(timeZone);
+                return airport;
+        }
+
+        private Flight flight(final Airport source, final Airport dest, final String departure, final String arrival,
+                        final int cost) {
+                Flight flight = new Flight(source, dest, model, Time.valueOf(departure + ":00"),
+                                Time.valueOf(arrival + ":00"), null, cost);
+                flight.setFlightId(UUID.randomUUID());
+                return flight;
+        }
+
+        private static List<Flight> flightsOf(final Itinerary itinerary) {
+                return itinerary.getLegs().stream().map(Itinerary.Leg::getFlight).toList();
+        }
+
+        @BeforeEach
+        public void loadGraph() {
+                when(flightRepository.findAll()).thenReturn(List.of(ab, bcTight, bc, ac));
+                routeGraphService.reload();
+        }
+
+        @Test
+        public void earliestArrivalRespectsConnectionTime() {
+                Itinerary itinerary = routeGraphService.findConnection("AAA", "CCC", LocalTime.of(7, 0),
+                                Criterion.EARLIEST_ARRIVAL, 2);
+                assertEquals(List.of(ab, bc), flightsOf(itinerary));
+                assertEquals(500, itinerary.getTotalCost());
+                assertEquals(360, itinerary.getTotalMinutes());
+
+                itinerary = routeGraphService.findConnection("AAA", "CCC", LocalTime.of(8, 30),
+                                Criterion.EARLIEST_ARRIVAL, 2);
+                assertEquals(List.of(ac), flightsOf(itinerary));
+        }
+
+        @Test
+        public void cheapestWaitsForNextDay() {
+                Itinerary itinerary = routeGraphService.findConnection("AAA", "CCC", LocalTime.of(7, 0),
+                                Criterion.CHEAPEST, 2);
+                assertEquals(List.of(ab, bcTight), flightsOf(itinerary));
+                assertEquals(0, itinerary.getLegs().get(0).getDayOffset());
+                assertEquals(1, itinerary.getLegs().get(1).getDayOffset());
+                assertEquals(400, itinerary.getTotalCost());
+
+                itinerary = routeGraphService.findConnection("AAA", "CCC", LocalTime.of(7, 0), Criterion.CHEAPEST, 1);
+                assertEquals(List.of(ac), flightsOf(itinerary));
+        }
+
+        @Test
+        public void directFlightsAreOrderedByDeparture() {
+                assertEquals(List.of(bcTight, bc), routeGraphService.findDirectFlights("BBB", "CCC"));
+                assertEquals(List.of(ac), routeGraphService.findDirectFlights("AAA", "CCC"));
+                assertEquals(0, routeGraphService.findDirectFlights("CCC", "AAA").size());
+                assertEquals(0, routeGraphService.findDirectFlights("XXX", "AAA").size());
+        }
+
+        @Test
+        public void unknownOrUnreachableAirports() {
+                assertNull(routeGraphService.findConnection("CCC", "AAA", LocalTime.MIDNIGHT,
+                                Criterion.EARLIEST_ARRIVAL, 3));
+                assertNull(routeGraphService.findConnection("AAA", "ZZZ", LocalTime.MIDNIGHT,
+                                Criterion.EARLIEST_ARRIVAL, 3));
+                assertNull(routeGraphService.findConnection("AAA", "AAA", LocalTime.MIDNIGHT,
+                                Criterion.EARLIEST_ARRIVAL, 3));
+        }
+
+        @Test
+        public void changesAreAppliedWithoutReload() {
+                routeGraphService.removeFlight(bc.getFlightId());
+                assertEquals(List.of(ac), flightsOf(routeGraphService.findConnection("AAA", "CCC", LocalTime.of(7, 0),
+                                Criterion.EARLIEST_ARRIVAL, 2)));
+
+                Airport d = airport("DDD", "UTC");
+                when(airportRegistry.findById(d.getAirportId())).thenReturn(d);
+                Airport reference = new Airport();
+                reference.setAirportId(d.getAirportId());
+                Flight cd = flight(c, reference, "16:00", "17:00", 50);
+                routeGraphService.putFlight(cd);
+                assertEquals(List.of(ac, cd), flightsOf(routeGraphService.findConnection("AAA", "DDD",
+                                LocalTime.of(7, 0), Criterion.EARLIEST_ARRIVAL, 3)));
+        }
+
+        @Test
+        public void incrementalChangesMatchAReload() {
+                Airport d = airport("DDD", "Asia/Kolkata");
+                Flight cd = flight(c, d, "16:00", "17:00", 50);
+                Flight da = flight(d, a, "18:00", "23:00", 70);
+                routeGraphService.putFlight(cd);
+                routeGraphService.putFlight(da);
+                routeGraphService.removeFlight(bcTight.getFlightId());
+                // Changed in place, as FlightService.update does, and moved to another airport
+                ab.setSourceAirport(d);
+                ab.setDepartureTime(Time.valueOf("06:00:00"));
+                routeGraphService.putFlight(ab);
+                bc.setCost(20);
+                routeGraphService.putFlight(bc);
+                routeGraphService.removeFlight(UUID.randomUUID());
+
+                List<Airport> airports = List.of(a, b, c, d);
+                List<List<Flight>> incremental = new ArrayList<>();
+                for (Airport from : airports) {
+                        for (Airport to : airports) {
+                                incremental.add(routeGraphService.findDirectFlights(from.getAirportAbvName(),
+                                                to.getAirportAbvName()));
+                        }
+                }
+                Itinerary cheapest = routeGraphService.findConnection("DDD", "CCC", LocalTime.of(5, 0),
+                                Criterion.CHEAPEST, 3);
+
+                when(flightRepository.findAll()).thenReturn(List.of(ab, bc, ac, cd, da));
+                routeGraphService.reload();
+                List<List<Flight>> reloaded = new ArrayList<>();
+                for (Airport from : airports) {
+                        for (Airport to : airports) {
+                                reloaded.add(routeGraphService.findDirectFlights(from.getAirportAbvName(),
+                                                to.getAirportAbvName()));
+                        }
+                }
+                assertEquals(reloaded, incremental);
+                assertEquals(List.of(ab, bc), flightsOf(cheapest));
+                assertEquals(flightsOf(routeGraphService.findConnection("DDD", "CCC", LocalTime.of(5, 0),
+                                Criterion.CHEAPEST, 3)), flightsOf(cheapest));
+        }
+
+        @Test
+        public void bulkChangesAreAppliedTogether() {
+                Airport d = airport("DDD", "UTC");
+                when(airportRegistry.findById(d.getAirportId())).thenReturn(d);
+                Airport reference = new Airport();
+                reference.setAirportId(d.getAirportId());
+                Flight cd = flight(c, reference, "16:00", "17:00", 50);
+                Flight bd = flight(b, d, "12:00", "20:00", 10);
+                routeGraphService.putFlights(List.of(cd, bd));
+
+                assertEquals(List.of(cd), routeGraphService.findDirectFlights("CCC", "DDD"));
+                assertEquals(List.of(ab, bd), flightsOf(routeGraphService.findConnection("AAA", "DDD",
+                                LocalTime.of(7, 0), Criterion.CHEAPEST, 3)));
+        }
+
+        @Test
+        public void connectionsLineUpAcrossTimeZones() {
+                Airport x = airport("XXX", "UTC");
+                Airport y = airport("YYY", "Asia/Kolkata");
+                Airport z = airport("ZZZ", "UTC");
+                Flight xy = flight(x, y, "00:00", "07:30", 100);
+                Flight yz = flight(y, z, "08:30", "05:00", 100);
+                routeGraphService.putFlight(xy);
+                routeGraphService.putFlight(yz);
+
+                Itinerary itinerary = routeGraphService.findConnection("XXX", "ZZZ", LocalTime.MIDNIGHT,
+                                Criterion.EARLIEST_ARRIVAL, 2);
+                assertEquals(List.of(xy, yz), flightsOf(itinerary));
+                assertEquals(300, itinerary.getTotalMinutes());
+        }
+}
@@ -0,0 +1,138 @@
+package com.flightman.flightmanapi.unit.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Time;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Collection;
+import java.util.Date;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import com.flightman.flightmanapi.model.Airport;
+import com.flightman.flightmanapi.model.Flight;
+import com.flightman.flightmanapi.model.FlightModel;
+import com.flightman.flightmanapi.model.SeatHold;
+import com.flightman.flightmanapi.model.User;
+import com.flightman.flightmanapi.repositories.BookingRepository;
+import com.flightman.flightmanapi.repositories.SeatHoldRepository;
+import com.flightman.flightmanapi.services.FlightInventoryService;
+import com.flightman.flightmanapi.services.SeatHoldService;
+import com.flightman.flightmanapi.services.SeatInventoryService;
+import com.flightman.flightmanapi.services.SeatLayoutService;
+import com.flightman.flightmanapi.utils.TransactionRunner;
+
+@ExtendWith(SpringExtension.class)
+@ContextConfiguration(classes = { SeatHoldService.class, SeatInventoryService.class, SeatLayoutService.class,
+                TransactionRunner.class })
+@TestPropertySource(properties = "flightman.seat-hold.ttl-seconds=1")
+public class SeatHoldServiceTest {
+        @MockBean
+        private SeatHoldRepository seatHoldRepository;
+
+        @MockBean
+        private BookingRepository bookingRepository;
+
+        @MockBean
+        private FlightInventoryService flightInventoryService;
+
+        @Autowired
+        private SeatHoldService seatHoldService;
+
+        @Autowired
+        private SeatInventoryService seatInventoryService;
+
+        private Airport source = new Airport("SourceName", "SN", "Lat", "Long");
+        private Airport dest = new Airport("DestName", "DN", "Lat", "Long");
+        private FlightModel model = new FlightModel("MName", "123a", 8, 2, 4);
+        private User user = new User("First", "Last", "1234567890", "email@test.com", "P123", "Address", 0, 1000);
+        private Flight flight;
+        private Map<UUID, SeatHold> holds = new ConcurrentHashMap<>();
+
+        private Date date(final String date) throws ParseException {
+                return new SimpleDateFormat("MM-dd-yyyy").parse(date);
+        }
+
+        @BeforeEach
+        public void setUp() {
+                flight = new Flight(source, dest, model, new Time(100), new Time(500), null, 100);
+                flight.setFlightId(UUID.randomUUID());
+                when(flightInventoryService.reserveSeats(any(), any(), anyInt())).thenReturn(true);
+                when(seatHoldRepository.save(any())).thenAnswer(invocation -> {
+                        SeatHold hold = invocation.getArgument(0);
+                        hold.setHoldId(UUID.randomUUID());
+                        holds.put(hold.getHoldId(), hold);
+                        return hold;
+                });
+                when(seatHoldRepository.findByHoldIdIn(anyCollection())).thenAnswer(invocation -> {
+                        Collection<UUID> ids = invocation.getArgument(0);
+                        return ids.stream().map(holds::get).filter(h -> h != null).collect(Collectors.toList());
+                });
+        }
+
+        @Test
+        public void holdExpiresAndReleasesSeat() throws ParseException {
+                Date d = date("02-01-2030");
+                SeatHold hold = seatHoldService.hold(user, flight, "1A", d, false);
+                assertNotNull(hold);
+                assertEquals("1A", hold.getSeatNumber());
+                assertTrue(seatInventoryService.isSeatTaken(flight, d, "1A"));
+                assertNull(seatHoldService.hold(user, flight, "1A", d, false));
+                verify(flightInventoryService).releaseSeats(flight, d, 1);
+
+                verify(seatHoldRepository, timeout(5000)).deleteByHoldIdIn(anyCollection());
+                verify(flightInventoryService, timeout(5000).times(2)).releaseSeats(flight, d, 1);
+                assertFalse(seatInventoryService.isSeatTaken(flight, d, "1A"));
+        }
+
+        @Test
+        public void takenHoldDoesNotExpire() throws ParseException {
+                Date d = date("02-02-2030");
+                SeatHold hold = seatHoldService.hold(user, flight, null, d, false);
+                assertEquals("1A", hold.getSeatNumber());
+                when(seatHoldRepository.findByHoldId(hold.getHoldId())).thenReturn(hold);
+                when(seatHoldRepository.deleteByHoldId(hold.getHoldId())).thenReturn(1);
+
+                assertNotNull(seatHoldService.take(hold.getHoldId()));
+                seatHoldService.cancelExpiry(hold.getHoldId());
+                verify(seatHoldRepository, after(2500).never()).findByHoldIdIn(anyCollection());
+                verify(flightInventoryService, never()).releaseSeats(any(), any(), anyInt());
+                assertTrue(seatInventoryService.isSeatTaken(flight, d, "1A"));
+        }
+
+        @Test
+        public void releaseReturnsSeatToInventory() throws ParseException {
+                Date d = date("02-03-2030");
+                SeatHold hold = seatHoldService.hold(user, flight, "2B", d, false);
+                when(seatHoldRepository.findByHoldId(hold.getHoldId())).thenReturn(hold);
+
+                assertTrue(seatHoldService.release(hold.getHoldId()));
+                verify(flightInventoryService).releaseSeats(flight, d, 1);
+                assertFalse(seatInventoryService.isSeatTaken(flight, d, "2B"));
+                assertFalse(seatHoldService.release(UUID.randomUUID()));
+        }
+}
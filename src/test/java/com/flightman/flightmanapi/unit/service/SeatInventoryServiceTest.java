@@ -0,0 +1,219 @@
+package com.flightman.flightmanapi.unit.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Time;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.locks.Lock;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import com.flightman.flightmanapi.model.Airport;
+import com.flightman.flightmanapi.model.Flight;
+import com.flightman.flightmanapi.model.FlightModel;
+import com.flightman.flightmanapi.model.SeatMap;
+import com.flightman.flightmanapi.repositories.BookingRepository;
+import com.flightman.flightmanapi.repositories.SeatHoldRepository;
+import com.flightman.flightmanapi.services.SeatInventoryService;
+import com.flightman.flightmanapi.services.SeatLayoutService;
+
+@ExtendWith(SpringExtension.class)
+@ContextConfiguration(classes = { SeatInventoryService.class, SeatLayoutService.class })
+public class SeatInventoryServiceTest {
+        @MockBean
+        private BookingRepository bookingRepository;
+
+        @MockBean
+        private SeatHoldRepository seatHoldRepository;
+
+        @Autowired
+        private SeatInventoryService seatInventoryService;
+
+        @Autowired
+        private SeatLayoutService seatLayoutService;
+
+        private Airport source = new Airport("SourceName", "SN", "Lat", "Long");
+        private Airport dest = new Airport("DestName", "DN", "Lat", "Long");
+        private FlightModel model = new FlightModel("MName", "123a", 8, 2, 4);
+
+        private Flight newFlight() {
+                Flight flight = new Flight(source, dest, model, new Time(100), new Time(500), null, 100);
+                flight.setFlightId(UUID.randomUUID());
+                return flight;
+        }
+
+        private Date date(final String date) throws ParseException {
+                return new SimpleDateFormat("MM-dd-yyyy").parse(date);
+        }
+
+        @Test
+        public void claimSeatAllocatesFirstFreeSeat() throws ParseException {
+                Flight flight = newFlight();
+                List<String> booked = new ArrayList<String>();
+                booked.add("1A");
+                when(bookingRepository.findSeatNumbersByFlightAndFlightDate(any(), any())).thenReturn(booked);
+
+                assertEquals("1B", seatInventoryService.claimSeat(flight, date("01-01-2030"), null));
+                assertEquals("1C", seatInventoryService.claimSeat(flight, date("01-01-2030"), ""));
+                assertEquals(5, seatInventoryService.getAvailableSeatCount(flight, date("01-01-2030")));
+                verify(bookingRepository, times(1)).findSeatNumbersByFlightAndFlightDate(any(), any());
+        }
+
+        @Test
+        public void claimSeatRejectsTakenAndInvalidSeats() throws ParseException {
+                Flight flight = newFlight();
+                Date d = date("01-02-2030");
+
+                assertEquals("1D", seatInventoryService.claimSeat(flight, d, "1D"));
+                assertNull(seatInventoryService.claimSeat(flight, d, "1D"));
+                assertNull(seatInventoryService.claimSeat(flight, d, "1Z"));
+                assertNull(seatInventoryService.claimSeat(flight, d, "X1"));
+                assertNull(seatInventoryService.claimSeat(flight, d, "9A"));
+                assertTrue(seatInventoryService.isSeatTaken(flight, d, "1D"));
+                assertFalse(seatInventoryService.isSeatTaken(flight, d, "1A"));
+        }
+
+        @Test
+        public void claimSeatFailsWhenFull() throws ParseException {
+                Flight flight = newFlight();
+                Date d = date("01-03-2030");
+                for (int i = 0; i < model.getSeatCapacity(); i++) {
+                        assertTrue(seatInventoryService.claimSeat(flight, d, null) != null);
+                }
+                assertNull(seatInventoryService.claimSeat(flight, d, null));
+                assertNull(seatInventoryService.findFreeSeat(flight, d));
+
+                seatInventoryService.releaseSeat(flight, d, "2A");
+                assertEquals("2A", seatInventoryService.findFreeSeat(flight, d));
+                assertEquals("2A", seatInventoryService.claimSeat(flight, d, null));
+        }
+
+        @Test
+        public void departuresAreIndependent() throws ParseException {
+                Flight flight = newFlight();
+                assertEquals("1A", seatInventoryService.claimSeat(flight, date("01-04-2030"), null));
+                assertEquals("1A", seatInventoryService.claimSeat(flight, date("01-05-2030"), null));
+                assertEquals("1A", seatInventoryService.claimSeat(newFlight(), date("01-04-2030"), null));
+
+                seatInventoryService.evictFlight(flight.getFlightId());
+                assertEquals("1A", seatInventoryService.claimSeat(flight, date("01-04-2030"), null));
+        }
+
+        @Test
+        public void seatMapFollowsFlightModelLayout() throws ParseException {
+                FlightModel wideBody = new FlightModel("MName", "777", 25, 3, 9);
+                wideBody.setFlightModelId(77);
+                Flight flight = newFlight();
+                flight.setFlightModel(wideBody);
+                Date d = date("01-06-2030");
+
+                assertEquals("1I", seatInventoryService.claimSeat(flight, d, "1I"));
+                assertNull(seatInventoryService.claimSeat(flight, d, "3H"));
+                SeatMap seatMap = seatInventoryService.getSeatMap(flight, d);
+                assertEquals(3, seatMap.getRowCount());
+                assertEquals(9, seatMap.getColCount());
+                assertEquals(25, seatMap.getSeats().size());
+                assertEquals(24, seatMap.getAvailableSeats());
+                assertEquals("3G", seatMap.getSeats().get(24).getSeatNumber());
+                assertFalse(seatMap.getSeats().get(8).isAvailable());
+
+                List<String> booked = new ArrayList<String>();
+                booked.add("1A");
+                when(bookingRepository.findSeatNumbersByFlightAndFlightDate(any(), any())).thenReturn(booked);
+                wideBody.setSeatColCount(5);
+                wideBody.setSeatRowCount(5);
+                seatLayoutService.evict(77);
+                assertEquals("1B", seatInventoryService.claimSeat(flight, d, null));
+                assertEquals(5, seatInventoryService.getSeatMap(flight, d).getColCount());
+        }
+
+        @Test
+        public void claimAdjacentSeatsKeepsGroupsTogether() throws ParseException {
+                Flight flight = newFlight();
+                Date d = date("01-07-2030");
+                assertEquals("1B", seatInventoryService.claimSeat(flight, d, "1B"));
+
+                assertEquals(List.of("2A", "2B", "2C"), seatInventoryService.claimAdjacentSeats(flight, d, 3));
+                assertEquals(List.of("1C", "1D"), seatInventoryService.claimAdjacentSeats(flight, d, 2));
+                assertNull(seatInventoryService.claimAdjacentSeats(flight, d, 3));
+                assertEquals(List.of("1A", "2D"), seatInventoryService.claimAdjacentSeats(flight, d, 2));
+                assertEquals(0, seatInventoryService.getAvailableSeatCount(flight, d));
+        }
+
+        @Test
+        public void claimAdjacentSeatsSpansFewestRows() throws ParseException {
+                FlightModel wideBody = new FlightModel("MName", "777", 27, 3, 9);
+                Flight flight = newFlight();
+                flight.setFlightModel(wideBody);
+                Date d = date("01-08-2030");
+                assertEquals("1A", seatInventoryService.claimSeat(flight, d, "1A"));
+                assertEquals("1E", seatInventoryService.claimSeat(flight, d, "1E"));
+                assertEquals("2E", seatInventoryService.claimSeat(flight, d, "2E"));
+
+                List<String> seats = seatInventoryService.claimAdjacentSeats(flight, d, 12);
+                assertEquals(12, seats.size());
+                assertEquals("1B", seats.get(0));
+                assertEquals("2F", seats.get(11));
+        }
+
+        @Test
+        public void pastDeparturesAreEvicted() throws ParseException {
+                Flight flight = newFlight();
+                Date past = date("01-01-2020");
+                Date future = date("01-09-2030");
+                assertEquals("1A", seatInventoryService.claimSeat(flight, past, null));
+                assertEquals("1A", seatInventoryService.claimSeat(flight, future, null));
+
+                seatInventoryService.evictUnused();
+                assertEquals("1A", seatInventoryService.claimSeat(flight, past, null));
+                assertEquals("1B", seatInventoryService.claimSeat(flight, future, null));
+        }
+
+        @Test
+        public void departureIsNotEvictedWhileItsLockIsHeld() throws Exception {
+                Flight flight = newFlight();
+                Date past = date("01-02-2020");
+                Lock lock = seatInventoryService.getDepartureLock(flight, past);
+                CountDownLatch locked = new CountDownLatch(1);
+                CountDownLatch claimed = new CountDownLatch(1);
+                Thread booking = new Thread(() -> {
+                        lock.lock();
+                        try {
+                                seatInventoryService.claimSeat(flight, past, "1A");
+                                locked.countDown();
+                                claimed.await();
+                        } catch (InterruptedException e) {
+                                Thread.currentThread().interrupt();
+                        } finally {
+                                lock.unlock();
+                        }
+                });
+                booking.start();
+                locked.await();
+
+                seatInventoryService.evictUnused();
+                assertTrue(seatInventoryService.isSeatTaken(flight, past, "1A"));
+                claimed.countDown();
+                booking.join();
+                seatInventoryService.evictUnused();
+                assertFalse(seatInventoryService.isSeatTaken(flight, past, "1A"));
+        }
+}
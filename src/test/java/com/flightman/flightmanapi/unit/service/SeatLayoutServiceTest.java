@@ -0,0 +1,46 @@
+package com.flightman.flightmanapi.unit.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.flightman.flightmanapi.model.FlightModel;
+import com.flightman.flightmanapi.services.SeatLayoutService;
+
+@ExtendWith(SpringExtension.class)
+@ContextConfiguration(classes = { SeatLayoutService.class })
+public class SeatLayoutServiceTest {
+        @Autowired
+        private SeatLayoutService seatLayoutService;
+
+        @Test
+        public void layoutReadBeforeTheCommitIsEvictedAgain() {
+                FlightModel model = new FlightModel("MName", "123a", 8, 2, 4);
+                model.setFlightModelId(42);
+                assertEquals(8, seatLayoutService.getLayout(model).getCapacity());
+
+                TransactionSynchronizationManager.initSynchronization();
+                try {
+                        seatLayoutService.evict(42);
+                        // A concurrent reader still sees the uncommitted old geometry
+                        assertEquals(8, seatLayoutService.getLayout(model).getCapacity());
+                        model.setSeatCapacity(12);
+                        model.setSeatRowCount(3);
+
+                        for (TransactionSynchronization synchronization : TransactionSynchronizationManager
+                                        .getSynchronizations()) {
+                                synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+                        }
+                } finally {
+                        TransactionSynchronizationManager.clearSynchronization();
+                }
+
+                assertEquals(12, seatLayoutService.getLayout(model).getCapacity());
+        }
+}
@@ -0,0 +1,80 @@
+package com.flightman.flightmanapi.unit.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import com.flightman.flightmanapi.model.User;
+import com.flightman.flightmanapi.model.UserCacheStats;
+import com.flightman.flightmanapi.repositories.UserRepository;
+import com.flightman.flightmanapi.services.UserCache;
+
+@ExtendWith(SpringExtension.class)
+@ContextConfiguration(classes = { UserCache.class })
+public class UserCacheTest {
+        @MockBean
+        private UserRepository userRepository;
+
+        @Autowired
+        private UserCache userCache;
+
+        private UUID userId = UUID.randomUUID();
+
+        private User user = new User("FN", "LN", "123456789", "r@domain.com", "passportNumber", "Address", 1, 0);
+
+        @BeforeEach
+        public void setUp() {
+                userCache.evictAll();
+                user.setUserId(userId);
+                when(userRepository.findByUserId(userId)).thenReturn(user);
+                when(userRepository.findByEmail("r@domain.com")).thenReturn(user);
+        }
+
+        @Test
+        public void repeatedLookupsReadTheDatabaseOnce() {
+                UserCacheStats before = userCache.getStats();
+                assertSame(user, userCache.findById(userId));
+                assertSame(user, userCache.findById(userId));
+                assertSame(user, userCache.findByEmail("r@domain.com"));
+                verify(userRepository).findByUserId(userId);
+                verify(userRepository, never()).findByEmail("r@domain.com");
+
+                UserCacheStats after = userCache.getStats();
+                assertEquals(1, after.getMissCount() - before.getMissCount());
+                assertEquals(2, after.getHitCount() - before.getHitCount());
+        }
+
+        @Test
+        public void evictedUsersAreReadAgain() {
+                userCache.findByEmail("r@domain.com");
+                userCache.evict(userId);
+                userCache.findById(userId);
+                verify(userRepository).findByUserId(userId);
+
+                userCache.evictByEmail("r@domain.com");
+                userCache.findByEmail("r@domain.com");
+                verify(userRepository, times(2)).findByEmail("r@domain.com");
+        }
+
+        @Test
+        public void unknownUsersAreNotCached() {
+                UUID unknown = UUID.randomUUID();
+                assertNull(userCache.findById(unknown));
+                assertNull(userCache.findById(unknown));
+                verify(userRepository, times(2)).findByUserId(unknown);
+        }
+}
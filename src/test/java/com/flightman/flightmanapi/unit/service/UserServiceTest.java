@@ -18,14 +18,23 @@ import org.springframework.test.context.junit.jupiter.SpringExtension;
 
 import com.flightman.flightmanapi.model.User;
 import com.flightman.flightmanapi.repositories.UserRepository;
+import com.flightman.flightmanapi.services.RewardsLedgerService;
+import com.flightman.flightmanapi.services.RewardsReconciliationService;
+import com.flightman.flightmanapi.services.UserCache;
 import com.flightman.flightmanapi.services.UserService;
 
 @ExtendWith(SpringExtension.class)
-@ContextConfiguration(classes = { UserService.class, UserRepository.class })
+@ContextConfiguration(classes = { UserService.class, UserRepository.class, UserCache.class })
 public class UserServiceTest {
         @MockBean
         private UserRepository userRepository;
 
+        @MockBean
+        private RewardsLedgerService rewardsLedgerService;
+
+        @MockBean
+        private RewardsReconciliationService rewardsReconciliationService;
+
         @Autowired
         @InjectMocks
         private UserService userService;
@@ -0,0 +1,33 @@
+package com.flightman.flightmanapi.unit.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+import com.flightman.flightmanapi.utils.UuidV7Generator;
+
+public class UuidV7GeneratorTest {
+
+        @Test
+        public void idsAreTimeOrderedVersion7() {
+                long before = System.currentTimeMillis();
+                UUID previous = UuidV7Generator.next();
+                Set<Long> randomBits = new HashSet<>();
+                for (int i = 0; i < 10_000; i++) {
+                        UUID id = UuidV7Generator.next();
+                        assertEquals(7, id.version());
+                        assertEquals(2, id.variant());
+                        assertTrue(Long.compareUnsigned(previous.getMostSignificantBits(),
+                                        id.getMostSignificantBits()) < 0);
+                        randomBits.add(id.getLeastSignificantBits() & 0x3FFFFFFFFFFFFFFFL);
+                        previous = id;
+                }
+                assertTrue(previous.getMostSignificantBits() >>> 16 >= before);
+                assertEquals(10_000, randomBits.size());
+        }
+}